@@ -0,0 +1,54 @@
+package com.revature.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.revature.util.ConnectionUtil;
+
+/*
+ * The benchmarks' database: the in-memory H2 database that app.properties
+ * points ConnectionUtil at, with the tables the DAOs use.
+ */
+public class BenchDatabase {
+
+	private static boolean created = false;
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private BenchDatabase() {
+		super();
+	}
+
+	// Create the tables (once), and fill ACCOUNTS with count Open Accounts of balance cents each
+	public static synchronized void reset(int count, long balance) throws SQLException {
+		try (Connection conn = ConnectionUtil.getConnection(); Statement stmt = conn.createStatement()) {
+			conn.setAutoCommit(true);
+			if(!created) {
+				stmt.execute("CREATE TABLE ROLES (id INT PRIMARY KEY, role VARCHAR(20) NOT NULL)");
+				stmt.execute("CREATE TABLE ACCOUNT_STATUS (id INT PRIMARY KEY, status VARCHAR(20) NOT NULL)");
+				stmt.execute("CREATE TABLE ACCOUNT_TYPE (id INT PRIMARY KEY, type VARCHAR(20) NOT NULL)");
+				stmt.execute("CREATE TABLE ACCOUNTS (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+						+ " balance NUMBER(15,2) NOT NULL, status_id INT NOT NULL, type_id INT NOT NULL)");
+				stmt.execute("INSERT INTO ROLES VALUES (1, 'Admin'), (2, 'Employee'), (3, 'Standard'), (4, 'Premium')");
+				stmt.execute("INSERT INTO ACCOUNT_STATUS VALUES (1, 'Pending'), (2, 'Open'), (3, 'Closed'), (4, 'Denied')");
+				stmt.execute("INSERT INTO ACCOUNT_TYPE VALUES (1, 'Checking'), (2, 'Savings')");
+				created = true;
+			}
+			stmt.execute("DELETE FROM ACCOUNTS");
+			conn.setAutoCommit(false);
+			try (PreparedStatement insert = conn.prepareStatement(
+					"INSERT INTO ACCOUNTS (id, balance, status_id, type_id) VALUES (?, ?, 2, ?)")) {
+				for(int id = 1; id <= count; id++) {
+					insert.setInt(1, id);
+					insert.setBigDecimal(2, BigDecimal.valueOf(balance, 2));
+					insert.setInt(3, 1 + id % 2);
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+			conn.commit();
+		}
+	}
+}
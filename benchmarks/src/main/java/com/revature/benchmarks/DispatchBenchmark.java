@@ -0,0 +1,121 @@
+package com.revature.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.revature.web.RouteTable;
+
+/*
+ * Finding the endpoint (and its id) for a mix of GET requests: the
+ * RouteTable against the old dispatch - replace(), replaceFirst(), split("/"),
+ * then switch on the pieces and Integer.parseInt the id (as doGet used to).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+	private static final String[] PATHS = { "/users", "/users/42", "/accounts", "/accounts/1234",
+			"/accounts/status/2", "/accounts/type/1", "/accounts/owner/42" };
+
+	private final HttpServletRequest[] requests = new HttpServletRequest[PATHS.length];
+	private final RouteTable routes = new RouteTable();
+
+	public DispatchBenchmark() {
+		for(int i = 0; i < PATHS.length; i++) {
+			requests[i] = get("/rocp-project" + PATHS[i]);
+		}
+		// (the same GET routes as FrontController; the endpoints are never called)
+		RouteTable.Endpoint none = (req, res, params) -> { };
+		routes.add("GET", "/users", none);
+		routes.add("GET", "/users/:id", none);
+		routes.add("GET", "/accounts", none);
+		routes.add("GET", "/accounts/:id", none);
+		routes.add("GET", "/accounts/status/:statusId", none);
+		routes.add("GET", "/accounts/type/:typeId", none);
+		routes.add("GET", "/accounts/owner/:userId", none);
+	}
+
+	@Benchmark
+	public void routeTable(Blackhole bh) {
+		for(HttpServletRequest req : requests) {
+			bh.consume(routes.find(req));
+		}
+	}
+
+	@Benchmark
+	public void splitAndSwitch(Blackhole bh) {
+		for(HttpServletRequest req : requests) {
+			final String URI = req.getRequestURI().replace("/rocp-project", "").replaceFirst("/", "");
+			String[] portions = URI.split("/");
+			int endpoint = 0;
+			int id = -1;
+			switch(portions[0]) {
+			case "users":
+				if(portions.length == 2) {
+					id = Integer.parseInt(portions[1]);
+					endpoint = 2;
+				} else {
+					endpoint = 1;
+				}
+				break;
+			case "accounts":
+				if(portions.length == 2) {
+					id = Integer.parseInt(portions[1]);
+					endpoint = 4;
+				} else if(portions.length == 1) {
+					endpoint = 3;
+				} else {
+					switch(portions[1]) {
+					case "status":
+						endpoint = 5;
+						break;
+					case "type":
+						endpoint = 6;
+						break;
+					case "owner":
+						endpoint = 7;
+						break;
+					}
+					id = Integer.parseInt(portions[2]);
+				}
+				break;
+			}
+			bh.consume(endpoint);
+			bh.consume(id);
+		}
+	}
+
+	// a request that only has a method, URI and context path
+	private static HttpServletRequest get(String uri) {
+		return (HttpServletRequest) Proxy.newProxyInstance(DispatchBenchmark.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class }, (proxy, m, args) -> {
+					switch(m.getName()) {
+					case "getMethod":
+						return "GET";
+					case "getContextPath":
+						return "/rocp-project";
+					case "getRequestURI":
+						return uri;
+					default:
+						throw new UnsupportedOperationException(m.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,99 @@
+package com.revature.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.revature.models.Account;
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.models.Role;
+import com.revature.models.User;
+import com.revature.web.ModelJsonModule;
+
+/*
+ * Writing/reading Users and Accounts with the hand-written
+ * serializers (ModelJsonModule) against stock databind (bean introspection).
+ * Run with "-prof gc" for the allocation rate (gc.alloc.rate.norm: bytes per op).
+ *
+ * (Stock databind writes an Account's balance as whole cents - the JSON is a
+ * few bytes shorter, so it is, if anything, flattered here.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+	private final ObjectMapper module = new ObjectMapper().registerModule(new ModelJsonModule());
+	private final ObjectMapper stock = new ObjectMapper();
+
+	private final User user = new User(3, "jdoe", "secret", "Jane", "Doe", "jdoe@example.com", new Role(3, "Standard"));
+	private final List<Account> accounts = new ArrayList<>();
+
+	private final ObjectWriter moduleUser = module.writerFor(User.class);
+	private final ObjectWriter stockUser = stock.writerFor(User.class);
+	private final ObjectWriter moduleAccounts = module.writerFor(new TypeReference<List<Account>>() { });
+	private final ObjectWriter stockAccounts = stock.writerFor(new TypeReference<List<Account>>() { });
+	private final ObjectReader moduleUserReader = module.readerFor(User.class);
+	private final ObjectReader stockUserReader = stock.readerFor(User.class);
+	private final byte[] userJson;
+
+	public JsonBenchmark() {
+		AccountStatus open = new AccountStatus(2, "Open");
+		for(int id = 1; id <= 50; id++) {
+			accounts.add(new Account(id, 1000L * id + 7, open, new AccountType(1 + id % 2, id % 2 == 0 ? "Checking" : "Savings")));
+		}
+		try {
+			userJson = stock.writeValueAsBytes(user);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Benchmark
+	public byte[] writeUserModule() throws Exception {
+		return moduleUser.writeValueAsBytes(user);
+	}
+
+	@Benchmark
+	public byte[] writeUserStock() throws Exception {
+		return stockUser.writeValueAsBytes(user);
+	}
+
+	@Benchmark
+	public byte[] write50AccountsModule() throws Exception {
+		return moduleAccounts.writeValueAsBytes(accounts);
+	}
+
+	@Benchmark
+	public byte[] write50AccountsStock() throws Exception {
+		return stockAccounts.writeValueAsBytes(accounts);
+	}
+
+	@Benchmark
+	public User readUserModule() throws Exception {
+		return moduleUserReader.readValue(userJson);
+	}
+
+	@Benchmark
+	public User readUserStock() throws Exception {
+		return stockUserReader.readValue(userJson);
+	}
+}
@@ -0,0 +1,112 @@
+package com.revature.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.authorization.Decision;
+import com.revature.authorization.Policy;
+import com.revature.dao.LookupRegistry;
+import com.revature.exceptions.AuthorizationException;
+import com.revature.exceptions.NotLoggedInException;
+import com.revature.exceptions.RoleNotAllowedException;
+import com.revature.models.Role;
+import com.revature.models.User;
+
+/*
+ * The per-request authorization cost of "Employee or Admin, or
+ * your own id": a Policy check (role bitmask, Decision returned) against the
+ * old AuthService.guard (String compares, and an exception to say no - twice,
+ * on the "your own id" path).
+ *
+ *		who = admin		allowed by role
+ *		who = self		a Standard User, allowed because it is their own id
+ *		who = other		a Standard User, denied
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyBenchmark {
+
+	private static final String[] ROLES = { "Employee", "Admin" };
+
+	@Param({ "admin", "self", "other" })
+	public String who;
+
+	private Policy policy;
+	private User user;
+	private int resourceId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		BenchDatabase.reset(0, 0);
+		LookupRegistry.refresh();
+		policy = Policy.of(ROLES).orIf(Policy.SELF);
+		user = ("admin".equals(who)
+				? new User(1, "admin", "pw", "A", "Admin", "admin@example.com", new Role(1, "Admin"))
+				: new User(5, "jdoe", "pw", "Jane", "Doe", "jdoe@example.com", new Role(3, "Standard")));
+		resourceId = ("other".equals(who) ? 6 : 5);
+	}
+
+	@Benchmark
+	public Decision policy() {
+		return policy.check(user, resourceId);
+	}
+
+	@Benchmark
+	public Decision guard() {
+		try {
+			guard(user, resourceId, ROLES);
+			return Decision.ALLOW;
+		} catch (NotLoggedInException e) {
+			return Decision.NOT_LOGGED_IN;
+		} catch (AuthorizationException e) {
+			return Decision.DENY;
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+	// the old AuthService.guard pair (minus the session lookup)
+
+	private static void guard(User currentUser, String...roles) {
+		if(currentUser == null) {
+			throw new NotLoggedInException();
+		}
+		boolean found = false;
+		String role = currentUser.getRole().getRole();
+		for(String allowedRole : roles) {
+			if(allowedRole.equals(role)) {
+				found = true;
+				break;
+			}
+		}
+		if(!found) {
+			throw new RoleNotAllowedException();
+		}
+	}
+
+	private static void guard(User currentUser, int id, String...roles) {
+		try {
+			guard(currentUser, roles);
+		} catch(RoleNotAllowedException e) {
+			if(id != currentUser.getUserId()) {
+				throw e;
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.revature.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.AccountRowMapper;
+import com.revature.dao.LookupRegistry;
+import com.revature.dao.RowMapper;
+import com.revature.models.Account;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.Money;
+
+/*
+ * Mapping a whole ACCOUNTS result set: the RowMapper (column
+ * positions resolved once per query, then every row read by index) against
+ * the old way - every column of every row read by name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+	private static final String SQL = "SELECT id, balance, status_id, type_id FROM ACCOUNTS";
+
+	@Param({ "1000", "10000" })
+	public int rows;
+
+	private final RowMapper<Account> mapper = new AccountRowMapper();
+	private Connection conn;
+	private PreparedStatement stmt;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		BenchDatabase.reset(rows, 10000);
+		LookupRegistry.refresh();
+		conn = ConnectionUtil.getConnection();
+		stmt = conn.prepareStatement(SQL);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		stmt.close();
+		conn.close();
+	}
+
+	@Benchmark
+	public List<Account> byPosition() throws SQLException {
+		try (ResultSet rs = stmt.executeQuery()) {
+			return mapper.mapAll(SQL, rs);
+		}
+	}
+
+	@Benchmark
+	public List<Account> byName() throws SQLException {
+		try (ResultSet rs = stmt.executeQuery()) {
+			List<Account> accts = new ArrayList<>();
+			while(rs.next()) {
+				accts.add(new Account(rs.getInt("id"), Money.ofDecimal(rs.getBigDecimal("balance")),
+						LookupRegistry.status(rs.getInt("status_id")), LookupRegistry.type(rs.getInt("type_id"))));
+			}
+			return accts;
+		}
+	}
+}
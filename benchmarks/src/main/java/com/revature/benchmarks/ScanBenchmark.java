@@ -0,0 +1,97 @@
+package com.revature.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.models.Account;
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.util.AccountBook;
+import com.revature.util.BookStats;
+
+/*
+ * "How many Open Savings Accounts, and their total balance?": a
+ * scan of the AccountBook's off-heap columns (AccountBook.summarize), a walk
+ * over them with its ONE flyweight cursor (AccountBook.forEach - sequential,
+ * in id order), and the same loop over a List<Account> - one object graph
+ * per Account, as findAll() would give.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScanBenchmark {
+
+	private static final int OPEN = 2;
+	private static final int SAVINGS = 2;
+
+	@Param({ "100000", "1000000" })
+	public int accounts;
+
+	private AccountBook book;
+	private List<Account> list;
+
+	@Setup
+	public void setUp() {
+		AccountStatus[] statuses = { new AccountStatus(1, "Pending"), new AccountStatus(2, "Open"),
+				new AccountStatus(3, "Closed"), new AccountStatus(4, "Denied") };
+		AccountType[] types = { new AccountType(1, "Checking"), new AccountType(2, "Savings") };
+
+		Random random = new Random(42);
+		book = new AccountBook(accounts, 0);
+		list = new ArrayList<>(accounts);
+		for(int id = 1; id <= accounts; id++) {
+			long balance = random.nextInt(10_000_000);
+			AccountStatus status = statuses[random.nextInt(4)];
+			AccountType type = types[random.nextInt(2)];
+			book.put(id, balance, status.getStatusId(), type.getTypeId());
+			list.add(new Account(id, balance, status, type));
+		}
+	}
+
+	@Benchmark
+	public BookStats columns() {
+		return book.summarize((id, balance, statusId, typeId) -> statusId == OPEN && typeId == SAVINGS);
+	}
+
+	@Benchmark
+	public long[] cursor() {
+		long[] result = new long[2];	// count, total
+		book.forEach(a -> {
+			if(a.getStatusId() == OPEN && a.getTypeId() == SAVINGS) {
+				result[0]++;
+				result[1] += a.getBalance();
+			}
+		});
+		return result;
+	}
+
+	@Benchmark
+	public long[] objects() {
+		long count = 0;
+		long total = 0;
+		for(Account a : list) {
+			if(a.getStatus().getStatusId() == OPEN && a.getType().getTypeId() == SAVINGS) {
+				count++;
+				total += a.getBalance();
+			}
+		}
+		return new long[] { count, total };
+	}
+}
@@ -0,0 +1,106 @@
+package com.revature.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.util.AccountBook;
+import com.revature.util.JournalReader;
+import com.revature.util.JournalRecord;
+import com.revature.util.TransactionJournal;
+
+/*
+ * The warm start of the account book (see AccountBookService.warmStart):
+ * load a snapshot of `accounts` Accounts, then replay the `records` journal
+ * records written after it. (Reconciling the touched Accounts with the
+ * database is left out - that depends on the database, not the book.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartupBenchmark {
+
+	@Param({ "100000", "1000000" })
+	public int accounts;
+
+	@Param({ "0", "100000" })
+	public int records;
+
+	private Path dir;
+	private Path snapshot;
+	private TransactionJournal journal;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("rocp-startup");
+		snapshot = dir.resolve("accounts.snapshot");
+		journal = new TransactionJournal(dir.resolve("journal"), 8 * 1024 * 1024, 1000);
+
+		// a snapshot taken BEFORE the records below...
+		AccountBook book = new AccountBook(accounts, journal.getLastSequence());
+		for(int id = 1; id <= accounts; id++) {
+			book.put(id, 100000, 2, 1 + id % 2);
+		}
+		book.writeSnapshot(snapshot);
+
+		// ...so all of them have to be replayed
+		Random random = new Random(42);
+		for(int i = 0; i < records; i++) {
+			int from = 1 + random.nextInt(accounts);
+			switch(i % 3) {
+			case 0:
+				journal.append(JournalRecord.DEPOSIT, from, 0, 0, 0, 1 + random.nextInt(10000));
+				break;
+			case 1:
+				journal.append(JournalRecord.WITHDRAW, from, 0, 0, 0, 1 + random.nextInt(100));
+				break;
+			default:
+				journal.append(JournalRecord.TRANSFER, from, 1 + random.nextInt(accounts), 0, 0, 1 + random.nextInt(100));
+				break;
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		journal.close();
+		try (Stream<Path> files = Files.list(dir)) {
+			for(Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(dir);
+	}
+
+	@Benchmark
+	public AccountBook loadAndReplay() throws IOException {
+		AccountBook book = AccountBook.loadSnapshot(snapshot);
+		try (JournalReader reader = journal.readAfter(book.getLastSequence())) {
+			JournalRecord r;
+			while((r = reader.next()) != null) {
+				book.apply(r);
+			}
+		}
+		return book;
+	}
+}
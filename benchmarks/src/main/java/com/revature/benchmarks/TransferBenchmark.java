@@ -0,0 +1,78 @@
+package com.revature.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.BeforeCommit;
+import com.revature.dao.LookupRegistry;
+import com.revature.dao.TransferResult;
+import com.revature.services.AccountBookService;
+import com.revature.services.AccountService;
+
+/*
+ * Transfers per second from 4 threads, between random pairs of
+ * `accounts` Accounts - 2 Accounts is the worst case: every transfer fights
+ * over the same two row locks, half of them in the opposite direction.
+ *
+ * transfer() is the DAO alone; transferJournaled() goes through AccountService
+ * with the TransactionJournal ON (in its own JVM - the journal is opened once,
+ * at class load): appended inside the transaction, then applied to the
+ * AccountBook and waited for (group commit) once the row locks are let go.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TransferBenchmark {
+
+	@Param({ "2", "1000" })
+	public int accounts;
+
+	private final AccountDAO dao = new AccountDAO();
+	private final AccountService service = new AccountService();
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		BenchDatabase.reset(accounts, 100000000);	// ($1,000,000 each - nobody runs out)
+		LookupRegistry.refresh();
+		AccountBookService.warmStart();
+	}
+
+	@Benchmark
+	public TransferResult transfer() {
+		int from = 1 + ThreadLocalRandom.current().nextInt(accounts);
+		return dao.transfer(from, other(from), 1, BeforeCommit.NOTHING);
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Drocp.journal.enabled=true")
+	public TransferResult transferJournaled() {
+		int from = 1 + ThreadLocalRandom.current().nextInt(accounts);
+		return service.transfer(from, other(from), 1);
+	}
+
+	// A random Account other than this one
+	private int other(int accountId) {
+		int to = 1 + ThreadLocalRandom.current().nextInt(accounts - 1);
+		return (to >= accountId ? to + 1 : to);
+	}
+}
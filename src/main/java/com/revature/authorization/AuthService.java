@@ -1,56 +1,52 @@
 package com.revature.authorization;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
-import com.revature.exceptions.NotLoggedInException;
-import com.revature.exceptions.RoleNotAllowedException;
 import com.revature.models.User;
 
+/*
+ * Who is logged in - and may they do this?
+ *
+ * The logged-in User comes from the request's session (as set at login), or -
+ * depending on rocp.auth.mode - from a signed token sent back in the request's
+ * "Authorization: Bearer ..." header (see TokenService):
+ *		session (default)	sessions only
+ *		token				tokens only (no server-side state: any server can check them)
+ *		both				either (e.g. while clients move over to tokens)
+ *
+ * Endpoints check a Policy (built once, at startup) with check(), which returns
+ * a Decision (rather than throwing an exception to say no).
+ */
 public class AuthService {
 
-	// varargs; = an array of Strings
-	public static void guard(HttpSession session, String...roles) {
-		// Copied from UserController's findUserById method; then edited
-		User currentUser = (session == null ?  null : (User) session.getAttribute("currentUser"));
-		// first S/N/B possible w/o 2nd (being logged in) - BUT someone might have broken into the HTTP request and created a fake session
-		// (i.e., a fake cookie on their system that our app will see as an existing session) -- e.g., could do this in Postman
-		// 2nd -> OK, so there's a session for this user - but is logged in?
-		if(session == null || currentUser == null) {
-			throw new NotLoggedInException();
-		}
-		
-		boolean found = false;
-		//Role role = currentUser.getRole();		// B.G.:  a Role *object*
-		// refactored to the below, so not calling getRole() *twice*
-			// first getRole() gets the entire Role *object* from User;
-			// second getRole() gets the role instance variable from Role (object)
-		// create *local* variable (also) named role
-		String role = currentUser.getRole().getRole();	// get role instance variable from User currentUser = Role object; get latter's role from that 
-		// specs for Endpoint "Find Users By Id":
-		//     Allowed Roles:  Employee or Admin or if the id provided matches the id of the current user
-		// if role is not Employee or Admin, check if id for which checking is their OWN id (i.e., current user's id)
-		for(String allowedRole : roles) {
-			if(allowedRole.equals(role)) {
-				found = true;
-				break;
+	// The logged-in User for this request; null if not logged in
+	public static User currentUser(HttpServletRequest req) {
+		if(TokenService.tokensEnabled()) {
+			String authorization = req.getHeader("Authorization");
+			if(authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+				User u = TokenService.verify(authorization.substring(7).trim());
+				if(u != null || !TokenService.sessionsEnabled()) {
+					return u;
+				}
 			}
 		}
+		return (TokenService.sessionsEnabled() ? userIn(req.getSession(false)) : null);
+	}
 
-		// *Are* logged in; just didn't have the proper permissions
-		if(!found) {
-			throw new RoleNotAllowedException();
-		}
+	// May the current User use a resource (id) that the policy protects?
+	public static Decision check(HttpServletRequest req, Policy policy, int resourceId) {
+		return policy.check(currentUser(req), resourceId);
 	}
-	
-	// this guard method leverages the above guard method - when RoleNotAllowedException is thrown
-	public static void guard(HttpSession session, int id, String...roles) {
-		try {
-			guard(session, roles);
-		} catch(RoleNotAllowedException e) {
-			User current = (User) session.getAttribute("currentUser");
-			if(id != current.getUserId()) {
-				throw e;
-			}
-		}
+
+	// (for a policy with no ownership rule)
+	public static Decision check(HttpServletRequest req, Policy policy) {
+		return policy.check(currentUser(req), 0);
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private static User userIn(HttpSession session) {
+		return (session == null ?  null : (User) session.getAttribute("currentUser"));
 	}
 }
@@ -0,0 +1,8 @@
+package com.revature.authorization;
+
+// The outcome of checking a Policy (see AuthService.check)
+public enum Decision {
+	ALLOW,
+	NOT_LOGGED_IN,
+	DENY
+}
@@ -0,0 +1,121 @@
+package com.revature.authorization;
+
+import com.revature.dao.LookupRegistry;
+import com.revature.models.Role;
+import com.revature.models.User;
+import com.revature.services.AccountService;
+
+/*
+ * Who may use an endpoint: a set of roles, optionally "... or if the resource
+ * is the current User's own" (an ownership Rule). Built once, at startup, e.g.
+ *		Policy.of("Employee", "Admin").orIf(Policy.SELF)
+ *
+ * The role names are turned into a bitmask (one bit per ROLES id), so checking
+ * a request's role is one AND rather than a loop of String compares; and
+ * check() RETURNS its Decision, rather than throwing an exception to say no.
+ *
+ * The mask is built from the ROLES lookup table - so it is rebuilt whenever that
+ * is reloaded (see LookupRegistry.version()), and on every check until it has
+ * loaded at all: if the database was down at startup, the roles start working
+ * as soon as the lookup tables load, rather than every role being locked out.
+ */
+public class Policy {
+
+	// "... or if the resource (id) belongs to the current User"
+	@FunctionalInterface
+	public interface Rule {
+		boolean test(User current, int resourceId);
+	}
+
+	private static final AccountService accountService = new AccountService();
+
+	// the resource IS the current User (e.g. GET /users/:id for your own id)
+	public static final Rule SELF = (current, userId) -> current.getUserId() == userId;
+	// the resource is one of the current User's Accounts (only this one reads the database)
+	public static final Rule ACCOUNT_OWNER = (current, accountId) -> accountService.isOwner(current.getUserId(), accountId);
+	// any logged-in User (e.g. POST /accounts - the new Account will be the submitter's own)
+	public static final Rule ANY_USER = (current, resourceId) -> true;
+
+	// A role bitmask, and the LookupRegistry version it was built from (one object, so they always match)
+	private static class RoleMask {
+		final int bits;
+		final int version;
+
+		RoleMask(int bits, int version) {
+			this.bits = bits;
+			this.version = version;
+		}
+	}
+
+	private final String[] roles;
+	private final Rule rule;	// null = roles only
+	private volatile RoleMask roleMask = new RoleMask(0, 0);
+
+	private Policy(String[] roles, Rule rule) {
+		super();
+		this.roles = roles;
+		this.rule = rule;
+	}
+
+	// Allowed roles, by ROLES name (looked up in LookupRegistry)
+	public static Policy of(String...roles) {
+		Policy policy = new Policy(roles.clone(), null);
+		policy.roleMask();	// (built now, so a misspelt role name shows up at startup)
+		return policy;
+	}
+
+	// ... or if the rule says the resource is the current User's
+	public Policy orIf(Rule rule) {
+		return new Policy(roles, rule);
+	}
+
+	// null current = not logged in
+	public Decision check(User current, int resourceId) {
+		if(current == null) {
+			return Decision.NOT_LOGGED_IN;
+		}
+		Role role = current.getRole();
+		if(role != null && (roleMask() & bit(role.getRoleId())) != 0) {
+			return Decision.ALLOW;
+		}
+		if(rule != null && rule.test(current, resourceId)) {
+			return Decision.ALLOW;
+		}
+		return Decision.DENY;
+	}
+
+	// the mask for the lookup tables as they are now - rebuilt if they have been reloaded since
+	private int roleMask() {
+		int version = LookupRegistry.version();
+		RoleMask mask = roleMask;
+		if(version == 0 || mask.version != version) {
+			mask = new RoleMask(compile(version != 0), version);
+			roleMask = mask;	// (two threads may both build it - they build the same thing)
+		}
+		return mask.bits;
+	}
+
+	private int compile(boolean complain) {
+		int mask = 0;
+		for(String name : roles) {
+			Role role = LookupRegistry.roleNamed(name);	// (tries to load the tables, if they aren't yet)
+			if(role == null) {
+				if(complain) {
+					System.out.println("Policy: there is no role named " + name + "; ignoring it");
+				}
+			} else if(bit(role.getRoleId()) == 0) {
+				System.out.println("Policy: role " + name + "'s id doesn't fit in the mask; ignoring it");
+			} else {
+				mask |= bit(role.getRoleId());
+			}
+		}
+		return mask;
+	}
+
+	private static int bit(int roleId) {
+		if(roleId < 0 || roleId > 31) {
+			return 0;	// (only role ids 0-31 fit in the mask)
+		}
+		return 1 << roleId;
+	}
+}
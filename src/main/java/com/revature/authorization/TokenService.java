@@ -0,0 +1,183 @@
+package com.revature.authorization;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.models.Role;
+import com.revature.models.User;
+import com.revature.util.AppConfig;
+import com.revature.util.ReadThroughCache;
+
+/*
+ * Stateless login tokens: JSON Web Tokens (JWT), signed with HMAC-SHA256 (HS256).
+ *
+ * With sessions, the logged-in User lives in ONE server's memory, so every
+ * request from that client has to go back to that server (or sessions have to
+ * be replicated). A token carries the User's id, username and role itself,
+ * signed so it can't be altered - any server with the key can check it, with
+ * nothing stored server-side. (The flip side: a token stays valid until it
+ * expires - a changed role only shows up in the User's next token.)
+ *
+ * Settings (AppConfig):
+ *		rocp.auth.mode				session (default) | token | both - see AuthService
+ *		rocp.auth.keys				keyId:base64Secret,keyId:base64Secret,...
+ *		rocp.auth.signingKey		the keyId new tokens are signed with (default: the first)
+ *		rocp.auth.tokenTtlSeconds	how long a token is valid (default 900)
+ *		rocp.auth.verifyCacheMillis	how long a verified token is remembered (default 30000)
+ *
+ * Key rotation: add the new key to rocp.auth.keys and make it the signingKey;
+ * keep the old one listed (tokens name their key in the "kid" header) until
+ * the tokens signed with it have expired, then remove it. If no keys are set,
+ * a random key is generated at startup - fine for ONE server, but tokens then
+ * don't survive a restart, and other servers can't verify them.
+ */
+public class TokenService {
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+	private static final ObjectMapper om = new ObjectMapper();
+
+	private static final String MODE = AppConfig.getString("rocp.auth.mode", "session");
+	private static final long TTL_SECONDS = AppConfig.getLong("rocp.auth.tokenTtlSeconds", 900);
+
+	private static final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+	private static final String signingKeyId;
+	static {
+		String configured = AppConfig.getString("rocp.auth.keys", "");
+		for(String entry : configured.split(",")) {
+			int colon = entry.indexOf(':');
+			if(colon > 0) {
+				byte[] secret = Base64.getDecoder().decode(entry.substring(colon + 1).trim());
+				keys.put(entry.substring(0, colon).trim(), new SecretKeySpec(secret, ALGORITHM));
+			}
+		}
+		if(keys.isEmpty()) {
+			byte[] secret = new byte[32];
+			new SecureRandom().nextBytes(secret);
+			keys.put("local", new SecretKeySpec(secret, ALGORITHM));
+			if(tokensEnabled()) {
+				System.out.println("rocp.auth.keys is not set: signing tokens with a random key "
+						+ "(tokens won't survive a restart, or work on other servers)");
+			}
+		}
+		signingKeyId = AppConfig.getString("rocp.auth.signingKey", keys.keySet().iterator().next());
+		if(!keys.containsKey(signingKeyId)) {
+			throw new IllegalStateException("rocp.auth.signingKey " + signingKeyId + " is not in rocp.auth.keys");
+		}
+	}
+
+	// A token whose signature has been checked - kept briefly, so the next request
+	// with the same token is just a lookup (the expiry is still checked every time)
+	private static class VerifiedToken {
+		final User user;
+		final long expiresAtMillis;
+
+		VerifiedToken(User user, long expiresAtMillis) {
+			this.user = user;
+			this.expiresAtMillis = expiresAtMillis;
+		}
+	}
+
+	private static final ReadThroughCache<String, VerifiedToken> verified = new ReadThroughCache<>("verifiedTokens",
+			AppConfig.getInt("rocp.auth.verifyCacheSize", 10000), AppConfig.getLong("rocp.auth.verifyCacheMillis", 30000));
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private TokenService() {
+		super();
+	}
+
+	public static boolean tokensEnabled() {
+		return MODE.equals("token") || MODE.equals("both");
+	}
+
+	public static boolean sessionsEnabled() {
+		return !MODE.equals("token");
+	}
+
+	// A signed token for the (just logged in) User
+	public static String issue(User u) {
+		long now = System.currentTimeMillis() / 1000;
+		Map<String, Object> header = new LinkedHashMap<>();
+		header.put("alg", "HS256");
+		header.put("typ", "JWT");
+		header.put("kid", signingKeyId);
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("sub", String.valueOf(u.getUserId()));
+		claims.put("username", u.getUsername());
+		claims.put("roleId", (u.getRole() == null ? 0 : u.getRole().getRoleId()));
+		claims.put("role", (u.getRole() == null ? null : u.getRole().getRole()));
+		claims.put("iat", now);
+		claims.put("exp", now + TTL_SECONDS);
+		try {
+			String signingInput = ENCODER.encodeToString(om.writeValueAsBytes(header)) + "."
+					+ ENCODER.encodeToString(om.writeValueAsBytes(claims));
+			return signingInput + "." + ENCODER.encodeToString(sign(keys.get(signingKeyId), signingInput));
+		} catch (IOException | GeneralSecurityException e) {
+			throw new IllegalStateException("Could not sign the token", e);
+		}
+	}
+
+	/*
+	 * The User a token was issued to (id, username and role only), or null if
+	 * it isn't a valid, unexpired token signed with one of our keys.
+	 */
+	public static User verify(String token) {
+		if(token == null || token.isEmpty()) {
+			return null;
+		}
+		VerifiedToken v = verified.get(token, TokenService::check);
+		return (v != null && v.expiresAtMillis > System.currentTimeMillis() ? v.user : null);
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	// The full check - only on a verification-cache miss
+	private static VerifiedToken check(String token) {
+		int dot1 = token.indexOf('.');
+		int dot2 = token.lastIndexOf('.');
+		if(dot1 <= 0 || dot2 == dot1) {
+			return null;
+		}
+		try {
+			JsonNode header = om.readTree(DECODER.decode(token.substring(0, dot1)));
+			SecretKeySpec key = keys.get(header.path("kid").asText(signingKeyId));
+			if(key == null || !"HS256".equals(header.path("alg").asText())) {
+				return null;	// (in particular, "alg": "none" is NOT accepted)
+			}
+			byte[] expected = sign(key, token.substring(0, dot2));
+			if(!MessageDigest.isEqual(expected, DECODER.decode(token.substring(dot2 + 1)))) {
+				return null;
+			}
+			JsonNode claims = om.readTree(DECODER.decode(token.substring(dot1 + 1, dot2)));
+			long expiresAtMillis = claims.path("exp").asLong() * 1000;
+			if(expiresAtMillis <= System.currentTimeMillis()) {
+				return null;
+			}
+			User u = new User();
+			u.setUserId(Integer.parseInt(claims.path("sub").asText()));
+			u.setUsername(claims.path("username").asText(null));
+			u.setRole(new Role(claims.path("roleId").asInt(), claims.path("role").asText(null)));
+			return new VerifiedToken(u, expiresAtMillis);
+		} catch (IOException | IllegalArgumentException | GeneralSecurityException e) {
+			return null;	// not a (well-formed) token
+		}
+	}
+
+	private static byte[] sign(SecretKeySpec key, String signingInput) throws GeneralSecurityException {
+		Mac mac = Mac.getInstance(ALGORITHM);
+		mac.init(key);
+		return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+	}
+}
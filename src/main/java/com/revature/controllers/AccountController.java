@@ -1,27 +1,43 @@
 package com.revature.controllers;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
+import com.revature.dao.PageRequest;
+import com.revature.dao.RowHandler;
+import com.revature.dao.TransferResult;
 import com.revature.models.Account;
-import com.revature.models.User;
 import com.revature.services.AccountService;
-import com.revature.services.UserService;
+import com.revature.templates.InterestReport;
+import com.revature.templates.PageTemplate;
 
 public class AccountController {
 
 	private final AccountService accountService = new AccountService();
 	
 	// Need at least these methods:
-	public List<User> findAllAccounts() {		// need to write the functionality
-	List<User> allAccounts = new ArrayList<>();
-		
-		return allAccounts;
+	public List<Account> findAllAccounts() {
+		return accountService.findAll();
 	}
 	
-	public int allUsersForAccount(int accountId) {
-		
-		return 0;
+	// ALL Accounts, one at a time (no List built) - returns the count, or -1 on failure
+	public int streamAllAccounts(RowHandler<Account> handler) throws IOException {
+		return accountService.streamAll(handler);
+	}
+	
+	// one page of Accounts (keyset pagination - see PageRequest)
+	public PageTemplate<Account> findAccountPage(PageRequest page) {
+		return accountService.findPage(page);
+	}
+	
+	// the ids of the Users who own the Account (from the OwnershipIndex)
+	public int[] allUsersForAccount(int accountId) {
+		return accountService.ownersOf(accountId);
+	}
+	
+	// POST /accounts -- the new Account (with its id), or null if it couldn't be created
+	public Account submitAccount(Account acct, int ownerId) {
+		return accountService.submit(acct, ownerId);
 	}
 	
 	public Account findAccountById(int accountId) {
@@ -29,5 +45,35 @@ public class AccountController {
 		return accountService.findById(accountId);
 	}
 	
+	public Long findAccountVersion(int accountId) {
+		return accountService.findVersion(accountId);
+	}
+	
+	// bulk versions (JDBC batches, one transaction)
+	public int[] insertAccounts(List<Account> accts) {
+		return accountService.insertAll(accts);
+	}
+	
+	public int updateAccounts(List<Account> accts) {
+		return accountService.updateAll(accts);
+	}
+	
+	// RPCs - return the new balance, or null if nothing was changed
+	public Long deposit(int accountId, long amount) {
+		return accountService.deposit(accountId, amount);
+	}
+	
+	public Long withdraw(int accountId, long amount) {
+		return accountService.withdraw(accountId, amount);
+	}
+	
+	public TransferResult transfer(int sourceAccountId, int targetAccountId, long amount) {
+		return accountService.transfer(sourceAccountId, targetAccountId, amount);
+	}
+	
+	public InterestReport passTime(int numOfMonths) {
+		return accountService.passTime(numOfMonths);
+	}
+	
 
 }
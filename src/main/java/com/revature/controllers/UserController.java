@@ -1,13 +1,17 @@
 package com.revature.controllers;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.servlet.http.HttpSession;
 
+import com.revature.dao.PageRequest;
+import com.revature.dao.RowHandler;
 import com.revature.exceptions.NotLoggedInException;
 import com.revature.models.Role;
 import com.revature.models.User;
 import com.revature.services.UserService;
+import com.revature.templates.PageTemplate;
 
 public class UserController {
 
@@ -53,6 +57,10 @@ public class UserController {
 		return userService.findById(id);
 		
 	}
+	
+	public Long findUserVersion(int id) {
+		return userService.findVersion(id);
+	}
 
 	public List<User> findAllUsers() {
 	// added Fri!!
@@ -82,7 +90,26 @@ public class UserController {
 		return userService.findAll();		
 	}
 	
+	// ALL Users, one at a time (no List built) - returns the count, or -1 on failure
+	public int streamAllUsers(RowHandler<User> handler) throws IOException {
+		return userService.streamAll(handler);
+	}
+	
+	// one page of Users (keyset pagination - see PageRequest)
+	public PageTemplate<User> findUserPage(PageRequest page) {
+		return userService.findPage(page);
+	}
+	
 	public int updateUser(User u) {
 		return userService.update(u);
 	}
+	
+	// bulk versions (JDBC batches, one transaction)
+	public int[] insertUsers(List<User> users) {
+		return userService.insertAll(users);
+	}
+	
+	public int updateUsers(List<User> users) {
+		return userService.updateAll(users);
+	}
 }
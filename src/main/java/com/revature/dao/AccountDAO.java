@@ -1,17 +1,26 @@
 package com.revature.dao;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.revature.models.Account;
 import com.revature.models.AccountStatus;
 import com.revature.models.AccountType;
+import com.revature.templates.PageTemplate;
+import com.revature.util.AppConfig;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.ContentHash;
+import com.revature.util.Money;
 
 /**
  * This is a class that follows the DAO Design Pattern.
@@ -31,21 +40,83 @@ import com.revature.util.ConnectionUtil;
  */
 public class AccountDAO implements IAccountDAO {
 
+	// Balances are long cents in Java (see Money) and an exact NUMBER(15,2) in the
+	// database - bound/read as BigDecimal_s, never as doubles.
+	//
+	// SQL is built ONCE, here, rather than concatenated on every call; the pooled
+	// Connection_s also cache the PreparedStatement for each of these strings
+	// (see StatementCache), so each is only parsed once per connection.
+		// (no JOINs with ACCOUNT_STATUS/ACCOUNT_TYPE - those objects come from the LookupRegistry)
+	private static final String SELECT_ALL = "SELECT id, balance, status_id, type_id FROM ACCOUNTS";
+
+	private static final String INSERT = "INSERT INTO ACCOUNTS (balance, status_id, type_id) VALUES (?, ?, ?)";
+	private static final String FIND_BY_ID = SELECT_ALL + " WHERE ACCOUNTS.id = ?";
+	private static final String FIND_VERSION = "SELECT balance, status_id, type_id FROM ACCOUNTS WHERE id = ?";
+	private static final String FIND_BY_STATUS = SELECT_ALL + " WHERE status_id = ?";
+	private static final String FIND_BY_TYPE = SELECT_ALL + " WHERE type_id = ?";
+	private static final String UPDATE = "UPDATE ACCOUNTS SET balance=?, status_id=?, type_id=? WHERE id = ?";
+	private static final String DELETE = "DELETE FROM ACCOUNTS WHERE id = ?";
+		// the balance check is part of the UPDATE itself, so check-and-change is ONE atomic step;
+		// wrapped in a PL/SQL block so RETURNING ... INTO can hand back the new balance
+		// in the same round trip (the OUT parameter stays NULL if no row matched)
+	private static final String APPLY_DELTA = "BEGIN UPDATE ACCOUNTS SET balance = balance + ?"
+											+ " WHERE id = ? AND balance + ? >= 0"
+											+ " RETURNING balance INTO ?; END;";
+		// the same single UPDATE for databases without PL/SQL (e.g. H2, which the tests run on):
+		// the SELECT reads the updated row straight back out of the UPDATE - still ONE statement
+	private static final String APPLY_DELTA_FINAL_TABLE = "SELECT balance FROM FINAL TABLE"
+											+ " (UPDATE ACCOUNTS SET balance = balance + ?"
+											+ " WHERE id = ? AND balance + ? >= 0)";
+	private static final String ID_RANGE = "SELECT MIN(id), MAX(id) FROM ACCOUNTS WHERE type_id = ?";
+		// (rounded to cents, as a deposit/withdrawal would be)
+	private static final String ACCRUE_INTEREST = "UPDATE ACCOUNTS SET balance = ROUND(balance * ?, 2)"
+												+ " WHERE type_id = ? AND id BETWEEN ? AND ?";
+	private static final String LOCK_BALANCE = "SELECT balance FROM ACCOUNTS WHERE id = ? FOR UPDATE";
+		// (in id order - the same order a transfer locks in)
+	private static final String LOCK_RANGE = SELECT_ALL + " WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+	private static final String FIND_RANGE = SELECT_ALL + " WHERE id BETWEEN ? AND ? ORDER BY id";
+	private static final String ADD_TO_BALANCE = "UPDATE ACCOUNTS SET balance = balance + ? WHERE id = ?";
+
+	// Oracle error codes worth retrying a transfer for: the database picked this
+	// transaction as a deadlock victim (ORA-00060), or couldn't serialize it (ORA-08177)
+	private static final int ORA_DEADLOCK = 60;
+	private static final int ORA_CANNOT_SERIALIZE = 8177;
+	private static final int TRANSFER_RETRIES = AppConfig.getInt("rocp.dao.transferRetries", 3);
+
+	// Keyset pagination for findPage; only these fields may be sorted on
+	// (each backed by an index on (column, id) - see KeysetPager)
+	private static final KeysetPager<Account> pager = new KeysetPager<Account>(SELECT_ALL, "ACCOUNTS.id", Account::getAccountId)
+			.sortable("balance", "ACCOUNTS.balance", KeysetPager.ColumnType.MONEY, Account::getBalance)
+			.sortable("status", "ACCOUNTS.status_id", KeysetPager.ColumnType.INT, a -> a.getStatus().getStatusId())
+			.sortable("type", "ACCOUNTS.type_id", KeysetPager.ColumnType.INT, a -> a.getType().getTypeId());
+
+	// Builds Account_s from the rows of all of the queries above (see RowMapper)
+	private static final RowMapper<Account> mapper = new AccountRowMapper();
+
+	// how many rows the driver fetches per round trip for streamAll;
+	// (the Oracle driver's default of 10 means a round trip for every 10 rows)
+	private static final int FETCH_SIZE = AppConfig.getInt("rocp.dao.fetchSize", 500);
+
+	// how many rows insertAll/updateAll send to the database per JDBC batch
+	private final int batchSize;
+
 	public AccountDAO() {
+		this(JdbcBatch.DEFAULT_BATCH_SIZE);
+	}
+
+	public AccountDAO(int batchSize) {
 		super();
+		this.batchSize = batchSize;
 	}
 
 	@Override
 	public int insert(Account acct) {
 		// Try-with-resources block
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String columns = "balance, status_id, type_id";
-			String sql = "INSERT INTO USERS (" + columns + ") VALUES (?, ?, ?)";
-			
-			PreparedStatement stmt = conn.prepareStatement(sql);
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(INSERT)) {
 			
 			// Inject values into the PreparedStatement parameters 
-			stmt.setDouble(1, acct.getBalance());
+			stmt.setBigDecimal(1, Money.toDecimal(acct.getBalance()));
 				// Account object's getStatus() returns an AccountStatus *object*,
 				// on which getStatusId() then returns its statusId (an int)
 			stmt.setInt(2, acct.getStatus().getStatusId());
@@ -53,8 +124,6 @@ public class AccountDAO implements IAccountDAO {
 				// on which getTypeId() then returns its typeId (an int)
 			stmt.setInt(3, acct.getType().getTypeId());
 			
-			//System.out.println(sql); // use for testing, if needed
-			
 			return stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
 			
 		} catch (SQLException e) {
@@ -66,91 +135,102 @@ public class AccountDAO implements IAccountDAO {
 		return 0;
 	}
 
+	@Override
+	public int[] insertAll(Collection<Account> accts, BeforeCommit beforeCommit) {
+		// Same INSERT as above, but sent in JDBC batches within ONE transaction;
+		// returns the id the database generated for each Account, in order
+		// (and sets it on the Account, before beforeCommit runs)
+		return JdbcBatch.insertAll(INSERT, "id", accts, batchSize, (stmt, acct) -> {
+			stmt.setBigDecimal(1, Money.toDecimal(acct.getBalance()));
+			stmt.setInt(2, acct.getStatus().getStatusId());
+			stmt.setInt(3, acct.getType().getTypeId());
+		}, Account::setAccountId, beforeCommit);
+	}
+
 	@Override
 	public List<Account> findAll() {
-		List<Account> allAccounts = new ArrayList<>();
-		
 		// Try-with-resources block
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String status_join = "ACCOUNT_STATUS ON ACCOUNTS.status_id = ACCOUNT_STATUS.id";
-			String type_join = "ACCOUNT_TYPE ON ACCOUNTS.type_id = ACCOUNT_TYPE.id";
-			String sql = "SELECT * FROM ACCOUNTS INNER JOIN " + status_join
-							+ " INNER JOIN " + type_join;
-						
-			// use Statement rather than PreparedStatement since no parameters are needed
-			Statement stmt = conn.createStatement();
-						
-			//System.out.println(sql); // use for testing, if needed
+			// (a PreparedStatement even though no parameters are needed, so that it is cached)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(SELECT_ALL);
+				ResultSet rs = stmt.executeQuery()) {
 			
-			ResultSet rs = stmt.executeQuery(sql);
+			// Walk/loop through the ResultSet, creating an Account (containing an
+			// AccountStatus and an AccountType object) for each row, into a List
+			return mapper.mapAll(SELECT_ALL, rs);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>(); // return an empty list if something goes wrong
+		}
+	}
+
+	@Override
+	public int streamAll(RowHandler<Account> handler) throws IOException {
+		// Same query as findAll, but each Account goes straight to the handler as its
+		// row arrives (rows come fetchSize at a time), instead of into a List
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(SELECT_ALL)) {
+			stmt.setFetchSize(FETCH_SIZE);
 			
-			// Walk/loop through the ResultSet to get the data to add Users to the List
-			while(rs.next()) {  // returns a boolean
-				// create local variables;
-					// accept the rs values (orig. from the Accounts table fields)
-				int accountId = rs.getInt("id");
-				double balance = rs.getDouble("balance");
-				int statusId = rs.getInt("status_id");
-				int typeId = rs.getInt("type_id");
-					// accept the rs values (orig. from the (non-JOIN)
-					// Account_Status and Account_Type table fields)
-				String status = rs.getString("status");
-				String type = rs.getString("type");
-				
-				// For each resultSet row, create an AccountStatus, AccountType, and Account
-				// (Account contains an AccountStatus and an AccountType object)
-				AccountStatus status_obj = new AccountStatus(statusId, status);
-				AccountType type_obj = new AccountType(typeId, type);
-				Account acct = new Account(accountId, balance, status_obj, type_obj);
-	
-				//  add the Account object to the List
-				allAccounts.add(acct);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return mapper.forEach(SELECT_ALL, rs, handler);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
-			return new ArrayList<>(); // return an empty list if something goes wrong
+			return -1;	// the read failed part-way (some rows may already have been handled)
 		}
+	}
 
-		return allAccounts;
+	@Override
+	public int streamRange(int fromId, int toId, RowHandler<Account> handler) throws IOException {
+		// Like streamAll, for the Accounts from fromId to toId only - a plain read:
+		// no locks taken, no transaction to wait for
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(FIND_RANGE)) {
+			stmt.setFetchSize(FETCH_SIZE);
+			stmt.setInt(1, fromId);
+			stmt.setInt(2, toId);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				return mapper.forEach(FIND_RANGE, rs, handler);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;	// the read failed part-way (some rows may already have been handled)
+		}
+	}
+
+	@Override
+	public PageTemplate<Account> findPage(PageRequest page) {
+		try {
+			return pager.findPage(page, mapper);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new PageTemplate<>(new ArrayList<>(), null); // return an empty page if something goes wrong
+		}
 	}
 
 	@Override
 	public Account findById(int accountId) {
-		// Try-with-resources block
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String status_join = "ACCOUNT_STATUS ON ACCOUNTS.status_id = ACCOUNT_STATUS.id";
-			String type_join = "ACCOUNT_TYPE ON ACCOUNTS.type_id = ACCOUNT_TYPE.id";
-			String sql = "SELECT * FROM ACCOUNTS INNER JOIN " + status_join
-						 + " INNER JOIN " + type_join + " WHERE ACCOUNTS.id = ?";
-			
-			PreparedStatement stmt = conn.prepareStatement(sql);
-						
-			//System.out.println(sql); // use for testing, if needed
-			
-			// Inject a value into the PreparedStatement parameter
+		return findOne(FIND_BY_ID, accountId);
+	}
+
+	@Override
+	public Long findVersion(int accountId) {
+		// Only the columns the Account's JSON shows, hashed straight from the row (see
+		// ContentHash) - no Account (or lookup objects) built just to compare an ETag
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(FIND_VERSION)) {
 			stmt.setInt(1, accountId);
 			
-			ResultSet rs = stmt.executeQuery();
-			
-			// Walk/loop through the ResultSet to get the data
-			// from which to create an Account object
-			while(rs.next()) {
-				// create local variables;
-					// accept the rs values (orig. from the Accounts table fields)
-					// (already have the accountId from this method's input parameter)
-				double balance = rs.getDouble("balance");
-				int statusId = rs.getInt("status_id");
-				int typeId = rs.getInt("type_id");
-					// accept the rs values (orig. from the (non-JOIN)
-					// Account_Status and Account_Type table fields)
-				String status = rs.getString("status");
-				String type = rs.getString("type");
-				
-				// For each resultSet row, create an AccountStatus, AccountType, and Account
-				// (Account contains an AccountStatus and an AccountType object)
-				AccountStatus status_obj = new AccountStatus(statusId, status);
-				AccountType type_obj = new AccountType(typeId, type);
-				return new Account(accountId, balance, status_obj, type_obj);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if(!rs.next()) {
+					return null;	// no such Account
+				}
+				AccountStatus status = LookupRegistry.status(rs.getInt(2));
+				AccountType type = LookupRegistry.type(rs.getInt(3));
+				return ContentHash.ofAccount(accountId, Money.ofDecimal(rs.getBigDecimal(1)),
+						(status == null ? -1 : status.getStatusId()), (type == null ? -1 : type.getTypeId()));
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -161,134 +241,313 @@ public class AccountDAO implements IAccountDAO {
 
 	@Override
 	public Account findByStatus(int statusId) {
-		// Try-with-resources block
+		return findOne(FIND_BY_STATUS, statusId);
+	}
+
+	@Override
+	//  B.Gilson:  not in Project specs; added as enhancement (here and in IAccountDAO)	
+	public Account findByType(int typeId) {
+		return findOne(FIND_BY_TYPE, typeId);
+	}	
+
+	@Override
+	public int lockRange(int fromId, int toId, RowHandler<Account> handler, BeforeCommit beforeCommit) {
+		// One transaction: read the rows (locking them, so they can't change
+		// until it commits), hand each to the handler, then run beforeCommit
 		try (Connection conn = ConnectionUtil.getConnection()) {
-			String status_join = "ACCOUNT_STATUS ON ACCOUNTS.status_id = ACCOUNT_STATUS.id";
-			String type_join = "ACCOUNT_TYPE ON ACCOUNTS.type_id = ACCOUNT_TYPE.id";
-			String sql = "SELECT * FROM ACCOUNTS INNER JOIN " + status_join
-							+ " INNER JOIN " + type_join + " WHERE status_id = ?";
-			
-			PreparedStatement stmt = conn.prepareStatement(sql);
-						
-			//System.out.println(sql); // use for testing, if needed
+			conn.setAutoCommit(false);
+			try (PreparedStatement stmt = conn.prepareStatement(LOCK_RANGE)) {
+				stmt.setFetchSize(FETCH_SIZE);
+				stmt.setInt(1, fromId);
+				stmt.setInt(2, toId);
+				
+				int count;
+				try (ResultSet rs = stmt.executeQuery()) {
+					count = mapper.forEach(LOCK_RANGE, rs, handler);
+				}
+				BeforeCommit.thenCommit(conn, beforeCommit);
+				return count;
+			} catch (SQLException | IOException e) {
+				conn.rollback();
+				throw e;
+			}
+		} catch (SQLException | IOException e) {
+			e.printStackTrace();
+		}
+		
+		return -1;
+	}
+
+	// Runs one of the single-int-parameter finders, returning the first Account found (or null)
+	private Account findOne(String sql, int param) {
+		// Try-with-resources block
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(sql)) {
 			
 			// Inject a value into the PreparedStatement parameter
-			stmt.setInt(1, statusId);
-			
-			ResultSet rs = stmt.executeQuery();
+			stmt.setInt(1, param);
 			
-			// Walk/loop through the ResultSet to get the data
-			// from which to create an Account object
-			while(rs.next()) {
-				// create local variables;
-					// accept the rs values (orig. from the Accounts table fields)
-					// (already have the statusId from this method's input parameter)
-				int accountId = rs.getInt("id");
-				double balance = rs.getDouble("balance");
-				int typeId = rs.getInt("type_id");
-					// accept the rs values (orig. from the (non-JOIN)
-					// Account_Status and Account_Type table fields)
-				String status = rs.getString("status");
-				String type = rs.getString("type");
-				
-				// For each resultSet row, create an AccountStatus, AccountType, and Account
-				// (Account contains an AccountStatus and an AccountType object)
-				AccountStatus status_obj = new AccountStatus(statusId, status);
-				AccountType type_obj = new AccountType(typeId, type);
-				return new Account(accountId, balance, status_obj, type_obj);
+			try (ResultSet rs = stmt.executeQuery()) {
+				// create an Account (containing an AccountStatus and an
+				// AccountType object) from the first row, if there is one
+				return mapper.mapFirst(sql, rs);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
-		
+
 		return null;
 	}
 
 	@Override
-	//  B.Gilson:  not in Project specs; added as enhancement (here and in IAccountDAO)	
-	public Account findByType(int typeId) {
-		// Try-with-resources block
+	public int update(Account acct, BeforeCommit beforeCommit) {
+			// Use a PreparedStatement since injecting values (need parameters/?'s)
 		try (Connection conn = ConnectionUtil.getConnection()) {
-			String status_join = "ACCOUNT_STATUS ON ACCOUNTS.status_id = ACCOUNT_STATUS.id";
-			String type_join = "ACCOUNT_TYPE ON ACCOUNTS.type_id = ACCOUNT_TYPE.id";
-			String sql = "SELECT * FROM ACCOUNTS INNER JOIN " + status_join
-							+ " INNER JOIN " + type_join + " WHERE type_id = ?";
-			
-			PreparedStatement stmt = conn.prepareStatement(sql);
-						
-			//System.out.println(sql); // use for testing, if needed
-			
-			// Inject a value into the PreparedStatement parameter
-			stmt.setInt(1, typeId);
-			
-			ResultSet rs = stmt.executeQuery();
-			
-			// Walk/loop through the ResultSet to get the data
-			// from which to create an Account object
-			while(rs.next()) {
-				// create local variables;
-					// accept the rs values (orig. from the Accounts table fields)
-					// (already have the typeId from this method's input parameter)
-				int accountId = rs.getInt("id");
-				double balance = rs.getDouble("balance");
-				int statusId = rs.getInt("status_id");
-				//int typeId = rs.getInt("type_id");
-					// accept the rs values (orig. from the (non-JOIN)
-					// Account_Status and Account_Type table fields)
-				String status = rs.getString("status");
-				String type = rs.getString("type");
+			conn.setAutoCommit(false);	// (so that beforeCommit runs inside the same transaction)
+			try (PreparedStatement stmt = conn.prepareStatement(UPDATE)) {
+				
+				// Inject values into (populate) the PreparedStatement parameters (? marks above)
+				stmt.setBigDecimal(1, Money.toDecimal(acct.getBalance()));
+				stmt.setInt(2, acct.getStatus().getStatusId()); // get AccountStatus, then its statusId (int)
+				stmt.setInt(3, acct.getType().getTypeId()); // get AccountType, then its typeId (an int)
+				stmt.setInt(4, acct.getAccountId());
 				
-				// For each resultSet row, create an AccountStatus, AccountType, and Account
-				// (Account contains an AccountStatus and an AccountType object)
-				AccountStatus status_obj = new AccountStatus(statusId, status);
-				AccountType type_obj = new AccountType(typeId, type);
-				return new Account(accountId, balance, status_obj, type_obj);
+				int rows = stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
+				BeforeCommit.thenCommit(conn, (rows > 0 ? beforeCommit : BeforeCommit.NOTHING));
+				return rows;
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
-				
-		return null;
-	}	
+		
+		return 0;
+	}
+
+	@Override
+	public int updateAll(Collection<Account> accts, BeforeCommit beforeCommit) {
+		// Same UPDATE as above, but sent in JDBC batches within ONE transaction
+		return JdbcBatch.updateAll(UPDATE, accts, batchSize, (stmt, acct) -> {
+			stmt.setBigDecimal(1, Money.toDecimal(acct.getBalance()));
+			stmt.setInt(2, acct.getStatus().getStatusId());
+			stmt.setInt(3, acct.getType().getTypeId());
+			stmt.setInt(4, acct.getAccountId());
+		}, beforeCommit);
+	}
 
 	@Override
-	public int update(Account acct) {
+	public Long applyDelta(int accountId, long amount, BeforeCommit beforeCommit) {
 		try (Connection conn = ConnectionUtil.getConnection()) {
-			String columns_params = "balance=?, status_id=?, type_id=?";
-			String sql = "UPDATE ACCOUNTS SET " + columns_params + " WHERE id = ?";
+			conn.setAutoCommit(false);	// (so that beforeCommit runs inside the same transaction)
+			try {
+				BigDecimal delta = Money.toDecimal(amount);
+				Long balance = (isOracle(conn) ? applyDeltaReturning(conn, accountId, delta)
+						: applyDeltaFinalTable(conn, accountId, delta));
+				if(balance == null) {
+					conn.rollback();
+					return null;	// no such Account, or insufficient funds
+				}
+				BeforeCommit.thenCommit(conn, beforeCommit);
+				return balance;
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		
+		return null;
+	}
 
-				// Use a PreparedStatement since injecting values (need parameters/?'s)
-			PreparedStatement stmt = conn.prepareStatement(sql);
+	// Oracle: the UPDATE in a PL/SQL block, handing back the new balance via RETURNING ... INTO
+	private static Long applyDeltaReturning(Connection conn, int accountId, BigDecimal delta) throws SQLException {
+			// A CallableStatement (rather than a PreparedStatement) - needed for the OUT parameter
+		try (CallableStatement stmt = conn.prepareCall(APPLY_DELTA)) {
+			stmt.setBigDecimal(1, delta);
+			stmt.setInt(2, accountId);
+			stmt.setBigDecimal(3, delta);
+			stmt.registerOutParameter(4, Types.NUMERIC);
 			
-			// Inject values into (populate) the PreparedStatement parameters (? marks above)
-			stmt.setDouble(1, acct.getBalance());
-			stmt.setInt(2, acct.getStatus().getStatusId()); // get AccountStatus, then its statusId (int)
-			stmt.setInt(3, acct.getType().getTypeId()); // get AccountType, then its typeId (an int)
-			stmt.setInt(4, acct.getAccountId());
+			stmt.execute();
 			
-			//System.out.println(sql); // use for testing, if needed
+			BigDecimal balance = stmt.getBigDecimal(4);
+			return (balance == null ? null : Money.ofDecimal(balance));	// NULL -> no such Account, or insufficient funds
+		}
+	}
+
+	// Anything else: SELECT ... FROM FINAL TABLE (UPDATE ...) - no row if the UPDATE matched none
+	private static Long applyDeltaFinalTable(Connection conn, int accountId, BigDecimal delta) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(APPLY_DELTA_FINAL_TABLE)) {
+			stmt.setBigDecimal(1, delta);
+			stmt.setInt(2, accountId);
+			stmt.setBigDecimal(3, delta);
 			
-			return stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
+			try (ResultSet rs = stmt.executeQuery()) {
+				return (rs.next() ? Money.ofDecimal(rs.getBigDecimal(1)) : null);	// no row -> no such Account, or insufficient funds
+			}
+		}
+	}
+
+	// Is this a connection to an Oracle database? (the driver answers from memory - no round trip)
+	private static boolean isOracle(Connection conn) throws SQLException {
+		return "Oracle".equals(conn.getMetaData().getDatabaseProductName());
+	}
+
+	@Override
+	public int[] findIdRange(int typeId) {
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(ID_RANGE)) {
+			stmt.setInt(1, typeId);
 			
+			try (ResultSet rs = stmt.executeQuery()) {
+				if(rs.next()) {
+					int min = rs.getInt(1);
+					if(!rs.wasNull()) {	// MIN/MAX are NULL when there are no such Accounts
+						return new int[] { min, rs.getInt(2) };
+					}
+				}
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 		
-		return 0;
+		return new int[0];
+	}
+
+	@Override
+	public int accrueInterest(int typeId, long factor, int fromId, int toId, BeforeCommit beforeCommit) {
+			// each call (id range) is its own, small, transaction
+		try (Connection conn = ConnectionUtil.getConnection()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement stmt = conn.prepareStatement(ACCRUE_INTEREST)) {
+				stmt.setBigDecimal(1, Money.factorToDecimal(factor));	// (exact - so the AccountBook's long math agrees)
+				stmt.setInt(2, typeId);
+				stmt.setInt(3, fromId);
+				stmt.setInt(4, toId);
+				
+				int rows = stmt.executeUpdate();
+				BeforeCommit.thenCommit(conn, (rows > 0 ? beforeCommit : BeforeCommit.NOTHING));
+				return rows;
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		
+		return -1;	// (0 is a valid row count here - an id range may hold no such Accounts)
+	}
+
+	@Override
+	public TransferResult transfer(int sourceAccountId, int targetAccountId, long amount, BeforeCommit beforeCommit) {
+		for(int attempt = 0; ; attempt++) {
+			try {
+				return tryTransfer(sourceAccountId, targetAccountId, amount, beforeCommit);
+			} catch (SQLException e) {
+				if(!isRetryable(e) || attempt >= TRANSFER_RETRIES) {
+					e.printStackTrace();
+					return TransferResult.FAILED;
+				}
+				backOff(attempt);	// (the transaction was already rolled back) - try again
+			}
+		}
+	}
+
+	/*
+	 * One attempt at a transfer, as ONE transaction:
+	 *  1. lock BOTH rows (SELECT ... FOR UPDATE) - always the LOWER account id first.
+	 *     Two transfers between the same Accounts (even in opposite directions)
+	 *     therefore lock in the same order, so they queue up behind each other
+	 *     instead of each holding one row and waiting forever for the other.
+	 *  2. check the source balance (now that nobody else can change it)
+	 *  3. debit and credit (one JDBC batch - one round trip), run beforeCommit, and commit
+	 * (A failure in beforeCommit is not one isRetryable() retries - so it never runs twice.)
+	 */
+	private TransferResult tryTransfer(int sourceAccountId, int targetAccountId, long amount,
+			BeforeCommit beforeCommit) throws SQLException {
+		try (Connection conn = ConnectionUtil.getConnection()) {
+			conn.setAutoCommit(false);
+			try {
+				int firstId = Math.min(sourceAccountId, targetAccountId);
+				int secondId = Math.max(sourceAccountId, targetAccountId);
+				Long first;
+				Long second;
+				try (PreparedStatement stmt = conn.prepareStatement(LOCK_BALANCE)) {
+					first = lockBalance(stmt, firstId);
+					second = lockBalance(stmt, secondId);
+				}
+				if(first == null || second == null) {
+					conn.rollback();
+					return TransferResult.NO_SUCH_ACCOUNT;
+				}
+				long sourceBalance = (sourceAccountId == firstId ? first : second);
+				if(sourceBalance < amount) {
+					conn.rollback();
+					return TransferResult.INSUFFICIENT_FUNDS;
+				}
+
+				try (PreparedStatement stmt = conn.prepareStatement(ADD_TO_BALANCE)) {
+					stmt.setBigDecimal(1, Money.toDecimal(-amount));
+					stmt.setInt(2, sourceAccountId);
+					stmt.addBatch();
+					stmt.setBigDecimal(1, Money.toDecimal(amount));
+					stmt.setInt(2, targetAccountId);
+					stmt.addBatch();
+					stmt.executeBatch();
+				}
+				BeforeCommit.thenCommit(conn, beforeCommit);
+				return TransferResult.COMPLETED;
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
+		}
+	}
+
+	// the balance of the (now locked) row, or null if there is no such Account
+	private static Long lockBalance(PreparedStatement stmt, int accountId) throws SQLException {
+		stmt.setInt(1, accountId);
+		try (ResultSet rs = stmt.executeQuery()) {
+			return (rs.next() ? Money.ofDecimal(rs.getBigDecimal(1)) : null);
+		}
+	}
+
+	private static boolean isRetryable(SQLException e) {
+		return e.getErrorCode() == ORA_DEADLOCK || e.getErrorCode() == ORA_CANNOT_SERIALIZE
+				|| "40001".equals(e.getSQLState());	// (the standard SQLState for a serialization failure)
+	}
+
+	// wait a little (longer each time, plus some randomness so that the
+	// transactions that collided don't just collide again) before retrying
+	private static void backOff(int attempt) {
+		try {
+			Thread.sleep((10L << attempt) + ThreadLocalRandom.current().nextInt(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	@Override
-	public int delete(int accountId) {
+	public int delete(int accountId, BeforeCommit beforeCommit) {
+		// can use cascade ___? w/ DELETE? -- like:
+		//-- DROP TABLE ROLES CASCADE CONSTRAINTS;
 		try (Connection conn = ConnectionUtil.getConnection()) {
-			String sql = "DELETE FROM ACCOUNTS WHERE id = ?";
-			// can use cascade ___? w/ DELETE? -- like:
-			//-- DROP TABLE ROLES CASCADE CONSTRAINTS;
+			conn.setAutoCommit(false);	// (so that beforeCommit runs inside the same transaction)
 				// Use a PreparedStatement since injecting a value (need a parameter/?)
-			PreparedStatement stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, accountId);
-			
-			return stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
-			
+			try (PreparedStatement stmt = conn.prepareStatement(DELETE)) {
+				stmt.setInt(1, accountId);
+				
+				int rows = stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
+				BeforeCommit.thenCommit(conn, (rows > 0 ? beforeCommit : BeforeCommit.NOTHING));
+				return rows;
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -0,0 +1,24 @@
+package com.revature.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.revature.models.Account;
+import com.revature.util.Money;
+
+// Maps a row of ACCOUNTS to an Account (Account contains an AccountStatus and an
+// AccountType object - the SHARED instances for the row's status_id and type_id,
+// from the LookupRegistry; no JOINs with ACCOUNT_STATUS/ACCOUNT_TYPE needed)
+public class AccountRowMapper extends RowMapper<Account> {
+
+	public AccountRowMapper() {
+		//    0       1          2            3
+		super("id", "balance", "status_id", "type_id");
+	}
+
+	@Override
+	protected Account mapRow(ResultSet rs, int[] col) throws SQLException {
+		return new Account(rs.getInt(col[0]), Money.ofDecimal(rs.getBigDecimal(col[1])),
+				LookupRegistry.status(rs.getInt(col[2])), LookupRegistry.type(rs.getInt(col[3])));
+	}
+}
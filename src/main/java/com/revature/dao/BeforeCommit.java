@@ -0,0 +1,35 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+ * Work that a DAO write method runs INSIDE its transaction: after its changes
+ * have been made - so it still holds the changed rows' locks - and just before
+ * it commits. Only run if the write changed something.
+ *
+ * The service layer uses it to journal a balance change (see JournalEntries):
+ * a second change to the same row can't get the row lock until the first has
+ * committed, so changes are journaled in the same order as they commit.
+ *
+ * If it throws, the transaction is rolled back - nothing is changed.
+ */
+@FunctionalInterface
+public interface BeforeCommit {
+
+	public static final BeforeCommit NOTHING = () -> { };
+
+	public void run() throws IOException;
+
+	// Run beforeCommit, then commit - an IOException from it becomes an
+	// SQLException, so the caller's rollback handles both the same way
+	public static void thenCommit(Connection conn, BeforeCommit beforeCommit) throws SQLException {
+		try {
+			beforeCommit.run();
+		} catch (IOException e) {
+			throw new SQLException("Not committed: " + e.getMessage(), e);
+		}
+		conn.commit();
+	}
+}
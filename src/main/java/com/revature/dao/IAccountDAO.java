@@ -1,8 +1,11 @@
 package com.revature.dao;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import com.revature.models.Account;
+import com.revature.templates.PageTemplate;
 
 /**
  * This is an Interface that follows the DAO Design Pattern.
@@ -30,7 +33,36 @@ import com.revature.models.Account;
  * and findByType (B. Gilson:  I added the latter as an enhancement
  * - not in the project specs).
  * 
- *   findByUsername.
+ * findPage is a paginated/sorted findAll (see PageRequest), and streamAll is
+ * a findAll that hands each row to a RowHandler as it is read (no List is built),
+ * returning the number of rows read, or -1 if the read failed part-way
+ * (streamRange: the same, for one id range).
+ * 
+ * insertAll and updateAll are the *bulk* versions of insert and update: they
+ * write a whole collection of Accounts using JDBC batches, in a single transaction.
+ * 
+ * applyDelta adds an amount (negative to withdraw) to an Account's balance
+ * *inside the database*, in ONE conditional UPDATE - so concurrent deposits and
+ * withdrawals can't overwrite each other, and a balance can never go negative.
+ * It returns the new balance, or null if nothing was changed (no such Account,
+ * insufficient funds, or an error).
+ * 
+ * transfer moves an amount from one Account to another in ONE transaction:
+ * either both balances change, or (see TransferResult) neither does.
+ * 
+ * findIdRange and accrueInterest are for *set-based* bulk interest (see
+ * InterestEngine): rather than reading every Account and updating it one row
+ * at a time, ONE UPDATE multiplies every balance of a type within an id range.
+ *
+ * Every method that changes balances takes a BeforeCommit: it is run inside
+ * the method's transaction, once the change is made (and only if something was
+ * changed), while the changed rows are still locked - that is where the service
+ * layer journals the change (see JournalEntries). If it throws, nothing is
+ * changed. lockRange reads (and locks) the Accounts in an id range, for
+ * putting the journal and the AccountBook right from the database.
+ *
+ * All balances and amounts are long CENTS, and interest factors long billionths
+ * (see Money) - never doubles.
  *
  * (Another (5th) R(ead) method for an Account(_s), findByUser(int userId),
  * is in the UserAccountDAO Interface/implementing class (its ONLY method),
@@ -45,13 +77,24 @@ import com.revature.models.Account;
 public interface IAccountDAO {
 
 	public int insert(Account acct); // CREATE
+	public int[] insertAll(Collection<Account> accts, BeforeCommit beforeCommit); // CREATE (bulk) - returns the generated ids (also set on the Accounts)
 	
 	public List<Account> findAll();  //READ
+	public PageTemplate<Account> findPage(PageRequest page); //READ (one page, keyset pagination)
+	public int streamAll(RowHandler<Account> handler) throws IOException; //READ (streaming)
+	public int streamRange(int fromId, int toId, RowHandler<Account> handler) throws IOException; //READ (streaming, fromId-toId in id order) - row count, or -1 on failure
 	public Account findById(int accountId); //READ
+	public Long findVersion(int accountId); //READ - a hash of what the Account's JSON shows (see ContentHash); null if none
 	public Account findByStatus(int statusId); //READ
 	public Account findByType(int typeId); //READ  -- B.Gilson:  not in Project specs; added as enhancement
+	public int lockRange(int fromId, int toId, RowHandler<Account> handler, BeforeCommit beforeCommit); //READ (FOR UPDATE) - row count, or -1 on failure
 	
-	public int update(Account acct); //UPDATE
+	public int update(Account acct, BeforeCommit beforeCommit); //UPDATE
+	public int updateAll(Collection<Account> accts, BeforeCommit beforeCommit); //UPDATE (bulk) - returns the row count
+	public Long applyDelta(int accountId, long amount, BeforeCommit beforeCommit); //UPDATE (atomic) - returns the new balance
+	public TransferResult transfer(int sourceAccountId, int targetAccountId, long amount, BeforeCommit beforeCommit); //UPDATE (x2, one transaction)
+	public int[] findIdRange(int typeId); //READ - { lowest id, highest id } of that type; empty if none
+	public int accrueInterest(int typeId, long factor, int fromId, int toId, BeforeCommit beforeCommit); //UPDATE (set-based) - row count, or -1 on failure
 	
-	public int delete(int accountId); //DELETE
+	public int delete(int accountId, BeforeCommit beforeCommit); //DELETE
 }
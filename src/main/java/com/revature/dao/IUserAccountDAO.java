@@ -23,9 +23,15 @@ import com.revature.models.Account;
  * Bank Admins can view AND modify information for all Users - thus, Accounts as well.
  * _Standard_ Users cannot modify Accounts - but _Premium_ users can. 
  * 
- * The UserAccountDAO Interface/implementing class contains ONLY
- * the CRUD (Create-Read-Update-Delete) method for findByUser(int userId)
- * for an Account(_s) - a R(ead) operation (returns a List<Account>).
+ * The UserAccountDAO Interface/implementing class contains the
+ * CRUD (Create-Read-Update-Delete) method findByUser(int userId)
+ * for an Account(_s) - a R(ead) operation (returns a List<Account>) -
+ * and isOwner(int userId, int accountId), which checks whether a
+ * User owns an Account (used to authorize deposits, withdrawals, etc.),
+ * plus insert(int userId, int accountId) - a C(reate) operation - which
+ * records that a User owns a (newly submitted) Account.
+ * findAccountIdsByUser/findUserIdsByAccount return just the ids, as an int[]
+ * (no Account objects, no List<Integer>), for callers that only need those.
  * 
  * (The other CRUD methods for an Account(_s) are in the AccountDAO
  *  Interface/implementing class, as they don't require User data (userId):
@@ -42,5 +48,9 @@ import com.revature.models.Account;
 public interface IUserAccountDAO {
 	
 	public List<Account> findByUser(int userId); // READ
+	public int[] findAccountIdsByUser(int userId); // READ - ids only
+	public int[] findUserIdsByAccount(int accountId); // READ - ids only
+	public boolean isOwner(int userId, int accountId); // READ
+	public int insert(int userId, int accountId); // CREATE
 
 }
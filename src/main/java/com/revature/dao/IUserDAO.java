@@ -1,8 +1,11 @@
 package com.revature.dao;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import com.revature.models.User;
+import com.revature.templates.PageTemplate;
 
 /**
  * This is an Interface that follows the DAO Design Pattern.
@@ -27,6 +30,13 @@ import com.revature.models.User;
  * follow the Oracle DB command names for C...UD (insert, update, delete);
  * for R(ead), 3 methods are included:  findAll, findById, and findByUsername.
  * 
+ * findPage is a paginated/sorted findAll (see PageRequest), and streamAll is
+ * a findAll that hands each row to a RowHandler as it is read (no List is built),
+ * returning the number of rows read, or -1 if the read failed part-way.
+ * 
+ * insertAll and updateAll are the *bulk* versions of insert and update: they
+ * write a whole collection of Users using JDBC batches, in a single transaction.
+ * 
  */
 // NOTE:  in an Interface, all methods are public and abstract by default,
 //		  whether or not they are actually specified as so.
@@ -36,12 +46,17 @@ import com.revature.models.User;
 public interface IUserDAO {
 
 	public int insert(User u); // CREATE
+	public int[] insertAll(Collection<User> users); // CREATE (bulk) - returns the generated ids
 	
 	public List<User> findAll();  //READ
+	public PageTemplate<User> findPage(PageRequest page); //READ (one page, keyset pagination)
+	public int streamAll(RowHandler<User> handler) throws IOException; //READ (streaming)
 	public User findById(int userId); //READ
+	public Long findVersion(int userId); //READ - a hash of what the User's JSON shows (see ContentHash); null if none
 	public User findByUsername(String username); //READ
 	
 	public int update(User u); //UPDATE
+	public int updateAll(Collection<User> users); //UPDATE (bulk) - returns the row count
 	
 	public int delete(int userId); //DELETE
 }
@@ -0,0 +1,166 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import com.revature.util.AppConfig;
+import com.revature.util.ConnectionUtil;
+
+/*
+ * Shared logic for the DAOs' bulk (insertAll/updateAll) methods.
+ *
+ * Instead of one executeUpdate() - one round trip to the database - per row,
+ * rows are added to a JDBC batch with addBatch() and sent batchSize at a time
+ * with executeBatch(). The whole collection is written in ONE transaction:
+ * either every row is written, or (if anything fails) none are.
+ *
+ * A BeforeCommit, if given, runs inside that transaction once every row has
+ * been written (and, for insertAll, each item has been given its generated key).
+ */
+public class JdbcBatch {
+
+	// how many rows to send to the database per executeBatch() call
+	public static final int DEFAULT_BATCH_SIZE = AppConfig.getInt("rocp.dao.batchSize", 500);
+
+	// Fills in the ? parameters of the statement for one item
+	@FunctionalInterface
+	public interface ParameterSetter<T> {
+		void setParameters(PreparedStatement stmt, T item) throws SQLException;
+	}
+
+	// Gives an item the key the database generated for it (e.g. Account::setAccountId)
+	@FunctionalInterface
+	public interface KeySetter<T> {
+		void setKey(T item, int key);
+	}
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private JdbcBatch() {
+		super();
+	}
+
+	/*
+	 * Batch-INSERT the items, returning the database-generated keys (from the
+	 * keyColumn column) in the same order as the items.
+	 * Returns an empty array if the batch failed (and was rolled back) - including
+	 * if the database didn't give back exactly one key per item, since an item
+	 * with no key would otherwise be committed (and journaled) as id 0.
+	 */
+	public static <T> int[] insertAll(String sql, String keyColumn, Collection<T> items, int batchSize,
+			ParameterSetter<T> setter) {
+		return insertAll(sql, keyColumn, items, batchSize, setter, null, BeforeCommit.NOTHING);
+	}
+
+	// (the same, but each item is given its key - by keySetter - and then beforeCommit runs)
+	public static <T> int[] insertAll(String sql, String keyColumn, Collection<T> items, int batchSize,
+			ParameterSetter<T> setter, KeySetter<T> keySetter, BeforeCommit beforeCommit) {
+		int[] keys = new int[items.size()];
+		int keyCount = 0;
+
+		try (Connection conn = ConnectionUtil.getConnection()) {
+			conn.setAutoCommit(false);	// one transaction for the whole collection
+			try (PreparedStatement stmt = conn.prepareStatement(sql, new String[] { keyColumn })) {
+				int pending = 0;
+				for(T item : items) {
+					setter.setParameters(stmt, item);
+					stmt.addBatch();
+					if(++pending == batchSize) {
+						keyCount = executeAndReadKeys(stmt, keys, keyCount, pending);
+						pending = 0;
+					}
+				}
+				if(pending > 0) {
+					keyCount = executeAndReadKeys(stmt, keys, keyCount, pending);
+				}
+				if(keySetter != null) {
+					int i = 0;
+					for(T item : items) {
+						keySetter.setKey(item, keys[i++]);
+					}
+				}
+				BeforeCommit.thenCommit(conn, beforeCommit);
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new int[0]; // return an empty array if something goes wrong
+		}
+
+		return keys;
+	}
+
+	/*
+	 * Batch-UPDATE (or DELETE) using the items; returns the total row count.
+	 * Returns 0 if the batch failed (and was rolled back).
+	 */
+	public static <T> int updateAll(String sql, Collection<T> items, int batchSize, ParameterSetter<T> setter) {
+		return updateAll(sql, items, batchSize, setter, BeforeCommit.NOTHING);
+	}
+
+	// (the same, with beforeCommit run once the rows are written - if any were)
+	public static <T> int updateAll(String sql, Collection<T> items, int batchSize, ParameterSetter<T> setter,
+			BeforeCommit beforeCommit) {
+		int rowCount = 0;
+
+		try (Connection conn = ConnectionUtil.getConnection()) {
+			conn.setAutoCommit(false);	// one transaction for the whole collection
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				int pending = 0;
+				for(T item : items) {
+					setter.setParameters(stmt, item);
+					stmt.addBatch();
+					if(++pending == batchSize) {
+						rowCount += sum(stmt.executeBatch());
+						pending = 0;
+					}
+				}
+				if(pending > 0) {
+					rowCount += sum(stmt.executeBatch());
+				}
+				BeforeCommit.thenCommit(conn, (rowCount > 0 ? beforeCommit : BeforeCommit.NOTHING));
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return 0;
+		}
+
+		return rowCount;
+	}
+
+	// Send the batch of (pending) rows and read their keys in after the keyCount
+	// already read; throws - so the caller rolls back - unless there's one per row
+	private static int executeAndReadKeys(PreparedStatement stmt, int[] keys, int keyCount, int pending)
+			throws SQLException {
+		stmt.executeBatch();
+		int read = 0;
+		try (ResultSet rs = stmt.getGeneratedKeys()) {
+			while(rs.next()) {
+				if(read == pending) {
+					throw new SQLException("More generated keys than the " + pending + " rows inserted");
+				}
+				keys[keyCount + read++] = rs.getInt(1);
+			}
+		}
+		if(read != pending) {
+			throw new SQLException("Only " + read + " generated keys for the " + pending + " rows inserted");
+		}
+		return keyCount + read;
+	}
+
+	private static int sum(int[] counts) {
+		int total = 0;
+		for(int count : counts) {
+			// drivers may report SUCCESS_NO_INFO (-2) instead of a real count
+			total += (count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0));
+		}
+		return total;
+	}
+}
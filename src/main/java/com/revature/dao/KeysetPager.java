@@ -0,0 +1,160 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import com.revature.templates.PageTemplate;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.Money;
+
+/*
+ * Runs keyset-paginated queries (see PageRequest) for one table.
+ *
+ * Each DAO creates one KeysetPager, listing which fields may be sorted on.
+ * Only whitelisted fields are allowed, so the sort value from the query
+ * string is never pasted into the SQL. Each should be backed by an index on
+ * (column, id) - e.g. CREATE INDEX ACCOUNTS_BALANCE_ID_IX ON ACCOUNTS (balance, id) -
+ * so the ORDER BY ... FETCH FIRST is answered by an index range scan rather
+ * than a full sort of the table.
+ *
+ * The SQL for every (sort field, direction, first page or not) combination is
+ * built once and reused, so the pooled connections' statement caches apply.
+ */
+public class KeysetPager<T> {
+
+	public enum ColumnType { INT, MONEY, STRING }	// (MONEY: cents in the cursor, an exact decimal in the SQL)
+
+	private static class SortColumn<T> {
+		final String sqlColumn;
+		final ColumnType type;
+		final Function<T, Object> valueOf;	// reads the sort value back off a model object (for the cursor)
+
+		SortColumn(String sqlColumn, ColumnType type, Function<T, Object> valueOf) {
+			this.sqlColumn = sqlColumn;
+			this.type = type;
+			this.valueOf = valueOf;
+		}
+	}
+
+	private final String baseSql;		// SELECT ... FROM ... [INNER JOIN ...]  (no WHERE)
+	private final String idColumn;		// e.g. "ACCOUNTS.id" - the unique tie-breaker
+	private final ToIntFunction<T> idOf;
+	private final Map<String, SortColumn<T>> columns = new HashMap<>();
+	private final Map<String, String> sqlCache = new ConcurrentHashMap<>();
+
+	public KeysetPager(String baseSql, String idColumn, ToIntFunction<T> idOf) {
+		super();
+		this.baseSql = baseSql;
+		this.idColumn = idColumn;
+		this.idOf = idOf;
+		sortable("id", idColumn, ColumnType.INT, t -> idOf.applyAsInt(t));
+	}
+
+	// Allow sorting by the given API field name (call while setting up the DAO only)
+	public KeysetPager<T> sortable(String field, String sqlColumn, ColumnType type, Function<T, Object> valueOf) {
+		columns.put(field, new SortColumn<>(sqlColumn, type, valueOf));
+		return this;
+	}
+
+	public boolean isSortable(String field) {
+		return columns.containsKey(field);
+	}
+
+	public PageTemplate<T> findPage(PageRequest page, RowMapper<T> mapper) throws SQLException {
+		SortColumn<T> sort = columns.get(page.getSortField());
+		if(sort == null) {
+			throw new IllegalArgumentException("Cannot sort by '" + page.getSortField() + "'");
+		}
+
+		List<T> items = new ArrayList<>(Math.min(page.getLimit(), 100));
+		boolean more = false;
+
+		String sql = sqlFor(page, sort);
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int i = 1;
+			if(page.hasCursor()) {
+				if(sort.sqlColumn.equals(idColumn)) {
+					stmt.setInt(i++, page.getAfterId());
+				} else {
+					bindValue(stmt, i++, sort.type, page.getAfterValue());
+					bindValue(stmt, i++, sort.type, page.getAfterValue());
+					stmt.setInt(i++, page.getAfterId());
+				}
+			}
+			// read ONE extra row, just to find out whether there is a next page
+			stmt.setInt(i, page.getLimit() + 1);
+			stmt.setFetchSize(page.getLimit() + 1);
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				int[] col = mapper.positions(sql, rs);
+				while(rs.next()) {
+					if(items.size() == page.getLimit()) {
+						more = true;
+						break;
+					}
+					items.add(mapper.mapRow(rs, col));
+				}
+			}
+		}
+
+		String nextCursor = null;
+		if(more) {
+			T last = items.get(items.size() - 1);
+			nextCursor = page.cursorAfter(sort.valueOf.apply(last), idOf.applyAsInt(last));
+		}
+		return new PageTemplate<>(items, nextCursor);
+	}
+
+	private String sqlFor(PageRequest page, SortColumn<T> sort) {
+		String key = page.getSortField() + (page.isDescending() ? ":desc" : ":asc") + (page.hasCursor() ? ":after" : "");
+		return sqlCache.computeIfAbsent(key, k -> {
+			String cmp = (page.isDescending() ? " < ?" : " > ?");
+			String dir = (page.isDescending() ? " DESC" : " ASC");
+			StringBuilder sql = new StringBuilder(baseSql);
+			if(page.hasCursor()) {
+				if(sort.sqlColumn.equals(idColumn)) {
+					sql.append(" WHERE ").append(idColumn).append(cmp);
+				} else {
+					// (col > v) OR (col = v AND id > lastId) -- i.e. strictly after the last row seen
+					sql.append(" WHERE (").append(sort.sqlColumn).append(cmp)
+						.append(" OR (").append(sort.sqlColumn).append(" = ? AND ")
+						.append(idColumn).append(cmp).append("))");
+				}
+			}
+			sql.append(" ORDER BY ");
+			if(!sort.sqlColumn.equals(idColumn)) {
+				sql.append(sort.sqlColumn).append(dir).append(", ");
+			}
+			sql.append(idColumn).append(dir).append(" FETCH FIRST ? ROWS ONLY");
+			return sql.toString();
+		});
+	}
+
+	private static void bindValue(PreparedStatement stmt, int index, ColumnType type, String value)
+			throws SQLException {
+		try {
+			switch(type) {
+			case INT:
+				stmt.setInt(index, Integer.parseInt(value));
+				break;
+			case MONEY:
+				stmt.setBigDecimal(index, Money.toDecimal(Long.parseLong(value)));
+				break;
+			default:
+				stmt.setString(index, value);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+	}
+}
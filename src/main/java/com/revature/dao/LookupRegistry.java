@@ -0,0 +1,206 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.models.Role;
+import com.revature.util.ConnectionUtil;
+
+/*
+ * The contents of the small "lookup" tables - ROLES, ACCOUNT_STATUS and
+ * ACCOUNT_TYPE - loaded ONCE and shared.
+ *
+ * These tables only have a handful of rows that (practically) never change, so
+ * rather than JOINing them into every USERS/ACCOUNTS query and creating a new
+ * Role/AccountStatus/AccountType object for every row, the row mappers look
+ * the shared (interned) instance up here by id - a simple array index.
+ *
+ * The loaded tables are replaced as a whole (never modified), so readers never
+ * need to lock. refresh() reloads them on demand (e.g. after a row is added to
+ * one of the lookup tables); an id that is not known yet also triggers a reload.
+ * version() changes with every successful load, so anything built FROM the
+ * tables (e.g. a Policy's role bitmask) knows when to rebuild itself.
+ *
+ * NOTE: the instances handed out are SHARED - treat them as read-only
+ * (never call their setters).
+ */
+public class LookupRegistry {
+
+	private static final String ROLES_SQL = "SELECT id, role FROM ROLES";
+	private static final String STATUSES_SQL = "SELECT id, status FROM ACCOUNT_STATUS";
+	private static final String TYPES_SQL = "SELECT id, type FROM ACCOUNT_TYPE";
+
+	// One complete, immutable load of all three tables
+	private static class Tables {
+		final Role[] rolesById;				// index = id (gaps are null)
+		final AccountStatus[] statusesById;
+		final AccountType[] typesById;
+		final Map<String, Role> rolesByName;
+		final Map<String, AccountStatus> statusesByName;
+		final Map<String, AccountType> typesByName;
+
+		Tables(List<Role> roles, List<AccountStatus> statuses, List<AccountType> types) {
+			int max = 0;
+			Map<String, Role> byRoleName = new HashMap<>();
+			for(Role r : roles) {
+				max = Math.max(max, r.getRoleId());
+				byRoleName.put(r.getRole(), r);
+			}
+			rolesById = new Role[max + 1];
+			for(Role r : roles) {
+				rolesById[r.getRoleId()] = r;
+			}
+
+			max = 0;
+			Map<String, AccountStatus> byStatusName = new HashMap<>();
+			for(AccountStatus s : statuses) {
+				max = Math.max(max, s.getStatusId());
+				byStatusName.put(s.getStatus(), s);
+			}
+			statusesById = new AccountStatus[max + 1];
+			for(AccountStatus s : statuses) {
+				statusesById[s.getStatusId()] = s;
+			}
+
+			max = 0;
+			Map<String, AccountType> byTypeName = new HashMap<>();
+			for(AccountType t : types) {
+				max = Math.max(max, t.getTypeId());
+				byTypeName.put(t.getType(), t);
+			}
+			typesById = new AccountType[max + 1];
+			for(AccountType t : types) {
+				typesById[t.getTypeId()] = t;
+			}
+
+			rolesByName = Collections.unmodifiableMap(byRoleName);
+			statusesByName = Collections.unmodifiableMap(byStatusName);
+			typesByName = Collections.unmodifiableMap(byTypeName);
+		}
+	}
+
+	// empty until the first load; swapped (never modified) by refresh()
+	private static volatile Tables tables = new Tables(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+	private static volatile boolean loaded = false;
+	private static volatile int version = 0;	// 0 = never loaded; +1 on every successful (re)load
+	private static volatile long lastRefreshMillis = 0;
+
+	// don't reload for unknown ids more often than this (a bad id must not mean a reload per row)
+	private static final long MIN_RELOAD_INTERVAL_MILLIS = 5000;
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private LookupRegistry() {
+		super();
+	}
+
+	/*
+	 * (Re)load all three lookup tables from the database, replacing the shared
+	 * instances. Returns false (keeping the previous tables) if the load failed.
+	 */
+	public static synchronized boolean refresh() {
+		lastRefreshMillis = System.currentTimeMillis();
+		List<Role> roles = new ArrayList<>();
+		List<AccountStatus> statuses = new ArrayList<>();
+		List<AccountType> types = new ArrayList<>();
+
+		try (Connection conn = ConnectionUtil.getConnection()) {
+			try (PreparedStatement stmt = conn.prepareStatement(ROLES_SQL); ResultSet rs = stmt.executeQuery()) {
+				while(rs.next()) {
+					roles.add(new Role(rs.getInt(1), rs.getString(2)));
+				}
+			}
+			try (PreparedStatement stmt = conn.prepareStatement(STATUSES_SQL); ResultSet rs = stmt.executeQuery()) {
+				while(rs.next()) {
+					statuses.add(new AccountStatus(rs.getInt(1), rs.getString(2)));
+				}
+			}
+			try (PreparedStatement stmt = conn.prepareStatement(TYPES_SQL); ResultSet rs = stmt.executeQuery()) {
+				while(rs.next()) {
+					types.add(new AccountType(rs.getInt(1), rs.getString(2)));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		tables = new Tables(roles, statuses, types);
+		loaded = true;
+		version++;	// (only ever written here, under the lock)
+		return true;
+	}
+
+	// Which load the tables are from: 0 until the first successful one, then different after every reload
+	public static int version() {
+		return version;
+	}
+
+	public static Role role(int roleId) {
+		Role r = lookup(tables().rolesById, roleId);
+		if(r == null && reloadFor(roleId)) {
+			r = lookup(tables.rolesById, roleId);
+		}
+		// still unknown - don't fail the whole query over it
+		return (r != null ? r : new Role(roleId, null));
+	}
+
+	public static AccountStatus status(int statusId) {
+		AccountStatus s = lookup(tables().statusesById, statusId);
+		if(s == null && reloadFor(statusId)) {
+			s = lookup(tables.statusesById, statusId);
+		}
+		return (s != null ? s : new AccountStatus(statusId, null));
+	}
+
+	public static AccountType type(int typeId) {
+		AccountType t = lookup(tables().typesById, typeId);
+		if(t == null && reloadFor(typeId)) {
+			t = lookup(tables.typesById, typeId);
+		}
+		return (t != null ? t : new AccountType(typeId, null));
+	}
+
+	// by name (e.g. "Admin", "Open", "Savings"); null if there is no such row
+	public static Role roleNamed(String role) {
+		return tables().rolesByName.get(role);
+	}
+
+	public static AccountStatus statusNamed(String status) {
+		return tables().statusesByName.get(status);
+	}
+
+	public static AccountType typeNamed(String type) {
+		return tables().typesByName.get(type);
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private static Tables tables() {
+		if(!loaded && System.currentTimeMillis() - lastRefreshMillis >= MIN_RELOAD_INTERVAL_MILLIS) {
+			refresh();	// first use (if nothing loaded it at startup)
+		}
+		return tables;
+	}
+
+	private static <T> T lookup(T[] byId, int id) {
+		return (id >= 0 && id < byId.length ? byId[id] : null);
+	}
+
+	// An id we haven't seen: the lookup table may have gained a row since it was loaded
+	private static boolean reloadFor(int id) {
+		if(System.currentTimeMillis() - lastRefreshMillis < MIN_RELOAD_INTERVAL_MILLIS) {
+			return false;
+		}
+		System.out.println("Unknown lookup id " + id + "; reloading lookup tables");
+		return refresh();
+	}
+}
@@ -0,0 +1,322 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.revature.util.AppConfig;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.IntArrayList;
+import com.revature.util.IntArrayMap;
+import com.revature.util.IntIntHashMap;
+
+/*
+ * The USERS_ACCOUNTS join table, held in memory in BOTH directions:
+ *		user id    -> the ids of the Accounts that User owns
+ *		account id -> the ids of the Users who own that Account
+ * each an IntArrayMap (int keys, int[] values - nothing boxed).
+ *
+ * Ownership is checked on nearly every Account request (deposit, withdraw,
+ * transfer, GET /accounts/:id, ...); with the index that check is a hash
+ * lookup plus a scan of the User's (few) account ids - no database query.
+ *
+ * start() loads it at startup, and then reloads it every REFRESH_MILLIS, to
+ * pick up what OTHER servers changed. This server's own changes are made to
+ * it as they happen, by the code that changes USERS_ACCOUNTS (Account
+ * submission and deletion - see AccountService, and User deletion - see
+ * UserService) - including those made while a reload is reading: they are
+ * kept, and made again to the reloaded index before it replaces this one.
+ *
+ * An index that hasn't (re)loaded for MAX_AGE_MILLIS isn't used at all:
+ * isFresh() is false, and callers ask the database instead. Which answers
+ * a fresh index gives, and which it leaves to the database - see isOwner.
+ *
+ * All methods (but load) are synchronized - the index is shared by every
+ * request thread.
+ */
+public class OwnershipIndex {
+
+	private static final String LOAD_SQL = "SELECT user_id, account_id FROM USERS_ACCOUNTS";
+	private static final int[] NONE = new int[0];
+	// how often the index is reloaded; after MAX_AGE_MILLIS without a (successful)
+	// reload it could be missing too much of what other servers changed to be used
+	private static final long REFRESH_MILLIS = AppConfig.getLong("rocp.ownership.refreshMillis", 30000);
+	private static final long MAX_AGE_MILLIS = 3 * REFRESH_MILLIS;
+
+	// (the changes made while a load() is reading - 3 ints each: what, user id, account id)
+	private static final int LINK = 1;
+	private static final int REMOVE_ACCOUNT = 2;
+	private static final int REMOVE_USER = 3;
+
+	private static IntArrayMap accountsByUser = new IntArrayMap(0);
+	private static IntArrayMap usersByAccount = new IntArrayMap(0);
+	private static boolean loaded = false;
+	private static long loadedAt = 0;						// when the last successful load began reading
+	private static IntArrayList changesDuringLoad = null;	// (not null while a load() is reading)
+	private static final Object loading = new Object();		// one load() at a time
+	private static ScheduledExecutorService refresher;
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private OwnershipIndex() {
+		super();
+	}
+
+	// Load the index, and keep reloading it (on a daemon thread) until shutdown()
+	public static void start() {
+		load();
+		synchronized(OwnershipIndex.class) {
+			if(refresher != null) {
+				return;
+			}
+			refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "ownership-index-refresh");
+				t.setDaemon(true);
+				return t;
+			});
+			refresher.scheduleWithFixedDelay(OwnershipIndex::refresh, REFRESH_MILLIS, REFRESH_MILLIS,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public static synchronized void shutdown() {
+		if(refresher != null) {
+			refresher.shutdownNow();
+			refresher = null;
+		}
+	}
+
+	/*
+	 * (Re)load the whole join table, replacing the index. Returns false (keeping
+	 * the previous index - which goes stale if this keeps failing) if the load
+	 * failed.
+	 */
+	public static boolean load() {
+		synchronized(loading) {
+			long startedAt = System.currentTimeMillis();
+			synchronized(OwnershipIndex.class) {
+				changesDuringLoad = new IntArrayList(48);
+			}
+			try {
+				return loadAndSwap(startedAt);
+			} finally {
+				synchronized(OwnershipIndex.class) {
+					changesDuringLoad = null;
+				}
+			}
+		}
+	}
+
+	private static boolean loadAndSwap(long startedAt) {
+		// read the rows into two int lists first, counting ids as they come...
+		IntArrayList userIds = new IntArrayList(1024);
+		IntArrayList accountIds = new IntArrayList(1024);
+		IntIntHashMap accountCounts = new IntIntHashMap(1024);	// user id -> how many Accounts
+		IntIntHashMap ownerCounts = new IntIntHashMap(1024);	// account id -> how many Users
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(LOAD_SQL)) {
+			stmt.setFetchSize(1000);	// (fewer round trips for a big table)
+			try (ResultSet rs = stmt.executeQuery()) {
+				while(rs.next()) {
+					int userId = rs.getInt(1);
+					int accountId = rs.getInt(2);
+					userIds.add(userId);
+					accountIds.add(accountId);
+					accountCounts.increment(userId, 1);
+					ownerCounts.increment(accountId, 1);
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		// ...so every id array can be allocated at its exact size, and filled once
+		IntArrayMap byUser = new IntArrayMap(accountCounts.size());
+		IntArrayMap byAccount = new IntArrayMap(ownerCounts.size());
+		for(int i = 0; i < userIds.size(); i++) {
+			int userId = userIds.get(i);
+			int accountId = accountIds.get(i);
+			fill(byUser, userId, accountId, accountCounts);
+			fill(byAccount, accountId, userId, ownerCounts);
+		}
+
+		synchronized(OwnershipIndex.class) {
+			// the read may or may not have seen the changes made while it ran - so make
+			// them again (in the order they were made; each is harmless if it had)
+			for(int i = 0; i < changesDuringLoad.size(); i += 3) {
+				int userId = changesDuringLoad.get(i + 1);
+				int accountId = changesDuringLoad.get(i + 2);
+				switch(changesDuringLoad.get(i)) {
+				case LINK:
+					link(byUser, byAccount, userId, accountId);
+					break;
+				case REMOVE_ACCOUNT:
+					removeAccount(byUser, byAccount, accountId);
+					break;
+				default:
+					removeUser(byUser, byAccount, userId);
+				}
+			}
+			accountsByUser = byUser;
+			usersByAccount = byAccount;
+			loaded = true;
+			loadedAt = startedAt;
+		}
+		return true;
+	}
+
+	// (the refresher's task - a failed reload is retried at the next one)
+	private static void refresh() {
+		try {
+			load();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	// Has the index loaded - recently enough to be used?
+	public static synchronized boolean isFresh() {
+		return loaded && System.currentTimeMillis() - loadedAt <= MAX_AGE_MILLIS;
+	}
+
+	/*
+	 * Does this User own this Account? TRUE or FALSE when the index can say,
+	 * null when only the database can:
+	 *  - the index isn't fresh: null, whatever is asked.
+	 *  - the User owns it here: TRUE. An Account unlinked on another server
+	 *    (deleted, or its owner deleted) is still owned here until the next
+	 *    reload - REFRESH_MILLIS at most.
+	 *  - the Account has owners here, and the User isn't one: FALSE. Owners
+	 *    are only linked when an Account is submitted (see AccountService.submit),
+	 *    so an Account that has any never gains another one.
+	 *  - the Account has no owners here: null. It may have been submitted on
+	 *    another server since the last reload (or not exist at all).
+	 */
+	public static synchronized Boolean isOwner(int userId, int accountId) {
+		if(!isFresh()) {
+			return null;
+		}
+		if(indexOf(accountsByUser.get(userId), accountId) >= 0) {
+			return Boolean.TRUE;
+		}
+		return (usersByAccount.get(accountId) != null ? Boolean.FALSE : null);
+	}
+
+	// (copies - the caller may keep or change them)
+	public static synchronized int[] accountsOf(int userId) {
+		int[] ids = accountsByUser.get(userId);
+		return (ids == null ? NONE : ids.clone());
+	}
+
+	public static synchronized int[] ownersOf(int accountId) {
+		int[] ids = usersByAccount.get(accountId);
+		return (ids == null ? NONE : ids.clone());
+	}
+
+	// A USERS_ACCOUNTS row was inserted
+	public static synchronized void link(int userId, int accountId) {
+		link(accountsByUser, usersByAccount, userId, accountId);
+		changed(LINK, userId, accountId);
+	}
+
+	// The Account was deleted: it no longer belongs to anyone
+	public static synchronized void removeAccount(int accountId) {
+		removeAccount(accountsByUser, usersByAccount, accountId);
+		changed(REMOVE_ACCOUNT, 0, accountId);
+	}
+
+	// The User was deleted: they no longer own anything
+	public static synchronized void removeUser(int userId) {
+		removeUser(accountsByUser, usersByAccount, userId);
+		changed(REMOVE_USER, userId, 0);
+	}
+
+	// (kept for the load() that is reading, if there is one)
+	private static void changed(int what, int userId, int accountId) {
+		if(changesDuringLoad != null) {
+			changesDuringLoad.add(what);
+			changesDuringLoad.add(userId);
+			changesDuringLoad.add(accountId);
+		}
+	}
+
+	private static void link(IntArrayMap byUser, IntArrayMap byAccount, int userId, int accountId) {
+		if(indexOf(byUser.get(userId), accountId) >= 0) {
+			return;
+		}
+		byUser.put(userId, append(byUser.get(userId), accountId));
+		byAccount.put(accountId, append(byAccount.get(accountId), userId));
+	}
+
+	private static void removeAccount(IntArrayMap byUser, IntArrayMap byAccount, int accountId) {
+		int[] owners = byAccount.remove(accountId);
+		if(owners != null) {
+			for(int userId : owners) {
+				byUser.put(userId, without(byUser.get(userId), accountId));
+			}
+		}
+	}
+
+	private static void removeUser(IntArrayMap byUser, IntArrayMap byAccount, int userId) {
+		int[] accounts = byUser.remove(userId);
+		if(accounts != null) {
+			for(int accountId : accounts) {
+				byAccount.put(accountId, without(byAccount.get(accountId), userId));
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	// (counts: how many ids are still to come for each key - the next one goes at that index - 1)
+	private static void fill(IntArrayMap map, int key, int id, IntIntHashMap counts) {
+		int[] ids = map.get(key);
+		if(ids == null) {
+			ids = new int[counts.get(key, 0)];
+			map.put(key, ids);
+		}
+		ids[ids.length - counts.get(key, 0)] = id;
+		counts.increment(key, -1);
+	}
+
+	private static int indexOf(int[] ids, int id) {
+		if(ids != null) {
+			for(int i = 0; i < ids.length; i++) {
+				if(ids[i] == id) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	// (the arrays are never changed in place - a new one replaces the old)
+	private static int[] append(int[] ids, int id) {
+		if(ids == null) {
+			return new int[] { id };
+		}
+		int[] grown = Arrays.copyOf(ids, ids.length + 1);
+		grown[ids.length] = id;
+		return grown;
+	}
+
+	// null (= remove the key) once the last id is gone
+	private static int[] without(int[] ids, int id) {
+		int i = indexOf(ids, id);
+		if(i < 0) {
+			return ids;
+		}
+		if(ids.length == 1) {
+			return null;
+		}
+		int[] shrunk = new int[ids.length - 1];
+		System.arraycopy(ids, 0, shrunk, 0, i);
+		System.arraycopy(ids, i + 1, shrunk, i, ids.length - i - 1);
+		return shrunk;
+	}
+}
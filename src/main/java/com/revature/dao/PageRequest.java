@@ -0,0 +1,125 @@
+package com.revature.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Which "page" of a (possibly very large) table to read - used for the
+ * paging and sorting endpoints (GET /users?limit=..&sort=..&after=..).
+ *
+ * This is *keyset* (a.k.a. cursor) pagination rather than OFFSET paging:
+ * instead of "skip the first 10,000 rows", each page asks for the rows that
+ * sort AFTER the last row of the previous page. The database can jump straight
+ * there using an index, so every page costs the same, however deep it is.
+ *
+ *  - limit:  max number of rows in the page
+ *  - sort:   the field to sort by; prefix with '-' for descending (e.g. "-balance")
+ *  - after:  the opaque cursor returned as nextCursor with the previous page
+ *            (null/absent for the first page)
+ *
+ * A cursor is just the sort field, plus the sort value and id of the last row
+ * of the previous page, Base64-encoded so clients treat it as opaque.
+ */
+public class PageRequest {
+
+	public static final int DEFAULT_LIMIT = 50;
+	public static final int MAX_LIMIT = 1000;
+
+	private final int limit;
+	private final String sortField;		// without the '-' prefix
+	private final boolean descending;
+	private final boolean hasCursor;
+	private final String afterValue;	// sort value of the last row already seen
+	private final int afterId;			// id of the last row already seen (tie-breaker)
+
+	private PageRequest(int limit, String sortField, boolean descending, boolean hasCursor,
+			String afterValue, int afterId) {
+		super();
+		this.limit = limit;
+		this.sortField = sortField;
+		this.descending = descending;
+		this.hasCursor = hasCursor;
+		this.afterValue = afterValue;
+		this.afterId = afterId;
+	}
+
+	/*
+	 * Build a PageRequest from the raw query-string values (any may be null).
+	 * Throws IllegalArgumentException for a bad limit or a cursor that is
+	 * malformed or belongs to a different sort.
+	 */
+	public static PageRequest of(String limit, String after, String sort, String defaultSort) {
+		int size = DEFAULT_LIMIT;
+		if(limit != null) {
+			try {
+				size = Integer.parseInt(limit);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("limit must be a number");
+			}
+			if(size < 1 || size > MAX_LIMIT) {
+				throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+			}
+		}
+
+		String sortSpec = (sort == null || sort.isEmpty() ? defaultSort : sort);
+		boolean descending = sortSpec.startsWith("-");
+		String field = (descending ? sortSpec.substring(1) : sortSpec);
+
+		if(after == null || after.isEmpty()) {
+			return new PageRequest(size, field, descending, false, null, 0);
+		}
+
+		// cursor = "<sortSpec>,<id>,<value>"  (value last - it may itself contain commas)
+		String decoded;
+		try {
+			decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		String[] parts = decoded.split(",", 3);
+		if(parts.length != 3 || !parts[0].equals(sortSpec)) {
+			throw new IllegalArgumentException("Cursor does not match sort '" + sortSpec + "'");
+		}
+		try {
+			return new PageRequest(size, field, descending, true, parts[2], Integer.parseInt(parts[1]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+	}
+
+	// the cursor a client sends back to get the page after the row with this sort value and id
+	public String cursorAfter(Object sortValue, int id) {
+		String raw = (descending ? "-" : "") + sortField + "," + id + "," + sortValue;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public String getSortField() {
+		return sortField;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	public boolean hasCursor() {
+		return hasCursor;
+	}
+
+	public String getAfterValue() {
+		return afterValue;
+	}
+
+	public int getAfterId() {
+		return afterId;
+	}
+
+	@Override
+	public String toString() {
+		return "PageRequest [limit=" + limit + ", sortField=" + sortField + ", descending=" + descending
+				+ ", hasCursor=" + hasCursor + ", afterValue=" + afterValue + ", afterId=" + afterId + "]";
+	}
+}
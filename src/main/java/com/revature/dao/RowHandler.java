@@ -0,0 +1,15 @@
+package com.revature.dao;
+
+import java.io.IOException;
+
+/*
+ * Receives rows one at a time from a DAO's streaming read (e.g. IUserDAO.streamAll),
+ * so that a whole table can be processed - e.g. written straight out as JSON -
+ * without ever building a List of every row in memory.
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+	public void handle(T row) throws IOException;
+
+}
@@ -0,0 +1,92 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Turns ResultSet rows into model objects (User, Account, ...), shared by all
+ * of the DAO finders instead of each one repeating the same extraction code.
+ *
+ * Reading a column by *name* (rs.getString("username")) makes the driver search
+ * the row's column labels on every call, for every row. Instead, a RowMapper
+ * looks the names up ONCE per query shape (per SQL string) in the
+ * ResultSetMetaData, caches the resulting column positions, and then reads
+ * every row by *index* (rs.getString(col[1])).
+ *
+ * Subclasses list the column names they need (in the order they want them)
+ * and implement mapRow, where col[i] is the ResultSet position of the i-th name.
+ */
+public abstract class RowMapper<T> {
+
+	private final String[] columnNames;
+		// SQL string -> ResultSet position of each of columnNames
+	private final ConcurrentMap<String, int[]> positionsBySql = new ConcurrentHashMap<>();
+
+	protected RowMapper(String... columnNames) {
+		super();
+		this.columnNames = columnNames;
+	}
+
+	// Build ONE model object from the current row, reading columns by position
+	protected abstract T mapRow(ResultSet rs, int[] col) throws SQLException;
+
+	// Every row of the ResultSet, in a List
+	public List<T> mapAll(String sql, ResultSet rs) throws SQLException {
+		int[] col = positions(sql, rs);
+		List<T> rows = new ArrayList<>();
+		while(rs.next()) {
+			rows.add(mapRow(rs, col));
+		}
+		return rows;
+	}
+
+	// Just the first row (or null if there are none)
+	public T mapFirst(String sql, ResultSet rs) throws SQLException {
+		return (rs.next() ? mapRow(rs, positions(sql, rs)) : null);
+	}
+
+	// Every row of the ResultSet, handed to the handler one at a time; returns the count
+	public int forEach(String sql, ResultSet rs, RowHandler<T> handler) throws SQLException, IOException {
+		int[] col = positions(sql, rs);
+		int count = 0;
+		while(rs.next()) {
+			handler.handle(mapRow(rs, col));
+			count++;
+		}
+		return count;
+	}
+
+	// Column positions for this query shape: resolved from the metadata the first time only
+	public int[] positions(String sql, ResultSet rs) throws SQLException {
+		int[] col = positionsBySql.get(sql);
+		if(col == null) {
+			col = resolve(rs.getMetaData());
+			positionsBySql.putIfAbsent(sql, col);
+		}
+		return col;
+	}
+
+	private int[] resolve(ResultSetMetaData meta) throws SQLException {
+		int[] col = new int[columnNames.length];
+		int count = meta.getColumnCount();
+		for(int i = 0; i < columnNames.length; i++) {
+			// take the FIRST column with this name - e.g. for "SELECT * FROM ACCOUNTS INNER JOIN ..."
+			// that is ACCOUNTS.id rather than the joined table's id (same as rs.getInt("id"))
+			for(int c = 1; c <= count && col[i] == 0; c++) {
+				if(columnNames[i].equalsIgnoreCase(meta.getColumnLabel(c))) {
+					col[i] = c;
+				}
+			}
+			if(col[i] == 0) {
+				throw new SQLException("Column '" + columnNames[i] + "' is not in the query result");
+			}
+		}
+		return col;
+	}
+}
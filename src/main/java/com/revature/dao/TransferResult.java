@@ -0,0 +1,9 @@
+package com.revature.dao;
+
+// What happened to a transfer (see IAccountDAO.transfer)
+public enum TransferResult {
+	COMPLETED,				// debited AND credited (committed)
+	NO_SUCH_ACCOUNT,		// source or target doesn't exist - nothing changed
+	INSUFFICIENT_FUNDS,		// source balance < amount - nothing changed
+	FAILED					// database error (after any retries) - nothing changed
+}
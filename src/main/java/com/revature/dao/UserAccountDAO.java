@@ -8,9 +8,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.revature.models.Account;
-import com.revature.models.AccountStatus;
-import com.revature.models.AccountType;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.IntArrayList;
 
 /**
  * This is a class that follows the DAO Design Pattern.
@@ -31,6 +30,17 @@ import com.revature.util.ConnectionUtil;
  */
 public class UserAccountDAO implements IUserAccountDAO {
 
+	// SQL built ONCE (see findByUser's comments for how it works)
+	private static final String FIND_BY_USER = "SELECT id, balance, status_id, type_id FROM ACCOUNTS"
+			+ " WHERE id IN (SELECT account_id FROM USERS_ACCOUNTS WHERE user_id = ?)";
+	private static final String ACCOUNT_IDS_BY_USER = "SELECT account_id FROM USERS_ACCOUNTS WHERE user_id = ?";
+	private static final String USER_IDS_BY_ACCOUNT = "SELECT user_id FROM USERS_ACCOUNTS WHERE account_id = ?";
+	private static final String IS_OWNER = "SELECT 1 FROM USERS_ACCOUNTS WHERE user_id = ? AND account_id = ?";
+	private static final String INSERT = "INSERT INTO USERS_ACCOUNTS (user_id, account_id) VALUES (?, ?)";
+
+	// Builds Account_s from the query's rows (see RowMapper)
+	private static final RowMapper<Account> mapper = new AccountRowMapper();
+
 	public UserAccountDAO() {
 		super();
 	}
@@ -41,93 +51,113 @@ public class UserAccountDAO implements IUserAccountDAO {
 	 * In the DB, have to use the USERS_ACCOUNTS join table
 	 * to find the account_id for all of the Account_s
 	 * associated with the input userId (-> user_id)
-	 * and get all ACCOUNTS with that id, and *then*
-	 * INNER JOIN these with ACCOUNT_STATUS and ACCOUNT_TYPE.
+	 * and get all ACCOUNTS with that id.
 	 * 
 	 * Here, using a subquery for the first operation
-	 * and a parent query for the second, which is then
-	 * INNER JOINed with ACCOUNT_STATUS and ACCOUNT_TYPE.
+	 * and a parent query for the second. (ACCOUNT_STATUS
+	 * and ACCOUNT_TYPE no longer need to be JOINed in -
+	 * the mapper gets those objects from the LookupRegistry.)
 	 *
-	 * (Could instead have done a massive join along
-	 *  with the triple-join - i.e., joined *4* tables,
-	 *  including the USERS_ACCOUNTS DB join table -
-	 *  but a subquery is preferable.)
+	 * (Could instead have done a JOIN with the
+	 *  USERS_ACCOUNTS DB join table - but a subquery
+	 *  is preferable.)
 	 * 
 	 * This single SQL statement (a nested query, or
 	 * query/subquery) is put into a single PreparedStatement.
 	 *
-	 * After execution, we walk through the ResultSet to
-	 * obtain the values (orig. from the Accounts table fields).
-	 * 
-	 * For each resultSet row, we create an AccountStatus,
-	 * AccountType, and Account (Account contains an
-	 * AccountStatus and an AccountType object), putting
-	 * the Account into a list.
+	 * After execution, an AccountRowMapper walks through
+	 * the ResultSet; for each resultSet row, it creates an
+	 * AccountStatus, AccountType, and Account (Account
+	 * contains an AccountStatus and an AccountType object),
+	 * putting the Account into a list.
 	 * 
 	 * The method returns this List<Account>
 	 * (could contain just 1 list item (Account) for some User_s).
 	 */
-		List<Account> allAccountsForUser = new ArrayList<>();
-		
 		// Try-with-resources block
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String subquery = "(SELECT ACCOUNT_ID FROM USERS_ACCOUNTS WHERE USER_ID = ?) ";
-			String status_join = "ACCOUNT_STATUS ON ACCOUNTS.status_id = ACCOUNT_STATUS.id";
-			String type_join = "ACCOUNT_TYPE ON ACCOUNTS.type_id = ACCOUNT_TYPE.id";
-			String sql = "SELECT * FROM ACCOUNTS WHERE ID IN " + subquery
-							+ " INNER JOIN " + status_join + " " + type_join;
-			/* Desired query:
-			 * --------------
-			 * SELECT *
+			/* Query:
+			 * ------
+			 * SELECT ID, BALANCE, STATUS_ID, TYPE_ID
 			 * 	FROM ACCOUNTS
 			 *  WHERE ID IN
 			 *  	(SELECT ACCOUNT_ID
 			 *  	 	FROM USERS_ACCOUNTS
 			 *  		WHERE USER_ID = ?)
-			 *  INNER JOIN + status_join + " " + type_join;
 			 */
-			
-			PreparedStatement stmt = conn.prepareStatement(sql);
-						
-			//System.out.println(sql); // use for testing, if needed
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(FIND_BY_USER)) {
 			
 			// Inject a value into the PreparedStatement parameter
 			stmt.setInt(1, userId);
 			
-			ResultSet rs = stmt.executeQuery();
-			
-			// Walk/loop through the ResultSet to get the data
-			// from which to create an Account object
-			while(rs.next()) {
-				// create local variables;
-					// accept the rs values (orig. from the Accounts table fields)
-					// ((already) have the userId from this method's input parameter
-					//  - but don't really need this going forward (unless wanted
-					//  to display it on the web page with the (other) results))
-				int accountId = rs.getInt("id");
-				double balance = rs.getDouble("balance");
-				int statusId = rs.getInt("status_id");
-				int typeId = rs.getInt("type_id");
-					// accept the rs values (orig. from the (non-JOIN)
-					// Account_Status and Account_Type table fields)
-				String status = rs.getString("status");
-				String type = rs.getString("type");
-				
-				// For each resultSet row, create an AccountStatus, AccountType, and Account
-				// (Account contains an AccountStatus and an AccountType object)
-				AccountStatus status_obj = new AccountStatus(statusId, status);
-				AccountType type_obj = new AccountType(typeId, type);
-				Account acct = new Account(accountId, balance, status_obj, type_obj);
-				
-				// add the Account object to the List
-				allAccountsForUser.add(acct);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return mapper.mapAll(FIND_BY_USER, rs);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 			return new ArrayList<>(); // return an empty list if something goes wrong
 		}
+	}
+
+	@Override
+	public int[] findAccountIdsByUser(int userId) {
+		// only the join table is needed - no ACCOUNTS rows, no Account objects
+		return findIds(ACCOUNT_IDS_BY_USER, userId);
+	}
+
+	@Override
+	public int[] findUserIdsByAccount(int accountId) {
+		return findIds(USER_IDS_BY_ACCOUNT, accountId);
+	}
+
+	@Override
+	public boolean isOwner(int userId, int accountId) {
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(IS_OWNER)) {
+			stmt.setInt(1, userId);
+			stmt.setInt(2, accountId);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next();	// a row means this User owns this Account
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false; // when in doubt, NOT the owner
+		}
+	}
+
+	@Override
+	public int insert(int userId, int accountId) {
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+			stmt.setInt(1, userId);
+			stmt.setInt(2, accountId);
+			
+			return stmt.executeUpdate();	// returns the row count (SQL DML, as here)
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
 		
-		return allAccountsForUser;
+		return 0;
+	}
+
+	// The first column of every row, as an int[] (empty if something goes wrong)
+	private static int[] findIds(String sql, int id) {
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setInt(1, id);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				IntArrayList ids = new IntArrayList(4);
+				while(rs.next()) {
+					ids.add(rs.getInt(1));
+				}
+				return ids.toArray();
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new int[0];
+		}
 	}
 
 }
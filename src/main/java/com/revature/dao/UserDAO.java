@@ -1,16 +1,20 @@
 package com.revature.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import com.revature.models.Role;
 import com.revature.models.User;
+import com.revature.templates.PageTemplate;
+import com.revature.util.AppConfig;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.ContentHash;
 
 /**
  * This is a class that follows the DAO Design Pattern.
@@ -30,8 +34,49 @@ import com.revature.util.ConnectionUtil;
  */
 public class UserDAO implements IUserDAO {
 
+	// Step 2 (Define SQL Statements) is done ONCE, here, rather than on every call;
+	// the pooled Connection_s also cache the PreparedStatement for each of these
+	// strings (see StatementCache), so each is only parsed once per connection.
+		// The ? marks are placeholders for input values; they work for
+		// PreparedStatement_s, and are designed to prevent SQL Injection
+		// (no JOIN with ROLES - the Role objects come from the LookupRegistry)
+	private static final String SELECT_ALL = "SELECT id, username, password, first_name, last_name, email, role_id"
+											+ " FROM USERS";
+
+	private static final String INSERT = "INSERT INTO USERS (username, password, first_name, last_name, email, role_id)"
+										+ " VALUES (?, ?, ?, ?, ?, ?)";
+	private static final String FIND_BY_ID = SELECT_ALL + " WHERE USERS.id = ?";
+		// (everything the User's JSON shows - and NOT the password)
+	private static final String FIND_VERSION = "SELECT username, first_name, last_name, email, role_id"
+											+ " FROM USERS WHERE id = ?";
+	private static final String FIND_BY_USERNAME = SELECT_ALL + " WHERE username = ?";
+	private static final String UPDATE = "UPDATE USERS SET username=?, password=?, first_name=?, last_name=?,"
+										+ " email=?, role_id=? WHERE id = ?";
+	private static final String DELETE = "DELETE FROM USERS WHERE id = ?";
+
+	// Builds User_s from the rows of all of the queries above (see RowMapper)
+	private static final RowMapper<User> mapper = new UserRowMapper();
+
+	// Keyset pagination for findPage; only these fields may be sorted on
+	// (each backed by an index on (column, id) - see KeysetPager)
+	private static final KeysetPager<User> pager = new KeysetPager<User>(SELECT_ALL, "USERS.id", User::getUserId)
+			.sortable("username", "USERS.username", KeysetPager.ColumnType.STRING, User::getUsername)
+			.sortable("lastName", "USERS.last_name", KeysetPager.ColumnType.STRING, User::getLastName);
+
+	// how many rows the driver fetches per round trip for streamAll;
+	// (the Oracle driver's default of 10 means a round trip for every 10 rows)
+	private static final int FETCH_SIZE = AppConfig.getInt("rocp.dao.fetchSize", 500);
+
+	// how many rows insertAll/updateAll send to the database per JDBC batch
+	private final int batchSize;
+
 	public UserDAO() {
+		this(JdbcBatch.DEFAULT_BATCH_SIZE);
+	}
+
+	public UserDAO(int batchSize) {
 		super();
+		this.batchSize = batchSize;
 	}
 	
 	@Override
@@ -47,19 +92,13 @@ public class UserDAO implements IUserDAO {
 			// Initial STS error: "Unhandled exception type SQLException
 			//					   thrown by automatic close() invocation on conn"
 			// Chose fix #2 of 2:  "Add catch clause to surrounding try"
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			
-			// Step 2: Define SQL Statements
-				// The ? marks are placeholders for input values; they work for
-				// PreparedStatement_s, and are designed to prevent SQL Injection
-			String columns = "username, password, first_name, last_name, email, role_id";
-			String sql = "INSERT INTO USERS (" + columns + ") VALUES (?, ?, ?, ?, ?, ?)";
-			
-			// Step 3[a]: Obtain the [Prepared]Statement object (on/from the Connection)
-				// PreparedStatement is a sub-interface of Statement that provides extra
-				// security to prevent SQL Injection. It accomplishes this by allowing
-				// the use ? marks that we can replace with whatever data we want
-			PreparedStatement stmt = conn.prepareStatement(sql);
+		// Step 3[a]: Obtain the [Prepared]Statement object (on/from the Connection)
+			// PreparedStatement is a sub-interface of Statement that provides extra
+			// security to prevent SQL Injection. It accomplishes this by allowing
+			// the use ? marks that we can replace with whatever data we want
+			// (Step 2, the SQL, is the INSERT constant above)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(INSERT)) {
 			
 			// Step 3b: If we are using a PreparedStatement, then inject values into the parameters
 			// 			(insert values into each of the ? marks above - i.e., populate the parameters)
@@ -72,8 +111,6 @@ public class UserDAO implements IUserDAO {
 			stmt.setInt(6, u.getRole().getRoleId()); // replace 6th ? mark with u.getRole().getRoleId();
 										// getRole returned *its* field, Role; then call Role.getRoleId()
 			
-			//System.out.println(sql); // use for testing, if needed
-			
 			// Step 4: Execute the Statement
 			return stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
 			
@@ -86,104 +123,87 @@ public class UserDAO implements IUserDAO {
 		return 0;
 	}
 
+	@Override
+	public int[] insertAll(Collection<User> users) {
+		// Same INSERT as above, but sent in JDBC batches within ONE transaction;
+		// returns the id the database generated for each User, in order
+		return JdbcBatch.insertAll(INSERT, "id", users, batchSize, (stmt, u) -> {
+			stmt.setString(1, u.getUsername());
+			stmt.setString(2, u.getPassword());
+			stmt.setString(3, u.getFirstName());
+			stmt.setString(4, u.getLastName());
+			stmt.setString(5, u.getEmail());
+			stmt.setInt(6, u.getRole().getRoleId());
+		});
+	}
+
 	@Override
 	public List<User> findAll() {
-		List<User> allUsers = new ArrayList<>();
-		
 		// Try-with-resources block (instantiates Connection object conn for use only inside this block;
 		// at the end, automatically invokes close() on the resource, which prevents memory leaks)
 		
 		// Step 1: [*Try* to] Get a Connection (to the database) using ConnectionUtil
 		//		   (handle any [SQL]Exception in the accompanying catch block)
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			
-			// Step 2: Define SQL Statements
-			String sql = "SELECT * FROM USERS INNER JOIN ROLES ON USERS.role_id = ROLES.id";
-			
-			// Step 3: Obtain the Statement object (on/from the Connection)
-				// Here, don't need a PreparedStatement since this is a read operation
-				// that is not using parameters (not injecting values into ?'s)
-			Statement stmt = conn.createStatement();
-			
-			// Step 4a: Execute the Statement	
-			ResultSet rs = stmt.executeQuery(sql); // returns a ResultSet object
+		// Step 3: Obtain the PreparedStatement object (on/from the Connection)
+			// (no parameters are needed for this read operation, but a
+			// PreparedStatement - unlike a plain Statement - gets cached)
+		// Step 4a: Execute the Statement (returns a ResultSet object)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(SELECT_ALL);
+				ResultSet rs = stmt.executeQuery()) {
 			
-			// Step 4b: Walk/loop through the ResultSet to get the data
-			//			to add Users to the List
-			while(rs.next()) {  // returns a boolean
-				// create local variables;
-					// accept the rs values (orig. from the Users table fields)
-				int userId = rs.getInt("id");
-				String username = rs.getString("username");
-				String password = rs.getString("password");
-				String firstName = rs.getString("first_name");
-				String lastName = rs.getString("last_name");
-				String email = rs.getString("email");
-				int roleId = rs.getInt("role_id"); // could instead use ROLES.id (same data (JOIN))
-					// accept the rs values (orig. from the (non-JOIN) Roles table field)
-				String roleName = rs.getString("role");
-				
-				// create a Role and User (User contains a Role object)
-				// for each ResultSet row
-				Role role_obj = new Role(roleId, roleName);
-				User u = new User(userId, username, password, firstName, lastName, email, role_obj);
-	
-				//  add the User object to the List
-				allUsers.add(u);
-			}
+			// Step 4b: Walk/loop through the ResultSet, creating a User
+			//			(containing a Role object) for each row, into a List
+			return mapper.mapAll(SELECT_ALL, rs);
 		} catch (SQLException e) {
 			// Step 5:  Perform any exception handling in an appropriate way
 			e.printStackTrace();
 			return new ArrayList<>(); // return an empty list if something goes wrong
 		}
-		
-		// return the List of all Users
-		return allUsers;
 	}
 
 	@Override
-	public User findById(int userId) {
-		// Try-with-resources block (instantiates Connection object conn for use only inside this block;
-		// at the end, automatically invokes close() on the resource, which prevents memory leaks)
-		
-		// Step 1: [*Try* to] Get a Connection (to the database) using ConnectionUtil
-		//		   (handle any [SQL]Exception in the accompanying catch block)
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			
-			// Step 2: Define SQL Statements
-			String sql = "SELECT * FROM USERS INNER JOIN ROLES ON USERS.role_id = ROLES.id where ROLES.id = ?";
+	public int streamAll(RowHandler<User> handler) throws IOException {
+		// Same query as findAll, but each User goes straight to the handler as its
+		// row arrives (rows come fetchSize at a time), instead of into a List
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(SELECT_ALL)) {
+			stmt.setFetchSize(FETCH_SIZE);
 			
+			try (ResultSet rs = stmt.executeQuery()) {
+				return mapper.forEach(SELECT_ALL, rs, handler);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;	// the read failed part-way (some rows may already have been handled)
+		}
+	}
+
+	@Override
+	public PageTemplate<User> findPage(PageRequest page) {
+		try {
+			return pager.findPage(page, mapper);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new PageTemplate<>(new ArrayList<>(), null); // return an empty page if something goes wrong
+		}
+	}
+
+	@Override
+	public User findById(int userId) {
 			// Step 3[a]: Obtain the PreparedStatement object (on/from the Connection)
-				// Need a PreparedStatement here, since injecting a value (need a parameter/?)
-			PreparedStatement stmt = conn.prepareStatement(sql);
+			// Need a PreparedStatement here, since injecting a value (need a parameter/?)
+			// (filters on USERS.id - the user's own primary key)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)) {
 
 			// Step 3b: Inject a value into the PreparedStatement parameter (replace the ? above)
 			stmt.setInt(1, userId);
 			
-			System.out.println(sql); // use for testing, if needed
-			
-			// Step 4a: Execute the Statement
-			ResultSet rs = stmt.executeQuery(); // returns a ResultSet object
-
-			// Step 4b: Walk/loop through the ResultSet to get the data
-			//			from which to create a User object
-			while(rs.next()) {  // returns a boolean
-				// create local variables;
-					// accept the rs values (orig. from the Users table fields)
-					// (already have the userId from this method's input parameter)
-				String username = rs.getString("username");
-				String password = rs.getString("password");
-				String firstName = rs.getString("first_name");
-				String lastName = rs.getString("last_name");
-				String email = rs.getString("email");
-				int roleId = rs.getInt("role_id"); // could instead use ROLES.id (same data (JOIN))
-					// accept the rs values (orig. from the (non-JOIN) Roles table field)
-				String roleName = rs.getString("role");
-				
-				// create a Role and User (User contains a Role object),
-				// returning the User object
-				Role role_obj = new Role(roleId, roleName);
-				return new User(userId, username, password, firstName, lastName, email, role_obj);
+			// Step 4: Execute the Statement, and create a User
+			//		   (containing a Role object) from the first row, if there is one
+			try (ResultSet rs = stmt.executeQuery()) {
+				return mapper.mapFirst(FIND_BY_ID, rs);
 			}
 		} catch (SQLException e) {
 			// Step 5:  Perform any exception handling in an appropriate way
@@ -193,34 +213,38 @@ public class UserDAO implements IUserDAO {
 		return null;
 	}
 
+	@Override
+	public Long findVersion(int userId) {
+		// Only the columns the User's JSON shows, hashed straight from the row (see
+		// ContentHash) - no User built just to compare an ETag
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(FIND_VERSION)) {
+			stmt.setInt(1, userId);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				if(!rs.next()) {
+					return null;	// no such User
+				}
+				Role role = LookupRegistry.role(rs.getInt(5));
+				return ContentHash.ofUser(userId, rs.getString(1), rs.getString(2), rs.getString(3),
+						rs.getString(4), (role == null ? -1 : role.getRoleId()), (role == null ? null : role.getRole()));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		
+		return null;
+	}
+
 	@Override
 	public User findByUsername(String username) {
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String sql = "SELECT * FROM USERS INNER JOIN ROLES ON USERS.role_id = ROLES.id where username = ?";
-				// Need a PreparedStatement here, since injecting a value (need a parameter/?)
-			PreparedStatement stmt = conn.prepareStatement(sql);
+			// Need a PreparedStatement here, since injecting a value (need a parameter/?)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(FIND_BY_USERNAME)) {
 			stmt.setString(1, username);
 			
-			ResultSet rs = stmt.executeQuery();
-
-			// Walk/loop through the ResultSet to get the data
-			// from which to create a User object
-			while(rs.next()) {
-					// accept the rs values (orig. from the Users table fields) into local variables
-					// (already have the username from this method's input parameter)
-				int userId = rs.getInt("id");
-				String password = rs.getString("password");
-				String firstName = rs.getString("first_name");
-				String lastName = rs.getString("last_name");
-				String email = rs.getString("email");
-				int roleId = rs.getInt("role_id"); // could instead use ROLES.id (same data (JOIN))
-					// accept the rs values (orig. from the (non-JOIN) Roles table field)
-				String roleName = rs.getString("role");
-				
-				// create a Role and User (User contains a Role object),
-				// returning the User object
-				Role role_obj = new Role(roleId, roleName);
-				return new User(userId, username, password, firstName, lastName, email, role_obj);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return mapper.mapFirst(FIND_BY_USERNAME, rs);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -231,11 +255,9 @@ public class UserDAO implements IUserDAO {
 
 	@Override
 	public int update(User u) {
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String columns_params = "username=?, password=?, first_name=?, last_name=?, email=?, role_id=?";
-			String sql = "UPDATE USERS SET " + columns_params + " WHERE id = ?";
-				// Use a PreparedStatement since injecting values (need parameters/?'s)
-			PreparedStatement stmt = conn.prepareStatement(sql);
+			// Use a PreparedStatement since injecting values (need parameters/?'s)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(UPDATE)) {
 			
 			// Inject values into (populate) the PreparedStatement parameters (? marks above)
 			stmt.setString(1, u.getUsername());
@@ -246,8 +268,6 @@ public class UserDAO implements IUserDAO {
 			stmt.setInt(6, u.getRole().getRoleId()); // getRole returns the Role field; then call Role.getRoleId()
 			stmt.setInt(7, u.getUserId());
 			
-			//System.out.println(sql); // use for testing, if needed
-			
 			return stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
 			
 		} catch (SQLException e) {
@@ -257,14 +277,27 @@ public class UserDAO implements IUserDAO {
 		return 0;
 	}
 
+	@Override
+	public int updateAll(Collection<User> users) {
+		// Same UPDATE as above, but sent in JDBC batches within ONE transaction
+		return JdbcBatch.updateAll(UPDATE, users, batchSize, (stmt, u) -> {
+			stmt.setString(1, u.getUsername());
+			stmt.setString(2, u.getPassword());
+			stmt.setString(3, u.getFirstName());
+			stmt.setString(4, u.getLastName());
+			stmt.setString(5, u.getEmail());
+			stmt.setInt(6, u.getRole().getRoleId());
+			stmt.setInt(7, u.getUserId());
+		});
+	}
+
 	@Override
 	public int delete(int userId) {
-		try (Connection conn = ConnectionUtil.getConnection()) {
-			String sql = "DELETE FROM USERS WHERE id = ?";
-			// can use cascade ___? w/ DELETE? -- like:
-			//-- DROP TABLE ROLES CASCADE CONSTRAINTS;
-				// Use a PreparedStatement since injecting a value (need a parameter/?)
-			PreparedStatement stmt = conn.prepareStatement(sql);
+		// can use cascade ___? w/ DELETE? -- like:
+		//-- DROP TABLE ROLES CASCADE CONSTRAINTS;
+			// Use a PreparedStatement since injecting a value (need a parameter/?)
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(DELETE)) {
 			stmt.setInt(1, userId);
 			
 			return stmt.executeUpdate();	// returns the row count (SQL DML, as here) or 0 (SQL w/ no return)
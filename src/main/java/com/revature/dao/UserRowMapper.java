@@ -0,0 +1,23 @@
+package com.revature.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.revature.models.User;
+
+// Maps a row of USERS to a User (User contains a Role object - the SHARED
+// instance for the row's role_id, from the LookupRegistry; no JOIN with ROLES needed)
+public class UserRowMapper extends RowMapper<User> {
+
+	public UserRowMapper() {
+		//    0       1           2           3             4            5        6
+		super("id", "username", "password", "first_name", "last_name", "email", "role_id");
+	}
+
+	@Override
+	protected User mapRow(ResultSet rs, int[] col) throws SQLException {
+		return new User(rs.getInt(col[0]), rs.getString(col[1]), rs.getString(col[2]),
+				rs.getString(col[3]), rs.getString(col[4]), rs.getString(col[5]),
+				LookupRegistry.role(rs.getInt(col[6])));
+	}
+}
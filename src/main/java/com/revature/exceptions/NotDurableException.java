@@ -0,0 +1,48 @@
+package com.revature.exceptions;
+
+// Thrown when a balance change's journal record could not be appended - so the
+// change was rolled back, and was NOT made - or was not durable in time after the
+// change had committed (isChangeMade()) - see JournalEntries
+public class NotDurableException extends RuntimeException {
+	// Chose "Add generated serial version ID"
+	private static final long serialVersionUID = 4417309135590263781L;
+
+	private final boolean changeMade;
+
+	// Chose "Generate Constructors from Superclass..." (ONLY)
+	public NotDurableException() {
+		super();
+		this.changeMade = false;
+	}
+
+	public NotDurableException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace) {
+		super(message, cause, enableSuppression, writableStackTrace);
+		this.changeMade = false;
+	}
+
+	public NotDurableException(String message, Throwable cause) {
+		super(message, cause);
+		this.changeMade = false;
+	}
+
+	public NotDurableException(String message) {
+		super(message);
+		this.changeMade = false;
+	}
+
+	public NotDurableException(Throwable cause) {
+		super(cause);
+		this.changeMade = false;
+	}
+
+	public NotDurableException(String message, boolean changeMade) {
+		super(message);
+		this.changeMade = changeMade;
+	}
+
+	// true if the change WAS committed (only its journal record isn't on disk yet)
+	public boolean isChangeMade() {
+		return changeMade;
+	}
+}
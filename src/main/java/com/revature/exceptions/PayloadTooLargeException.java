@@ -0,0 +1,29 @@
+package com.revature.exceptions;
+
+// Thrown (while reading a request body) when the body is bigger than allowed - see JsonCodec
+public class PayloadTooLargeException extends RuntimeException {
+	// Chose "Add generated serial version ID"
+	private static final long serialVersionUID = -2861527405418896623L;
+
+	// Chose "Generate Constructors from Superclass..." (ONLY)
+	public PayloadTooLargeException() {
+		super();
+	}
+
+	public PayloadTooLargeException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace) {
+		super(message, cause, enableSuppression, writableStackTrace);
+	}
+
+	public PayloadTooLargeException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public PayloadTooLargeException(String message) {
+		super(message);
+	}
+
+	public PayloadTooLargeException(Throwable cause) {
+		super(cause);
+	}
+}
@@ -5,7 +5,7 @@ import java.util.Objects;
 // Represents a single account for a user
 public class Account {
 	private int accountId; // primary key
-	private double balance;  // not null
+	private long balance;  // not null; in CENTS (see Money)
 	private AccountStatus status;
 	private AccountType type;
 	
@@ -13,7 +13,7 @@ public class Account {
 		super();
 	}
 
-	public Account(int accountId, double balance, AccountStatus status, AccountType type) {
+	public Account(int accountId, long balance, AccountStatus status, AccountType type) {
 		super();
 		this.accountId = accountId;
 		this.balance = balance;
@@ -29,11 +29,11 @@ public class Account {
 		this.accountId = accountId;
 	}
 
-	public double getBalance() {
+	public long getBalance() {
 		return balance;
 	}
 
-	public void setBalance(double balance) {
+	public void setBalance(long balance) {
 		this.balance = balance;
 	}
 
@@ -68,7 +68,7 @@ public class Account {
 		}
 		Account other = (Account) obj;
 		return accountId == other.accountId
-				&& Double.doubleToLongBits(balance) == Double.doubleToLongBits(other.balance)
+				&& balance == other.balance
 				&& Objects.equals(status, other.status) && Objects.equals(type, other.type);
 	}
 
@@ -0,0 +1,396 @@
+package com.revature.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.IAccountDAO;
+import com.revature.util.AccountBook;
+import com.revature.util.AppConfig;
+import com.revature.util.BookStats;
+import com.revature.util.IntArrayList;
+import com.revature.util.IntHashSet;
+import com.revature.util.JournalReader;
+import com.revature.util.JournalRecord;
+import com.revature.util.JournalUtil;
+import com.revature.util.TransactionJournal;
+
+/*
+ * Keeps the TransactionJournal and the in-memory AccountBook in step, and
+ * gets the book back quickly after a restart.
+ *
+ *  - append(...) - run inside each balance change's database transaction (see
+ *    JournalEntries) - appends its records to the journal; settle(...) - once
+ *    the transaction has committed, or not - applies them to the book if it
+ *    did. The book applies records strictly in sequence order: a change's
+ *    records wait (in the unsettled queue) until every change appended before
+ *    it has settled. So the book never shows a change that isn't committed,
+ *    and a snapshot of it always matches exactly one point (sequence number)
+ *    in the journal.
+ *  - resync(fromId, toId) puts the book right from the database - e.g. after a
+ *    transaction whose commit failed (it may have committed after all).
+ *  - Every snapshotIntervalMillis the book is written to a snapshot file, and
+ *    the journal is rotated (see TransactionJournal.rotate) - it only keeps the
+ *    records since the snapshot.
+ *  - warmStart() (at startup) loads the latest snapshot and replays only the
+ *    journal records written after it - then reads the Accounts those records
+ *    touched again from the database (reconcile), in case a record was
+ *    journaled for a change that never committed (e.g. a crash in between).
+ *    That is a plain read, not FOR UPDATE: it runs before any request is
+ *    served, so nothing else is changing those rows.
+ *    Only if there is no (valid) snapshot is the book built from the database,
+ *    with AccountDAO.streamAll.
+ *
+ * Static, like AuthService: there is ONE book, shared by every AccountService.
+ */
+public class AccountBookService {
+
+	private static final Path SNAPSHOT_PATH = Paths.get(AppConfig.getString("rocp.book.snapshotPath",
+			System.getProperty("java.io.tmpdir") + "/rocp-accounts.snapshot"));
+	private static final long SNAPSHOT_INTERVAL_MILLIS = AppConfig.getLong("rocp.book.snapshotIntervalMillis", 300000);
+	// reconcile reads touched Accounts in id ranges (one query each): ids at most this
+	// far apart share a range, and no range is longer than RECONCILE_MAX_IDS
+	private static final int RECONCILE_GAP = AppConfig.getInt("rocp.book.reconcileGap", 64);
+	private static final int RECONCILE_MAX_IDS = AppConfig.getInt("rocp.book.reconcileMaxIds", 10000);
+
+	private static final IAccountDAO dao = new AccountDAO();
+	private static final Object lock = new Object();	// journal append + book apply happen under this
+	// the changes appended but not yet applied to the book, in sequence order (under lock)
+	private static final ArrayDeque<JournalEntries> unsettled = new ArrayDeque<>();
+	private static volatile AccountBook book;			// null until warmStart()
+	private static ScheduledExecutorService snapshotter;
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private AccountBookService() {
+		super();
+	}
+
+	public static synchronized void warmStart() {
+		if(book != null) {
+			return;
+		}
+		TransactionJournal journal = JournalUtil.getJournal();
+
+		AccountBook loaded = null;
+		try {
+			loaded = AccountBook.loadSnapshot(SNAPSHOT_PATH);
+		} catch (IOException e) {
+			e.printStackTrace();	// unusable snapshot - fall back to the database
+		}
+		if(loaded != null && journal != null && (loaded.getLastSequence() > journal.getLastSequence()
+				|| loaded.getLastSequence() + 1 < journal.getFirstSequence())) {
+			// the snapshot is not of THIS journal, or the journal no longer has what came after it
+			System.out.println("The account book snapshot does not match the transaction journal; ignoring it");
+			loaded = null;
+		}
+		boolean fromDatabase = (loaded == null);
+		if(fromDatabase) {
+			loaded = loadFromDatabase(journal);
+			if(loaded == null) {
+				System.out.println("Could not build the account book; it will not be available");
+				return;
+			}
+		}
+
+		// replay whatever happened after the snapshot - reading from the record after it, not from the start
+		int replayed = 0;
+		IntArrayList touched = new IntArrayList(64);
+		if(journal != null) {
+			try (JournalReader reader = journal.readAfter(loaded.getLastSequence())) {
+				JournalRecord r;
+				while((r = reader.next()) != null) {
+					loaded.apply(r);
+					touchedBy(r, touched);
+					replayed++;
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		// then read the Accounts those records touched from the database: their rows are what
+		// actually committed (and include any Account that was created after the snapshot)
+		reconcile(loaded, touched);
+
+		book = loaded;
+		if(replayed > 0 || fromDatabase) {
+			snapshot();	// so the next start doesn't do all of that again
+		}
+
+		snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "account-book-snapshot");
+			t.setDaemon(true);
+			return t;
+		});
+		snapshotter.scheduleWithFixedDelay(AccountBookService::snapshot, SNAPSHOT_INTERVAL_MILLIS,
+				SNAPSHOT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * Append the change's records to the journal - called INSIDE its transaction
+	 * (see JournalEntries.run) - and queue it to be applied to the book once it
+	 * has settled. With journaling disabled the records are only queued.
+	 */
+	static void append(JournalEntries entries) throws IOException {
+		TransactionJournal journal = JournalUtil.getJournal();
+		synchronized(lock) {
+			unsettled.add(entries);	// (first - if an append fails, the change is still settled, as rolled back)
+			for(JournalRecord p : entries.getRecords()) {
+				entries.appended.add(journal == null ? p : journal.append(p.getType(), p.getAccountId(),
+						p.getTargetAccountId(), p.getStatusId(), p.getTypeId(), p.getAmount()));
+			}
+		}
+	}
+
+	/*
+	 * The change's transaction has committed - or not - so its records may be
+	 * applied to the book: once every change appended before it has settled too.
+	 * Applies every change at the front of the queue that has settled (in order),
+	 * and returns the ids of any Account the book didn't have, to be resync()ed.
+	 */
+	static IntArrayList settle(JournalEntries entries, boolean committed) {
+		IntArrayList unknown = new IntArrayList(0);
+		synchronized(lock) {
+			if(entries.settled) {
+				return unknown;
+			}
+			entries.settled = true;
+			entries.committed = committed;
+			AccountBook b = book;
+			while(!unsettled.isEmpty() && unsettled.peekFirst().settled) {
+				JournalEntries next = unsettled.pollFirst();
+				if(!next.committed || b == null) {
+					continue;	// (a rolled-back change's records are replayed and reconciled at the next start)
+				}
+				for(JournalRecord r : next.appended) {
+					if(!b.apply(r)) {
+						unknown.add(r.getAccountId());
+						if(r.getType() == JournalRecord.TRANSFER) {
+							unknown.add(r.getTargetAccountId());
+						}
+					}
+				}
+			}
+		}
+		return unknown;
+	}
+
+	/*
+	 * Block until the record is on disk (group commit - see TransactionJournal).
+	 * Returns false if it isn't within ACK_TIMEOUT_MILLIS, or the journal could
+	 * not be synced - then the change must NOT be acknowledged as it is. (true if
+	 * journaling is disabled, or there is no record - there is nothing to wait for.)
+	 * Called AFTER the change has committed, so no row locks are held meanwhile.
+	 */
+	public static boolean awaitDurable(JournalRecord r) {
+		TransactionJournal journal = JournalUtil.getJournal();
+		if(journal == null || r == null) {
+			return true;
+		}
+		try {
+			if(journal.awaitDurable(r.getSequence(), JournalUtil.ACK_TIMEOUT_MILLIS)) {
+				return true;
+			}
+			System.out.println("Journal record #" + r.getSequence() + " is not durable after "
+					+ JournalUtil.ACK_TIMEOUT_MILLIS + " ms");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/*
+	 * Put the book right for the Accounts from fromId to toId, from the
+	 * database: each row is read with its lock held, and journaled (as a
+	 * BALANCE_SET - or, for one the book has but the table doesn't, a DELETED
+	 * record) - so a snapshot taken in the meantime is put right by the replay, too.
+	 */
+	public static void resync(int fromId, int toId) {
+		AccountBook b = book;
+		if(b == null || fromId <= 0) {
+			return;
+		}
+		JournalEntries fixes = new JournalEntries();
+		IntHashSet found = new IntHashSet(Math.min(toId - fromId + 1, 1024));
+		int count = -1;
+		try {
+			count = dao.lockRange(fromId, toId, a -> {
+				found.add(a.getAccountId());
+				fixes.add(JournalRecord.BALANCE_SET, a.getAccountId(), 0, a.getStatus().getStatusId(),
+						a.getType().getTypeId(), a.getBalance());
+			}, () -> {
+				for(int accountId : b.idsBetween(fromId, toId)) {
+					if(!found.contains(accountId)) {
+						fixes.add(JournalRecord.DELETED, accountId, 0, 0, 0, 0);
+					}
+				}
+				append(fixes);
+			});
+		} finally {
+			settle(fixes, count >= 0);	// (not JournalEntries.settle - that would resync again if this failed)
+		}
+		if(count < 0) {
+			System.out.println("Could not re-read Accounts " + fromId + "-" + toId + " for the account book");
+		}
+	}
+
+	// null until warmStart() has run
+	public static BookStats getStats() {
+		AccountBook b = book;
+		return (b == null ? null : b.getStats());
+	}
+
+	/*
+	 * The count and total balance of the Accounts with this status and/or type
+	 * (null = any), from the book's columns - a parallel scan, no query and no
+	 * Account objects. null until warmStart() has run.
+	 */
+	public static BookStats summarize(Integer statusId, Integer typeId) {
+		AccountBook b = book;
+		if(b == null) {
+			return null;
+		}
+		if(statusId == null && typeId == null) {
+			return b.getStats();
+		}
+		int status = (statusId == null ? 0 : statusId);
+		int type = (typeId == null ? 0 : typeId);
+		return b.summarize((accountId, balance, rowStatusId, rowTypeId) ->
+				(statusId == null || rowStatusId == status) && (typeId == null || rowTypeId == type));
+	}
+
+	// Take a final snapshot (so the next start replays nothing) - call once, at shutdown
+	public static synchronized void shutdown() {
+		if(snapshotter != null) {
+			snapshotter.shutdownNow();
+		}
+		snapshot();
+	}
+
+	// The id range(s) a record changed, added to ranges as (from, to) pairs
+	static void touchedBy(JournalRecord r, IntArrayList ranges) {
+		if(r.getType() == JournalRecord.INTEREST) {
+			ranges.add(r.getAccountId());
+			ranges.add(r.getTargetAccountId());
+			return;
+		}
+		ranges.add(r.getAccountId());
+		ranges.add(r.getAccountId());
+		if(r.getType() == JournalRecord.TRANSFER) {
+			ranges.add(r.getTargetAccountId());
+			ranges.add(r.getTargetAccountId());
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	// Snapshot the book, then rotate the journal: the segments the snapshot covers aren't needed any more
+	private static void snapshot() {
+		AccountBook b = book;
+		if(b == null) {
+			return;
+		}
+		try {
+			long upTo = b.writeSnapshot(SNAPSHOT_PATH);
+			TransactionJournal journal = JournalUtil.getJournal();
+			if(journal != null) {
+				journal.rotate(upTo);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * Build the book from scratch. The journal's sequence is read FIRST: a change
+	 * committed while the table is being read may then be replayed on top of a
+	 * row that already includes it - which reconcile() then puts right, as it
+	 * reads every Account a replayed record touched again.
+	 */
+	private static AccountBook loadFromDatabase(TransactionJournal journal) {
+		long sequence = (journal != null ? journal.getLastSequence() : 0);
+		AccountBook fresh = new AccountBook(1024, sequence);
+		try {
+			int count = dao.streamAll(a -> fresh.put(a.getAccountId(), a.getBalance(),
+					a.getStatus().getStatusId(), a.getType().getTypeId()));
+			return (count < 0 ? null : fresh);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/*
+	 * Read the Accounts in the touched (from, to) id ranges from the database
+	 * into the (not yet published) book - nearby ranges merged, so it's one
+	 * query per cluster of ids rather than one per Account. Not journaled: the
+	 * snapshot taken right after includes it. (Only the Accounts touched AFTER
+	 * the snapshot are read - the rest of the book is as the snapshot had it.)
+	 */
+	private static void reconcile(AccountBook b, IntArrayList touched) {
+		long[] ranges = new long[touched.size() / 2];	// (from << 32 | to - so sorting sorts by from)
+		int n = 0;
+		for(int i = 0; i < touched.size(); i += 2) {
+			if(touched.get(i) > 0) {
+				ranges[n++] = ((long) touched.get(i) << 32) | touched.get(i + 1);
+			}
+		}
+		Arrays.sort(ranges, 0, n);
+
+		int failed = 0;
+		int i = 0;
+		while(i < n) {
+			int from = (int) (ranges[i] >>> 32);
+			int to = (int) ranges[i];
+			for(i++; i < n; i++) {
+				int nextFrom = (int) (ranges[i] >>> 32);
+				int nextTo = Math.max(to, (int) ranges[i]);
+				if((long) nextFrom > (long) to + RECONCILE_GAP || (long) nextTo - from >= RECONCILE_MAX_IDS) {
+					break;
+				}
+				to = nextTo;
+			}
+			for(int lo = from; lo <= to; lo += RECONCILE_MAX_IDS) {	// (one INTEREST record can span more than that)
+				int hi = (int) Math.min(to, (long) lo + RECONCILE_MAX_IDS - 1);
+				if(reconcile(b, lo, hi) < 0) {
+					failed++;
+				}
+				if(hi == Integer.MAX_VALUE) {
+					break;
+				}
+			}
+		}
+		if(failed > 0) {
+			System.out.println("Could not reconcile " + failed + " id range(s) of the account book;"
+					+ " using the journal's balances there");
+		}
+	}
+
+	private static int reconcile(AccountBook b, int fromId, int toId) {
+		IntHashSet found = new IntHashSet(Math.min(toId - fromId + 1, 1024));
+		int count;
+		try {
+			count = dao.streamRange(fromId, toId, a -> {
+				found.add(a.getAccountId());
+				b.put(a.getAccountId(), a.getBalance(), a.getStatus().getStatusId(), a.getType().getTypeId());
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+			return -1;
+		}
+		if(count >= 0) {
+			for(int accountId : b.idsBetween(fromId, toId)) {
+				if(!found.contains(accountId)) {
+					b.remove(accountId);	// (deleted, or never committed)
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -1,12 +1,22 @@
 package com.revature.services;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import com.revature.dao.IAccountDAO;
 import com.revature.dao.IUserAccountDAO;
 import com.revature.dao.UserAccountDAO;
 import com.revature.dao.AccountDAO;
+import com.revature.dao.OwnershipIndex;
+import com.revature.dao.PageRequest;
+import com.revature.dao.RowHandler;
+import com.revature.dao.TransferResult;
 import com.revature.models.Account;
+import com.revature.templates.InterestReport;
+import com.revature.templates.PageTemplate;
+import com.revature.util.JournalRecord;
 
 /* The service layer is designed to enforce an application's "business logic"
  * - miscellaneous rules that define how the application will function.
@@ -27,11 +37,20 @@ import com.revature.models.Account;
  * communicate with the database, using its findByUser(int userId) method (its only
  * method) to interact with the USERS_ACCOUNTS DB join table in conjunction with the
  * ACCOUNTS table to find all of a particular User's Account_s.
+ * Who owns what is ALSO held in memory (see OwnershipIndex): isOwner() is answered
+ * from there (the database only when the index can't say), and submit()/delete() keep it current.
+ * 
+ * Every balance change (deposit, withdraw, transfer, update, ...) is ALSO appended
+ * to the TransactionJournal - the ACCOUNTS table only keeps current balances -
+ * INSIDE the change's own transaction, and applied to the in-memory AccountBook
+ * once it has committed (see JournalEntries): a change is only acknowledged once
+ * its journal record is durable on disk - if it can't be, NotDurableException is thrown.
  */ 
 public class AccountService {
 	
 	private IAccountDAO dao = new AccountDAO();
 	private IUserAccountDAO dao2 = new UserAccountDAO();
+	private InterestEngine interest = new InterestEngine();
 
 	/* There are only some loose _guidelines_ for the code here ...
 	 * 
@@ -46,14 +65,62 @@ public class AccountService {
 		return dao.insert(acct);
 	}
 	
+	/*
+	 * A new Account (POST /accounts), owned by the given User: the ACCOUNTS row,
+	 * then the USERS_ACCOUNTS row. Returns the Account with its generated id -
+	 * or null if it could not be created.
+	 */
+	public Account submit(Account acct, int ownerId) {
+		if(acct.getStatus() == null || acct.getType() == null) {
+			throw new IllegalArgumentException("An Account needs a status and a type");
+		}
+		int[] ids = insertAll(Collections.singletonList(acct));
+		if(ids.length == 0) {
+			return null;
+		}
+		if(dao2.insert(ownerId, ids[0]) == 0) {
+			delete(ids[0]);	// (an Account nobody owns is no use to anyone)
+			return null;
+		}
+		OwnershipIndex.link(ownerId, ids[0]);
+		acct.setAccountId(ids[0]);
+		return acct;
+	}
+	
+	public int[] insertAll(Collection<Account> accts) {
+		// (the records are only made inside the transaction - once insertAll has set the new ids on the Accounts)
+		JournalEntries journal = new JournalEntries();
+		int[] ids = dao.insertAll(accts, () -> {
+			for(Account acct : accts) {
+				journal.balanceSet(acct);
+			}
+			journal.run();
+		});
+		journal.settle(ids.length > 0);
+		return ids;
+	}
+	
 	public List<Account> findAll() {
 		return dao.findAll();
 	}
 	
+	public int streamAll(RowHandler<Account> handler) throws IOException {
+		return dao.streamAll(handler);
+	}
+	
+	public PageTemplate<Account> findPage(PageRequest page) {
+		return dao.findPage(page);
+	}
+	
 	public Account findById(int accountId) {
 		return dao.findById(accountId);
 	}
 	
+	// For conditional GETs: a hash of what the Account's JSON shows (null if there is no such Account)
+	public Long findVersion(int accountId) {
+		return dao.findVersion(accountId);
+	}
+	
 	public Account findByStatus(int statusId) {
 		return dao.findByStatus(statusId);
 	}
@@ -63,15 +130,114 @@ public class AccountService {
 	}
 	
 	public int update(Account acct) {
-		return dao.update(acct);
+		JournalEntries journal = new JournalEntries().balanceSet(acct);
+		int result = dao.update(acct, journal);
+		journal.settle(result > 0);
+		return result;
+	}
+	
+	public int updateAll(Collection<Account> accts) {
+		JournalEntries journal = new JournalEntries();
+		for(Account acct : accts) {
+			journal.balanceSet(acct);
+		}
+		int result = dao.updateAll(accts, journal);
+		journal.settle(result > 0);
+		return result;
 	}
 	
 	public int delete(int accountId) {
-		return dao.delete(accountId);
+		JournalEntries journal = new JournalEntries().add(JournalRecord.DELETED, accountId, 0, 0, 0, 0);
+		int result = dao.delete(accountId, journal);
+		journal.settle(result > 0);
+		if(result > 0) {
+			OwnershipIndex.removeAccount(accountId);
+		}
+		return result;
+	}
+	
+	// Deposit/withdraw are applied *in the database* (see IAccountDAO.applyDelta),
+	// never as read-balance, add, write-balance-back - which would lose updates
+	// when two requests for the same Account run at the same time.
+	// Both return the new balance, or null if nothing was changed.
+	// (Amounts and balances are in cents - see Money.)
+	//
+	// Every balance change is also recorded in the TransactionJournal, inside its
+	// transaction - it is only acknowledged (returned) once that record is durable
+	// on disk; if it can't be, NotDurableException is thrown.
+	public Long deposit(int accountId, long amount) {
+		checkAmount(amount);
+		JournalEntries journal = new JournalEntries().add(JournalRecord.DEPOSIT, accountId, 0, 0, 0, amount);
+		Long balance = dao.applyDelta(accountId, amount, journal);
+		journal.settle(balance != null);
+		return balance;
+	}
+	
+	public Long withdraw(int accountId, long amount) {
+		checkAmount(amount);
+		JournalEntries journal = new JournalEntries().add(JournalRecord.WITHDRAW, accountId, 0, 0, 0, amount);
+		Long balance = dao.applyDelta(accountId, -amount, journal);	// fails (null) rather than overdraw
+		journal.settle(balance != null);
+		return balance;
+	}
+	
+	// Both Accounts change in ONE transaction - or neither does
+	public TransferResult transfer(int sourceAccountId, int targetAccountId, long amount) {
+		checkAmount(amount);
+		if(sourceAccountId == targetAccountId) {
+			throw new IllegalArgumentException("Cannot transfer from an Account to itself");
+		}
+		JournalEntries journal = new JournalEntries().add(JournalRecord.TRANSFER,
+				sourceAccountId, targetAccountId, 0, 0, amount);
+		TransferResult result = dao.transfer(sourceAccountId, targetAccountId, amount, journal);
+		journal.settle(result == TransferResult.COMPLETED);
+		return result;
+	}
+	
+	// /passTime:  accrue numOfMonths of interest on ALL Savings Accounts (set-based - see InterestEngine)
+	public InterestReport passTime(int numOfMonths) {
+		return interest.passTime(numOfMonths);
+	}
+	
+	private static void checkAmount(long amount) {
+		if(amount <= 0) {
+			throw new IllegalArgumentException("amount must be a positive number");
+		}
 	}
 
 	// THIS method uses the IUserAccountDAO/UserAccountDAO
 	public List<Account> findByUser(int userId) {
 		return dao2.findByUser(userId);
 	}
+	
+	// (from memory, while the OwnershipIndex is fresh) - the database is only asked
+	// when the index can't say (see OwnershipIndex.isOwner for which answers those
+	// are), and a yes from it is remembered
+	public boolean isOwner(int userId, int accountId) {
+		Boolean known = OwnershipIndex.isOwner(userId, accountId);
+		if(known != null) {
+			return known;
+		}
+		if(!dao2.isOwner(userId, accountId)) {
+			return false;
+		}
+		OwnershipIndex.link(userId, accountId);
+		return true;
+	}
+	
+	// the ids of the Users who own the Account
+	public int[] ownersOf(int accountId) {
+		if(OwnershipIndex.isFresh()) {
+			return OwnershipIndex.ownersOf(accountId);
+		}
+		return dao2.findUserIdsByAccount(accountId);
+	}
+	
+	// the ids of the User's Accounts (ids only - no Account objects built)
+	public int[] accountIdsOf(int userId) {
+		if(OwnershipIndex.isFresh()) {
+			return OwnershipIndex.accountsOf(userId);
+		}
+		return dao2.findAccountIdsByUser(userId);
+	}
 }
\ No newline at end of file
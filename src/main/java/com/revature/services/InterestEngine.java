@@ -0,0 +1,133 @@
+package com.revature.services;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.IAccountDAO;
+import com.revature.dao.LookupRegistry;
+import com.revature.exceptions.NotDurableException;
+import com.revature.models.AccountType;
+import com.revature.templates.InterestReport;
+import com.revature.util.JournalRecord;
+import com.revature.util.AppConfig;
+import com.revature.util.Money;
+
+/*
+ * Accrues interest on ALL Savings Accounts (the /passTime RPC).
+ *
+ * The compound interest for n months is applied in ONE step, using the
+ * closed-form factor (1 + annualRate/12)^n, by a set-based UPDATE
+ * (balance = balance * factor) - instead of reading every Account and writing
+ * each one back (two round trips per Account).
+ *
+ * The Accounts are split into chunks by id range (chunkSize ids each); each
+ * chunk is its own transaction, so no single transaction (and its undo/redo)
+ * grows with the size of the table. Chunks run in parallel, each on its own
+ * pooled connection (threads at a time).
+ *
+ * Since each chunk commits on its own, a failure can leave some chunks done and
+ * others not: the report lists the failed id ranges, so just those can be re-run.
+ *
+ * Each chunk is journaled as ONE INTEREST record (id range + factor), not one
+ * record per Account - inside its transaction (see JournalEntries).
+ *
+ * The factor is fixed-point (billionths - see Money), bound to the UPDATE as an
+ * exact decimal; so the database's ROUND(balance * factor, 2) and the
+ * AccountBook's long arithmetic (Money.applyFactor) give the same cents.
+ */
+public class InterestEngine {
+
+	private static final BigDecimal ANNUAL_RATE = new BigDecimal(AppConfig.getString("rocp.interest.annualRate", "0.02"));
+	private static final BigDecimal MONTHLY_RATE = ANNUAL_RATE.divide(BigDecimal.valueOf(12), MathContext.DECIMAL128);
+	private static final int CHUNK_SIZE = AppConfig.getInt("rocp.interest.chunkSize", 10000);
+	// keep this below rocp.pool.maxSize, so the web requests still get connections meanwhile
+	private static final int THREADS = AppConfig.getInt("rocp.interest.threads", 4);
+
+	private static final String SAVINGS = "Savings";
+
+	private final IAccountDAO dao = new AccountDAO();
+
+	// the multiplier that compounds a balance monthly for numOfMonths months (in billionths)
+	public static long factorFor(int numOfMonths) {
+		return Money.compound(MONTHLY_RATE, numOfMonths);
+	}
+
+	public InterestReport passTime(int numOfMonths) {
+		if(numOfMonths < 1) {
+			throw new IllegalArgumentException("numOfMonths must be at least 1");
+		}
+		AccountType savings = LookupRegistry.typeNamed(SAVINGS);
+		if(savings == null) {
+			throw new IllegalStateException("There is no '" + SAVINGS + "' account type");
+		}
+		int typeId = savings.getTypeId();
+		long factor = factorFor(numOfMonths);
+
+		long start = System.nanoTime();
+		InterestReport report = new InterestReport(numOfMonths, factor);
+
+		int[] range = dao.findIdRange(typeId);
+		if(range.length == 0) {
+			report.finish(System.nanoTime() - start);
+			return report;	// no Savings Accounts
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<int[]> chunks = new ArrayList<>();
+			List<Future<Integer>> results = new ArrayList<>();
+			for(long from = range[0]; from <= range[1]; from += CHUNK_SIZE) {	// (long - no overflow near Integer.MAX_VALUE)
+				int fromId = (int) from;
+				int toId = (int) Math.min(from + CHUNK_SIZE - 1, range[1]);
+				chunks.add(new int[] { fromId, toId });
+				results.add(pool.submit(() -> {
+					// (one record for the whole id range; a chunk whose record can't be appended
+					// is rolled back, and settle() throws - it is reported as failed)
+					JournalEntries journal = new JournalEntries().add(JournalRecord.INTEREST, fromId, toId, 0,
+							typeId, factor);
+					int rows = dao.accrueInterest(typeId, factor, fromId, toId, journal);
+					try {
+						journal.settle(rows >= 0);
+					} catch (NotDurableException e) {
+						if(!e.isChangeMade()) {
+							throw e;
+						}
+						e.printStackTrace();	// (the interest WAS accrued - its record just isn't on disk yet)
+					}
+					return rows;
+				}));
+			}
+
+			for(int i = 0; i < chunks.size(); i++) {
+				int[] chunk = chunks.get(i);
+				int rows;
+				try {
+					rows = results.get(i).get();
+				} catch (ExecutionException e) {
+					e.printStackTrace();
+					rows = -1;
+				}
+				if(rows < 0) {
+					report.chunkFailed(chunk[0], chunk[1]);
+				} else {
+					report.chunkDone(rows);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while accruing interest");
+		} finally {
+			pool.shutdownNow();
+		}
+
+		report.finish(System.nanoTime() - start);
+		return report;
+	}
+}
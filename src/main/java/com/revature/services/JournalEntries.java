@@ -0,0 +1,106 @@
+package com.revature.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.dao.BeforeCommit;
+import com.revature.exceptions.NotDurableException;
+import com.revature.models.Account;
+import com.revature.util.IntArrayList;
+import com.revature.util.JournalRecord;
+
+/*
+ * The journal records for the balance change(s) that ONE database transaction
+ * makes - appended INSIDE that transaction, as the DAO method's BeforeCommit,
+ * and settled once it has committed (or not):
+ *
+ *	JournalEntries journal = new JournalEntries().add(JournalRecord.DEPOSIT, accountId, 0, 0, 0, amount);
+ *	Long balance = dao.applyDelta(accountId, amount, journal);
+ *	journal.settle(balance != null);
+ *
+ *  - run() - called by the DAO while it still holds the changed rows' locks -
+ *    ONLY appends the records, so they get their sequence numbers in the order
+ *    the changes commit in. It doesn't wait for them to reach the disk: the row
+ *    locks are let go as soon as the transaction commits.
+ *  - settle(committed) - once the DAO method has returned - applies the records
+ *    to the AccountBook if the change committed (in sequence order - see
+ *    AccountBookService.settle), and then waits until they are durable: the
+ *    caller only acknowledges the change once settle() has returned. It throws
+ *    NotDurableException if the records could not be appended (the change was
+ *    rolled back), or were not durable in time (the change WAS made).
+ *
+ * For ONE transaction only (it is not thread-safe, and can't be reused).
+ */
+public class JournalEntries implements BeforeCommit {
+
+	private final List<JournalRecord> records = new ArrayList<>();	// (sequence 0 - numbered when appended)
+	private boolean ran = false;
+	private boolean failed = false;
+
+	// (kept by AccountBookService, under its lock)
+	final List<JournalRecord> appended = new ArrayList<>(2);	// the records as appended - numbered
+	boolean settled = false;
+	boolean committed = false;
+
+	// One record (see JournalRecord for which fields each type uses)
+	public JournalEntries add(int type, int accountId, int targetAccountId, int statusId, int typeId, long amount) {
+		records.add(new JournalRecord(0, System.currentTimeMillis(), type, accountId, targetAccountId, statusId,
+				typeId, amount));
+		return this;
+	}
+
+	// The Account now has this balance, status and type (created or updated)
+	public JournalEntries balanceSet(Account acct) {
+		return add(JournalRecord.BALANCE_SET, acct.getAccountId(), 0, acct.getStatus().getStatusId(),
+				acct.getType().getTypeId(), acct.getBalance());
+	}
+
+	List<JournalRecord> getRecords() {
+		return records;
+	}
+
+	@Override
+	public void run() throws IOException {
+		ran = true;
+		try {
+			AccountBookService.append(this);
+		} catch (IOException | RuntimeException e) {
+			// the DAO rolls the change back - nothing of it goes into the book
+			failed = true;
+			AccountBookService.settle(this, false);
+			throw e;
+		}
+	}
+
+	/*
+	 * Call once the DAO method has returned - committed says whether it made
+	 * its change. Throws NotDurableException if the journal let the change down.
+	 */
+	public void settle(boolean committed) {
+		if(!ran) {
+			return;	// the DAO changed nothing, so nothing was appended
+		}
+		IntArrayList unknown = AccountBookService.settle(this, committed && !failed);
+		for(int i = 0; i < unknown.size(); i++) {
+			AccountBookService.resync(unknown.get(i), unknown.get(i));	// (an Account the book didn't have yet)
+		}
+		if(failed) {
+			throw new NotDurableException("The change could not be journaled, so it was not made - please try again");
+		}
+		if(!committed) {
+			// the records were appended, but the commit failed - which may have been AFTER the
+			// database made it durable; so put the book right from what the database has
+			IntArrayList ranges = new IntArrayList(2);
+			for(JournalRecord r : records) {
+				AccountBookService.touchedBy(r, ranges);
+			}
+			for(int i = 0; i < ranges.size(); i += 2) {
+				AccountBookService.resync(ranges.get(i), ranges.get(i + 1));
+			}
+		} else if(!AccountBookService.awaitDurable(appended.isEmpty() ? null : appended.get(appended.size() - 1))) {
+			throw new NotDurableException("The change was made, but its journal record is not on disk yet"
+					+ " - do NOT send it again", true);
+		}
+	}
+}
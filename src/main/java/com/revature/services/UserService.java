@@ -1,14 +1,25 @@
 package com.revature.services;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import javax.servlet.http.HttpSession;
 
 import com.revature.dao.IUserDAO;
+import com.revature.dao.OwnershipIndex;
+import com.revature.dao.PageRequest;
+import com.revature.dao.RowHandler;
 import com.revature.dao.UserDAO;
 import com.revature.exceptions.NotLoggedInException;
 import com.revature.models.User;
 import com.revature.templates.LoginTemplate;
+import com.revature.templates.PageTemplate;
+import com.revature.util.AppConfig;
+import com.revature.util.CacheStats;
+import com.revature.util.ContentHash;
+import com.revature.util.ReadThroughCache;
 
 // The service layer is a layer that is designed to enforce your "business logic"
 // These are miscellaneous rules that define how your application will function
@@ -30,6 +41,19 @@ public class UserService {
 	
 	private IUserDAO dao = new UserDAO();
 	
+	// Read-through caches for findById and findByUsername (login and every guarded
+	// GET look Users up again and again). *static* so that every UserService
+	// instance (FrontController's, UserController's, ...) shares - and invalidates -
+	// the SAME caches. The username cache only maps username -> id; the User
+	// itself always comes from the id cache, so there is just ONE copy to invalidate.
+	// NOTE: the cached Users are shared - treat them as read-only.
+	private static final int CACHE_MAX_SIZE = AppConfig.getInt("rocp.cache.users.maxSize", 1000);
+	private static final long CACHE_TTL_MILLIS = AppConfig.getLong("rocp.cache.users.ttlMillis", 60000);
+	private static final ReadThroughCache<Integer, User> usersById =
+			new ReadThroughCache<>("usersById", CACHE_MAX_SIZE, CACHE_TTL_MILLIS);
+	private static final ReadThroughCache<String, Integer> userIdsByUsername =
+			new ReadThroughCache<>("userIdsByUsername", CACHE_MAX_SIZE, CACHE_TTL_MILLIS);
+	
 	// A starting place Matt likes to use:  to also create CRUD methods in the service layer
 	// that will be used to interact with the DAO
 	
@@ -40,24 +64,105 @@ public class UserService {
 		return dao.insert(u);
 	}
 	
+	public int[] insertAll(Collection<User> users) {
+		return dao.insertAll(users);
+	}
+	
 	public List<User> findAll() {
 		return dao.findAll();
 	}
 	
+	public int streamAll(RowHandler<User> handler) throws IOException {
+		return dao.streamAll(handler);
+	}
+	
+	public PageTemplate<User> findPage(PageRequest page) {
+		return dao.findPage(page);
+	}
+	
 	public User findById(int userId) {
-		return dao.findById(userId);
+		return usersById.get(userId, dao::findById);
+	}
+	
+	// For conditional GETs: a hash of what the User's JSON shows (null if there is no
+	// such User) - from the cached User if there is one, else a narrow query
+	public Long findVersion(int userId) {
+		User cached = usersById.peek(userId);
+		return (cached != null ? Long.valueOf(ContentHash.of(cached)) : dao.findVersion(userId));
 	}
 	
 	public User findByUsername(String username) {
+		if(username == null) {
+			return null;
+		}
+		
+		Integer userId = userIdsByUsername.get(username, name -> {
+			long epoch = usersById.epoch();
+			User u = dao.findByUsername(name);
+			if(u == null) {
+				return null;
+			}
+			usersById.put(u.getUserId(), u, epoch);	// so the findById below is a hit
+			return u.getUserId();
+		});
+		if(userId == null) {
+			return null;	// no such User
+		}
+		
+		User u = findById(userId);
+		if(u != null && username.equals(u.getUsername())) {
+			return u;
+		}
+		
+		// The id no longer belongs to this username (renamed/deleted since it was
+		// cached) -- forget it and ask the database directly
+		userIdsByUsername.invalidate(username);
 		return dao.findByUsername(username);
 	}
 	
 	public int update(User u) {
-		return dao.update(u);
+		int result = dao.update(u);
+		evict(u);	// after the write, so nothing can re-cache the old row
+		return result;
+	}
+	
+	public int updateAll(Collection<User> users) {
+		int result = dao.updateAll(users);
+		for(User u : users) {
+			evict(u);
+		}
+		return result;
 	}
 	
 	public int delete(int userId) {
-		return dao.delete(userId);
+		int result = dao.delete(userId);
+		evict(userId, null);
+		if(result > 0) {
+			OwnershipIndex.removeUser(userId);
+		}
+		return result;
+	}
+	
+	public List<CacheStats> getCacheStats() {
+		return Arrays.asList(usersById.getStats(), userIdsByUsername.getStats());
+	}
+	
+	private static void evict(User u) {
+		if(u != null) {
+			evict(u.getUserId(), u.getUsername());
+		}
+	}
+	
+	// Drop the User with this id, under BOTH its old (cached) and new username
+	private static void evict(int userId, String newUsername) {
+		User old = usersById.peek(userId);
+		usersById.invalidate(userId);
+		if(old != null && old.getUsername() != null) {
+			userIdsByUsername.invalidate(old.getUsername());
+		}
+		if(newUsername != null) {
+			userIdsByUsername.invalidate(newUsername);
+		}
 	}
 	
 	public User login(LoginTemplate lt) {
@@ -0,0 +1,62 @@
+package com.revature.templates;
+
+import java.util.Objects;
+
+// used for Jackson data-bind - the request body of the deposit and withdraw RPCs:
+//		{ "accountId": 1, "amount": 25.0 }
+// (amount is held in CENTS - see Money)
+public class AmountTemplate {
+
+	private int accountId;
+	private long amount;
+
+	public AmountTemplate() {
+		super();
+	}
+
+	// Jackson data-bind doesn't need THIS constructor - but *we* might
+	public AmountTemplate(int accountId, long amount) {
+		super();
+		this.accountId = accountId;
+		this.amount = amount;
+	}
+
+	public int getAccountId() {
+		return accountId;
+	}
+
+	public void setAccountId(int accountId) {
+		this.accountId = accountId;
+	}
+
+	public long getAmount() {
+		return amount;
+	}
+
+	public void setAmount(long amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(accountId, amount);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof AmountTemplate)) {
+			return false;
+		}
+		AmountTemplate other = (AmountTemplate) obj;
+		return accountId == other.accountId
+				&& amount == other.amount;
+	}
+
+	@Override
+	public String toString() {
+		return "AmountTemplate [accountId=" + accountId + ", amount=" + amount + "]";
+	}
+}
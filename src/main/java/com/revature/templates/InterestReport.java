@@ -0,0 +1,83 @@
+package com.revature.templates;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.util.Money;
+
+// used for Jackson data-bind - the response of the /passTime RPC (see InterestEngine):
+// the message from the README, plus how the (chunked, parallel) run went
+public class InterestReport {
+
+	private final int numOfMonths;
+	private final long factor;		// in billionths (see Money)
+	private int accountsProcessed;
+	private int chunks;
+	private final List<String> failedRanges = new ArrayList<>();	// "fromId-toId" - NOT accrued; re-run these
+	private long elapsedMillis;
+	private double accountsPerSecond;
+
+	public InterestReport(int numOfMonths, long factor) {
+		super();
+		this.numOfMonths = numOfMonths;
+		this.factor = factor;
+	}
+
+	public void chunkDone(int rows) {
+		chunks++;
+		accountsProcessed += rows;
+	}
+
+	public void chunkFailed(int fromId, int toId) {
+		chunks++;
+		failedRanges.add(fromId + "-" + toId);
+	}
+
+	public void finish(long elapsedNanos) {
+		elapsedMillis = elapsedNanos / 1_000_000;
+		accountsPerSecond = (elapsedNanos == 0 ? 0.0 : accountsProcessed * 1e9 / elapsedNanos);
+	}
+
+	public String getMessage() {
+		if(!failedRanges.isEmpty()) {
+			return "Interest could NOT be accrued for some Savings Accounts (see failedRanges)";
+		}
+		return numOfMonths + " months of interest has been accrued for all Savings Accounts";
+	}
+
+	public int getNumOfMonths() {
+		return numOfMonths;
+	}
+
+	public BigDecimal getFactor() {
+		return Money.factorToDecimal(factor);
+	}
+
+	public int getAccountsProcessed() {
+		return accountsProcessed;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+
+	public List<String> getFailedRanges() {
+		return failedRanges;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public double getAccountsPerSecond() {
+		return accountsPerSecond;
+	}
+
+	@Override
+	public String toString() {
+		return "InterestReport [numOfMonths=" + numOfMonths + ", factor=" + getFactor() + ", accountsProcessed="
+				+ accountsProcessed + ", chunks=" + chunks + ", failedRanges=" + failedRanges + ", elapsedMillis="
+				+ elapsedMillis + ", accountsPerSecond=" + accountsPerSecond + "]";
+	}
+}
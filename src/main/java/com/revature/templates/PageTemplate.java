@@ -0,0 +1,61 @@
+package com.revature.templates;
+
+import java.util.List;
+import java.util.Objects;
+
+// used for Jackson data-bind - one page of a paginated (GET /users, GET /accounts) response:
+//		{ "items": [ ... ], "nextCursor": "..." }
+// nextCursor is null on the last page; otherwise, pass it back as ?after=... for the next page
+public class PageTemplate<T> {
+
+	private List<T> items;
+	private String nextCursor;
+
+	public PageTemplate() {
+		super();
+	}
+
+	public PageTemplate(List<T> items, String nextCursor) {
+		super();
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(items, nextCursor);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PageTemplate)) {
+			return false;
+		}
+		PageTemplate<?> other = (PageTemplate<?>) obj;
+		return Objects.equals(items, other.items) && Objects.equals(nextCursor, other.nextCursor);
+	}
+
+	@Override
+	public String toString() {
+		return "PageTemplate [items=" + items + ", nextCursor=" + nextCursor + "]";
+	}
+}
@@ -0,0 +1,50 @@
+package com.revature.templates;
+
+import java.util.Objects;
+
+// used for Jackson data-bind - the request body of the /passTime RPC:
+//		{ "numOfMonths": 6 }
+public class PassTimeTemplate {
+
+	private int numOfMonths;
+
+	public PassTimeTemplate() {
+		super();
+	}
+
+	// Jackson data-bind doesn't need THIS constructor - but *we* might
+	public PassTimeTemplate(int numOfMonths) {
+		super();
+		this.numOfMonths = numOfMonths;
+	}
+
+	public int getNumOfMonths() {
+		return numOfMonths;
+	}
+
+	public void setNumOfMonths(int numOfMonths) {
+		this.numOfMonths = numOfMonths;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(numOfMonths);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PassTimeTemplate)) {
+			return false;
+		}
+		PassTimeTemplate other = (PassTimeTemplate) obj;
+		return numOfMonths == other.numOfMonths;
+	}
+
+	@Override
+	public String toString() {
+		return "PassTimeTemplate [numOfMonths=" + numOfMonths + "]";
+	}
+}
@@ -0,0 +1,73 @@
+package com.revature.templates;
+
+import java.util.Objects;
+
+// used for Jackson data-bind - the request body of the transfer RPC:
+//		{ "sourceAccountId": 1, "targetAccountId": 2, "amount": 25.0 }
+// (amount is held in CENTS - see Money)
+public class TransferTemplate {
+
+	private int sourceAccountId;
+	private int targetAccountId;
+	private long amount;
+
+	public TransferTemplate() {
+		super();
+	}
+
+	// Jackson data-bind doesn't need THIS constructor - but *we* might
+	public TransferTemplate(int sourceAccountId, int targetAccountId, long amount) {
+		super();
+		this.sourceAccountId = sourceAccountId;
+		this.targetAccountId = targetAccountId;
+		this.amount = amount;
+	}
+
+	public int getSourceAccountId() {
+		return sourceAccountId;
+	}
+
+	public void setSourceAccountId(int sourceAccountId) {
+		this.sourceAccountId = sourceAccountId;
+	}
+
+	public int getTargetAccountId() {
+		return targetAccountId;
+	}
+
+	public void setTargetAccountId(int targetAccountId) {
+		this.targetAccountId = targetAccountId;
+	}
+
+	public long getAmount() {
+		return amount;
+	}
+
+	public void setAmount(long amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(sourceAccountId, targetAccountId, amount);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TransferTemplate)) {
+			return false;
+		}
+		TransferTemplate other = (TransferTemplate) obj;
+		return sourceAccountId == other.sourceAccountId && targetAccountId == other.targetAccountId
+				&& amount == other.amount;
+	}
+
+	@Override
+	public String toString() {
+		return "TransferTemplate [sourceAccountId=" + sourceAccountId + ", targetAccountId=" + targetAccountId
+				+ ", amount=" + amount + "]";
+	}
+}
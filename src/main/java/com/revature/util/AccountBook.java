@@ -0,0 +1,249 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/*
+ * An in-memory copy of every Account's balance, status id and type id, kept in
+ * columns (one per field, sorted by account id) rather than as one Account
+ * object per row - and OFF the heap (see AccountColumns), so even a large book
+ * is no work for the garbage collector.
+ *
+ * It is kept up to date by applying the same JournalRecords that are written to
+ * the TransactionJournal (see AccountBookService), and remembers the sequence
+ * number of the last record applied. That makes a restart cheap:
+ *
+ *  - writeSnapshot() saves the columns to a compact binary file;
+ *  - loadSnapshot() reads them straight back (one memory-mapped file, bulk
+ *    copied into the columns), after which only the journal records written
+ *    AFTER the snapshot's sequence number need to be replayed.
+ *
+ * Snapshot file layout (big-endian):
+ *    int MAGIC, int VERSION, int count, int CRC-32 of everything after the header,
+ *    long lastSequence, then the columns:  int ids[count], long balances[count] (cents),
+ *    int statusIds[count], int typeIds[count]
+ *
+ * For reports over every Account (without findAll()'s object per row):
+ * summarize(filter) counts and totals the matching Accounts with a parallel
+ * scan, and forEach(visitor) walks them with a flyweight cursor.
+ *
+ * All methods are synchronized - the book is shared by every request thread.
+ */
+public class AccountBook {
+
+	private static final int MAGIC = 0x424F4F4B;	// "BOOK"
+	private static final int VERSION = 2;
+	private static final int HEADER_BYTES = 24;
+
+	// Gets each Account in turn (the SAME cursor, moved along) - don't keep it
+	@FunctionalInterface
+	public interface Visitor {
+		void visit(AccountColumns.Cursor account);
+	}
+
+	private final AccountColumns columns;
+	private long lastSequence;	// the last journal record reflected here
+
+	public AccountBook(int capacity, long lastSequence) {
+		super();
+		this.columns = new AccountColumns(capacity);
+		this.lastSequence = lastSequence;
+	}
+
+	// Add the Account, or replace what the book had for it
+	public synchronized void put(int accountId, long balance, int statusId, int typeId) {
+		columns.set(columns.insert(accountId), balance, statusId, typeId);
+	}
+
+	public synchronized boolean contains(int accountId) {
+		return columns.indexOf(accountId) >= 0;
+	}
+
+	// in cents; null if the book doesn't have this Account
+	public synchronized Long balanceOf(int accountId) {
+		int i = columns.indexOf(accountId);
+		return (i >= 0 ? columns.balanceAt(i) : null);
+	}
+
+	/*
+	 * Apply one (journaled) balance change. Returns false if it concerned an
+	 * Account the book doesn't have (so the caller can load that Account);
+	 * the rest of the change is still applied.
+	 */
+	public synchronized boolean apply(JournalRecord r) {
+		boolean known = true;
+		switch(r.getType()) {
+		case JournalRecord.DEPOSIT:
+			known = add(r.getAccountId(), r.getAmount());
+			break;
+		case JournalRecord.WITHDRAW:
+			known = add(r.getAccountId(), -r.getAmount());
+			break;
+		case JournalRecord.TRANSFER:
+			known = add(r.getAccountId(), -r.getAmount());
+			known &= add(r.getTargetAccountId(), r.getAmount());
+			break;
+		case JournalRecord.BALANCE_SET:
+			put(r.getAccountId(), r.getAmount(), r.getStatusId(), r.getTypeId());
+			break;
+		case JournalRecord.INTEREST:
+			int from = columns.indexOf(r.getAccountId());
+			int size = columns.size();
+			for(int i = (from >= 0 ? from : -(from + 1)); i < size && columns.idAt(i) <= r.getTargetAccountId(); i++) {
+				if(columns.typeIdAt(i) == r.getTypeId()) {
+					// (rounded to cents, like the database's ROUND(balance * factor, 2) - long math only)
+					columns.setBalance(i, Money.applyFactor(columns.balanceAt(i), r.getAmount()));
+				}
+			}
+			break;
+		case JournalRecord.DELETED:
+			remove(r.getAccountId());
+			break;
+		default:
+			break;
+		}
+		lastSequence = Math.max(lastSequence, r.getSequence());
+		return known;
+	}
+
+	// The ids of the Accounts the book has from fromId to toId (inclusive), in order
+	public synchronized int[] idsBetween(int fromId, int toId) {
+		int from = columns.indexOf(fromId);
+		from = (from >= 0 ? from : -(from + 1));
+		int to = from;
+		while(to < columns.size() && columns.idAt(to) <= toId) {
+			to++;
+		}
+		int[] ids = new int[to - from];
+		for(int i = from; i < to; i++) {
+			ids[i - from] = columns.idAt(i);
+		}
+		return ids;
+	}
+
+	public synchronized void remove(int accountId) {
+		int i = columns.indexOf(accountId);
+		if(i >= 0) {
+			columns.removeAt(i);
+		}
+	}
+
+	public synchronized BookStats getStats() {
+		return summarize(AccountColumns.ALL);
+	}
+
+	/*
+	 * How many Accounts match, and their total balance - e.g. all Open Savings
+	 * Accounts. A parallel scan of the columns (see AccountColumns.scan); the
+	 * book is locked meanwhile, so the totals are of ONE point in the journal.
+	 */
+	public synchronized BookStats summarize(AccountColumns.Filter filter) {
+		long[] result = columns.scan(filter);
+		return new BookStats((int) result[0], result[1], lastSequence);
+	}
+
+	// Every Account, in id order (the book is locked meanwhile - keep the visitor quick)
+	public synchronized void forEach(Visitor visitor) {
+		AccountColumns.Cursor cursor = columns.cursor();
+		while(cursor.next()) {
+			visitor.visit(cursor);
+		}
+	}
+
+	public synchronized int size() {
+		return columns.size();
+	}
+
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	/*
+	 * Save the book to path. The columns are copied under the lock (straight
+	 * into the off-heap buffer that is then written out); the file is written
+	 * without holding it, to a temporary file that is then renamed over path -
+	 * so path is always a complete snapshot. Returns the sequence number it is of.
+	 */
+	public long writeSnapshot(Path path) throws IOException {
+		ByteBuffer buf;
+		int count;
+		long sequence;
+		synchronized(this) {
+			count = columns.size();
+			sequence = lastSequence;
+			buf = ByteBuffer.allocateDirect(HEADER_BYTES + AccountColumns.bytesFor(count));
+			buf.position(HEADER_BYTES);
+			columns.writeTo(buf);
+		}
+
+		buf.position(HEADER_BYTES);
+		CRC32 crc = new CRC32();
+		crc.update(buf);
+
+		buf.clear();
+		buf.putInt(MAGIC).putInt(VERSION).putInt(count).putInt((int) crc.getValue()).putLong(sequence);
+		buf.clear();
+
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while(buf.hasRemaining()) {
+				out.write(buf);
+			}
+			out.force(true);
+		}
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return sequence;
+	}
+
+	/*
+	 * Load a snapshot written by writeSnapshot(). Returns null if there is no
+	 * such file; throws if it is not a valid (complete, uncorrupted) snapshot.
+	 */
+	public static AccountBook loadSnapshot(Path path) throws IOException {
+		if(!Files.exists(path)) {
+			return null;
+		}
+		try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+			if(buf.remaining() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+				throw new IOException(path + " is not an account book snapshot");
+			}
+			int count = buf.getInt(8);
+			int expectedCrc = buf.getInt(12);
+			long sequence = buf.getLong(16);
+			if(count < 0 || buf.remaining() != HEADER_BYTES + (long) AccountColumns.bytesFor(count)) {
+				throw new IOException(path + " is truncated");
+			}
+			buf.position(HEADER_BYTES);
+			CRC32 crc = new CRC32();
+			crc.update(buf.duplicate());
+			if((int) crc.getValue() != expectedCrc) {
+				throw new IOException(path + " is corrupt (CRC mismatch)");
+			}
+
+			AccountBook book = new AccountBook(count + count / 4, sequence);
+			book.columns.readFrom(buf, count);
+			return book;
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	// add amount to the Account's balance; false if the book doesn't have it
+	private boolean add(int accountId, long amount) {
+		int i = columns.indexOf(accountId);
+		if(i < 0) {
+			return false;
+		}
+		columns.setBalance(i, columns.balanceAt(i) + amount);
+		return true;
+	}
+}
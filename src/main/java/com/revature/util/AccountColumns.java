@@ -0,0 +1,304 @@
+package com.revature.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * The AccountBook's storage: one column per field - ids, balances (cents),
+ * status ids, type ids - sorted by account id, each in its own DIRECT
+ * (off-heap) buffer. However many Accounts there are, the heap only holds
+ * four small buffer objects, so a large book adds nothing for the garbage
+ * collector to trace or copy; 20 bytes per Account live outside the heap.
+ *
+ * Reading it:
+ *  - cursor() - a flyweight: ONE Cursor object that moves along the rows
+ *    (no object per row, unlike findAll()'s Account/AccountStatus/AccountType);
+ *  - scan(filter) - count and total balance of the matching rows, split into
+ *    ranges that run in parallel on the common fork-join pool.
+ *
+ * NOT thread-safe: the owner (AccountBook) locks around every use - including
+ * for the whole of a scan.
+ */
+public class AccountColumns {
+
+	// below this many rows, a scan isn't worth splitting any further
+	private static final int SCAN_SPLIT_ROWS = 1 << 15;
+
+	// What a scan counts/sums - just the row's primitives, so nothing is allocated per row
+	@FunctionalInterface
+	public interface Filter {
+		boolean test(int accountId, long balance, int statusId, int typeId);
+	}
+
+	public static final Filter ALL = (accountId, balance, statusId, typeId) -> true;
+
+	private int size = 0;
+	private IntBuffer ids;
+	private LongBuffer balances;
+	private IntBuffer statusIds;
+	private IntBuffer typeIds;
+
+	public AccountColumns(int capacity) {
+		super();
+		allocate(Math.max(capacity, 16));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// the row of accountId; if there is none, -(the row it would be inserted at) - 1
+	public int indexOf(int accountId) {
+		int low = 0;
+		int high = size - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int id = ids.get(mid);
+			if(id < accountId) {
+				low = mid + 1;
+			} else if(id > accountId) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	public int idAt(int row) {
+		return ids.get(row);
+	}
+
+	public long balanceAt(int row) {
+		return balances.get(row);
+	}
+
+	public int statusIdAt(int row) {
+		return statusIds.get(row);
+	}
+
+	public int typeIdAt(int row) {
+		return typeIds.get(row);
+	}
+
+	public void set(int row, long balance, int statusId, int typeId) {
+		balances.put(row, balance);
+		statusIds.put(row, statusId);
+		typeIds.put(row, typeId);
+	}
+
+	public void setBalance(int row, long balance) {
+		balances.put(row, balance);
+	}
+
+	/*
+	 * The row of accountId - inserted (with zeros) where it belongs if it isn't
+	 * there yet. New Accounts usually have the highest id, so this is normally
+	 * an append; otherwise everything after it moves up one place.
+	 */
+	public int insert(int accountId) {
+		int row = indexOf(accountId);
+		if(row >= 0) {
+			return row;
+		}
+		row = -(row + 1);
+		if(size == ids.capacity()) {
+			grow(size + (size >> 1));
+		}
+		for(int j = size - 1; j >= row; j--) {
+			ids.put(j + 1, ids.get(j));
+			balances.put(j + 1, balances.get(j));
+			statusIds.put(j + 1, statusIds.get(j));
+			typeIds.put(j + 1, typeIds.get(j));
+		}
+		ids.put(row, accountId);
+		set(row, 0, 0, 0);
+		size++;
+		return row;
+	}
+
+	public void removeAt(int row) {
+		for(int j = row + 1; j < size; j++) {
+			ids.put(j - 1, ids.get(j));
+			balances.put(j - 1, balances.get(j));
+			statusIds.put(j - 1, statusIds.get(j));
+			typeIds.put(j - 1, typeIds.get(j));
+		}
+		size--;
+	}
+
+	// ---------------------------------------------------------------------------------
+	// snapshots: the columns as four blocks (ids, balances, status ids, type ids)
+
+	public static int bytesFor(int count) {
+		return count * (4 + 8 + 4 + 4);
+	}
+
+	// Write the columns at out's position (in out's byte order), advancing it
+	public void writeTo(ByteBuffer out) {
+		int start = out.position();
+		out.asIntBuffer().put(rows(ids));
+		out.position(start + size * 4);
+		out.asLongBuffer().put(rows(balances));
+		out.position(start + size * 12);
+		out.asIntBuffer().put(rows(statusIds));
+		out.position(start + size * 16);
+		out.asIntBuffer().put(rows(typeIds));
+		out.position(start + bytesFor(size));
+	}
+
+	// Replace the contents with count rows read from in's position (as writeTo wrote them)
+	public void readFrom(ByteBuffer in, int count) {
+		if(count > ids.capacity()) {
+			allocate(count + count / 4);
+		}
+		int start = in.position();
+		copy(in, start, count, ids);
+		ByteBuffer block = in.duplicate().order(in.order());
+		block.position(start + count * 4);
+		LongBuffer balanceSrc = block.asLongBuffer();
+		balanceSrc.limit(count);
+		balances.duplicate().put(balanceSrc);
+		copy(in, start + count * 12, count, statusIds);
+		copy(in, start + count * 16, count, typeIds);
+		size = count;
+		in.position(start + bytesFor(count));
+	}
+
+	// ---------------------------------------------------------------------------------
+	// reading
+
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/*
+	 * One object for the whole walk: next() moves it to the following row, and
+	 * the getters read that row straight from the columns.
+	 *		Cursor c = columns.cursor();
+	 *		while(c.next()) { ... c.getAccountId() ... c.getBalance() ... }
+	 */
+	public class Cursor {
+		private int row = -1;
+
+		public boolean next() {
+			return ++row < size;
+		}
+
+		public int getAccountId() {
+			return ids.get(row);
+		}
+
+		public long getBalance() {
+			return balances.get(row);
+		}
+
+		public int getStatusId() {
+			return statusIds.get(row);
+		}
+
+		public int getTypeId() {
+			return typeIds.get(row);
+		}
+	}
+
+	/*
+	 * { how many rows match, their total balance (cents) } - big books are
+	 * scanned in parallel (fork-join), in ranges of SCAN_SPLIT_ROWS or more.
+	 */
+	public long[] scan(Filter filter) {
+		if(size <= SCAN_SPLIT_ROWS) {
+			return scanRange(filter, 0, size);
+		}
+		return ForkJoinPool.commonPool().invoke(new ScanTask(filter, 0, size));
+	}
+
+	private class ScanTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final Filter filter;
+		private final int from;
+		private final int to;
+
+		ScanTask(Filter filter, int from, int to) {
+			this.filter = filter;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if(to - from <= SCAN_SPLIT_ROWS) {
+				return scanRange(filter, from, to);
+			}
+			int mid = (from + to) >>> 1;
+			ScanTask left = new ScanTask(filter, from, mid);
+			left.fork();
+			long[] right = new ScanTask(filter, mid, to).compute();
+			long[] result = left.join();
+			result[0] += right[0];
+			result[1] += right[1];
+			return result;
+		}
+	}
+
+	private long[] scanRange(Filter filter, int from, int to) {
+		long count = 0;
+		long total = 0;
+		for(int row = from; row < to; row++) {
+			long balance = balances.get(row);
+			if(filter.test(ids.get(row), balance, statusIds.get(row), typeIds.get(row))) {
+				count++;
+				total += balance;
+			}
+		}
+		return new long[] { count, total };
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private void allocate(int capacity) {
+		ids = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		balances = ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+		statusIds = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		typeIds = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+	// bigger buffers, with the rows copied over (the old ones are freed once they're collected)
+	private void grow(int capacity) {
+		IntBuffer oldIds = rows(ids);
+		LongBuffer oldBalances = rows(balances);
+		IntBuffer oldStatusIds = rows(statusIds);
+		IntBuffer oldTypeIds = rows(typeIds);
+		allocate(capacity);
+		ids.duplicate().put(oldIds);
+		balances.duplicate().put(oldBalances);
+		statusIds.duplicate().put(oldStatusIds);
+		typeIds.duplicate().put(oldTypeIds);
+	}
+
+	// a view of the first size rows of a column
+	private IntBuffer rows(IntBuffer column) {
+		IntBuffer view = column.duplicate();
+		view.limit(size);
+		return view;
+	}
+
+	private LongBuffer rows(LongBuffer column) {
+		LongBuffer view = column.duplicate();
+		view.limit(size);
+		return view;
+	}
+
+	private static void copy(ByteBuffer in, int offset, int count, IntBuffer column) {
+		ByteBuffer block = in.duplicate().order(in.order());
+		block.position(offset);
+		IntBuffer src = block.asIntBuffer();
+		src.limit(count);
+		column.duplicate().put(src);
+	}
+}
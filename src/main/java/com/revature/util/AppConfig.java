@@ -0,0 +1,66 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/*
+ * Central place to read tunable settings (pool sizes, timeouts, etc.).
+ *
+ * A value is looked up first as a JVM system property (e.g. -Drocp.pool.maxSize=20),
+ * then in an optional app.properties file on the classpath, and finally falls
+ * back to the default supplied by the caller - so nothing HAS to be configured
+ * for the application to run.
+ */
+public class AppConfig {
+
+	private static final Properties fileProps = new Properties();
+
+	static {
+		try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream("app.properties")) {
+			if(in != null) {
+				fileProps.load(in);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private AppConfig() {
+		super();
+	}
+
+	public static String getString(String key, String defaultValue) {
+		String value = System.getProperty(key);
+		if(value == null) {
+			value = fileProps.getProperty(key);
+		}
+		return (value == null ? defaultValue : value.trim());
+	}
+
+	public static int getInt(String key, int defaultValue) {
+		String value = getString(key, null);
+		try {
+			return (value == null ? defaultValue : Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			System.out.println("Ignoring non-numeric value for " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+
+	public static long getLong(String key, long defaultValue) {
+		String value = getString(key, null);
+		try {
+			return (value == null ? defaultValue : Long.parseLong(value));
+		} catch (NumberFormatException e) {
+			System.out.println("Ignoring non-numeric value for " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		String value = getString(key, null);
+		return (value == null ? defaultValue : Boolean.parseBoolean(value));
+	}
+}
@@ -0,0 +1,40 @@
+package com.revature.util;
+
+import java.math.BigDecimal;
+
+/*
+ * A point-in-time summary of the in-memory AccountBook.
+ *
+ * Has getters only, so Jackson data-bind can serialize it as-is.
+ */
+public class BookStats {
+	private final int accounts;
+	private final long totalBalance;	// in cents
+	private final long lastSequence;	// the last journal record applied to the book
+
+	public BookStats(int accounts, long totalBalance, long lastSequence) {
+		super();
+		this.accounts = accounts;
+		this.totalBalance = totalBalance;
+		this.lastSequence = lastSequence;
+	}
+
+	public int getAccounts() {
+		return accounts;
+	}
+
+	// (as dollars and cents, for the JSON)
+	public BigDecimal getTotalBalance() {
+		return Money.toDecimal(totalBalance);
+	}
+
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	@Override
+	public String toString() {
+		return "BookStats [accounts=" + accounts + ", totalBalance=" + Money.format(totalBalance) + ", lastSequence="
+				+ lastSequence + "]";
+	}
+}
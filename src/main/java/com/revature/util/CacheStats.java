@@ -0,0 +1,73 @@
+package com.revature.util;
+
+/*
+ * A point-in-time snapshot of one ReadThroughCache's statistics.
+ *
+ * Has getters only, so Jackson data-bind can serialize it as-is.
+ */
+public class CacheStats {
+	private final String name;
+	private final int size;			// live entries right now
+	private final int maxSize;
+	private final long ttlMillis;
+	private final long hits;		// served from the cache
+	private final long misses;		// not in the cache (or expired)
+	private final long loads;		// misses that actually called the loader (the rest waited on another load)
+	private final long evictions;	// entries dropped because the cache was full
+
+	public CacheStats(String name, int size, int maxSize, long ttlMillis, long hits, long misses, long loads,
+			long evictions) {
+		super();
+		this.name = name;
+		this.size = size;
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.hits = hits;
+		this.misses = misses;
+		this.loads = loads;
+		this.evictions = evictions;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getLoads() {
+		return loads;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return (lookups == 0 ? 0.0 : (double) hits / lookups);
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [name=" + name + ", size=" + size + ", maxSize=" + maxSize + ", ttlMillis=" + ttlMillis
+				+ ", hits=" + hits + ", misses=" + misses + ", loads=" + loads + ", evictions=" + evictions + "]";
+	}
+}
@@ -0,0 +1,392 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * A bounded pool of physical (Oracle) database connections.
+ *
+ * Opening a connection through the DriverManager means a TCP handshake plus a
+ * database login, which is far too expensive to do on every DAO call. Instead,
+ * the pool keeps between minSize and maxSize physical connections open and
+ * lends them out.
+ *
+ * getConnection() hands back a lightweight *handle* (a java.lang.reflect.Proxy
+ * around the physical Connection). Calling close() on the handle - e.g. at the
+ * end of the DAOs' try-with-resources blocks - returns the physical connection
+ * to the pool rather than closing it, so the DAO code does not need to change.
+ *
+ *  - If all maxSize connections are in use, a caller waits up to
+ *    acquireTimeoutMillis for one to be returned, then gets an SQLTimeoutException.
+ *  - A connection that has sat idle for more than validationIdleMillis is checked
+ *    with isValid() before it is handed out (validation-on-borrow); a dead one
+ *    is discarded and another is tried.
+ *  - A background thread closes connections that have been idle for longer than
+ *    idleTimeoutMillis (never dropping below minSize), and tops the pool back
+ *    up to minSize.
+ *  - Each physical connection keeps a StatementCache of up to statementCacheSize
+ *    PreparedStatement_s, so prepareStatement(sql) on a handle reuses a statement
+ *    already prepared for the same SQL on that connection.
+ */
+public class ConnectionPool {
+
+	private final String url;
+	private final String username;
+	private final String password;
+	private final int minSize;
+	private final int maxSize;
+	private final long acquireTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final long validationIdleMillis;
+	private final int validationTimeoutSeconds;
+	private final int statementCacheSize;
+
+	// all of the fields below are guarded by lock
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition returned = lock.newCondition();
+		// most recently returned connection at the head (LIFO), so the
+		// least recently used ones collect at the tail for eviction
+	private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+	private int total;		// physical connections open (or being opened)
+	private int waiting;	// callers currently blocked in getConnection()
+	private boolean closed;
+
+	// statistics (also guarded by lock)
+	private long borrowCount;
+	private long timeoutCount;
+	private long totalWaitNanos;
+	private long maxWaitNanos;
+	private long createdCount;
+	private long destroyedCount;
+
+	private final ScheduledExecutorService housekeeper;
+
+	public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+			long acquireTimeoutMillis, long idleTimeoutMillis, long validationIdleMillis,
+			int validationTimeoutSeconds, int statementCacheSize) {
+		super();
+		if(maxSize < 1 || minSize < 0 || minSize > maxSize) {
+			throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+		}
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.validationIdleMillis = validationIdleMillis;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.statementCacheSize = statementCacheSize;
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "connection-pool-housekeeper");
+			t.setDaemon(true);	// must not keep the JVM (or the servlet container) alive
+			return t;
+		});
+			// first run fills the pool up to minSize, in the background
+		long period = Math.max(1000, idleTimeoutMillis / 2);
+		housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * Borrow a connection. The caller MUST close() it (try-with-resources) to give it back.
+	 */
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+
+		while(true) {
+			PooledConnection pc = null;
+			boolean mustCreate = false;
+
+			lock.lock();
+			try {
+				while(true) {
+					if(closed) {
+						throw new SQLException("Connection pool has been shut down");
+					}
+					pc = idle.pollFirst();
+					if(pc != null) {
+						break;
+					}
+					if(total < maxSize) {
+						total++;	// reserve the slot now; open the connection outside the lock
+						mustCreate = true;
+						break;
+					}
+					long remaining = deadline - System.nanoTime();
+					if(remaining <= 0) {
+						timeoutCount++;
+						throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+								+ " ms waiting for a database connection (pool max size " + maxSize + ")");
+					}
+					waiting++;
+					try {
+						returned.awaitNanos(remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new SQLException("Interrupted while waiting for a database connection", e);
+					} finally {
+						waiting--;
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if(mustCreate) {
+				pc = open();	// gives the slot back if the open fails
+			} else if(!isUsable(pc)) {
+				destroy(pc);
+				continue;		// try the next idle connection (or open a new one)
+			}
+
+			long waited = System.nanoTime() - start;
+			lock.lock();
+			try {
+				borrowCount++;
+				totalWaitNanos += waited;
+				maxWaitNanos = Math.max(maxWaitNanos, waited);
+			} finally {
+				lock.unlock();
+			}
+			return pc.newHandle();
+		}
+	}
+
+	public PoolStats getStats() {
+		lock.lock();
+		try {
+			int idleCount = idle.size();
+			return new PoolStats(total, total - idleCount, idleCount, waiting, minSize, maxSize,
+					borrowCount, timeoutCount, totalWaitNanos, maxWaitNanos, createdCount, destroyedCount);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Close every idle connection and refuse further borrows. Connections that are
+	 * currently lent out are closed as they are returned.
+	 */
+	public void shutdown() {
+		housekeeper.shutdownNow();
+		List<PooledConnection> toClose;
+		lock.lock();
+		try {
+			closed = true;
+			toClose = new ArrayList<>(idle);
+			idle.clear();
+			returned.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		for(PooledConnection pc : toClose) {
+			destroy(pc);
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private PooledConnection open() throws SQLException {
+		try {
+			Connection physical = DriverManager.getConnection(url, username, password);
+			lock.lock();
+			try {
+				createdCount++;
+			} finally {
+				lock.unlock();
+			}
+			return new PooledConnection(physical);
+		} catch (SQLException | RuntimeException e) {
+			lock.lock();
+			try {
+				total--;
+				returned.signal();	// a waiter may now open its own connection
+			} finally {
+				lock.unlock();
+			}
+			throw e;
+		}
+	}
+
+	private boolean isUsable(PooledConnection pc) {
+		// recently-returned connections are assumed good, to avoid a round trip on every borrow
+		if(System.currentTimeMillis() - pc.lastReturned < validationIdleMillis) {
+			return true;
+		}
+		try {
+			return pc.physical.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	// called by a handle's close()
+	void release(PooledConnection pc) {
+		boolean healthy;
+		try {
+			// don't leak an open transaction (or manual-commit mode) to the next borrower
+			if(!pc.physical.getAutoCommit()) {
+				pc.physical.rollback();
+				pc.physical.setAutoCommit(true);
+			}
+			healthy = !pc.physical.isClosed();
+		} catch (SQLException e) {
+			healthy = false;
+		}
+
+		if(healthy) {
+			lock.lock();
+			try {
+				if(!closed) {
+					pc.lastReturned = System.currentTimeMillis();
+					idle.addFirst(pc);
+					returned.signal();
+					return;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		destroy(pc);
+	}
+
+	private void destroy(PooledConnection pc) {
+		pc.statements.closeAll();
+		try {
+			pc.physical.close();
+		} catch (SQLException e) {
+			// already broken; nothing more to do
+		}
+		lock.lock();
+		try {
+			total--;
+			destroyedCount++;
+			returned.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Runs on the housekeeper thread: evict long-idle connections, then refill to minSize
+	private void housekeep() {
+		List<PooledConnection> expired = new ArrayList<>();
+		int toOpen;
+		lock.lock();
+		try {
+			long now = System.currentTimeMillis();
+			Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+			while(oldestFirst.hasNext() && total - expired.size() > minSize) {
+				PooledConnection pc = oldestFirst.next();
+				if(now - pc.lastReturned < idleTimeoutMillis) {
+					break;	// everything nearer the head was returned more recently
+				}
+				oldestFirst.remove();
+				expired.add(pc);
+			}
+			toOpen = (closed ? 0 : Math.max(0, minSize - (total - expired.size())));
+			total += toOpen;
+		} finally {
+			lock.unlock();
+		}
+
+		for(PooledConnection pc : expired) {
+			destroy(pc);
+		}
+		for(int i = 0; i < toOpen; i++) {
+			try {
+				release(open());
+			} catch (SQLException e) {
+				// open() already gave back this slot; give back the rest and retry next run
+				lock.lock();
+				try {
+					total -= (toOpen - i - 1);
+				} finally {
+					lock.unlock();
+				}
+				System.out.println("Could not pre-open database connections: " + e.getMessage());
+				break;
+			}
+		}
+	}
+
+	/*
+	 * One physical connection, plus the bookkeeping the pool needs for it.
+	 */
+	private class PooledConnection {
+		final Connection physical;
+		final StatementCache statements;
+		volatile long lastReturned = System.currentTimeMillis();
+
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statements = new StatementCache(physical, statementCacheSize);
+		}
+
+		// A fresh handle per borrow, so a caller that holds on to a closed
+		// handle can never reach the connection after someone else borrows it
+		Connection newHandle() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Handle(this));
+		}
+	}
+
+	private class Handle implements InvocationHandler {
+		private final PooledConnection pc;
+		private boolean handleClosed;
+
+		Handle(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch(method.getName()) {
+			case "close":
+				if(!handleClosed) {
+					handleClosed = true;
+					release(pc);
+				}
+				return null;
+			case "isClosed":
+				return handleClosed || pc.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + pc.physical + (handleClosed ? ", returned" : "") + "]";
+			}
+			if(handleClosed) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			if(method.getName().equals("prepareStatement") && args.length == 1) {
+				// only the plain prepareStatement(String sql) is cached; the other
+				// overloads (generated keys, scrollable results, ...) pass straight through
+				return pc.statements.prepare((String) args[0]);
+			}
+			try {
+				return method.invoke(pc.physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
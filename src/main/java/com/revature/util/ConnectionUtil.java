@@ -1,43 +1,56 @@
 package com.revature.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class ConnectionUtil {
 
-	// Connection = an Interface that will represent a single (1) connection
-		// Here, conn is an *instance variable* (of type Connection)
-	private static Connection conn = null;
-	
-	// Make constructor *private* to PREVENT ever instantiating this class
-	private ConnectionUtil() {
-		super();
-	}
-	
-	public static Connection getConnection() {
-		// check to see if the class containing the needed driver is accessible 
+	// ALL DAO's get their Connection_s from this one shared, bounded pool
+	// (instead of opening a brand-new physical connection via the DriverManager
+	// on every call); see ConnectionPool for how borrowing/returning works.
+	// Every setting can be overridden via AppConfig (system property or app.properties).
+	private static final ConnectionPool pool;
+
+	static {
+		// check to see if the class containing the needed driver is accessible (once, not per call)
 		try {
 			Class.forName("oracle.jdbc.driver.OracleDriver");
-			
-			// if that class IS accessible,
-			// use the DriverManager to obtain a connection to the database
-			// 		(syntax:  DriverManager.getConnection(String url, String user, String password) )
-			// Initially, the below gave STS error "Unhandled exception type SQLException";
-			// chose 4th of 4 suggested fixes, "Surround with try/catch"
-			try {
-				conn = DriverManager.getConnection(
-						"jdbc:oracle:thin:@training.cuu2unhhwabu.us-west-1.rds.amazonaws.com:1521:ORCL",
-						"beaver",
-						"chew"); // not a good idea - but here trivial data
-			} catch (SQLException e) {
-				e.printStackTrace();
-			} // not a good idea to hard-code, but trivial data, here
 		} catch (ClassNotFoundException e) {
 			// couldn't find/access the class containing the needed driver
 			System.out.println("Did not find the Oracle JDBC Driver class!");
 		}
-		
-		return conn;
+
+		pool = new ConnectionPool(
+				AppConfig.getString("rocp.db.url",
+						"jdbc:oracle:thin:@training.cuu2unhhwabu.us-west-1.rds.amazonaws.com:1521:ORCL"),
+				AppConfig.getString("rocp.db.username", "beaver"),
+				AppConfig.getString("rocp.db.password", "chew"), // not a good idea to hard-code, but trivial data, here
+				AppConfig.getInt("rocp.pool.minSize", 2),
+				AppConfig.getInt("rocp.pool.maxSize", 10),
+				AppConfig.getLong("rocp.pool.acquireTimeoutMillis", 5000),
+				AppConfig.getLong("rocp.pool.idleTimeoutMillis", 300000),
+				AppConfig.getLong("rocp.pool.validationIdleMillis", 1000),
+				AppConfig.getInt("rocp.pool.validationTimeoutSeconds", 2),
+				AppConfig.getInt("rocp.pool.statementCacheSize", 32));
+	}
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private ConnectionUtil() {
+		super();
+	}
+
+	// Borrow a Connection from the pool; calling close() on it (e.g. at the end
+	// of a try-with-resources block) gives it back to the pool
+	public static Connection getConnection() throws SQLException {
+		return pool.getConnection();
+	}
+
+	public static PoolStats getPoolStats() {
+		return pool.getStats();
+	}
+
+	// call once, when the application is being shut down
+	public static void shutdown() {
+		pool.shutdown();
 	}
 }
@@ -0,0 +1,83 @@
+package com.revature.util;
+
+import com.revature.models.Account;
+import com.revature.models.Role;
+import com.revature.models.User;
+
+/*
+ * A 64-bit hash (FNV-1a) of everything a User/Account's JSON shows - so it
+ * changes whenever the response body would. Used as the "version" in ETags,
+ * always computed from the row just read from the database (or the cache) -
+ * either from the model object, or straight from the columns (ofUser/ofAccount),
+ * so a conditional GET can be answered without building one.
+ *
+ * A User's password is left out: the ETag goes to the client, and a hash of a
+ * secret (cheap to compute, unsalted) must never leave the server.
+ */
+public class ContentHash {
+
+	private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private ContentHash() {
+		super();
+	}
+
+	public static long of(User u) {
+		Role role = u.getRole();
+		return ofUser(u.getUserId(), u.getUsername(), u.getFirstName(), u.getLastName(), u.getEmail(),
+				(role == null ? -1 : role.getRoleId()), (role == null ? null : role.getRole()));
+	}
+
+	// (roleId -1 and roleName null: no Role)
+	public static long ofUser(int userId, String username, String firstName, String lastName, String email,
+			int roleId, String roleName) {
+		long h = OFFSET_BASIS;
+		h = mix(h, userId);
+		h = mix(h, username);
+		h = mix(h, firstName);
+		h = mix(h, lastName);
+		h = mix(h, email);
+		h = mix(h, roleId);
+		h = mix(h, roleName);
+		return h;
+	}
+
+	public static long of(Account a) {
+		return ofAccount(a.getAccountId(), a.getBalance(), (a.getStatus() == null ? -1 : a.getStatus().getStatusId()),
+				(a.getType() == null ? -1 : a.getType().getTypeId()));
+	}
+
+	// (the status/type names come from the lookup tables, so their ids are enough)
+	public static long ofAccount(int accountId, long balance, int statusId, int typeId) {
+		long h = OFFSET_BASIS;
+		h = mix(h, accountId);
+		h = mix(h, balance);
+		h = mix(h, statusId);
+		h = mix(h, typeId);
+		return h;
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private static long mix(long h, long value) {
+		for(int i = 0; i < 8; i++) {
+			h = (h ^ (value & 0xff)) * PRIME;
+			value >>>= 8;
+		}
+		return h;
+	}
+
+	private static long mix(long h, String s) {
+		if(s == null) {
+			return (h ^ 0xff) * PRIME;
+		}
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			h = (h ^ (c & 0xff)) * PRIME;
+			h = (h ^ (c >>> 8)) * PRIME;
+		}
+		return (h ^ 0xfe) * PRIME;	// (end of string, so "ab"+"c" != "a"+"bc")
+	}
+}
@@ -0,0 +1,57 @@
+package com.revature.util;
+
+import java.util.Arrays;
+
+/*
+ * A growable list of ints - like an ArrayList<Integer>, but over an int[]:
+ * no Integer object per element, and toArray() is one array copy.
+ * For id-heavy paths (DAO id queries, bulk jobs) that only need the ids.
+ *
+ * NOT thread-safe.
+ */
+public class IntArrayList {
+
+	private int[] elements;
+	private int size = 0;
+
+	public IntArrayList() {
+		this(16);
+	}
+
+	public IntArrayList(int capacity) {
+		super();
+		elements = new int[Math.max(capacity, 4)];
+	}
+
+	public void add(int value) {
+		if(size == elements.length) {
+			elements = Arrays.copyOf(elements, elements.length * 2);
+		}
+		elements[size++] = value;
+	}
+
+	public int get(int index) {
+		if(index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+		}
+		return elements[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// (keeps the array, to be filled again)
+	public void clear() {
+		size = 0;
+	}
+
+	// a copy, exactly size() long
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
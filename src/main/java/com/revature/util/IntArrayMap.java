@@ -0,0 +1,112 @@
+package com.revature.util;
+
+/*
+ * A map from int keys to int[] values - with no boxing: no Integer keys, no
+ * Map.Entry objects, no List<Integer> values. Just two parallel arrays (keys
+ * and values), searched by open addressing with linear probing.
+ *
+ * A slot is empty when its value is null, so null can't be stored as a value
+ * (put(key, null) is the same as remove(key)).
+ *
+ * NOT thread-safe: the owner (e.g. OwnershipIndex) must lock around it.
+ */
+public class IntArrayMap {
+
+	private int[] keys;
+	private int[][] values;
+	private int size = 0;
+
+	public IntArrayMap(int expectedSize) {
+		super();
+		int capacity = IntHashing.capacityFor(expectedSize);
+		keys = new int[capacity];
+		values = new int[capacity][];
+	}
+
+	// null if the key isn't in the map
+	public int[] get(int key) {
+		int mask = keys.length - 1;
+		for(int i = slotOf(key, mask); values[i] != null; i = (i + 1) & mask) {
+			if(keys[i] == key) {
+				return values[i];
+			}
+		}
+		return null;
+	}
+
+	public void put(int key, int[] value) {
+		if(value == null) {
+			remove(key);
+			return;
+		}
+		if((size + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+		int mask = keys.length - 1;
+		int i = slotOf(key, mask);
+		while(values[i] != null) {
+			if(keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+	}
+
+	// the value that was removed; null if the key wasn't in the map
+	public int[] remove(int key) {
+		int mask = keys.length - 1;
+		int i = slotOf(key, mask);
+		while(values[i] != null && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		int[] removed = values[i];
+		if(removed == null) {
+			return null;
+		}
+		values[i] = null;
+		size--;
+		// shift back the entries after it that probed past this slot, so no lookup stops early
+		for(int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slotOf(keys[j], mask);
+			if(((j - home) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+		return removed;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		int[][] oldValues = values;
+		keys = new int[capacity];
+		values = new int[capacity][];
+		int mask = capacity - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldValues[j] != null) {
+				int i = slotOf(oldKeys[j], mask);
+				while(values[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private static int slotOf(int key, int mask) {
+		return IntHashing.slotOf(key, mask);
+	}
+}
@@ -0,0 +1,97 @@
+package com.revature.util;
+
+import java.util.Arrays;
+
+/*
+ * A set of ints - like a HashSet<Integer>, but with no Integer object per
+ * element (and no HashMap behind it): one int[] of keys plus a "used" flag
+ * per slot, searched by open addressing with linear probing.
+ *
+ * NOT thread-safe.
+ */
+public class IntHashSet {
+
+	private int[] keys;
+	private boolean[] used;
+	private int size = 0;
+
+	public IntHashSet(int expectedSize) {
+		super();
+		keys = new int[IntHashing.capacityFor(expectedSize)];
+		used = new boolean[keys.length];
+	}
+
+	public boolean contains(int key) {
+		int mask = keys.length - 1;
+		for(int i = IntHashing.slotOf(key, mask); used[i]; i = (i + 1) & mask) {
+			if(keys[i] == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// true if it wasn't in the set already
+	public boolean add(int key) {
+		if((size + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+		int mask = keys.length - 1;
+		int i = IntHashing.slotOf(key, mask);
+		while(used[i]) {
+			if(keys[i] == key) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		used[i] = true;
+		size++;
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	// the elements, in no particular order
+	public int[] toArray() {
+		int[] elements = new int[size];
+		int n = 0;
+		for(int i = 0; i < keys.length; i++) {
+			if(used[i]) {
+				elements[n++] = keys[i];
+			}
+		}
+		return elements;
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		boolean[] oldUsed = used;
+		keys = new int[capacity];
+		used = new boolean[capacity];
+		int mask = capacity - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldUsed[j]) {
+				int i = IntHashing.slotOf(oldKeys[j], mask);
+				while(used[i]) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				used[i] = true;
+			}
+		}
+	}
+}
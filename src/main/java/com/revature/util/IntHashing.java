@@ -0,0 +1,28 @@
+package com.revature.util;
+
+/*
+ * What the open-addressing int collections (IntArrayMap, IntIntHashMap,
+ * IntHashSet) share: table sizing, and which slot a key starts probing from.
+ */
+class IntHashing {
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private IntHashing() {
+		super();
+	}
+
+	// a power of two, at least twice expectedSize (tables are kept at most half full)
+	static int capacityFor(int expectedSize) {
+		int capacity = 16;
+		while(capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	// (ids are sequential - mix the bits, so runs of them don't pile up in one stretch of slots)
+	static int slotOf(int key, int mask) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,132 @@
+package com.revature.util;
+
+import java.util.Arrays;
+
+/*
+ * A map from int keys to int values - with no boxing: no Integer keys or
+ * values, no Map.Entry objects. Two parallel arrays (keys and values) plus a
+ * "used" flag per slot, searched by open addressing with linear probing.
+ * get() takes the value to return when the key isn't there.
+ *
+ * NOT thread-safe.
+ */
+public class IntIntHashMap {
+
+	private int[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int size = 0;
+
+	public IntIntHashMap(int expectedSize) {
+		super();
+		allocate(IntHashing.capacityFor(expectedSize));
+	}
+
+	// missing if the key isn't in the map
+	public int get(int key, int missing) {
+		int i = find(key);
+		return (i >= 0 ? values[i] : missing);
+	}
+
+	public boolean containsKey(int key) {
+		return find(key) >= 0;
+	}
+
+	public void put(int key, int value) {
+		if((size + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+		int mask = keys.length - 1;
+		int i = IntHashing.slotOf(key, mask);
+		while(used[i]) {
+			if(keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		used[i] = true;
+		size++;
+	}
+
+	// add delta to the key's value (a missing key counts as 0); returns the new value
+	public int increment(int key, int delta) {
+		int i = find(key);
+		if(i >= 0) {
+			return (values[i] += delta);
+		}
+		put(key, delta);
+		return delta;
+	}
+
+	// true if the key was in the map
+	public boolean remove(int key) {
+		int i = find(key);
+		if(i < 0) {
+			return false;
+		}
+		used[i] = false;
+		size--;
+		// shift back the entries after it that probed past this slot, so no lookup stops early
+		int mask = keys.length - 1;
+		for(int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+			int home = IntHashing.slotOf(keys[j], mask);
+			if(((j - home) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				used[i] = true;
+				used[j] = false;
+				i = j;
+			}
+		}
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private int find(int key) {
+		int mask = keys.length - 1;
+		for(int i = IntHashing.slotOf(key, mask); used[i]; i = (i + 1) & mask) {
+			if(keys[i] == key) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+	}
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldUsed[j]) {
+				int i = IntHashing.slotOf(oldKeys[j], mask);
+				while(used[i]) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+				used[i] = true;
+			}
+		}
+	}
+}
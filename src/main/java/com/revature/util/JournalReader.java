@@ -0,0 +1,119 @@
+package com.revature.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Reads TransactionJournal records sequentially, up to the last intact one -
+ * from one journal file, or across a journal's segment files in order (see
+ * TransactionJournal.readAfter), starting part-way into the first of them.
+ *
+ * The file is read in large blocks (READ_BUFFER_RECORDS records at a time) into
+ * one reused direct buffer, so a scan is a stream of big sequential reads - it
+ * runs at disk bandwidth and creates no garbage besides the records themselves.
+ * Safe to use while the journal is still being appended to (it sees the records
+ * written so far).
+ *
+ * Sequence numbers must follow on from each other: a record that doesn't (e.g.
+ * a stale one left past a torn write) ends the segment, like a corrupt one does.
+ *
+ *	try (JournalReader reader = journal.readAfter(snapshotSequence)) {
+ *		JournalRecord r;
+ *		while((r = reader.next()) != null) { ... }
+ *	}
+ */
+public class JournalReader implements Closeable {
+
+	private static final int READ_BUFFER_RECORDS = 18724;	// ~1 MB
+
+	private final List<Path> segments;
+	private int segment = -1;		// index of the one being read
+	private FileChannel channel;
+	private final ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER_RECORDS * JournalRecord.RECORD_SIZE);
+	private long nextSequence;		// the sequence the next record must have (0 = any)
+	private long validBytes = 0;	// where the current segment's last intact record (returned so far) ends
+	private boolean atEnd = false;
+
+	// One journal file, from its first record
+	public JournalReader(Path path) throws IOException {
+		this(Collections.singletonList(path), 0, 0);
+	}
+
+	/*
+	 * The segments, in order, starting offset bytes into the first one - where
+	 * the record with firstSequence should be (0 = don't check the first one).
+	 */
+	public JournalReader(List<Path> segments, long offset, long firstSequence) throws IOException {
+		super();
+		this.segments = segments;
+		this.nextSequence = firstSequence;
+		if(segments.isEmpty()) {
+			atEnd = true;
+		} else {
+			open(0, offset);
+		}
+	}
+
+	// The next record, or null at the end of the journal (or at a torn/corrupt record in its last segment)
+	public JournalRecord next() throws IOException {
+		while(!atEnd) {
+			if(buf.remaining() >= JournalRecord.RECORD_SIZE || fill()) {
+				JournalRecord r = JournalRecord.readFrom(buf);
+				if(r != null && (nextSequence == 0 || r.getSequence() == nextSequence)) {
+					validBytes += JournalRecord.RECORD_SIZE;
+					nextSequence = r.getSequence() + 1;
+					return r;
+				}
+			}
+			// the end of this segment - go on to the next one, if there is one
+			if(segment + 1 < segments.size()) {
+				open(segment + 1, 0);
+			} else {
+				atEnd = true;
+			}
+		}
+		return null;
+	}
+
+	// Where the next record would go (in the last segment), once next() has returned null
+	public long getValidBytes() {
+		return validBytes;
+	}
+
+	private void open(int index, long offset) throws IOException {
+		if(channel != null) {
+			channel.close();
+		}
+		segment = index;
+		channel = FileChannel.open(segments.get(index), StandardOpenOption.READ);
+		channel.position(offset);
+		validBytes = offset;
+		buf.clear();
+		buf.limit(0);	// empty - the first next() reads
+	}
+
+	// read the next block of the file; false if there isn't a whole record left
+	private boolean fill() throws IOException {
+		buf.compact();
+		while(buf.hasRemaining()) {
+			if(channel.read(buf) < 0) {
+				break;
+			}
+		}
+		buf.flip();
+		return buf.remaining() >= JournalRecord.RECORD_SIZE;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(channel != null) {
+			channel.close();
+		}
+	}
+}
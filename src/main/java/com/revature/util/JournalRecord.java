@@ -0,0 +1,156 @@
+package com.revature.util;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/*
+ * One entry of the TransactionJournal - a single balance change.
+ *
+ * Every record is exactly RECORD_SIZE bytes on disk, so the n-th record
+ * always starts at n * RECORD_SIZE and the journal can be read (or its end
+ * found) without any per-record length field:
+ *
+ *   offset  size  field
+ *   ------  ----  ---------------------------------------------------------
+ *        0     8  sequence         (1, 2, 3, ... - one per record, no gaps)
+ *        8     8  timestampMillis
+ *       16     4  type             (see below)
+ *       20     4  accountId
+ *       24     4  targetAccountId
+ *       28     4  statusId
+ *       32     4  typeId
+ *       36     4  (reserved - 0)
+ *       40     8  amount           (a long - cents, or for INTEREST billionths; see Money)
+ *       48     4  CRC-32 of bytes 0-47
+ *       52     4  MAGIC
+ *
+ * Which fields each type uses (the rest are 0):
+ *   DEPOSIT, WITHDRAW  accountId, amount
+ *   TRANSFER           accountId (source), targetAccountId, amount
+ *   BALANCE_SET        accountId, statusId, typeId, amount (the new balance)
+ *   INTEREST           accountId..targetAccountId (an id range), typeId, amount (the factor)
+ *   DELETED            accountId
+ *
+ * A record whose MAGIC or CRC doesn't match - e.g. the zero-filled space after
+ * the last record, or a record torn by a crash - marks the end of the journal.
+ */
+public class JournalRecord {
+
+	public static final int RECORD_SIZE = 56;
+	public static final int MAGIC = 0x4A524E4C;	// "JRNL"
+
+	public static final int DEPOSIT = 1;
+	public static final int WITHDRAW = 2;
+	public static final int TRANSFER = 3;
+	public static final int BALANCE_SET = 4;	// an Account created/updated with this balance, status and type
+	public static final int INTEREST = 5;		// every balance of typeId in the id range multiplied by amount
+	public static final int DELETED = 6;
+
+	private static final int CRC_OFFSET = 48;
+	private static final int MAGIC_OFFSET = 52;
+
+	private final long sequence;
+	private final long timestampMillis;
+	private final int type;
+	private final int accountId;
+	private final int targetAccountId;
+	private final int statusId;
+	private final int typeId;
+	private final long amount;
+
+	public JournalRecord(long sequence, long timestampMillis, int type, int accountId, int targetAccountId,
+			int statusId, int typeId, long amount) {
+		super();
+		this.sequence = sequence;
+		this.timestampMillis = timestampMillis;
+		this.type = type;
+		this.accountId = accountId;
+		this.targetAccountId = targetAccountId;
+		this.statusId = statusId;
+		this.typeId = typeId;
+		this.amount = amount;
+	}
+
+	// Write this record (RECORD_SIZE bytes) into buf, starting at its current position
+	public void writeTo(ByteBuffer buf) {
+		int start = buf.position();
+		buf.putLong(sequence);
+		buf.putLong(timestampMillis);
+		buf.putInt(type);
+		buf.putInt(accountId);
+		buf.putInt(targetAccountId);
+		buf.putInt(statusId);
+		buf.putInt(typeId);
+		buf.putInt(0);	// (reserved)
+		buf.putLong(amount);
+		buf.putInt((int) crcOf(buf, start));
+		buf.putInt(MAGIC);
+	}
+
+	/*
+	 * Read the record starting at buf's current position (advancing it by
+	 * RECORD_SIZE). Returns null - without advancing - if there is no complete,
+	 * intact record there.
+	 */
+	public static JournalRecord readFrom(ByteBuffer buf) {
+		int start = buf.position();
+		if(buf.remaining() < RECORD_SIZE
+				|| buf.getInt(start + MAGIC_OFFSET) != MAGIC
+				|| buf.getInt(start + CRC_OFFSET) != (int) crcOf(buf, start)) {
+			return null;
+		}
+		JournalRecord r = new JournalRecord(buf.getLong(start), buf.getLong(start + 8), buf.getInt(start + 16),
+				buf.getInt(start + 20), buf.getInt(start + 24), buf.getInt(start + 28), buf.getInt(start + 32),
+				buf.getLong(start + 40));
+		buf.position(start + RECORD_SIZE);
+		return r;
+	}
+
+	private static long crcOf(ByteBuffer buf, int start) {
+		CRC32 crc = new CRC32();
+		ByteBuffer fields = buf.duplicate();
+		fields.position(start);
+		fields.limit(start + CRC_OFFSET);
+		crc.update(fields);
+		return crc.getValue();
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public long getTimestampMillis() {
+		return timestampMillis;
+	}
+
+	public int getType() {
+		return type;
+	}
+
+	public int getAccountId() {
+		return accountId;
+	}
+
+	public int getTargetAccountId() {
+		return targetAccountId;
+	}
+
+	public int getStatusId() {
+		return statusId;
+	}
+
+	public int getTypeId() {
+		return typeId;
+	}
+
+	public long getAmount() {
+		return amount;
+	}
+
+	@Override
+	public String toString() {
+		return "JournalRecord [sequence=" + sequence + ", timestampMillis=" + timestampMillis + ", type=" + type
+				+ ", accountId=" + accountId + ", targetAccountId=" + targetAccountId + ", statusId=" + statusId
+				+ ", typeId=" + typeId + ", amount=" + amount + "]";
+	}
+}
@@ -0,0 +1,49 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class JournalUtil {
+
+	// The ONE TransactionJournal that every balance change is recorded in (see
+	// AccountService). Every setting can be overridden via AppConfig (system
+	// property or app.properties); null if disabled, or if it couldn't be opened.
+	private static final TransactionJournal journal;
+
+	// how long a committed change waits for its journal record to become durable before
+	// it is acknowledged; one that isn't by then is reported as such (see JournalEntries)
+	public static final long ACK_TIMEOUT_MILLIS = AppConfig.getLong("rocp.journal.ackTimeoutMillis", 1000);
+
+	static {
+		TransactionJournal opened = null;
+		if(AppConfig.getBoolean("rocp.journal.enabled", true)) {
+			try {
+				opened = new TransactionJournal(
+						Paths.get(AppConfig.getString("rocp.journal.path",
+								System.getProperty("java.io.tmpdir") + "/rocp-transactions.journal")),
+						AppConfig.getInt("rocp.journal.regionBytes", 64 * 1024 * 1024),
+						AppConfig.getLong("rocp.journal.syncIntervalMillis", 10));
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.out.println("Could not open the transaction journal - balance changes will NOT be journaled!");
+			}
+		}
+		journal = opened;
+	}
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private JournalUtil() {
+		super();
+	}
+
+	public static TransactionJournal getJournal() {
+		return journal;
+	}
+
+	// call once, when the application is being shut down
+	public static void shutdown() {
+		if(journal != null) {
+			journal.close();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.revature.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/*
+ * Money is a long number of CENTS - everywhere: Account balances, deposit/
+ * withdraw/transfer amounts, the AccountBook, the TransactionJournal.
+ *
+ * A double can't hold most decimal amounts exactly (0.10 is really
+ * 0.1000000000000000055...), so adding them up drifts; a long of cents is
+ * exact, adding and comparing are single instructions, and nothing is
+ * allocated (no BigDecimal per amount). Only at the edges is it converted:
+ *  - JSON:      "balance": 25.10  <->  2510       (ofExact / format)
+ *  - database:  NUMBER(15,2)      <->  2510       (toDecimal / ofDecimal)
+ *
+ * Interest factors are fixed-point too: a long of billionths (FACTOR_SCALE),
+ * e.g. 1.001666667 -> 1001666667, so interest is long arithmetic as well.
+ *
+ * Static helpers only - there is no Money object.
+ */
+public class Money {
+
+	public static final int SCALE = 2;							// cents
+	public static final int FACTOR_DIGITS = 9;
+	public static final long FACTOR_SCALE = 1_000_000_000L;		// factors in billionths
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private Money() {
+		super();
+	}
+
+	// cents -> an exact decimal (e.g. for a NUMBER(15,2) column)
+	public static BigDecimal toDecimal(long cents) {
+		return BigDecimal.valueOf(cents, SCALE);
+	}
+
+	/*
+	 * A decimal from the DATABASE -> cents (rounded half-up, like the
+	 * database's ROUND(x, 2), should the column hold more decimal places).
+	 */
+	public static long ofDecimal(BigDecimal amount) {
+		return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	/*
+	 * An amount from a CLIENT -> cents: fractions of a cent are rejected rather
+	 * than silently rounded. Throws IllegalArgumentException.
+	 */
+	public static long ofExact(BigDecimal amount) {
+		try {
+			return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+		} catch(ArithmeticException e) {
+			throw new IllegalArgumentException("Not a valid amount of money: " + amount.toPlainString());
+		}
+	}
+
+	// e.g. "25.10" -> 2510; throws IllegalArgumentException
+	public static long parse(String amount) {
+		try {
+			return ofExact(new BigDecimal(amount.trim()));
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Not a valid amount of money: " + amount);
+		}
+	}
+
+	// e.g. 2510 -> "25.10", -5 -> "-0.05"
+	public static String format(long cents) {
+		StringBuilder sb = new StringBuilder(24);
+		if(cents < 0) {
+			sb.append('-');
+		}
+		long units = Math.abs(cents / 100);
+		int fraction = (int) Math.abs(cents % 100);
+		sb.append(units).append('.');
+		if(fraction < 10) {
+			sb.append('0');
+		}
+		return sb.append(fraction).toString();
+	}
+
+	// a factor (e.g. 1.0016666...) -> billionths, rounded half-up
+	public static long factorOf(BigDecimal factor) {
+		return factor.setScale(FACTOR_DIGITS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	public static BigDecimal factorToDecimal(long factor) {
+		return BigDecimal.valueOf(factor, FACTOR_DIGITS);
+	}
+
+	// (1 + rate)^n, as billionths - e.g. monthly interest compounded over n months
+	public static long compound(BigDecimal rate, int n) {
+		return factorOf(BigDecimal.ONE.add(rate).pow(n, MathContext.DECIMAL128));
+	}
+
+	/*
+	 * cents * factor, rounded to the cent half away from zero - the same as the
+	 * database's ROUND(balance * factor, 2) with the factor bound as
+	 * factorToDecimal(factor). Pure long arithmetic, unless the product would
+	 * overflow a long (balances in the tens of millions), which falls back to
+	 * BigDecimal.
+	 */
+	public static long applyFactor(long cents, long factor) {
+		if(factor > 0 && Math.abs(cents) <= Long.MAX_VALUE / factor) {
+			long product = cents * factor;
+			long result = product / FACTOR_SCALE;
+			long remainder = product % FACTOR_SCALE;
+			if(Math.abs(remainder) * 2 >= FACTOR_SCALE) {
+				result += Long.signum(product);
+			}
+			return result;
+		}
+		return ofDecimal(toDecimal(cents).multiply(factorToDecimal(factor)));
+	}
+}
@@ -0,0 +1,93 @@
+package com.revature.util;
+
+/*
+ * A point-in-time snapshot of ConnectionPool statistics, used to size the pool.
+ *
+ * Has getters only, so Jackson data-bind can serialize it as-is.
+ */
+public class PoolStats {
+	private final int total;		// physical connections open
+	private final int active;		// currently lent out to DAOs
+	private final int idle;			// open, waiting to be borrowed
+	private final int waiting;		// callers blocked waiting for a connection
+	private final int minSize;
+	private final int maxSize;
+	private final long borrowCount;
+	private final long timeoutCount;
+	private final long totalWaitNanos;
+	private final long maxWaitNanos;
+	private final long createdCount;
+	private final long destroyedCount;
+
+	public PoolStats(int total, int active, int idle, int waiting, int minSize, int maxSize, long borrowCount,
+			long timeoutCount, long totalWaitNanos, long maxWaitNanos, long createdCount, long destroyedCount) {
+		super();
+		this.total = total;
+		this.active = active;
+		this.idle = idle;
+		this.waiting = waiting;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.borrowCount = borrowCount;
+		this.timeoutCount = timeoutCount;
+		this.totalWaitNanos = totalWaitNanos;
+		this.maxWaitNanos = maxWaitNanos;
+		this.createdCount = createdCount;
+		this.destroyedCount = destroyedCount;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	public int getWaiting() {
+		return waiting;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getBorrowCount() {
+		return borrowCount;
+	}
+
+	public long getTimeoutCount() {
+		return timeoutCount;
+	}
+
+	public double getAverageWaitMillis() {
+		return (borrowCount == 0 ? 0.0 : totalWaitNanos / (double) borrowCount / 1_000_000.0);
+	}
+
+	public double getMaxWaitMillis() {
+		return maxWaitNanos / 1_000_000.0;
+	}
+
+	public long getCreatedCount() {
+		return createdCount;
+	}
+
+	public long getDestroyedCount() {
+		return destroyedCount;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStats [total=" + total + ", active=" + active + ", idle=" + idle + ", waiting=" + waiting
+				+ ", borrowCount=" + borrowCount + ", timeoutCount=" + timeoutCount + ", averageWaitMillis="
+				+ getAverageWaitMillis() + ", maxWaitMillis=" + getMaxWaitMillis() + "]";
+	}
+}
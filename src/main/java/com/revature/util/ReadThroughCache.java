@@ -0,0 +1,174 @@
+package com.revature.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/*
+ * A small, bounded, in-memory read-through cache (used by the service layer
+ * to avoid going to the database for the same row over and over).
+ *
+ *  - get(key, loader) returns the cached value, or calls loader (e.g. a DAO
+ *    finder) on a miss and remembers what it returned. null is never cached.
+ *  - Entries expire ttlMillis after they were loaded, and once there are more
+ *    than maxSize entries the least-recently-used one is evicted.
+ *  - Only ONE loader runs per key at a time: concurrent misses for the same
+ *    (hot) key wait for that one load instead of each hitting the database.
+ *  - invalidate(key) must be called whenever the underlying row changes. A load
+ *    that was already running when an invalidation happened still returns its
+ *    value to its callers, but that (possibly stale) value is NOT cached.
+ */
+public class ReadThroughCache<K, V> {
+
+	private static class Cached<V> {
+		final V value;
+		final long expiresAt;
+
+		Cached(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final String name;
+	private final int maxSize;
+	private final long ttlMillis;
+
+	// LRU order (accessOrder = true); guarded by synchronized(entries)
+	private final Map<K, Cached<V>> entries;
+	// bumped (under the same lock) by every invalidation - see put(key, value, epoch)
+	private long epoch = 0;
+	// loads in progress, so concurrent misses for the same key can share one
+	private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public ReadThroughCache(String name, int maxSize, long ttlMillis) {
+		super();
+		if(maxSize < 1 || ttlMillis < 1) {
+			throw new IllegalArgumentException("maxSize and ttlMillis must be positive");
+		}
+		this.name = name;
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<K, Cached<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Cached<V>> eldest) {
+				if(size() > ReadThroughCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		long startEpoch;
+		synchronized(entries) {
+			Cached<V> e = entries.get(key);
+			if(e != null) {
+				if(e.expiresAt > System.currentTimeMillis()) {
+					hits.increment();
+					return e.value;
+				}
+				entries.remove(key);	// expired
+			}
+			startEpoch = epoch;
+		}
+		misses.increment();
+
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> running = loading.putIfAbsent(key, mine);
+		if(running != null) {
+			return await(running);	// someone is already loading this key - share their result
+		}
+
+		try {
+			loads.increment();
+			V value = loader.apply(key);
+			put(key, value, startEpoch);
+			mine.complete(value);
+			return value;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, mine);
+		}
+	}
+
+	// The cached value, if there is a live one - never loads, doesn't count as a hit/miss
+	public V peek(K key) {
+		synchronized(entries) {
+			Cached<V> e = entries.get(key);
+			return (e != null && e.expiresAt > System.currentTimeMillis() ? e.value : null);
+		}
+	}
+
+	/*
+	 * The current invalidation "epoch". Read it BEFORE loading a value outside
+	 * of get(), and pass it to put(): if anything was invalidated in between,
+	 * the value may already be stale and is not cached.
+	 */
+	public long epoch() {
+		synchronized(entries) {
+			return epoch;
+		}
+	}
+
+	public void put(K key, V value, long sinceEpoch) {
+		if(value == null) {
+			return;
+		}
+		synchronized(entries) {
+			if(epoch == sinceEpoch) {
+				entries.put(key, new Cached<>(value, System.currentTimeMillis() + ttlMillis));
+			}
+		}
+	}
+
+	public void invalidate(K key) {
+		synchronized(entries) {
+			epoch++;
+			entries.remove(key);
+		}
+		loading.remove(key);	// later misses start a fresh load rather than joining a stale one
+	}
+
+	public void clear() {
+		synchronized(entries) {
+			epoch++;
+			entries.clear();
+		}
+		loading.clear();
+	}
+
+	public CacheStats getStats() {
+		int size;
+		synchronized(entries) {
+			size = entries.size();
+		}
+		return new CacheStats(name, size, maxSize, ttlMillis, hits.sum(), misses.sum(), loads.sum(), evictions.sum());
+	}
+
+	private static <V> V await(CompletableFuture<V> load) {
+		try {
+			return load.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();	// the same exception the loading thread got
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * A cache of PreparedStatement_s for ONE physical connection, keyed by SQL text.
+ *
+ * Re-preparing the same SQL on every DAO call costs a parse plus a round trip
+ * to the database. Instead, the first prepareStatement(sql) on a pooled
+ * connection really prepares it, and later calls with the same SQL get the
+ * same statement back.
+ *
+ * The DAO still closes the statement as usual (try-with-resources); for a cached
+ * statement, close() just clears its parameters, puts back the fetch size, max
+ * rows and query timeout it was prepared with (so a setFetchSize(1000) for one
+ * big scan isn't inherited by the next borrower's single-row lookup), and makes
+ * it available again.
+ * The least recently used statement is *really* closed once more than maxSize
+ * different SQL strings have been prepared on the connection.
+ *
+ * Not thread-safe - a pooled connection is only ever used by one borrower at a time.
+ */
+public class StatementCache {
+
+	private final Connection physical;
+	private final int maxSize;
+	private final Map<String, CachedStatement> cache;
+
+	private long hits;
+	private long misses;
+
+	public StatementCache(Connection physical, int maxSize) {
+		super();
+		this.physical = physical;
+		this.maxSize = maxSize;
+		// accessOrder = true -> iteration order is least-recently-used first (LRU)
+		this.cache = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	public PreparedStatement prepare(String sql) throws SQLException {
+		if(maxSize <= 0) {
+			return physical.prepareStatement(sql);
+		}
+
+		CachedStatement cached = cache.get(sql);
+		if(cached != null) {
+			if(cached.inUse) {
+				// the same SQL is already open on this connection (e.g. nested loops);
+				// give out a plain, uncached statement rather than sharing one
+				return physical.prepareStatement(sql);
+			}
+			hits++;
+			cached.inUse = true;
+			return cached.handle;
+		}
+
+		misses++;
+		cached = new CachedStatement(physical.prepareStatement(sql));
+		cached.inUse = true;
+		cache.put(sql, cached);
+		evictIfNeeded();
+		return cached.handle;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	// really close every cached statement (the connection is being closed)
+	public void closeAll() {
+		for(CachedStatement cached : cache.values()) {
+			cached.closePhysical();
+		}
+		cache.clear();
+	}
+
+	private void evictIfNeeded() {
+		if(cache.size() <= maxSize) {
+			return;
+		}
+		List<CachedStatement> evicted = new ArrayList<>();
+		Iterator<CachedStatement> lruFirst = cache.values().iterator();
+		while(cache.size() - evicted.size() > maxSize && lruFirst.hasNext()) {
+			CachedStatement cached = lruFirst.next();
+			lruFirst.remove();
+			evicted.add(cached);
+		}
+		for(CachedStatement cached : evicted) {
+			if(cached.inUse) {
+				cached.evicted = true;	// close it once the borrower is done with it
+			} else {
+				cached.closePhysical();
+			}
+		}
+	}
+
+	private static class CachedStatement implements InvocationHandler {
+		final PreparedStatement physicalStmt;
+		final PreparedStatement handle;
+		boolean inUse;
+		boolean evicted;
+
+		// what the driver prepared it with, to put back on close() if a borrower changed it
+		final int defaultFetchSize;
+		final int defaultMaxRows;
+		final int defaultQueryTimeout;
+		boolean tuned;
+
+		CachedStatement(PreparedStatement physicalStmt) throws SQLException {
+			this.physicalStmt = physicalStmt;
+			this.defaultFetchSize = physicalStmt.getFetchSize();
+			this.defaultMaxRows = physicalStmt.getMaxRows();
+			this.defaultQueryTimeout = physicalStmt.getQueryTimeout();
+			this.handle = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch(method.getName()) {
+			case "close":
+				if(inUse) {
+					inUse = false;
+					if(evicted) {
+						closePhysical();
+					} else {
+						// leave no state behind for the next user of this statement
+						physicalStmt.clearParameters();
+						physicalStmt.clearBatch();	// (a failed executeBatch can leave rows queued)
+						physicalStmt.clearWarnings();
+						if(tuned) {
+							tuned = false;
+							physicalStmt.setMaxRows(defaultMaxRows);	// (first - some drivers won't fetch more than maxRows)
+							physicalStmt.setFetchSize(defaultFetchSize);
+							physicalStmt.setQueryTimeout(defaultQueryTimeout);
+						}
+					}
+				}
+				return null;
+			case "setFetchSize":
+			case "setMaxRows":
+			case "setQueryTimeout":
+				tuned = true;
+				break;
+			case "isClosed":
+				return !inUse || physicalStmt.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			}
+			if(!inUse) {
+				throw new SQLException("Statement has already been closed");
+			}
+			try {
+				return method.invoke(physicalStmt, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		void closePhysical() {
+			try {
+				physicalStmt.close();
+			} catch (SQLException e) {
+				// the connection is probably already gone; nothing more to do
+			}
+		}
+	}
+}
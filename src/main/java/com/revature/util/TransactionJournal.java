@@ -0,0 +1,277 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * An append-only, binary journal of balance changes (deposits, withdrawals,
+ * transfers, ...) - a history that the ACCOUNTS table itself doesn't keep.
+ *
+ * Records (see JournalRecord - fixed size, CRC-checked) are written straight
+ * into a memory-mapped region of the file: an append is just a few memory
+ * writes, with no system call. The file is mapped regionBytes at a time; when a
+ * region fills up the next one is mapped.
+ *
+ * Durability is "group commit": rather than forcing the file to disk on every
+ * append, a background thread forces everything appended so far every
+ * syncIntervalMillis - one fsync covers every append in that interval.
+ * append() returns the record's sequence number; a caller that must not
+ * acknowledge a change until it is durable then calls awaitDurable(sequence).
+ *
+ * The journal is a series of SEGMENT files - path + "." + the sequence number
+ * of the segment's first record. rotate() (after each AccountBook snapshot)
+ * starts a new segment and deletes the ones the snapshot already covers, so the
+ * journal only ever holds what happened since (about) the last snapshot - and
+ * readAfter(sequence) starts reading right at the record after it: a seek, not
+ * a scan. On open, only the newest segment is scanned (see JournalReader), and
+ * appending resumes right after its last intact record.
+ */
+public class TransactionJournal {
+
+	private final Path path;				// (each segment's file name is this one's + "." + its first sequence)
+	private final int regionBytes;			// a multiple of RECORD_SIZE - records never straddle regions
+
+	// guarded by synchronized(this)
+	private final TreeMap<Long, Path> segments;	// first sequence -> file, oldest first (the last one is being appended to)
+	private FileChannel channel;			// of the segment being appended to
+	private MappedByteBuffer region;		// the region being appended to
+	private long regionStart;				// its offset in the file
+	private final List<MappedByteBuffer> filledRegions = new ArrayList<>();	// full, but not forced yet
+	private long nextSequence;
+	private long lastWritten;				// sequence of the last record appended
+	private boolean closed = false;
+
+	// guarded by durableLock
+	private final Object durableLock = new Object();
+	private long lastDurable;				// every record up to this sequence has been forced to disk
+	private IOException syncFailure;
+
+	private final ScheduledExecutorService syncer;
+
+	public TransactionJournal(Path path, int regionBytes, long syncIntervalMillis) throws IOException {
+		super();
+		this.path = path;
+		this.regionBytes = Math.max(1, regionBytes / JournalRecord.RECORD_SIZE) * JournalRecord.RECORD_SIZE;
+		this.segments = listSegments(path);
+
+		// find the end of what is already there - in the newest segment (the older ones ended at a rotate())
+		long first = (segments.isEmpty() ? 1 : segments.lastKey());
+		long end = 0;
+		long lastSequence = first - 1;
+		if(!segments.isEmpty()) {
+			try (JournalReader reader = new JournalReader(segments.lastEntry().getValue())) {
+				JournalRecord r;
+				while((r = reader.next()) != null) {
+					lastSequence = r.getSequence();
+				}
+				end = reader.getValidBytes();
+			}
+		}
+		nextSequence = lastSequence + 1;
+		lastWritten = lastSequence;
+		lastDurable = lastSequence;
+		openSegment(first, end);
+
+		syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "transaction-journal-sync");
+			t.setDaemon(true);
+			return t;
+		});
+		syncer.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * Append one record (see JournalRecord for which fields each type uses);
+	 * returns it, with its sequence number. The record is in the journal
+	 * (visible to readers) on return, but only durable once
+	 * awaitDurable(record.getSequence()) returns true.
+	 */
+	public synchronized JournalRecord append(int type, int accountId, int targetAccountId, int statusId, int typeId,
+			long amount) throws IOException {
+		if(closed) {
+			throw new IOException("The journal is closed");
+		}
+		if(region.remaining() < JournalRecord.RECORD_SIZE) {
+			filledRegions.add(region);	// still has to be forced by the next sync
+			regionStart += regionBytes;
+			region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, regionBytes);
+		}
+		JournalRecord record = new JournalRecord(nextSequence++, System.currentTimeMillis(), type, accountId,
+				targetAccountId, statusId, typeId, amount);
+		record.writeTo(region);
+		lastWritten = record.getSequence();
+		return record;
+	}
+
+	// sequence of the last record appended (0 if the journal is empty)
+	public synchronized long getLastSequence() {
+		return lastWritten;
+	}
+
+	// sequence of the oldest record still in the journal (getLastSequence() + 1 if there is none)
+	public synchronized long getFirstSequence() {
+		return segments.firstKey();
+	}
+
+	/*
+	 * A reader of the records AFTER this sequence number: it starts in the
+	 * segment that holds the next one, right at its offset - (sequence of the
+	 * record - first sequence of the segment) * RECORD_SIZE - reading nothing before it.
+	 */
+	public JournalReader readAfter(long sequence) throws IOException {
+		List<Path> paths;
+		long from;
+		long first;
+		synchronized(this) {
+			from = Math.max(sequence + 1, segments.firstKey());
+			first = segments.floorKey(from);
+			paths = new ArrayList<>(segments.tailMap(first, true).values());
+		}
+		return new JournalReader(paths, (from - first) * JournalRecord.RECORD_SIZE, from);
+	}
+
+	/*
+	 * Start a new segment for the records from now on, and delete the segments
+	 * whose records are ALL at or before upTo - e.g. the sequence a snapshot
+	 * has just been written up to. (The segment being appended to is never deleted.)
+	 */
+	public synchronized void rotate(long upTo) throws IOException {
+		if(closed) {
+			return;
+		}
+		if(lastWritten >= segments.lastKey()) {	// (nothing to gain from starting a new, empty segment after an empty one)
+			filledRegions.add(region);	// still has to be forced by the next sync
+			channel.close();			// (the mapped regions stay valid)
+			openSegment(nextSequence, 0);
+		}
+		while(segments.size() > 1) {
+			Map.Entry<Long, Path> oldest = segments.firstEntry();
+			if(segments.higherKey(oldest.getKey()) - 1 > upTo) {	// (its last record is the one before the next segment's first)
+				break;
+			}
+			Files.deleteIfExists(oldest.getValue());
+			segments.remove(oldest.getKey());
+		}
+	}
+
+	/*
+	 * Wait until the record with this sequence number has been forced to disk
+	 * (at most timeoutMillis). Returns false on timeout; throws if the sync failed.
+	 */
+	public boolean awaitDurable(long sequence, long timeoutMillis) throws IOException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		synchronized(durableLock) {
+			while(lastDurable < sequence) {
+				if(syncFailure != null) {
+					throw syncFailure;
+				}
+				long wait = deadline - System.currentTimeMillis();
+				if(wait <= 0) {
+					return false;
+				}
+				try {
+					durableLock.wait(wait);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	public long getLastDurable() {
+		synchronized(durableLock) {
+			return lastDurable;
+		}
+	}
+
+	// (called with the lock held, or from the constructor)
+	private void openSegment(long first, long end) throws IOException {
+		Path segment = path.resolveSibling(path.getFileName() + "." + String.format("%019d", first));
+		channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		segments.put(first, segment);
+		regionStart = (end / regionBytes) * regionBytes;
+		region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, regionBytes);
+		region.position((int) (end - regionStart));
+	}
+
+	// The journal's segment files, by first sequence (anything else named path.* is ignored)
+	private static TreeMap<Long, Path> listSegments(Path path) throws IOException {
+		TreeMap<Long, Path> found = new TreeMap<>();
+		Path dir = path.toAbsolutePath().getParent();
+		String prefix = path.getFileName() + ".";
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+			for(Path file : files) {
+				String suffix = file.getFileName().toString().substring(prefix.length());
+				if(suffix.length() == 19 && suffix.chars().allMatch(Character::isDigit)) {
+					found.put(Long.parseLong(suffix), file);
+				}
+			}
+		}
+		return found;
+	}
+
+	// Force (fsync) everything appended so far, then wake up whoever is waiting on it
+	private void sync() {
+		long upTo;
+		List<MappedByteBuffer> toForce;
+		synchronized(this) {
+			upTo = lastWritten;
+			if(upTo == getLastDurable() || closed) {
+				return;	// nothing new
+			}
+			toForce = new ArrayList<>(filledRegions);
+			toForce.add(region);
+			filledRegions.clear();
+		}
+		try {
+			for(MappedByteBuffer buf : toForce) {
+				buf.force();
+			}
+		} catch (RuntimeException e) {	// (force() reports I/O errors as unchecked exceptions)
+			e.printStackTrace();
+			synchronized(durableLock) {
+				syncFailure = new IOException("Could not sync the transaction journal", e);
+				durableLock.notifyAll();
+			}
+			return;
+		}
+		synchronized(durableLock) {
+			lastDurable = Math.max(lastDurable, upTo);
+			durableLock.notifyAll();
+		}
+	}
+
+	// Sync whatever is left and close the file (call once, at shutdown)
+	public void close() {
+		syncer.shutdown();
+		try {
+			syncer.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		sync();
+		synchronized(this) {
+			closed = true;
+			try {
+				channel.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
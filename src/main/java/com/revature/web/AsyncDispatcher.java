@@ -0,0 +1,167 @@
+package com.revature.web;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.templates.MessageTemplate;
+import com.revature.util.AppConfig;
+
+/*
+ * Runs requests OFF the container's request threads (Servlet async processing).
+ *
+ * Every endpoint does blocking JDBC calls; done on the container's threads, a
+ * few slow requests (full table scans, bulk writes, /passTime) can tie all of
+ * them up, and then even a login has to wait. Instead, the container thread
+ * just starts an AsyncContext and hands the request to one of two bounded
+ * "lanes" (thread pools), then goes back to accepting requests:
+ *
+ *  - slow: GET /users, GET /accounts (whole tables), .../bulk, /passTime
+ *  - fast: everything else (login, logout, single-row reads and updates, ...)
+ *
+ * so slow requests can only ever occupy the slow lane's few threads (keep
+ * rocp.web.slowThreads well below rocp.pool.maxSize, so they can't take every
+ * database connection either).
+ *
+ *  - Each lane has a bounded queue; when it is full the request is refused
+ *    right away with 503 (Service Unavailable) + Retry-After, rather than
+ *    queueing without limit.
+ *  - Each READ (GET/HEAD) request has a timeout (per lane); one that takes
+ *    longer gets a JSON 503 error, and its worker is interrupted. Requests that
+ *    change something never time out: by the time a timeout fired the change
+ *    might already have committed, and a client retrying after a 503 would make
+ *    it twice. (Waiting for a pooled connection is still bounded - see
+ *    ConnectionPool's acquireTimeoutMillis.)
+ */
+public class AsyncDispatcher {
+
+	// An endpoint (i.e., FrontController's doGet/doPost/doPut, via service())
+	@FunctionalInterface
+	public interface Handler {
+		void handle(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException;
+	}
+
+	private static final ObjectMapper om = new ObjectMapper();
+
+	private static class Lane {
+		final String name;
+		final ThreadPoolExecutor executor;
+		final long timeoutMillis;
+
+		Lane(String name, int threads, int queueSize, long timeoutMillis) {
+			this.name = name;
+			this.timeoutMillis = timeoutMillis;
+			AtomicInteger count = new AtomicInteger();
+			this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(queueSize), r -> {
+						Thread t = new Thread(r, "web-" + name + "-" + count.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}, new ThreadPoolExecutor.AbortPolicy());	// full -> RejectedExecutionException -> 503
+		}
+	}
+
+	private final Lane fast = new Lane("fast",
+			AppConfig.getInt("rocp.web.fastThreads", 8),
+			AppConfig.getInt("rocp.web.fastQueue", 200),
+			AppConfig.getLong("rocp.web.fastTimeoutMillis", 10000));
+	private final Lane slow = new Lane("slow",
+			AppConfig.getInt("rocp.web.slowThreads", 3),
+			AppConfig.getInt("rocp.web.slowQueue", 20),
+			AppConfig.getLong("rocp.web.slowTimeoutMillis", 120000));
+
+	public void dispatch(HttpServletRequest req, HttpServletResponse res, Handler handler) throws IOException {
+		Lane lane = laneFor(req);
+		AsyncContext ctx = req.startAsync(req, res);
+		ctx.setTimeout(isRead(req) ? lane.timeoutMillis : 0);	// (0 = no timeout)
+		GuardedResponse guarded = new GuardedResponse(res, ctx::complete);	// (it completes the request)
+		AtomicReference<Future<?>> work = new AtomicReference<>();
+
+		ctx.addListener(new AsyncListener() {
+			@Override
+			public void onTimeout(AsyncEvent event) throws IOException {
+				guarded.fail(503, json("The request timed out"));
+				Future<?> f = work.get();
+				if(f != null) {
+					f.cancel(true);	// interrupt the worker (it can no longer write anyway)
+				}
+			}
+
+			@Override
+			public void onError(AsyncEvent event) throws IOException {
+				guarded.abandon();	// e.g. the client disconnected
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) throws IOException {
+				// nothing to do
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) throws IOException {
+				// nothing to do
+			}
+		});
+
+		try {
+			work.set(lane.executor.submit(() -> {
+				try {
+					handler.handle(req, guarded);
+				} catch (Exception e) {
+					e.printStackTrace();
+					guarded.fail(500, json("An unexpected error occurred"));
+					return;
+				}
+				guarded.finish();
+			}));
+		} catch (RejectedExecutionException e) {
+			// the lane's queue is full - shed the load now rather than queue forever
+			guarded.fail(503, json("The server is too busy (" + lane.name + " requests); try again shortly"));
+		}
+	}
+
+	// call once, when the application is being shut down
+	public void shutdown() {
+		fast.executor.shutdownNow();
+		slow.executor.shutdownNow();
+	}
+
+	private Lane laneFor(HttpServletRequest req) {
+		String path = req.getRequestURI().substring(req.getContextPath().length());
+		if(path.endsWith("/")) {
+			path = path.substring(0, path.length() - 1);
+		}
+		if(path.endsWith("/bulk") || path.equals("/passTime")) {
+			return slow;
+		}
+		if("GET".equals(req.getMethod()) && (path.equals("/users") || path.equals("/accounts"))) {
+			return slow;
+		}
+		return fast;
+	}
+
+	private static boolean isRead(HttpServletRequest req) {
+		return "GET".equals(req.getMethod()) || "HEAD".equals(req.getMethod());
+	}
+
+	private static byte[] json(String message) {
+		try {
+			return om.writeValueAsBytes(new MessageTemplate(message));
+		} catch (IOException e) {
+			return ("{\"message\":\"" + message + "\"}").getBytes();
+		}
+	}
+}
@@ -0,0 +1,312 @@
+package com.revature.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/*
+ * The response CompressionFilter hands on when the client accepts gzip/deflate.
+ *
+ * Whether the body gets compressed is decided from its size, as late as needed:
+ *  - if a Content-Length is set (JsonCodec always sets one), straight away:
+ *    compressed if it is at least minBytes, otherwise passed through untouched;
+ *  - if not (a streamed body), the first minBytes are held back - a body that
+ *    ends (or is flushed) before that goes out as-is, with its exact length;
+ *    one that gets past it is compressed from then on, as it streams.
+ * Only text-like content types (JSON, text, XML) are compressed.
+ *
+ * A compressed body has no Content-Length (it goes out chunked), and the
+ * compressed stream must be ended with finish() - or by close()-ing the
+ * output stream - to write its final block (and the gzip trailer).
+ */
+public class CompressingResponse extends HttpServletResponseWrapper {
+
+	private static final int UNDECIDED = 0, PLAIN = 1, COMPRESSED = 2;
+
+	private final HttpServletResponse response;
+	private final String encoding;		// "gzip" or "deflate"
+	private final DeflaterPool pool;
+	private final int minBytes;
+
+	private long declaredLength = -1;	// the Content-Length the application set, if any
+	private CompressingStream stream;
+	private PrintWriter writer;
+
+	public CompressingResponse(HttpServletResponse response, String encoding, DeflaterPool pool, int minBytes) {
+		super(response);
+		this.response = response;
+		this.encoding = encoding;
+		this.pool = pool;
+		this.minBytes = minBytes;
+	}
+
+	// End the body: write out what is held back, or finish the compressed stream
+	public void finish() throws IOException {
+		if(writer != null) {
+			writer.flush();
+		}
+		if(stream != null) {
+			stream.finish();
+		}
+	}
+
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if(stream == null) {
+			stream = new CompressingStream();
+		}
+		return stream;
+	}
+
+	@Override
+	public PrintWriter getWriter() throws IOException {
+		if(writer == null) {
+			writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), response.getCharacterEncoding()));
+		}
+		return writer;
+	}
+
+	@Override
+	public void setContentLength(int len) {
+		setContentLengthLong(len);
+	}
+
+	@Override
+	public void setContentLengthLong(long len) {
+		if(stream != null && stream.mode != UNDECIDED) {
+			if(stream.mode == PLAIN) {
+				response.setContentLengthLong(len);
+			}
+			return;		// (the compressed length isn't known up front)
+		}
+		declaredLength = len;
+	}
+
+	@Override
+	public void setHeader(String name, String value) {
+		if("Content-Length".equalsIgnoreCase(name)) {
+			setContentLengthLong(Long.parseLong(value));
+		} else {
+			response.setHeader(name, value);
+		}
+	}
+
+	@Override
+	public void addHeader(String name, String value) {
+		if("Content-Length".equalsIgnoreCase(name)) {
+			setContentLengthLong(Long.parseLong(value));
+		} else {
+			response.addHeader(name, value);
+		}
+	}
+
+	@Override
+	public void setIntHeader(String name, int value) {
+		if("Content-Length".equalsIgnoreCase(name)) {
+			setContentLengthLong(value);
+		} else {
+			response.setIntHeader(name, value);
+		}
+	}
+
+	@Override
+	public void flushBuffer() throws IOException {
+		if(writer != null) {
+			writer.flush();
+		}
+		if(stream != null) {
+			stream.flush();
+		}
+		response.flushBuffer();
+	}
+
+	@Override
+	public void reset() {
+		response.reset();
+		declaredLength = -1;
+		if(stream != null) {
+			stream.discard();
+		}
+	}
+
+	@Override
+	public void resetBuffer() {
+		response.resetBuffer();
+		if(stream != null) {
+			stream.discard();
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private boolean isCompressible() {
+		String type = response.getContentType();
+		if(type == null || response.containsHeader("Content-Encoding")) {
+			return false;
+		}
+		type = type.toLowerCase();
+		return type.startsWith("text/") || type.startsWith("application/json") || type.contains("+json")
+				|| type.startsWith("application/xml") || type.startsWith("application/javascript");
+	}
+
+	private class CompressingStream extends ServletOutputStream {
+		private int mode = UNDECIDED;
+		private byte[] held;			// the first (up to minBytes) bytes, while UNDECIDED
+		private int heldCount = 0;
+		private ServletOutputStream target;
+		private Deflater deflater;
+		private DeflaterOutputStream deflating;
+		private CRC32 crc;				// gzip only
+		private long uncompressed;		// gzip only
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if(mode == UNDECIDED) {
+				if(declaredLength >= 0) {
+					decide(declaredLength >= minBytes);
+				} else if(heldCount + len < minBytes) {
+					if(held == null) {
+						held = new byte[minBytes];
+					}
+					System.arraycopy(b, off, held, heldCount, len);
+					heldCount += len;
+					return;
+				} else {
+					decide(true);
+				}
+			}
+			if(mode == PLAIN) {
+				target.write(b, off, len);
+			} else {
+				deflate(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if(mode == UNDECIDED) {
+				if(heldCount == 0) {
+					return;
+				}
+				decide(false);	// (too small to be worth compressing, so far)
+			}
+			if(mode == COMPRESSED) {
+				deflating.flush();	// (a SYNC_FLUSH - everything so far goes out)
+			}
+			target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+
+		@Override
+		public boolean isReady() {
+			return (target == null || target.isReady());
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			try {
+				response.getOutputStream().setWriteListener(writeListener);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		void finish() throws IOException {
+			if(mode == UNDECIDED) {
+				if(heldCount == 0 && declaredLength < 0) {
+					return;	// no body at all
+				}
+				if(declaredLength < 0) {
+					declaredLength = heldCount;		// the whole body is held - so its length is known
+				}
+				decide(false);
+			}
+			if(mode == COMPRESSED && deflater != null) {
+				deflating.finish();
+				if(crc != null) {
+					writeIntLE(target, (int) crc.getValue());
+					writeIntLE(target, (int) uncompressed);
+				}
+				pool.giveBack(deflater);
+				deflater = null;
+			}
+			target.flush();
+		}
+
+		// after a reset(): forget everything (nothing of the body has been sent)
+		void discard() {
+			if(deflater != null) {
+				pool.giveBack(deflater);
+				deflater = null;
+			}
+			mode = UNDECIDED;
+			heldCount = 0;
+			deflating = null;
+			crc = null;
+			uncompressed = 0;
+		}
+
+		private void decide(boolean compress) throws IOException {
+			target = response.getOutputStream();
+			if(compress && isCompressible()) {
+				mode = COMPRESSED;
+				response.setHeader("Content-Encoding", encoding);
+				response.addHeader("Vary", "Accept-Encoding");
+				deflater = pool.borrow();
+				deflating = new DeflaterOutputStream(target, deflater, 8192, true);
+				if(encoding.equals("gzip")) {
+					// the gzip header: magic, method (deflate), no flags, no mtime, no extra flags, OS unknown
+					target.write(new byte[] { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff });
+					crc = new CRC32();
+				}
+			} else {
+				mode = PLAIN;
+				if(declaredLength >= 0) {
+					response.setContentLengthLong(declaredLength);
+				}
+			}
+			if(heldCount > 0) {
+				int count = heldCount;
+				heldCount = 0;
+				if(mode == PLAIN) {
+					target.write(held, 0, count);
+				} else {
+					deflate(held, 0, count);
+				}
+			}
+		}
+
+		private void deflate(byte[] b, int off, int len) throws IOException {
+			if(crc != null) {
+				crc.update(b, off, len);
+				uncompressed += len;
+			}
+			deflating.write(b, off, len);
+		}
+	}
+
+	private static void writeIntLE(OutputStream out, int value) throws IOException {
+		out.write(value);
+		out.write(value >>> 8);
+		out.write(value >>> 16);
+		out.write(value >>> 24);
+	}
+}
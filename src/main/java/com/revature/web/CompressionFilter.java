@@ -0,0 +1,129 @@
+package com.revature.web;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.revature.util.AppConfig;
+
+/*
+ * Compresses response bodies (gzip, or else deflate - whichever the client's
+ * Accept-Encoding allows) once they reach rocp.web.compressMinBytes (default
+ * 1 KB): the big lists from GET /users and GET /accounts shrink several times
+ * over, while small replies (a MessageTemplate, one User) aren't worth the CPU
+ * and go out as they are. See CompressingResponse for how that's decided
+ * without buffering the whole body. Registered in web.xml.
+ *
+ * Other settings (AppConfig):
+ *		rocp.web.compressLevel		1 (fastest) .. 9 (smallest); default -1 (zlib's default, 6)
+ *		rocp.web.deflaterPoolSize	idle Deflaters kept for reuse (default 16)
+ *
+ * With async requests (see AsyncDispatcher) the body is written after this
+ * filter has returned; there, GuardedResponse ends it by closing the stream.
+ */
+public class CompressionFilter implements Filter {
+
+	private int minBytes;
+	private DeflaterPool gzipDeflaters;
+	private DeflaterPool zlibDeflaters;
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+		minBytes = AppConfig.getInt("rocp.web.compressMinBytes", 1024);
+		int level = AppConfig.getInt("rocp.web.compressLevel", Deflater.DEFAULT_COMPRESSION);
+		int poolSize = AppConfig.getInt("rocp.web.deflaterPoolSize", 16);
+		gzipDeflaters = new DeflaterPool(level, true, poolSize);
+		zlibDeflaters = new DeflaterPool(level, false, poolSize);
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		HttpServletRequest req = (HttpServletRequest) request;
+		HttpServletResponse res = (HttpServletResponse) response;
+		String encoding = negotiate(req.getHeader("Accept-Encoding"));
+		if(encoding == null || req.getMethod().equals("HEAD")) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		CompressingResponse compressing = new CompressingResponse(res, encoding,
+				(encoding.equals("gzip") ? gzipDeflaters : zlibDeflaters), minBytes);
+		chain.doFilter(req, compressing);
+		if(!req.isAsyncStarted()) {
+			compressing.finish();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		gzipDeflaters.clear();
+		zlibDeflaters.clear();
+	}
+
+	/*
+	 * "gzip" or "deflate" (preferring gzip), from e.g. "gzip, deflate, br" or
+	 * "deflate;q=0.5, gzip;q=0"; null if the client accepts neither.
+	 */
+	static String negotiate(String acceptEncoding) {
+		if(acceptEncoding == null) {
+			return null;
+		}
+		boolean gzip = false;
+		boolean deflate = false;
+		boolean any = false;
+		boolean gzipRefused = false;
+		boolean deflateRefused = false;
+		for(String part : acceptEncoding.split(",")) {
+			int semi = part.indexOf(';');
+			String coding = (semi < 0 ? part : part.substring(0, semi)).trim().toLowerCase();
+			boolean accepted = (semi < 0 || qualityOf(part.substring(semi + 1)) > 0);
+			switch(coding) {
+			case "gzip":
+			case "x-gzip":
+				gzip = accepted;
+				gzipRefused = !accepted;
+				break;
+			case "deflate":
+				deflate = accepted;
+				deflateRefused = !accepted;
+				break;
+			case "*":
+				any = accepted;
+				break;
+			default:
+				break;
+			}
+		}
+		if(gzip || (any && !gzipRefused)) {
+			return "gzip";
+		}
+		if(deflate || (any && !deflateRefused)) {
+			return "deflate";
+		}
+		return null;
+	}
+
+	// the q= value from e.g. " q=0.5" (1 if there is none, 0 if it can't be read)
+	private static double qualityOf(String params) {
+		for(String param : params.split(";")) {
+			param = param.trim();
+			if(param.startsWith("q=")) {
+				try {
+					return Double.parseDouble(param.substring(2).trim());
+				} catch(NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+}
@@ -0,0 +1,46 @@
+package com.revature.web;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/*
+ * Reusable Deflaters (see CompressionFilter).
+ *
+ * A Deflater holds a sizeable native (off-heap) buffer, which is only freed by
+ * end() - or, much later, by the garbage collector. Creating one per response
+ * wastes that allocation; instead borrow one, and give it back when done.
+ * At most maxIdle are kept; any more are end()ed when given back.
+ */
+public class DeflaterPool {
+
+	private final int level;
+	private final boolean nowrap;	// true = raw deflate (for gzip, which adds its own header/trailer)
+	private final ArrayBlockingQueue<Deflater> idle;
+
+	public DeflaterPool(int level, boolean nowrap, int maxIdle) {
+		super();
+		this.level = level;
+		this.nowrap = nowrap;
+		this.idle = new ArrayBlockingQueue<>(Math.max(maxIdle, 1));
+	}
+
+	public Deflater borrow() {
+		Deflater d = idle.poll();
+		return (d != null ? d : new Deflater(level, nowrap));
+	}
+
+	public void giveBack(Deflater d) {
+		d.reset();
+		if(!idle.offer(d)) {
+			d.end();
+		}
+	}
+
+	// free every idle Deflater - call once, at shutdown
+	public void clear() {
+		Deflater d;
+		while((d = idle.poll()) != null) {
+			d.end();
+		}
+	}
+}
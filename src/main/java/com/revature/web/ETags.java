@@ -0,0 +1,89 @@
+package com.revature.web;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/*
+ * ETag / If-None-Match (conditional GET) support.
+ *
+ * A client that sends back the ETag it got last time (If-None-Match) gets a
+ * bodiless 304 Not Modified if the resource hasn't changed since - no
+ * serializing, and nothing to send. The tags are built from a content hash
+ * (see ContentHash) of the resource as just read from the database.
+ *
+ * The tags are WEAK (W/"..."): the hash is of the resource's fields, not of the
+ * bytes sent - which differ between a plain body and one that CompressionFilter
+ * gzips/deflates (and a strong tag promises byte-for-byte the same body).
+ */
+public class ETags {
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private ETags() {
+		super();
+	}
+
+	public static String of(long contentHash) {
+		return "W/\"" + Long.toHexString(contentHash) + "\"";
+	}
+
+	// Did the client send a tag to check? (if not, there's no point working out the current one first)
+	public static boolean isConditional(HttpServletRequest req) {
+		return req.getHeader("If-None-Match") != null;
+	}
+
+	/*
+	 * Set the ETag (and revalidate-every-time caching) headers; if the request's
+	 * If-None-Match already has this tag, also set 304 and return true - then
+	 * send no body.
+	 */
+	public static boolean notModified(HttpServletRequest req, HttpServletResponse res, String etag) {
+		set(res, etag);
+		if(matches(req.getHeader("If-None-Match"), etag)) {
+			res.setStatus(304); // Not Modified (Redirection)
+			return true;
+		}
+		return false;
+	}
+
+	// Just the headers - for a response that sends the body anyway
+	public static void set(HttpServletResponse res, String etag) {
+		res.setHeader("ETag", etag);
+		res.setHeader("Cache-Control", "private, no-cache");	// (cache it, but always ask us first)
+	}
+
+	// Does the If-None-Match header (e.g. "\"1f\", W/\"2e\"" or "*") list etag?
+	static boolean matches(String ifNoneMatch, String etag) {
+		if(ifNoneMatch == null) {
+			return false;
+		}
+		if(etag.startsWith("W/")) {
+			etag = etag.substring(2);	// (weak comparison - see below)
+		}
+		int length = ifNoneMatch.length();
+		int i = 0;
+		while(i < length) {
+			while(i < length && (ifNoneMatch.charAt(i) == ' ' || ifNoneMatch.charAt(i) == ',')) {
+				i++;
+			}
+			if(ifNoneMatch.startsWith("*", i)) {
+				return true;
+			}
+			if(ifNoneMatch.startsWith("W/", i)) {
+				i += 2;		// (If-None-Match uses the "weak" comparison: W/ is ignored)
+			}
+			int end = ifNoneMatch.indexOf(',', i);
+			if(end < 0) {
+				end = length;
+			}
+			int last = end;
+			while(last > i && ifNoneMatch.charAt(last - 1) == ' ') {
+				last--;
+			}
+			if(last - i == etag.length() && ifNoneMatch.startsWith(etag, i)) {
+				return true;
+			}
+			i = end;
+		}
+		return false;
+	}
+}
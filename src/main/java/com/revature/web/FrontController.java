@@ -1,9 +1,6 @@
 package com.revature.web;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Arrays;
 import java.util.List;
 
 import javax.servlet.ServletException;
@@ -12,17 +9,38 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.revature.authorization.AuthService;
+import com.revature.authorization.Decision;
+import com.revature.authorization.Policy;
+import com.revature.authorization.TokenService;
 import com.revature.controllers.AccountController;
 import com.revature.controllers.UserController;
+import com.revature.dao.LookupRegistry;
+import com.revature.dao.OwnershipIndex;
+import com.revature.dao.PageRequest;
+import com.revature.dao.RowHandler;
+import com.revature.dao.TransferResult;
 import com.revature.exceptions.AuthorizationException;
-import com.revature.exceptions.NotLoggedInException;
+import com.revature.exceptions.NotDurableException;
+import com.revature.exceptions.PayloadTooLargeException;
 import com.revature.models.Account;
 import com.revature.models.User;
+import com.revature.services.AccountBookService;
 import com.revature.services.UserService;
+import com.revature.templates.AmountTemplate;
+import com.revature.templates.InterestReport;
 import com.revature.templates.LoginTemplate;
 import com.revature.templates.MessageTemplate;
+import com.revature.templates.PassTimeTemplate;
+import com.revature.templates.TransferTemplate;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.ContentHash;
+import com.revature.util.Money;
+import com.revature.util.JournalUtil;
 
 //Browse...d for Superclass on class creation (-> "extends HttpServlet")
 public class FrontController extends HttpServlet {
@@ -33,350 +51,683 @@ public class FrontController extends HttpServlet {
 	private static final long serialVersionUID = -4854248294011883310L;
 	private static final UserController userController = new UserController();
 	private static final AccountController accountController = new AccountController();
-		// use to extract the JSON from the request body and put it into a new Object
-	  	// (ObjectMapper is from jackson.databind !!!)
-	private static final ObjectMapper om = new ObjectMapper();
+		// use to extract the JSON from the request body and put it into a new Object,
+		// and to write Objects out as the JSON response body (see JsonCodec)
+	private static final JsonCodec json = new JsonCodec();
 	private static final UserService service = new UserService();
+		// one (reusable, thread-safe) Jackson ObjectReader per request body type
+	private static final ObjectReader LOGIN = json.readerFor(LoginTemplate.class);
+	private static final ObjectReader USER = json.readerFor(User.class);
+	private static final ObjectReader ACCOUNT = json.readerFor(Account.class);
+	private static final ObjectReader AMOUNT = json.readerFor(AmountTemplate.class);
+	private static final ObjectReader TRANSFER = json.readerFor(TransferTemplate.class);
+	private static final ObjectReader PASS_TIME = json.readerFor(PassTimeTemplate.class);
+		// Jackson needs these to know the *element* type when reading a JSON array into a List
+	private static final ObjectReader USER_LIST = json.readerFor(new TypeReference<List<User>>() {});
+	private static final ObjectReader ACCOUNT_LIST = json.readerFor(new TypeReference<List<Account>>() {});
+
+	// hands each request to a bounded worker thread pool (see AsyncDispatcher)
+	private static final AsyncDispatcher dispatcher = new AsyncDispatcher();
+
+	// Who may use which endpoint - built in init(), once the ROLES lookup table is loaded
+	private Policy admin;					// Allowed Roles:  Admin
+	private Policy staff;					// Allowed Roles:  Employee or Admin
+	private Policy staffOrSelf;				// ... or if the id provided matches the id of the current user
+	private Policy adminOrSelf;
+	private Policy staffOrAccountOwner;		// ... or if the account belongs to the current user
+	private Policy adminOrAccountOwner;
+	private Policy anyUser;
+	private static final MessageTemplate UNAUTHORIZED = new MessageTemplate("The incoming token has expired");
+
+	// Every request comes through here first; HttpServlet's service() then calls
+	// doGet/doPost/doPut. Run that on one of the dispatcher's threads instead of
+	// the container's, so slow requests can't block the container's threads.
+	@Override
+	protected void service(HttpServletRequest req, HttpServletResponse res)
+			throws ServletException, IOException {
+		if(!req.isAsyncSupported() || req.isAsyncStarted()) {
+			super.service(req, res);	// (e.g. async-supported not set in web.xml)
+			return;
+		}
+		dispatcher.dispatch(req, res, (rq, rs) -> super.service(rq, rs));
+	}
+
+	// Every endpoint, by HTTP method and path template (see RouteTable); filled in by init()
+	private final RouteTable routes = new RouteTable();
 
 	@Override	// add to help protect against typos, etc.
 				// (forces a quick check during compilation that
 				// are actually overriding a method)
 	protected void doGet(HttpServletRequest req, HttpServletResponse res)
 			throws ServletException, IOException {
-		res.setContentType("application/json");
-		res.setStatus(404);	// Not Found (Client Error)
-		
-		final String URI = req.getRequestURI().replace("/rocp-project", "").replaceFirst("/", "");
-		
-		String[] portions = URI.split("/");
-		
-		//System.out.println(URI);
-		System.out.println(Arrays.toString(portions)); // later commented out!
-		
-		try {
-			switch(portions[0]) { // diff endpoints, but else same (logic) as for doPost
-			case "users":
-				// check the length of (# of entries in) "portions" (specs:  only 2 endpoints 
-				// w/ "users" for GET:  /users and /users/:id  (1 and 2 portions, respectively))
-				if(portions.length == 2) {
-					// Delegate to a UserController method to handle obtaining a User by ID
-					int id = Integer.parseInt(portions[1]);
-					// getSession() "false" parameter -> don't create a new session if not logged in
-					AuthService.guard(req.getSession(false), id, "Employee", "Admin");
-					User u = userController.findUserById(id);
-					res.setStatus(200);
-					res.getWriter().println(om.writeValueAsString(u));
-				} else {
-					// Delegate to a UserController method to handle obtaining ALL Users
-					// getSession() "false" parameter -> don't create a new session if not logged in
-					AuthService.guard(req.getSession(false), "Employee", "Admin");
-					List<User> allUsers = userController.findAllUsers();
-					res.setStatus(200);
-					res.getWriter().println(om.writeValueAsString(allUsers));
-				}
-				break;
-			case "accounts":
-				// check the length of (# of entries in) "portions"
-				// (specs:  there are *5* endpoints w/ "accounts" for GET:
-				// 		1 portion:   /accounts
-				//      2 portions:  /accounts/:id
-				//      3 portions:  /accounts/status/:statusId,
-				//					 /accounts/type/:typeId,	[B.Gilson - enhancement (not in specs)]
-				//				 and /accounts/owner/:userId
-				if(portions.length == 2) {
-					// Delegate to an AccountController method to handle obtaining an Account by accountId
-					int accountId = Integer.parseInt(portions[1]);
-					///*** NOTE:  For AuthService.guard, have to get appropriate USER id(s) to pass to it;
-					///*** thus, have to create an allUsersForAccount (in addition to the existing
-					///*** allAccountsForUser) in the I/UserAccountDAO, *and* in the appropriate
-					///*** Controller method(s - for each direction/way.  THEN either have to
-					///*** *modify* AuthService's 3-parameter guard method to handle an *additional*
-					///*** varargs parameter, int...id, and processing for these (add a loop in its
-					///*** catch handling), or ??? .
-						// getSession() "false" parameter -> don't create a new session if not logged in
-					int id = accountController.allUsersForAccount(accountId);
-					AuthService.guard(req.getSession(false), id, "Employee", "Admin");
-					Account acct = accountController.findAccountById(accountId);
-					res.setStatus(200);
-					res.getWriter().println(om.writeValueAsString(acct));
-				} else if(portions.length == 1) {
-					// Delegate to an AccountController method to handle obtaining ALL Accounts
-						// (NO complications in calling AuthService.guard here - finding ALL accts)
-					// getSession() "false" parameter -> don't create a new session if not logged in
-					AuthService.guard(req.getSession(false), "Employee", "Admin");
-					List<User> allAccounts = accountController.findAllAccounts();
-					res.setStatus(200);
-					res.getWriter().println(om.writeValueAsString(allAccounts));
-				} else { // (portions.length should be == 3)
-					// Delegate to an AccountController method to handle obtaining an Account by the
-					// appropriate (requested) category of Id
-						//  3 portions:  /accounts/status/:statusId,
-						//				 /accounts/type/:typeId, [B.Gilson-enhancement(not in specs)]
-						//			 and /accounts/owner/:userId
-					switch(portions[1]) {
-					case "status":
-						// code to be written - delegate to accountController.findAccountsByStatus
-						break;
-					case "type":
-						// code to be written - delegate to accountController.findAccountsByType
-						break;
-					case "owner":
-						// code to be written - delegate to accountController.allAccountsForUser
-					//[	break; ]
-					}
-				}
-				break;
-			}
-		} catch(AuthorizationException e) {
-			res.setStatus(401);
-			MessageTemplate message = new MessageTemplate("The incoming token has expired");
-			res.getWriter().println(om.writeValueAsString(message));
-		}
+		route(req, res);
 	}
 
 	@Override	// add @Override annotation to help protect against typos, etc.
 	protected void doPost(HttpServletRequest req, HttpServletResponse res)
 		throws ServletException, IOException {
+		route(req, res);
+	}
 
+	@Override
+	protected void doPut(HttpServletRequest req, HttpServletResponse res)
+		throws ServletException, IOException {
+		route(req, res);
+	}
+
+	/*
+	 * doGet, doPost and doPut all come here: look the (method, path) up in the
+	 * route table, and run its endpoint - with the error handling every endpoint
+	 * shares.
+	 */
+	private void route(HttpServletRequest req, HttpServletResponse res)
+			throws ServletException, IOException {
 		// add this so response will display in (be detected as) JSON format
 		res.setContentType("application/json");
 		res.setStatus(404);	// Not Found (Client Error)
-		
-		// not need the entire URL -- just the "string" portion
-		final String URI = req.getRequestURI().replace("/rocp-project", "").replaceFirst("/", "");
-		
-		String[] portions = URI.split("/");
-		
-		// print out the URI to check it
-		//System.out.println(URI);
-		System.out.println(Arrays.toString(portions)); // later commented out!
-		
-		try {
-			switch(portions[0]) {
-			case "login":
-				// put the response info into the (user's HTTP) session
-				// In Postman, this caused an extra Header line, *and* a Cookie!
-					// It put the JSESSIONID value (plus 2 other pieces of
-					// data from the cookie) into the new Set-Cookie header 
-				// Thus, can use this to check user's(') cookies to see
-				// if they've logged in (and/or are *currently* logged in)
-				HttpSession session = req.getSession();
-				
-				// currentUser attribute got defined in a *previous* call
-				// to this method (defined way down below (setAttribute))
-				User current = (User) session.getAttribute("currentUser");
-
-				
-				// Already logged in
-				if(current != null) {
-					
-					res.setStatus(400); // Bad Request (Client Error)
-					// use ... .print("...") if don't want a /n (newline) at the end
-					// (we see this in the Response in Postman);
-					// per Matt, it's more common to end with a /n character ...
-					res.getWriter().println("You are already logged in as user " + current.getUsername());
-					return;
-				}
-				
-				
-				// If not already logged in, get the login info
-				// contained in the request, to use for login attempt				
-				
-				BufferedReader reader = req.getReader();
-				// reader.readLine() is a method use a lot;
-				// returns null when done (!)
-				
-				StringBuilder sb = new StringBuilder();
-				
-				String line;	// will read/store a line at a time
-
-				/*
-				 * The (line = reader.readLine()) obtains a single line from
-				 * the body of the request and stores it in the line variable.
-				 * Then the != null compares line to null; if IS null, are
-				 * at end of the request body.
-				 */
-				while ( (line = reader.readLine()) != null) {
-					sb.append(line);
-				}
-				
-				String body = sb.toString();
-
-				//om.readValue(String content, Class <T> valueType)
-					// the ".class" syntax means that at runtime,
-					// Jackson data-bind analyzes all of the specified
-					// class' variables, and makes sure that [the input (JSON) ?!?] matches them
-				LoginTemplate lt = om.readValue(body, LoginTemplate.class);
-				
-				// Matt just used to verify input initially; later commented out (removed!)
-				//System.out.println(lt); // prints lt to STS Console
-						// WHEN send a request in Postman with the JSON to /login ,
-						// output is (per toString() method in LoginTemplate.java):
-						//		LoginTemplate [username=lbeaver, password=chew]
-				
-				
-				// Attempt to login using the info obtained from the request				
-				User u = service.login(lt);
-				PrintWriter writer = res.getWriter(); // open a getWriter() on the res[ponse]
-				
-				// Handle the results (login failure/success)
-
-				// Login failed (NO (such) User (in DB lookup))
-				if(u == null) { // B.G.: WE only put in username and password
-					res.setStatus(400); // Bad Request (Client Error)
-					writer.println("Invalid Credentials:  Username or password was incorrect");
-					return;
-				}
-				
-				// Login successful
-				session.setAttribute("currentUser", u);
-				res.setStatus(200); // OK (Successful)
-				writer.println(om.writeValueAsString(u));
-				
-				// add this so response will display in (be detected as) JSON format
-				res.setContentType("application/json");
-				
-				// COULD do all of the above with the below (instead of using a BufferedReader,
-				// the while loop (building the StringBuilder line-by-line), and changing the
-				// StringBuilder toString() ) -- BECAUSE there's apparently a new overload for
-				// readValue:		readValue(Reader src, Class <T> valueType) 
-				// LoginTemplate lt = om.readValue(req.getReader(), LoginTemplate.class);
-				break;
-			case "logout":
-				if(userController.logout(req.getSession(false))) {
-					res.setStatus(200); // OK (Successful)
-					res.getWriter().println("You have been successfully logged out");
-				} else {
-					res.setStatus(400); // Bad Request (Client Error)
-					res.getWriter().println("You were not logged in to begin with");
-				}
-				break;
+
+		RouteTable.Match match = routes.find(req);
+		if(match == null) {
+			String allowed = routes.allowedMethods(req);
+			if(allowed != null) {
+				res.setStatus(405); // Method Not Allowed (Client Error)
+				res.setHeader("Allow", allowed);
 			}
-		} catch(NotLoggedInException e) {
+			return;
+		}
+
+		try {
+			match.getEndpoint().handle(req, res, match);
+		} catch(AuthorizationException e) {
 			res.setStatus(401); // Unauthorized (Client Error) 
 			MessageTemplate message = new MessageTemplate("The incoming token has expired");
-			res.getWriter().println(om.writeValueAsString(message));
+			json.write(res, message);
+		} catch(PayloadTooLargeException e) {
+			res.setStatus(413); // Payload Too Large (Client Error)
+			json.write(res, new MessageTemplate(e.getMessage()));
+		} catch(JsonProcessingException e) {
+			// the request body isn't (the expected) JSON
+			res.setStatus(400); // Bad Request (Client Error)
+			json.write(res, new MessageTemplate("Malformed request body: " + e.getOriginalMessage()));
+		} catch(NotDurableException e) {
+			// the change's journal record couldn't be appended - so the change was rolled back,
+			// and may safely be sent again - or the change was made, but its record isn't durable
+			res.setStatus(e.isChangeMade() ? 500 : 503); // Internal Server Error / Service Unavailable
+			json.write(res, new MessageTemplate(e.getMessage()));
+		} catch(IllegalArgumentException e) {
+			// bad paging parameters (limit, sort, after), or a deposit/withdraw/transfer
+			// amount that isn't positive, ...
+			res.setStatus(400); // Bad Request (Client Error)
+			json.write(res, new MessageTemplate(e.getMessage()));
 		}
 	}
-	
-	@Override
-	protected void doPut(HttpServletRequest req, HttpServletResponse res)
-		throws ServletException, IOException {
 
-		// add this so response will display in (be detected as) JSON format
-		res.setContentType("application/json");
-		res.setStatus(404);	// Not Found (Client Error)
+	// An optional int query parameter: null if absent; IllegalArgumentException (-> 400) if not a number
+	private static Integer intParameter(HttpServletRequest req, String name) {
+		String value = req.getParameter(name);
+		if(value == null || value.isEmpty()) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(value.trim());
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("The " + name + " should be a number");
+		}
+	}
+
+	/*
+	 * May the current User (session or token) go on? If not, the 401 is written
+	 * here and false returned - no exception thrown and caught on every refusal.
+	 */
+	private boolean allowed(HttpServletRequest req, HttpServletResponse res, Policy policy, int resourceId)
+			throws IOException {
+		if(AuthService.check(req, policy, resourceId) == Decision.ALLOW) {
+			return true;
+		}
+		res.setStatus(401); // Unauthorized (Client Error)
+		json.write(res, UNAUTHORIZED);
+		return false;
+	}
+
+	// ---------------------------------------------------------------------------------
+	// GET endpoints
+
+	// GET /users/:id
+	private void findUserById(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// Delegate to a UserController method to handle obtaining a User by ID
+		int id = params.getInt("id");
+		// (the logged-in User comes from the session, or a token - see AuthService)
+		if(!allowed(req, res, staffOrSelf, id)) {
+			return;
+		}
+		// conditional GET: if the client sent a tag, check it against the User's current version
+		// FIRST (see UserService.findVersion) - unchanged -> 304, without loading the User at all
+		if(ETags.isConditional(req)) {
+			Long version = userController.findUserVersion(id);
+			if(version != null && ETags.notModified(req, res, ETags.of(version))) {
+				return;
+			}
+		}
+		User u = userController.findUserById(id);	// (usually a cache hit - see UserService)
+		if(u != null) {
+			ETags.set(res, ETags.of(ContentHash.of(u)));	// (the tag of the body sent)
+		}
+		res.setStatus(200);
+		json.write(res, u);
+	}
+
+	// GET /users
+	private void findAllUsers(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// Delegate to a UserController method to handle obtaining ALL Users
+		// (the logged-in User comes from the session, or a token - see AuthService)
+		if(!allowed(req, res, staff, 0)) {
+			return;
+		}
+		if(isPaged(req)) {
+			// GET /users?limit=..&sort=..&after=.. -- one page at a time
+			PageRequest page = PageRequest.of(req.getParameter("limit"), req.getParameter("after"),
+					req.getParameter("sort"), "id");
+			res.setStatus(200);
+			json.write(res, userController.findUserPage(page));
+			return;
+		}
+		// ALL Users: streamed straight from the ResultSet to the response (no List built)
+		res.setStatus(200);
+		streamJsonArray(res, userController::streamAllUsers);
+	}
+
+	// GET /accounts/:id
+	private void findAccountById(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// Delegate to an AccountController method to handle obtaining an Account by accountId
+		int accountId = params.getInt("id");
+		// specs:  Allowed Roles:  Employee or Admin or if the account belongs to the current user
+		// (the ownership check only runs - and reads the database - when the role check fails)
+		if(!allowed(req, res, staffOrAccountOwner, accountId)) {
+			return;
+		}
+		// conditional GET: if the client sent a tag, check it against the Account's current
+		// version FIRST (see AccountDAO.findVersion) - unchanged -> 304, without building the Account
+		if(ETags.isConditional(req)) {
+			Long version = accountController.findAccountVersion(accountId);
+			if(version != null && ETags.notModified(req, res, ETags.of(version))) {
+				return;
+			}
+		}
+		Account acct = accountController.findAccountById(accountId);
+		if(acct != null) {
+			ETags.set(res, ETags.of(ContentHash.of(acct)));	// (the tag of the body sent)
+		}
+		res.setStatus(200);
+		json.write(res, acct);
+	}
+
+	// GET /accounts
+	private void findAllAccounts(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// Delegate to an AccountController method to handle obtaining ALL Accounts
+			// (NO complications in checking the policy here - finding ALL accts)
+		// (the logged-in User comes from the session, or a token - see AuthService)
+		if(!allowed(req, res, staff, 0)) {
+			return;
+		}
+		if(isPaged(req)) {
+			// GET /accounts?limit=..&sort=..&after=.. -- one page at a time
+			PageRequest page = PageRequest.of(req.getParameter("limit"), req.getParameter("after"),
+					req.getParameter("sort"), "id");
+			res.setStatus(200);
+			json.write(res, accountController.findAccountPage(page));
+			return;
+		}
+		// ALL Accounts: streamed straight from the ResultSet to the response (no List built)
+		res.setStatus(200);
+		streamJsonArray(res, accountController::streamAllAccounts);
+	}
+
+	// GET /accounts/status/:statusId, /accounts/type/:typeId [B.Gilson-enhancement(not in specs)]
+	// and /accounts/owner/:userId
+	private void findAccountsBy(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params) {
+		// code to be written - delegate to accountController.findAccountsByStatus,
+		// accountController.findAccountsByType or accountController.allAccountsForUser
+		// (until then, these stay 404 Not Found)
+	}
+
+	// GET /pool
+	private void poolStats(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// Connection pool statistics (active, idle, wait times), used to size the pool
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		res.setStatus(200);
+		json.write(res, ConnectionUtil.getPoolStats());
+	}
+
+	// GET /book
+	private void bookStats(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// the in-memory account book (accounts, total balance, last journal sequence applied)
+		// GET /book?statusId=..&typeId=.. -- only the Accounts with that status and/or type
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		Integer statusId = intParameter(req, "statusId");
+		Integer typeId = intParameter(req, "typeId");
+		res.setStatus(200);
+		json.write(res, AccountBookService.summarize(statusId, typeId));
+	}
+
+	// GET /cache
+	private void cacheStats(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// User cache statistics (hits, misses, evictions), used to size/tune the cache
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		res.setStatus(200);
+		json.write(res, service.getCacheStats());
+	}
+
+	// A DAO-backed streaming read (e.g. userController::streamAllUsers)
+	@FunctionalInterface
+	private interface RowSource<T> {
+		int streamAll(RowHandler<T> handler) throws IOException;
+	}
+
+	/*
+	 * Write every row from the source as one JSON array, straight onto the
+	 * response's output stream as the rows are read from the database.
+	 * Memory use stays flat however big the table is, and the first bytes go
+	 * out (each time Jackson's buffer fills) before the query has finished.
+	 */
+	private static <T> void streamJsonArray(HttpServletResponse res, RowSource<T> source) throws IOException {
+		try (JsonGenerator gen = json.getFactory().createGenerator(res.getOutputStream())) {
+			// if the read fails part-way, leave the array unclosed, so that the client sees
+			// invalid JSON rather than a (200 OK) list that is silently missing rows
+			gen.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+			gen.writeStartArray();
+			int count = source.streamAll(row -> gen.writeObject(row));
+			if(count >= 0) {
+				gen.writeEndArray();
+			}
+		}
+	}
+
+	// Paging/sorting was asked for if any of the paging query parameters are present
+	private static boolean isPaged(HttpServletRequest req) {
+		return req.getParameter("limit") != null || req.getParameter("after") != null
+				|| req.getParameter("sort") != null;
+	}
+
+	// ---------------------------------------------------------------------------------
+	// POST endpoints
+
+	// POST /login
+	private void login(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// put the response info into the (user's HTTP) session
+		// In Postman, this caused an extra Header line, *and* a Cookie!
+			// It put the JSESSIONID value (plus 2 other pieces of
+			// data from the cookie) into the new Set-Cookie header 
+		// Thus, can use this to check user's(') cookies to see
+		// if they've logged in (and/or are *currently* logged in)
+		// (in token mode, there is no session: a signed token is sent back instead - see AuthService)
 		
-		// not need the entire URL -- just the "string" portion
-		final String URI = req.getRequestURI().replace("/rocp-project", "").replaceFirst("/", "");
+		// currentUser attribute got defined in a *previous* call
+		// to this method (defined way down below (setAttribute))
+		User current = AuthService.currentUser(req);
+
 		
-		String[] portions = URI.split("/");
+		// Already logged in
+		if(current != null) {
+			
+			res.setStatus(400); // Bad Request (Client Error)
+			// use ... .print("...") if don't want a /n (newline) at the end
+			// (we see this in the Response in Postman);
+			// per Matt, it's more common to end with a /n character ...
+			res.getWriter().println("You are already logged in as user " + current.getUsername());
+			return;
+		}
 		
-		// print out the URI to check it
-		//System.out.println(URI);
-		System.out.println(Arrays.toString(portions)); // later commented out!
 		
-		try {
-			switch(portions[0]) { // same endpoint as *1* in doGet; same (logic)
-			case "users":	// same endpoint as *1* in doGet; same (logic)
-				// check the length of (# of entries in) "portions"
-				// (*specs* just say "/users")
-				if(portions.length == 1) {
-					// Delegate to a Controller method to handle updating a User
-					// getSession() "false" parameter -> don't create a new session if not logged in
-					// Delegate to a UserController method to handle obtaining a User by ID
-
-//*****					
-//*****				// HAVE TO GET User's accountId to pass to the AuthService.guard method below
-//*****				//int id = userController.allUsersForAccount(accountId);
-
-					AuthService.guard(req.getSession(false), id, "Admin");
-					User u = userController.updateUser(id);
-					
-					res.setStatus(200);
-					res.getWriter().println(om.writeValueAsString(u));
-					
-					
-					// get the User data contained in the request				
-					
-					BufferedReader reader = req.getReader();
-					StringBuilder sb = new StringBuilder();
-					String line;	// will read/store a line at a time
-					
-					/*
-					 * The (line = reader.readLine()) obtains a single line from
-					 * the body of the request and stores it in the line variable.
-					 * Then the != null compares line to null; if IS null, are
-					 * at end of the request body.
-					 * 
-					 * readline() returns null when done
-					 */
-					while ( (line = reader.readLine()) != null) {
-						sb.append(line);
-					}
-					
-					String body = sb.toString();
-
-					//om.readValue(String content, Class <T> valueType)
-						// the ".class" syntax means that at runtime,
-						// Jackson data-bind analyzes all of the specified
-						// class' variables, and makes sure that [the input
-						// (JSON), here] matches them
-					User u = om.readValue(body, User.class);
-					
-					// use to verify input initially, if needed
-					System.out.println(u); // prints lt to STS Console
-							// WHEN send a request in Postman with the JSON to /login ,
-							// output is (per toString() method in UpdateUserTemplate.java)
-					
-					
-					// Attempt to login using the info obtained from the request				
-//					User u = service.update(uut);
-//					PrintWriter writer = res.getWriter(); // open a getWriter() on the res[ponse]
-					
-					// Handle the results (login failure/success)
-
-					// Login failed (NO (such) User (in DB lookup))
-/*					if(u == null) { // B.G.: WE only put in username and password
-						res.setStatus(400); // Bad Request (Client Error)
-						writer.println("Invalid Credentials:  Username or password was incorrect");
-						return;
-					}
-*/					
-					// Login successful
-//					session.setAttribute("currentUser", u);
-//					res.setStatus(200); // OK (Successful)
-//					writer.println(om.writeValueAsString(u));
-					
-					// add this so response will display in (be detected as) JSON format
-					res.setContentType("application/json");
-					
-					// COULD do all of the above with the below (instead of using a BufferedReader,
-					// the while loop (building the StringBuilder line-by-line), and changing the
-					// StringBuilder toString() ) -- BECAUSE there's apparently a new overload for
-					// readValue:		readValue(Reader src, Class <T> valueType) 
-					// LoginTemplate lt = om.readValue(req.getReader(), LoginTemplate.class);
-					break;
-					
-					
-					
-				}/* else {
-					// Delegate to a Controller method to handle obtaining ALL Users
-					// getSession() "false" parameter -> don't create a new session if not logged in
-					AuthService.guard(req.getSession(false), "Admin");
-					List<User> all = userController.findAllUsers();
-					res.setStatus(200);
-					res.getWriter().println(om.writeValueAsString(all));
-				}*/
-				break;
-			case "accounts":
-				// MUST FLESH OUT
-				break;
+		// If not already logged in, get the login info
+		// contained in the request, to use for login attempt				
+		
+		// parsed straight from the request's InputStream (no reading it line-by-line
+		// into a StringBuilder, and no String of the whole body, first)
+			// the LoginTemplate.class reader means that
+			// Jackson data-bind analyzes all of the specified
+			// class' variables, and makes sure that [the input (JSON) ?!?] matches them
+		LoginTemplate lt = json.read(req, LOGIN);
+		
+		// Matt just used to verify input initially; later commented out (removed!)
+		//System.out.println(lt); // prints lt to STS Console
+				// WHEN send a request in Postman with the JSON to /login ,
+				// output is (per toString() method in LoginTemplate.java):
+				//		LoginTemplate [username=lbeaver, password=chew]
+		
+		
+		// Attempt to login using the info obtained from the request				
+		User u = service.login(lt);
+		
+		// Handle the results (login failure/success)
+
+		// Login failed (NO (such) User (in DB lookup))
+		if(u == null) { // B.G.: WE only put in username and password
+			res.setStatus(400); // Bad Request (Client Error)
+			res.getWriter().println("Invalid Credentials:  Username or password was incorrect");
+			return;
+		}
+		
+		// Login successful
+		if(TokenService.sessionsEnabled()) {
+			HttpSession session = req.getSession();
+			session.setAttribute("currentUser", u);
+		}
+		if(TokenService.tokensEnabled()) {
+			// (Authorization is a REQUEST header - the token goes out in X-Auth-Token,
+			// and the client sends it back as "Authorization: Bearer <token>" on every later request)
+			res.setHeader("X-Auth-Token", TokenService.issue(u));
+		}
+		res.setStatus(200); // OK (Successful)
+		json.write(res, u);
+	}
+
+	// POST /accounts -- Submit Account (see README); owned by the User submitting it
+	private void submitAccount(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		Account acct = json.read(req, ACCOUNT);
+		// specs:  Allowed Roles:  Employee or Admin or if the account belongs to the current user
+		// (a new Account WILL belong to the current user - so anyone logged in)
+		if(!allowed(req, res, anyUser, 0)) {
+			return;
+		}
+		if(acct.getAccountId() != 0) {
+			throw new IllegalArgumentException("The accountId should be 0");
+		}
+		Account created = accountController.submitAccount(acct, AuthService.currentUser(req).getUserId());
+		if(created == null) {
+			res.setStatus(400); // Bad Request (Client Error)
+			json.write(res, new MessageTemplate("The Account could not be created"));
+			return;
+		}
+		res.setStatus(201); // Created (Successful)
+		json.write(res, created);
+	}
+
+	// POST /users/bulk -- insert many Users at once (JDBC batch, one transaction)
+	private void insertUsers(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		List<User> users = json.read(req, USER_LIST);
+		int[] ids = userController.insertUsers(users);
+		if(ids.length == 0 && !users.isEmpty()) {
+			res.setStatus(400); // Bad Request (Client Error) - whole batch was rolled back
+			json.write(res, new MessageTemplate("No Users were created"));
+			return;
+		}
+		res.setStatus(201); // Created (Successful)
+		json.write(res, ids); // the new Users' ids, in request order
+	}
+
+	// POST /accounts/bulk -- insert many Accounts at once (JDBC batch, one transaction)
+	private void insertAccounts(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		List<Account> accts = json.read(req, ACCOUNT_LIST);
+		int[] ids = accountController.insertAccounts(accts);
+		if(ids.length == 0 && !accts.isEmpty()) {
+			res.setStatus(400); // Bad Request (Client Error) - whole batch was rolled back
+			json.write(res, new MessageTemplate("No Accounts were created"));
+			return;
+		}
+		res.setStatus(201); // Created (Successful)
+		json.write(res, ids); // the new Accounts' ids, in request order
+	}
+
+	// POST /accounts/deposit -- RPC (see README)
+	private void deposit(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		depositOrWithdraw(req, res, true);
+	}
+
+	// POST /accounts/withdraw -- RPC (see README)
+	private void withdraw(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		depositOrWithdraw(req, res, false);
+	}
+
+	private void depositOrWithdraw(HttpServletRequest req, HttpServletResponse res, boolean deposit)
+			throws IOException {
+		AmountTemplate at = json.read(req, AMOUNT);
+		if(!allowed(req, res, adminOrAccountOwner, at.getAccountId())) {
+			return;
+		}
+		
+		// applied atomically in the database; null = nothing was changed
+		Long balance = (deposit ? accountController.deposit(at.getAccountId(), at.getAmount())
+								  : accountController.withdraw(at.getAccountId(), at.getAmount()));
+		if(balance == null) {
+			// (only look the Account up to explain the failure - not on the normal path)
+			if(accountController.findAccountById(at.getAccountId()) == null) {
+				res.setStatus(404); // Not Found (Client Error)
+				json.write(res,
+						new MessageTemplate("Account #" + at.getAccountId() + " does not exist"));
+			} else {
+				res.setStatus(400); // Bad Request (Client Error)
+				json.write(res, new MessageTemplate(deposit
+						? "Could not deposit to Account #" + at.getAccountId()
+						: "Insufficient funds in Account #" + at.getAccountId()));
 			}
-		} catch(AuthorizationException e) {
-			res.setStatus(401);
-			MessageTemplate message = new MessageTemplate("The incoming token has expired");
-			res.getWriter().println(om.writeValueAsString(message));
+			return;
+		}
+		res.setStatus(200); // OK (Successful)
+		json.write(res, new MessageTemplate(deposit
+				? Money.format(at.getAmount()) + " has been deposited to Account #" + at.getAccountId()
+				: Money.format(at.getAmount()) + " has been withdrawn from Account #" + at.getAccountId()));
+	}
+
+	// POST /accounts/transfer -- RPC (see README)
+	private void transfer(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		TransferTemplate tt = json.read(req, TRANSFER);
+		if(!allowed(req, res, adminOrAccountOwner, tt.getSourceAccountId())) {
+			return;
+		}
+		
+		TransferResult result = accountController.transfer(tt.getSourceAccountId(),
+				tt.getTargetAccountId(), tt.getAmount());
+		switch(result) {
+		case COMPLETED:
+			res.setStatus(200); // OK (Successful)
+			json.write(res, new MessageTemplate(Money.format(tt.getAmount())
+					+ " has been transferred from Account #" + tt.getSourceAccountId()
+					+ " to Account #" + tt.getTargetAccountId()));
+			break;
+		case NO_SUCH_ACCOUNT:
+			res.setStatus(404); // Not Found (Client Error)
+			json.write(res, new MessageTemplate("Account #"
+					+ tt.getSourceAccountId() + " or #" + tt.getTargetAccountId() + " does not exist"));
+			break;
+		case INSUFFICIENT_FUNDS:
+			res.setStatus(400); // Bad Request (Client Error)
+			json.write(res,
+					new MessageTemplate("Insufficient funds in Account #" + tt.getSourceAccountId()));
+			break;
+		default:
+			res.setStatus(500); // Internal Server Error (Server Error)
+			json.write(res, new MessageTemplate("The transfer failed"));
+		}
+	}
+
+	// POST /lookups/refresh -- reload ROLES, ACCOUNT_STATUS and ACCOUNT_TYPE
+	// (after adding a row to one of them; otherwise they are only read at startup)
+	private void refreshLookups(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		if(LookupRegistry.refresh()) {
+			res.setStatus(200); // OK (Successful)
+			json.write(res, new MessageTemplate("Lookup tables reloaded"));
+		} else {
+			res.setStatus(500); // Internal Server Error (Server Error)
+			json.write(res, new MessageTemplate("Could not reload lookup tables"));
+		}
+	}
+
+	// POST /passTime -- RPC (see README): accrue interest on all Savings Accounts
+	private void passTime(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		PassTimeTemplate pt = json.read(req, PASS_TIME);
+		try {
+			InterestReport report = accountController.passTime(pt.getNumOfMonths());
+			res.setStatus(report.getFailedRanges().isEmpty() ? 200 : 500);
+			json.write(res, report);
+		} catch(IllegalStateException e) {
+			res.setStatus(500); // Internal Server Error (Server Error)
+			json.write(res, new MessageTemplate(e.getMessage()));
+		}
+	}
+
+	// POST /logout
+	private void logout(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		boolean loggedIn = userController.logout(req.getSession(false));
+		if(loggedIn) {
+			res.setStatus(200); // OK (Successful)
+			res.getWriter().println("You have been successfully logged out");
+		} else if(TokenService.tokensEnabled() && AuthService.currentUser(req) != null) {
+			// a token can't be revoked: say so, rather than claim the client is logged out
+			res.setStatus(200); // OK (Successful)
+			res.getWriter().println("Tokens cannot be revoked: this one stays valid until it expires"
+					+ " - discard it to log out");
+		} else {
+			res.setStatus(400); // Bad Request (Client Error)
+			res.getWriter().println("You were not logged in to begin with");
 		}
 	}
+
+	// ---------------------------------------------------------------------------------
+	// PUT endpoints
+
+	// PUT /users (*specs* just say "/users"; the User's id is in the request body)
+	private void updateUser(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		// parsed straight from the request's InputStream
+			// the User.class reader means that
+			// Jackson data-bind analyzes all of the specified
+			// class' variables, and makes sure that [the input
+			// (JSON), here] matches them
+		User u = json.read(req, USER);
+
+		// specs:  Allowed Roles:  Admin or if the id provided matches the id of the current user
+		// (the logged-in User comes from the session, or a token - see AuthService)
+		if(!allowed(req, res, adminOrSelf, u.getUserId())) {
+			return;
+		}
+
+		// Delegate to a UserController method to handle updating a User
+		if(userController.updateUser(u) == 0) {
+			res.setStatus(400); // Bad Request (Client Error)
+			json.write(res, new MessageTemplate("User #" + u.getUserId()
+					+ " could not be updated"));
+			return;
+		}
+		res.setStatus(200); // OK (Successful)
+		json.write(res, userController.findUserById(u.getUserId()));
+	}
+
+	// PUT /users/bulk -- update many Users at once (JDBC batch, one transaction)
+	private void updateUsers(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		List<User> users = json.read(req, USER_LIST);
+		int count = userController.updateUsers(users);
+		res.setStatus(200);
+		json.write(res, new MessageTemplate(count + " Users have been updated"));
+	}
+
+	// PUT /accounts/bulk -- update many Accounts at once (JDBC batch, one transaction)
+	private void updateAccounts(HttpServletRequest req, HttpServletResponse res, RouteTable.Match params)
+			throws IOException {
+		if(!allowed(req, res, admin, 0)) {
+			return;
+		}
+		List<Account> accts = json.read(req, ACCOUNT_LIST);
+		int count = accountController.updateAccounts(accts);
+		res.setStatus(200);
+		json.write(res, new MessageTemplate(count + " Accounts have been updated"));
+	}
+	// (PUT /accounts - MUST FLESH OUT)
+
+	@Override
+	public void init() throws ServletException {
+		super.init();
+		// the route table: every endpoint, by HTTP method and path (with :params)
+		routes.add("GET", "/users", this::findAllUsers);
+		routes.add("GET", "/users/:id", this::findUserById);
+		routes.add("GET", "/accounts", this::findAllAccounts);
+		routes.add("GET", "/accounts/:id", this::findAccountById);
+		routes.add("GET", "/accounts/status/:statusId", this::findAccountsBy);
+		routes.add("GET", "/accounts/type/:typeId", this::findAccountsBy);
+		routes.add("GET", "/accounts/owner/:userId", this::findAccountsBy);
+		routes.add("GET", "/pool", this::poolStats);
+		routes.add("GET", "/book", this::bookStats);
+		routes.add("GET", "/cache", this::cacheStats);
+		routes.add("POST", "/login", this::login);
+		routes.add("POST", "/logout", this::logout);
+		routes.add("POST", "/accounts", this::submitAccount);
+		routes.add("POST", "/users/bulk", this::insertUsers);
+		routes.add("POST", "/accounts/bulk", this::insertAccounts);
+		routes.add("POST", "/accounts/deposit", this::deposit);
+		routes.add("POST", "/accounts/withdraw", this::withdraw);
+		routes.add("POST", "/accounts/transfer", this::transfer);
+		routes.add("POST", "/lookups/refresh", this::refreshLookups);
+		routes.add("POST", "/passTime", this::passTime);
+		routes.add("PUT", "/users", this::updateUser);
+		routes.add("PUT", "/users/bulk", this::updateUsers);
+		routes.add("PUT", "/accounts/bulk", this::updateAccounts);
+
+		// load the (small, shared) Role/AccountStatus/AccountType lookup tables once, up front
+		LookupRegistry.refresh();
+		// then turn the endpoints' allowed roles into policies (role names -> bitmasks; rebuilt
+		// whenever the lookup tables are reloaded - e.g. if this first load failed)
+		admin = Policy.of("Admin");
+		staff = Policy.of("Employee", "Admin");
+		staffOrSelf = staff.orIf(Policy.SELF);
+		adminOrSelf = admin.orIf(Policy.SELF);
+		staffOrAccountOwner = staff.orIf(Policy.ACCOUNT_OWNER);
+		adminOrAccountOwner = admin.orIf(Policy.ACCOUNT_OWNER);
+		anyUser = staff.orIf(Policy.ANY_USER);
+		// who owns which Account (USERS_ACCOUNTS), so ownership checks don't query the database
+		OwnershipIndex.start();
+		// and the in-memory account book (latest snapshot + journal replay)
+		AccountBookService.warmStart();
+	}
+
+	@Override
+	public void destroy() {
+		// close the pooled database connections when the application is undeployed/stopped
+		// stop taking requests ...
+		dispatcher.shutdown();
+		// snapshot the account book first (so the next start replays nothing) ...
+		AccountBookService.shutdown();
+		OwnershipIndex.shutdown();
+		ConnectionUtil.shutdown();
+		// and sync/close the transaction journal
+		JournalUtil.shutdown();
+		super.destroy();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.revature.web;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/*
+ * The response handed to a request's worker thread (see AsyncDispatcher).
+ *
+ * With async processing, two threads can try to finish the same response: the
+ * worker (when the endpoint is done) and the container (when the request times
+ * out). Whichever gets there first "closes" this wrapper - finish() or fail() -
+ * and from then on everything the other one does to it is ignored (writes
+ * fail, status/header changes are dropped), so a late worker never writes into
+ * a response that has already been completed (and possibly recycled).
+ *
+ * The lock only guards that state - never the I/O itself: a write to a slow
+ * client can block for a long time, and fail() (from the container's timeout)
+ * must not wait for it. So each write just marks itself in progress (under the
+ * lock) and then writes without it; a fail() that finds a write in progress
+ * cuts the response short, and the request is completed (complete - e.g.
+ * AsyncContext.complete) as soon as that write returns, rather than under it.
+ */
+public class GuardedResponse extends HttpServletResponseWrapper {
+
+	private final HttpServletResponse response;
+	private final Runnable complete;		// ends the request - run exactly once, by whoever closes it
+	// guarded by synchronized(this)
+	private boolean closed = false;
+	private boolean writing = false;		// the worker is in a write/flush of the real stream
+	private boolean completeAfterWrite = false;
+	private ServletOutputStream out;
+	private PrintWriter writer;
+
+	public GuardedResponse(HttpServletResponse response, Runnable complete) {
+		super(response);
+		this.response = response;
+		this.complete = complete;
+	}
+
+	/*
+	 * The worker is done: flush what it wrote, end the body, and complete the
+	 * request. Returns false if the response was already closed (e.g. timed out).
+	 */
+	public boolean finish() {
+		PrintWriter w;
+		synchronized(this) {
+			w = writer;
+		}
+		if(w != null) {
+			w.flush();	// (while still open, so the buffered text really goes out)
+		}
+		synchronized(this) {
+			if(closed) {
+				return false;
+			}
+			closed = true;
+		}
+		endBody();
+		complete.run();
+		return true;
+	}
+
+	/*
+	 * Replace the response with a JSON error message, and complete the request
+	 * - unless the worker has already finished. Returns false if the response
+	 * was already closed. (If part of the body has already been sent - or is
+	 * being sent right now - it can only be cut short.)
+	 */
+	public boolean fail(int status, byte[] jsonBody) {
+		synchronized(this) {
+			if(closed) {
+				return false;
+			}
+			closed = true;
+			if(writing) {
+				completeAfterWrite = true;	// (see endWrite)
+				return true;
+			}
+		}
+		if(!response.isCommitted()) {
+			try {
+				response.reset();
+				response.setStatus(status);
+				response.setContentType("application/json");
+				if(status == 503) {
+					response.setHeader("Retry-After", "1");	// (seconds)
+				}
+				response.setContentLength(jsonBody.length);
+				response.getOutputStream().write(jsonBody);
+				response.getOutputStream().close();	// (ends a compressed body - see CompressionFilter)
+			} catch (IOException | IllegalStateException e) {
+				e.printStackTrace();
+			}
+		}
+		complete.run();
+		return true;
+	}
+
+	// The client went away (or the container gave up): just stop writing, and complete the request
+	public void abandon() {
+		synchronized(this) {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			if(writing) {
+				completeAfterWrite = true;	// (see endWrite)
+				return;
+			}
+		}
+		complete.run();
+	}
+
+	// Before the worker writes to the real stream: it must still be open
+	private synchronized void beginWrite() throws IOException {
+		if(closed) {
+			throw new IOException("The response has already been completed (timed out?)");
+		}
+		writing = true;
+	}
+
+	// ... and after (however the write went) - if the response was failed/abandoned
+	// while the write was blocked, it is this write that completes the request
+	private void endWrite() {
+		boolean completeNow;
+		synchronized(this) {
+			writing = false;
+			completeNow = completeAfterWrite;
+			completeAfterWrite = false;
+		}
+		if(completeNow) {
+			complete.run();
+		}
+	}
+
+	/*
+	 * Close the real output stream (if the worker used it): the body is
+	 * complete. That is what ends a compressed body - write its last block -
+	 * since with async processing CompressionFilter has already returned.
+	 */
+	private void endBody() {
+		ServletOutputStream o;
+		synchronized(this) {
+			o = out;
+		}
+		if(o == null) {
+			return;
+		}
+		try {
+			((GuardedOutputStream) o).target.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public synchronized ServletOutputStream getOutputStream() throws IOException {
+		if(out == null) {
+			out = new GuardedOutputStream(response.getOutputStream());
+		}
+		return out;
+	}
+
+	@Override
+	public synchronized PrintWriter getWriter() throws IOException {
+		if(writer == null) {
+			// over the *guarded* stream, so the writer's output is guarded too
+			writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), response.getCharacterEncoding()));
+		}
+		return writer;
+	}
+
+	@Override
+	public synchronized void setStatus(int sc) {
+		if(!closed) {
+			response.setStatus(sc);
+		}
+	}
+
+	@Override
+	public synchronized void setContentType(String type) {
+		if(!closed) {
+			response.setContentType(type);
+		}
+	}
+
+	@Override
+	public synchronized void setContentLength(int len) {
+		if(!closed) {
+			response.setContentLength(len);
+		}
+	}
+
+	@Override
+	public synchronized void setContentLengthLong(long len) {
+		if(!closed) {
+			response.setContentLengthLong(len);
+		}
+	}
+
+	@Override
+	public synchronized void setHeader(String name, String value) {
+		if(!closed) {
+			response.setHeader(name, value);
+		}
+	}
+
+	@Override
+	public synchronized void addHeader(String name, String value) {
+		if(!closed) {
+			response.addHeader(name, value);
+		}
+	}
+
+	@Override
+	public synchronized void setIntHeader(String name, int value) {
+		if(!closed) {
+			response.setIntHeader(name, value);
+		}
+	}
+
+	@Override
+	public void flushBuffer() throws IOException {
+		synchronized(this) {
+			if(closed) {
+				return;
+			}
+			writing = true;
+		}
+		try {
+			response.flushBuffer();
+		} finally {
+			endWrite();
+		}
+	}
+
+	// Every write checks (under the same lock as finish/fail) that the response is still
+	// open, and marks itself in progress - but writes OUTSIDE the lock
+	private class GuardedOutputStream extends ServletOutputStream {
+		private final ServletOutputStream target;
+
+		GuardedOutputStream(ServletOutputStream target) {
+			this.target = target;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			beginWrite();
+			try {
+				target.write(b);
+			} finally {
+				endWrite();
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			beginWrite();
+			try {
+				target.write(b, off, len);
+			} finally {
+				endWrite();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			beginWrite();
+			try {
+				target.flush();
+			} finally {
+				endWrite();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();	// (the container closes the real stream when the request completes)
+		}
+
+		@Override
+		public boolean isReady() {
+			return target.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			target.setWriteListener(writeListener);
+		}
+	}
+}
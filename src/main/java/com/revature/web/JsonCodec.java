@@ -0,0 +1,147 @@
+package com.revature.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.revature.exceptions.PayloadTooLargeException;
+import com.revature.util.AppConfig;
+
+/*
+ * Reads request bodies and writes response bodies as JSON, without the
+ * intermediate Strings:
+ *
+ *  - read() parses straight from the request's InputStream with a pre-built
+ *    ObjectReader for the expected type (create those once, with readerFor()),
+ *    instead of reading the body line by line into a StringBuilder first. The
+ *    body is cut off (PayloadTooLargeException -> 413) as soon as it goes over
+ *    rocp.web.maxBodyBytes - even if the client didn't send a Content-Length.
+ *  - write() serializes with an ObjectWriter cached per class into a reusable
+ *    per-thread byte buffer, then sends it to the ServletOutputStream in one go,
+ *    with an exact Content-Length (no PrintWriter, no String, no chunking).
+ *
+ * The request threads are a fixed pool (see AsyncDispatcher), so "one buffer per
+ * thread" is a small, fixed number of buffers.
+ */
+public class JsonCodec {
+
+	// buffers that grew bigger than this (one very large response) are not kept
+	private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+	// (with hand-written (de)serializers for the models/templates - see ModelJsonModule)
+	private final ObjectMapper om = new ObjectMapper().registerModule(new ModelJsonModule());
+	private final long maxBodyBytes = AppConfig.getLong("rocp.web.maxBodyBytes", 4 * 1024 * 1024);
+	private final ConcurrentHashMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+	private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+	// A ByteArrayOutputStream that can be reused, and written out without copying
+	private static class Buffer extends ByteArrayOutputStream {
+		Buffer() {
+			super(8 * 1024);
+		}
+
+		void writeTo(HttpServletResponse res) throws IOException {
+			res.setContentLength(count);
+			res.getOutputStream().write(buf, 0, count);
+		}
+
+		boolean isOversized() {
+			return buf.length > MAX_RETAINED_BUFFER;
+		}
+	}
+
+	public ObjectReader readerFor(Class<?> type) {
+		return om.readerFor(type);
+	}
+
+	public ObjectReader readerFor(TypeReference<?> type) {
+		return om.readerFor(type);
+	}
+
+	// (for streaming responses - see FrontController.streamJsonArray)
+	public JsonFactory getFactory() {
+		return om.getFactory();
+	}
+
+	public <T> T read(HttpServletRequest req, ObjectReader reader) throws IOException {
+		long declared = req.getContentLengthLong();
+		if(declared > maxBodyBytes) {
+			throw new PayloadTooLargeException("The request body is larger than " + maxBodyBytes + " bytes");
+		}
+		return reader.readValue(new LimitedInputStream(req.getInputStream(), maxBodyBytes));
+	}
+
+	// Write value as the (whole) response body; set the status first
+	public void write(HttpServletResponse res, Object value) throws IOException {
+		Buffer buffer = buffers.get();
+		buffer.reset();
+		try {
+			ObjectWriter writer = (value == null ? om.writer()
+					: writers.computeIfAbsent(value.getClass(), om::writerFor));
+			writer.writeValue(buffer, value);
+			buffer.writeTo(res);
+		} finally {
+			if(buffer.isOversized()) {
+				buffers.remove();
+			}
+		}
+	}
+
+	// Counts the bytes read, and stops the read once there are too many
+	private static class LimitedInputStream extends FilterInputStream {
+		private final long limit;
+		private long read = 0;
+
+		LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.limit = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if(b >= 0) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if(n > 0) {
+				count(n);
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count(skipped);
+			return skipped;
+		}
+
+		@Override
+		public void close() {
+			// leave the request's stream to the container
+		}
+
+		private void count(long n) {
+			read += n;
+			if(read > limit) {
+				throw new PayloadTooLargeException("The request body is larger than " + limit + " bytes");
+			}
+		}
+	}
+}
@@ -0,0 +1,381 @@
+package com.revature.web;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.revature.models.Account;
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.models.Role;
+import com.revature.models.User;
+import com.revature.templates.AmountTemplate;
+import com.revature.templates.LoginTemplate;
+import com.revature.templates.MessageTemplate;
+import com.revature.templates.TransferTemplate;
+import com.revature.util.Money;
+
+/*
+ * Hand-written Jackson serializers/deserializers for the classes that go
+ * through almost every request: User, Account (with their Role/AccountStatus/
+ * AccountType) and the Message/Login/Amount/Transfer templates.
+ *
+ * Without these, Jackson works out how to (de)serialize each class the first
+ * time it sees it - by introspecting its getters/setters - and then goes through
+ * that generic bean (de)serializer on every call. These just call the getters
+ * and setters directly, writing/reading the same JSON as before:
+ *		User     {"userId", "username", "password", "firstName", "lastName", "email", "role": {"roleId", "role"}}
+ *		Account  {"accountId", "balance", "status": {"statusId", "status"}, "type": {"typeId", "type"}}
+ * (balance and amount are dollars and cents in the JSON - e.g. 25.10 - and whole
+ *  cents in the objects; see Money)
+ *
+ * KEEP THESE IN STEP WITH THE MODEL/TEMPLATE CLASSES - a field added there
+ * must be added here too. (Unknown properties in a request body are handled
+ * like Jackson's own deserializers do: an error, unless
+ * FAIL_ON_UNKNOWN_PROPERTIES is turned off.)
+ *
+ * Registered with JsonCodec's ObjectMapper.
+ */
+public class ModelJsonModule extends SimpleModule {
+
+	private static final long serialVersionUID = 4139720486530147522L;
+
+	public ModelJsonModule() {
+		super("ModelJsonModule");
+		addSerializer(User.class, new UserSerializer());
+		addDeserializer(User.class, new UserDeserializer());
+		addSerializer(Account.class, new AccountSerializer());
+		addDeserializer(Account.class, new AccountDeserializer());
+		addSerializer(MessageTemplate.class, new MessageSerializer());
+		addDeserializer(LoginTemplate.class, new LoginDeserializer());
+		addDeserializer(AmountTemplate.class, new AmountDeserializer());
+		addDeserializer(TransferTemplate.class, new TransferDeserializer());
+	}
+
+	// ---------------------------------------------------------------------------------
+	// serializers
+
+	private static class UserSerializer extends StdSerializer<User> {
+		private static final long serialVersionUID = 1L;
+
+		UserSerializer() {
+			super(User.class);
+		}
+
+		@Override
+		public void serialize(User u, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject(u);
+			gen.writeNumberField("userId", u.getUserId());
+			gen.writeStringField("username", u.getUsername());
+			gen.writeStringField("password", u.getPassword());
+			gen.writeStringField("firstName", u.getFirstName());
+			gen.writeStringField("lastName", u.getLastName());
+			gen.writeStringField("email", u.getEmail());
+			Role role = u.getRole();
+			if(role == null) {
+				gen.writeNullField("role");
+			} else {
+				gen.writeObjectFieldStart("role");
+				gen.writeNumberField("roleId", role.getRoleId());
+				gen.writeStringField("role", role.getRole());
+				gen.writeEndObject();
+			}
+			gen.writeEndObject();
+		}
+	}
+
+	private static class AccountSerializer extends StdSerializer<Account> {
+		private static final long serialVersionUID = 1L;
+
+		AccountSerializer() {
+			super(Account.class);
+		}
+
+		@Override
+		public void serialize(Account a, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject(a);
+			gen.writeNumberField("accountId", a.getAccountId());
+			gen.writeFieldName("balance");
+			gen.writeNumber(Money.format(a.getBalance()));	// (cents -> e.g. 25.10, exactly)
+			AccountStatus status = a.getStatus();
+			if(status == null) {
+				gen.writeNullField("status");
+			} else {
+				gen.writeObjectFieldStart("status");
+				gen.writeNumberField("statusId", status.getStatusId());
+				gen.writeStringField("status", status.getStatus());
+				gen.writeEndObject();
+			}
+			AccountType type = a.getType();
+			if(type == null) {
+				gen.writeNullField("type");
+			} else {
+				gen.writeObjectFieldStart("type");
+				gen.writeNumberField("typeId", type.getTypeId());
+				gen.writeStringField("type", type.getType());
+				gen.writeEndObject();
+			}
+			gen.writeEndObject();
+		}
+	}
+
+	private static class MessageSerializer extends StdSerializer<MessageTemplate> {
+		private static final long serialVersionUID = 1L;
+
+		MessageSerializer() {
+			super(MessageTemplate.class);
+		}
+
+		@Override
+		public void serialize(MessageTemplate m, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject(m);
+			gen.writeStringField("message", m.getMessage());
+			gen.writeEndObject();
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+	// deserializers - each reads one JSON object, field by field
+
+	private static class UserDeserializer extends StdDeserializer<User> {
+		private static final long serialVersionUID = 1L;
+
+		UserDeserializer() {
+			super(User.class);
+		}
+
+		@Override
+		public User deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			User u = new User();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "userId":		u.setUserId(readInt(p, ctxt)); break;
+				case "username":	u.setUsername(readString(p, ctxt)); break;
+				case "password":	u.setPassword(readString(p, ctxt)); break;
+				case "firstName":	u.setFirstName(readString(p, ctxt)); break;
+				case "lastName":	u.setLastName(readString(p, ctxt)); break;
+				case "email":		u.setEmail(readString(p, ctxt)); break;
+				case "role":		u.setRole(readRole(p, ctxt)); break;
+				default:			ctxt.handleUnknownProperty(p, this, User.class, name);
+				}
+			}
+			return u;
+		}
+
+		private Role readRole(JsonParser p, DeserializationContext ctxt) throws IOException {
+			if(p.currentToken() == JsonToken.VALUE_NULL) {
+				return null;
+			}
+			Role r = new Role();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "roleId":	r.setRoleId(readInt(p, ctxt)); break;
+				case "role":	r.setRole(readString(p, ctxt)); break;
+				default:		ctxt.handleUnknownProperty(p, this, Role.class, name);
+				}
+			}
+			return r;
+		}
+	}
+
+	private static class AccountDeserializer extends StdDeserializer<Account> {
+		private static final long serialVersionUID = 1L;
+
+		AccountDeserializer() {
+			super(Account.class);
+		}
+
+		@Override
+		public Account deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			Account a = new Account();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "accountId":	a.setAccountId(readInt(p, ctxt)); break;
+				case "balance":		a.setBalance(readMoney(p, ctxt)); break;
+				case "status":		a.setStatus(readStatus(p, ctxt)); break;
+				case "type":		a.setType(readType(p, ctxt)); break;
+				default:			ctxt.handleUnknownProperty(p, this, Account.class, name);
+				}
+			}
+			return a;
+		}
+
+		private AccountStatus readStatus(JsonParser p, DeserializationContext ctxt) throws IOException {
+			if(p.currentToken() == JsonToken.VALUE_NULL) {
+				return null;
+			}
+			AccountStatus s = new AccountStatus();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "statusId":	s.setStatusId(readInt(p, ctxt)); break;
+				case "status":		s.setStatus(readString(p, ctxt)); break;
+				default:			ctxt.handleUnknownProperty(p, this, AccountStatus.class, name);
+				}
+			}
+			return s;
+		}
+
+		private AccountType readType(JsonParser p, DeserializationContext ctxt) throws IOException {
+			if(p.currentToken() == JsonToken.VALUE_NULL) {
+				return null;
+			}
+			AccountType t = new AccountType();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "typeId":	t.setTypeId(readInt(p, ctxt)); break;
+				case "type":	t.setType(readString(p, ctxt)); break;
+				default:		ctxt.handleUnknownProperty(p, this, AccountType.class, name);
+				}
+			}
+			return t;
+		}
+	}
+
+	private static class LoginDeserializer extends StdDeserializer<LoginTemplate> {
+		private static final long serialVersionUID = 1L;
+
+		LoginDeserializer() {
+			super(LoginTemplate.class);
+		}
+
+		@Override
+		public LoginTemplate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			LoginTemplate lt = new LoginTemplate();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "username":	lt.setUsername(readString(p, ctxt)); break;
+				case "password":	lt.setPassword(readString(p, ctxt)); break;
+				default:			ctxt.handleUnknownProperty(p, this, LoginTemplate.class, name);
+				}
+			}
+			return lt;
+		}
+	}
+
+	private static class AmountDeserializer extends StdDeserializer<AmountTemplate> {
+		private static final long serialVersionUID = 1L;
+
+		AmountDeserializer() {
+			super(AmountTemplate.class);
+		}
+
+		@Override
+		public AmountTemplate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			AmountTemplate at = new AmountTemplate();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "accountId":	at.setAccountId(readInt(p, ctxt)); break;
+				case "amount":		at.setAmount(readMoney(p, ctxt)); break;
+				default:			ctxt.handleUnknownProperty(p, this, AmountTemplate.class, name);
+				}
+			}
+			return at;
+		}
+	}
+
+	private static class TransferDeserializer extends StdDeserializer<TransferTemplate> {
+		private static final long serialVersionUID = 1L;
+
+		TransferDeserializer() {
+			super(TransferTemplate.class);
+		}
+
+		@Override
+		public TransferTemplate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			TransferTemplate tt = new TransferTemplate();
+			for(String name = startObject(p, ctxt, this); name != null; name = p.nextFieldName()) {
+				p.nextToken();
+				switch(name) {
+				case "sourceAccountId":	tt.setSourceAccountId(readInt(p, ctxt)); break;
+				case "targetAccountId":	tt.setTargetAccountId(readInt(p, ctxt)); break;
+				case "amount":			tt.setAmount(readMoney(p, ctxt)); break;
+				default:				ctxt.handleUnknownProperty(p, this, TransferTemplate.class, name);
+				}
+			}
+			return tt;
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+	// helpers
+
+	// Expects the parser to be at the '{'; returns the first field name (null if the object is empty)
+	private static String startObject(JsonParser p, DeserializationContext ctxt, StdDeserializer<?> deser)
+			throws IOException {
+		if(p.currentToken() != JsonToken.START_OBJECT) {
+			ctxt.handleUnexpectedToken(deser.handledType(), p);
+		}
+		return p.nextFieldName();
+	}
+
+	// like Jackson's defaults: null -> 0, and a number in a string ("12") is accepted
+	private static int readInt(JsonParser p, DeserializationContext ctxt) throws IOException {
+		switch(p.currentToken()) {
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			return p.getValueAsInt();
+		case VALUE_NULL:
+			return 0;
+		case VALUE_STRING:
+			try {
+				return Integer.parseInt(p.getText().trim());
+			} catch(NumberFormatException e) {
+				return (Integer) ctxt.handleWeirdStringValue(int.class, p.getText(), "not a valid int");
+			}
+		default:
+			return (Integer) ctxt.handleUnexpectedToken(int.class, p);
+		}
+	}
+
+	// money: 25.1, 25.10 or "25.10" -> 2510 (cents), read as an exact decimal (never
+	// through a double); a fraction of a cent is rejected rather than rounded
+	private static long readMoney(JsonParser p, DeserializationContext ctxt) throws IOException {
+		switch(p.currentToken()) {
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			try {
+				return Money.ofExact(p.getDecimalValue());
+			} catch(IllegalArgumentException e) {
+				return (Long) ctxt.handleWeirdNumberValue(long.class, p.getNumberValue(), e.getMessage());
+			}
+		case VALUE_NULL:
+			return 0;
+		case VALUE_STRING:
+			try {
+				return Money.parse(p.getText());
+			} catch(IllegalArgumentException e) {
+				return (Long) ctxt.handleWeirdStringValue(long.class, p.getText(), e.getMessage());
+			}
+		default:
+			return (Long) ctxt.handleUnexpectedToken(long.class, p);
+		}
+	}
+
+	private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+		switch(p.currentToken()) {
+		case VALUE_NULL:
+			return null;
+		case VALUE_STRING:
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			return p.getText();
+		default:
+			return (String) ctxt.handleUnexpectedToken(String.class, p);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.revature.web;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/*
+ * Maps (HTTP method, path) to the endpoint that handles it.
+ *
+ * Routes are registered once, at startup, as path templates:
+ *		add("GET", "/accounts/status/:statusId", this::findAccountsByStatus);
+ * and kept as a tree with one level per path segment ("accounts" -> "status" ->
+ * :statusId). Finding a request's route then just walks the request URI one
+ * segment at a time - comparing each segment in place (no split(), substring()
+ * or regex), and parsing :params as ints as it goes - instead of splitting the
+ * URI into an array and switch-ing on the pieces in every doGet/doPost/doPut.
+ *
+ *  - A literal segment wins over a :param at the same position ("/users/bulk"
+ *    before "/users/:id"); a :param only matches a (non-negative) int.
+ *  - Leading/trailing/doubled slashes are ignored.
+ *
+ * Not thread-safe to add() to; call add() only before the first request.
+ */
+public class RouteTable {
+
+	// An endpoint; params holds the :param values parsed from the URI
+	@FunctionalInterface
+	public interface Endpoint {
+		void handle(HttpServletRequest req, HttpServletResponse res, Match params)
+				throws ServletException, IOException;
+	}
+
+	// no route needs more than this many :params
+	private static final int MAX_PARAMS = 4;
+
+	private static class Route {
+		final Endpoint endpoint;
+		final String[] paramNames;
+
+		Route(Endpoint endpoint, String[] paramNames) {
+			this.endpoint = endpoint;
+			this.paramNames = paramNames;
+		}
+	}
+
+	private static class Node {
+		String[] literals = new String[0];		// the literal child segments ...
+		Node[] children = new Node[0];			// ... and their nodes (same order)
+		Node param;								// the :param child, if any
+		final Map<String, Route> routes = new HashMap<>();	// by HTTP method
+	}
+
+	/*
+	 * The result of find(): the endpoint plus the :param values. One per thread,
+	 * reused by every find() on that thread - so only use it for the request
+	 * it was found for.
+	 */
+	public static class Match {
+		private Endpoint endpoint;
+		private String[] names;
+		private final int[] values = new int[MAX_PARAMS];
+		private int count;
+
+		public Endpoint getEndpoint() {
+			return endpoint;
+		}
+
+		// the value of the route's :name segment
+		public int getInt(String name) {
+			for(int i = 0; i < count; i++) {
+				if(names[i].equals(name)) {
+					return values[i];
+				}
+			}
+			throw new IllegalStateException("The route has no :" + name + " parameter");
+		}
+	}
+
+	private final Node root = new Node();
+	private final ThreadLocal<Match> matches = ThreadLocal.withInitial(Match::new);
+
+	public void add(String method, String template, Endpoint endpoint) {
+		Node node = root;
+		String[] names = new String[0];
+		for(String segment : template.split("/")) {
+			if(segment.isEmpty()) {
+				continue;
+			}
+			if(segment.startsWith(":")) {
+				if(node.param == null) {
+					node.param = new Node();
+				}
+				node = node.param;
+				names = Arrays.copyOf(names, names.length + 1);
+				names[names.length - 1] = segment.substring(1);
+				if(names.length > MAX_PARAMS) {
+					throw new IllegalArgumentException(template + " has more than " + MAX_PARAMS + " parameters");
+				}
+			} else {
+				node = literalChild(node, segment);
+			}
+		}
+		if(node.routes.put(method, new Route(endpoint, names)) != null) {
+			throw new IllegalArgumentException(method + " " + template + " is already registered");
+		}
+	}
+
+	/*
+	 * Find the route for the request's method and path (the URI after the
+	 * context path). Returns null if there is none: then allowedMethods() tells
+	 * a wrong method (405) apart from an unknown path (404).
+	 */
+	public Match find(HttpServletRequest req) {
+		Match m = matches.get();
+		m.count = 0;
+		Node node = walk(root, req.getRequestURI(), req.getContextPath().length(), m);
+		Route route = (node == null ? null : node.routes.get(req.getMethod()));
+		if(route == null) {
+			return null;
+		}
+		m.endpoint = route.endpoint;
+		m.names = route.paramNames;
+		return m;
+	}
+
+	// The methods the request's path DOES have routes for, e.g. "GET, PUT"; null if none
+	public String allowedMethods(HttpServletRequest req) {
+		Node node = walk(root, req.getRequestURI(), req.getContextPath().length(), new Match());
+		return (node == null ? null : String.join(", ", new TreeSet<>(node.routes.keySet())));
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private static Node literalChild(Node node, String segment) {
+		for(int i = 0; i < node.literals.length; i++) {
+			if(node.literals[i].equals(segment)) {
+				return node.children[i];
+			}
+		}
+		int n = node.literals.length;
+		node.literals = Arrays.copyOf(node.literals, n + 1);
+		node.children = Arrays.copyOf(node.children, n + 1);
+		node.literals[n] = segment;
+		node.children[n] = new Node();
+		return node.children[n];
+	}
+
+	/*
+	 * Match uri (from index pos on) below node; returns the node reached (if it
+	 * has any routes), else null. Tries the literal child first, then the :param
+	 * child - backing out of the literal if nothing below it matches.
+	 */
+	private static Node walk(Node node, String uri, int pos, Match m) {
+		int length = uri.length();
+		while(pos < length && uri.charAt(pos) == '/') {
+			pos++;
+		}
+		if(pos == length) {
+			return (node.routes.isEmpty() ? null : node);
+		}
+		int end = uri.indexOf('/', pos);
+		if(end < 0) {
+			end = length;
+		}
+		int segmentLength = end - pos;
+
+		for(int i = 0; i < node.literals.length; i++) {
+			String literal = node.literals[i];
+			if(literal.length() == segmentLength && uri.regionMatches(pos, literal, 0, segmentLength)) {
+				Node found = walk(node.children[i], uri, end, m);
+				if(found != null) {
+					return found;
+				}
+				break;
+			}
+		}
+		if(node.param != null && m.count < MAX_PARAMS) {
+			int value = parseId(uri, pos, end);
+			if(value >= 0) {
+				m.values[m.count++] = value;
+				Node found = walk(node.param, uri, end, m);
+				if(found != null) {
+					return found;
+				}
+				m.count--;
+			}
+		}
+		return null;
+	}
+
+	// uri[from, to) as a non-negative int; -1 if it isn't one (or is too big)
+	private static int parseId(String uri, int from, int to) {
+		if(to - from > 10) {
+			return -1;
+		}
+		long value = 0;
+		for(int i = from; i < to; i++) {
+			char c = uri.charAt(i);
+			if(c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return (value > Integer.MAX_VALUE ? -1 : (int) value);
+	}
+}
@@ -0,0 +1,86 @@
+package com.revature.authorization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.dao.LookupRegistry;
+import com.revature.dao.TestDatabase;
+import com.revature.models.Role;
+import com.revature.models.User;
+import com.revature.util.ConnectionUtil;
+
+/*
+ * Policy decisions by role and ownership Rule - and the role mask following
+ * the ROLES lookup table when it is reloaded.
+ */
+public class PolicyTest {
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		LookupRegistry.refresh();
+	}
+
+	@Test
+	public void allowsTheListedRoles() {
+		Policy policy = Policy.of("Employee", "Admin");
+		assertEquals(Decision.ALLOW, policy.check(userWithRole(1, "Admin"), 0));
+		assertEquals(Decision.ALLOW, policy.check(userWithRole(2, "Employee"), 0));
+		assertEquals(Decision.DENY, policy.check(userWithRole(3, "Standard"), 0));
+		assertEquals(Decision.DENY, policy.check(new User(5, "norole", "pw", "A", "B", "c@d.e", null), 0));
+		assertEquals(Decision.NOT_LOGGED_IN, policy.check(null, 0));
+	}
+
+	@Test
+	public void orIfAllowsWhatTheRuleAllows() {
+		Policy policy = Policy.of("Admin").orIf(Policy.SELF);
+		User standard = userWithRole(3, "Standard");	// (userId 5)
+		assertEquals(Decision.ALLOW, policy.check(standard, 5));
+		assertEquals(Decision.DENY, policy.check(standard, 6));
+		assertEquals(Decision.ALLOW, policy.check(userWithRole(1, "Admin"), 6));
+		assertEquals(Decision.NOT_LOGGED_IN, policy.check(null, 5));
+
+		assertEquals(Decision.ALLOW, Policy.of().orIf(Policy.ANY_USER).check(standard, 0));
+	}
+
+	@Test
+	public void anUnknownRoleAllowsNobody() {
+		Policy policy = Policy.of("Nobody");
+		assertEquals(Decision.DENY, policy.check(userWithRole(1, "Admin"), 0));
+	}
+
+	@Test
+	public void followsAReloadOfTheRoles() throws Exception {
+		Policy policy = Policy.of("Staff");
+		User employee = userWithRole(2, "Employee");
+		assertEquals(Decision.DENY, policy.check(employee, 0));
+		try {
+			execute("UPDATE ROLES SET role = 'Staff' WHERE id = 2");
+			LookupRegistry.refresh();
+			assertEquals(Decision.ALLOW, policy.check(employee, 0));
+		} finally {
+			execute("UPDATE ROLES SET role = 'Employee' WHERE id = 2");
+			LookupRegistry.refresh();
+		}
+		assertEquals(Decision.DENY, policy.check(employee, 0));
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private static User userWithRole(int roleId, String role) {
+		return new User(5, "user" + roleId, "pw", "First", "Last", "user@example.com", new Role(roleId, role));
+	}
+
+	private static void execute(String sql) throws SQLException {
+		try (Connection conn = ConnectionUtil.getConnection(); Statement stmt = conn.createStatement()) {
+			conn.setAutoCommit(true);
+			stmt.execute(sql);
+		}
+	}
+}
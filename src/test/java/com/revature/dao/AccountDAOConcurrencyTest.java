@@ -0,0 +1,103 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Concurrent deposits and withdrawals on ONE Account (see applyDelta): none
+ * may be lost, and the balance may never go negative.
+ */
+public class AccountDAOConcurrencyTest {
+
+	private static final int THREADS = 8;
+
+	private final AccountDAO dao = new AccountDAO();
+	private ExecutorService pool;
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		pool = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void concurrentDepositsAreNeverLost() throws Exception {
+		int accountId = TestDatabase.newAccount(0);
+		int perThread = 50;
+
+		List<Callable<Long>> tasks = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			tasks.add(() -> {
+				for(int i = 0; i < perThread; i++) {
+					if(dao.applyDelta(accountId, 1, BeforeCommit.NOTHING) == null) {
+						throw new AssertionError("a deposit failed");
+					}
+				}
+				return null;
+			});
+		}
+		for(Future<Long> f : pool.invokeAll(tasks)) {
+			f.get();
+		}
+
+		assertEquals(THREADS * perThread, dao.findById(accountId).getBalance());
+	}
+
+	@Test
+	public void concurrentWithdrawalsNeverOverdraw() throws Exception {
+		int accountId = TestDatabase.newAccount(1000);	// $10.00 - room for exactly 10 withdrawals of $1.00
+
+		List<Callable<Long>> tasks = new ArrayList<>();
+		for(int t = 0; t < THREADS * 4; t++) {
+			tasks.add(() -> dao.applyDelta(accountId, -100, BeforeCommit.NOTHING));
+		}
+		int succeeded = 0;
+		for(Future<Long> f : pool.invokeAll(tasks)) {
+			Long balance = f.get();
+			if(balance != null) {
+				succeeded++;
+				assertEquals(0, balance % 100);
+			}
+		}
+
+		assertEquals(10, succeeded);
+		assertEquals(0, dao.findById(accountId).getBalance());
+	}
+
+	@Test
+	public void applyDeltaReturnsTheNewBalance() throws Exception {
+		int accountId = TestDatabase.newAccount(250);
+
+		assertEquals(Long.valueOf(350), dao.applyDelta(accountId, 100, BeforeCommit.NOTHING));
+		assertEquals(Long.valueOf(0), dao.applyDelta(accountId, -350, BeforeCommit.NOTHING));
+		assertNull(dao.applyDelta(accountId, -1, BeforeCommit.NOTHING));		// insufficient funds
+		assertNull(dao.applyDelta(accountId + 1000, 1, BeforeCommit.NOTHING));	// no such Account
+	}
+
+	@Test
+	public void aFailingBeforeCommitRollsTheChangeBack() throws Exception {
+		int accountId = TestDatabase.newAccount(500);
+
+		assertNull(dao.applyDelta(accountId, 100, () -> {
+			throw new IOException("journal down");
+		}));
+		assertEquals(500, dao.findById(accountId).getBalance());
+	}
+}
@@ -0,0 +1,136 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.models.Account;
+
+/*
+ * Concurrent transfers (see AccountDAO.transfer): money is never created or
+ * lost, no balance ever goes negative, and transfers in OPPOSITE directions
+ * between the same Accounts don't deadlock.
+ */
+public class AccountDAOTransferTest {
+
+	private static final int THREADS = 8;
+
+	private final AccountDAO dao = new AccountDAO();
+	private ExecutorService pool;
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		pool = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void concurrentTransfersConserveTheTotal() throws Exception {
+		int[] ids = new int[5];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = TestDatabase.newAccount(10000);
+		}
+		int perThread = 40;
+
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			Random random = new Random(t);
+			tasks.add(() -> {
+				int failed = 0;
+				for(int i = 0; i < perThread; i++) {
+					int from = ids[random.nextInt(ids.length)];
+					int to = ids[random.nextInt(ids.length)];
+					if(from != to) {
+						TransferResult result = dao.transfer(from, to, 1 + random.nextInt(5000), BeforeCommit.NOTHING);
+						if(result == TransferResult.FAILED) {
+							failed++;
+						}
+					}
+				}
+				return failed;
+			});
+		}
+		for(Future<Integer> f : pool.invokeAll(tasks)) {
+			assertEquals("transfers FAILED", 0, (int) f.get());
+		}
+
+		long total = 0;
+		for(int id : ids) {
+			long balance = dao.findById(id).getBalance();
+			assertTrue("balance went negative: " + balance, balance >= 0);
+			total += balance;
+		}
+		assertEquals(10000L * ids.length, total);
+	}
+
+	@Test(timeout = 60000)
+	public void oppositeTransfersDoNotDeadlock() throws Exception {
+		int a = TestDatabase.newAccount(100000);
+		int b = TestDatabase.newAccount(100000);
+		int perThread = 50;
+
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			int from = (t % 2 == 0 ? a : b);
+			int to = (t % 2 == 0 ? b : a);
+			tasks.add(() -> {
+				int completed = 0;
+				for(int i = 0; i < perThread; i++) {
+					if(dao.transfer(from, to, 100, BeforeCommit.NOTHING) == TransferResult.COMPLETED) {
+						completed++;
+					}
+				}
+				return completed;
+			});
+		}
+		for(Future<Integer> f : pool.invokeAll(tasks, 50, TimeUnit.SECONDS)) {
+			assertEquals(perThread, (int) f.get());		// (every one fits: each side starts with $1000, moves at most $200)
+		}
+
+		// as many went each way, so both end where they started
+		assertEquals(100000, dao.findById(a).getBalance());
+		assertEquals(100000, dao.findById(b).getBalance());
+	}
+
+	@Test
+	public void aRefusedTransferChangesNothing() throws Exception {
+		int a = TestDatabase.newAccount(500);
+		int b = TestDatabase.newAccount(0);
+
+		assertEquals(TransferResult.INSUFFICIENT_FUNDS, dao.transfer(a, b, 501, BeforeCommit.NOTHING));
+		assertEquals(TransferResult.NO_SUCH_ACCOUNT, dao.transfer(a, b + 1000, 100, BeforeCommit.NOTHING));
+		assertEquals(TransferResult.NO_SUCH_ACCOUNT, dao.transfer(b + 1000, a, 100, BeforeCommit.NOTHING));
+		assertEquals(TransferResult.FAILED, dao.transfer(a, b, 100, () -> {
+			throw new IOException("journal down");
+		}));
+		assertBalances(a, 500, b, 0);
+
+		assertEquals(TransferResult.COMPLETED, dao.transfer(a, b, 500, BeforeCommit.NOTHING));
+		assertBalances(a, 0, b, 500);
+	}
+
+	private void assertBalances(int a, long aBalance, int b, long bBalance) {
+		Account first = dao.findById(a);
+		Account second = dao.findById(b);
+		assertEquals(aBalance, first.getBalance());
+		assertEquals(bBalance, second.getBalance());
+	}
+}
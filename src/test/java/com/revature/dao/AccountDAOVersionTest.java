@@ -0,0 +1,41 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.util.ContentHash;
+
+/*
+ * findVersion (for conditional GETs) hashes the row the same way as the
+ * Account that findById builds from it - and changes when the row does.
+ */
+public class AccountDAOVersionTest {
+
+	private final AccountDAO dao = new AccountDAO();
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		LookupRegistry.refresh();
+	}
+
+	@Test
+	public void theVersionIsTheHashOfTheAccount() {
+		int accountId = TestDatabase.newAccount(2510);
+		Long version = dao.findVersion(accountId);
+		assertEquals(Long.valueOf(ContentHash.of(dao.findById(accountId))), version);
+
+		dao.applyDelta(accountId, 1, BeforeCommit.NOTHING);
+		assertNotEquals(version, dao.findVersion(accountId));
+		assertEquals(Long.valueOf(ContentHash.of(dao.findById(accountId))), dao.findVersion(accountId));
+	}
+
+	@Test
+	public void noAccountNoVersion() {
+		assertNull(dao.findVersion(Integer.MAX_VALUE));
+	}
+}
@@ -0,0 +1,56 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.util.ConnectionUtil;
+
+/*
+ * JdbcBatch.insertAll writes every row with its key, or nothing at all.
+ */
+public class JdbcBatchTest {
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+	}
+
+	@Test
+	public void insertAllReturnsOneKeyPerItem() throws SQLException {
+		List<Long> balances = Arrays.asList(100L, 200L, 300L);
+		int[] keys = JdbcBatch.insertAll("INSERT INTO ACCOUNTS (balance, status_id, type_id) VALUES (?, 2, 1)",
+				"id", balances, 2, (stmt, balance) -> stmt.setLong(1, balance));
+		assertEquals(3, keys.length);
+		assertEquals(3, countAccounts());
+	}
+
+	@Test
+	public void insertAllRollsBackWhenTheKeysDontMatchTheItems() throws SQLException {
+		// one row per ACCOUNT_TYPE (two) for each item - so two keys per item
+		List<Long> balances = Arrays.asList(100L, 200L, 300L);
+		int[] keys = JdbcBatch.insertAll("INSERT INTO ACCOUNTS (balance, status_id, type_id)"
+				+ " SELECT ?, 2, id FROM ACCOUNT_TYPE", "id", balances, 2, (stmt, balance) -> stmt.setLong(1, balance),
+				(balance, key) -> { throw new AssertionError("no item should be given a key"); },
+				() -> { throw new AssertionError("nothing should be journaled"); });
+		assertEquals(0, keys.length);
+		assertEquals(0, countAccounts());
+	}
+
+	private static int countAccounts() throws SQLException {
+		try (Connection conn = ConnectionUtil.getConnection(); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM ACCOUNTS")) {
+			assertTrue(rs.next());
+			return rs.getInt(1);
+		}
+	}
+}
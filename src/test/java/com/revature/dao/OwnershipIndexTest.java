@@ -0,0 +1,70 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.services.AccountService;
+import com.revature.util.ConnectionUtil;
+
+/*
+ * A fresh OwnershipIndex answers yes, and a final no for an Account it knows
+ * the owners of - only an Account it knows no owners of goes to the database.
+ */
+public class OwnershipIndexTest {
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		linkInDatabase(1, 10);
+		linkInDatabase(2, 10);
+		linkInDatabase(1, 11);
+		assertTrue(OwnershipIndex.load());
+	}
+
+	@Test
+	public void anAccountWithOwnersIsAnsweredFromTheIndex() throws SQLException {
+		assertEquals(Boolean.TRUE, OwnershipIndex.isOwner(2, 10));
+		assertEquals(Boolean.FALSE, OwnershipIndex.isOwner(3, 11));
+		assertArrayEquals(new int[] { 10, 11 }, OwnershipIndex.accountsOf(1));
+
+		// (owners are only ever linked when an Account is submitted - this row isn't looked for)
+		linkInDatabase(3, 11);
+		assertEquals(false, new AccountService().isOwner(3, 11));
+	}
+
+	@Test
+	public void anAccountWithoutOwnersIsAskedInTheDatabase() throws SQLException {
+		assertNull(OwnershipIndex.isOwner(4, 12));
+		assertEquals(false, new AccountService().isOwner(4, 12));
+
+		// (submitted on another server since the load)
+		linkInDatabase(4, 12);
+		assertEquals(true, new AccountService().isOwner(4, 12));
+		assertEquals(Boolean.TRUE, OwnershipIndex.isOwner(4, 12));
+	}
+
+	@Test
+	public void removalsAreMadeToTheIndex() {
+		OwnershipIndex.removeUser(2);
+		assertArrayEquals(new int[] { 1 }, OwnershipIndex.ownersOf(10));
+		OwnershipIndex.removeAccount(10);
+		assertArrayEquals(new int[] { 11 }, OwnershipIndex.accountsOf(1));
+		assertNull(OwnershipIndex.isOwner(1, 10));
+	}
+
+	private static void linkInDatabase(int userId, int accountId) throws SQLException {
+		try (Connection conn = ConnectionUtil.getConnection(); Statement stmt = conn.createStatement()) {
+			conn.setAutoCommit(true);
+			stmt.execute("INSERT INTO USERS_ACCOUNTS (user_id, account_id) VALUES (" + userId + ", " + accountId + ")");
+		}
+	}
+}
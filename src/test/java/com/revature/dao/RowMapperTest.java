@@ -0,0 +1,107 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.models.Account;
+import com.revature.util.ConnectionUtil;
+
+/*
+ * The RowMapper finds each column by name ONCE per query, whatever order the
+ * query lists them in, then maps every row by position.
+ */
+public class RowMapperTest {
+
+	private final AccountRowMapper mapper = new AccountRowMapper();
+	private int first;
+	private int second;
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		first = TestDatabase.newAccount(1050);
+		second = TestDatabase.newAccount(0);
+	}
+
+	@Test
+	public void mapsEveryRow() throws Exception {
+		String sql = "SELECT id, balance, status_id, type_id FROM ACCOUNTS ORDER BY id";
+		List<Account> accts = query(sql, rs -> mapper.mapAll(sql, rs));
+
+		assertEquals(2, accts.size());
+		assertEquals(first, accts.get(0).getAccountId());
+		assertEquals(1050, accts.get(0).getBalance());
+		assertEquals(2, accts.get(0).getStatus().getStatusId());
+		assertEquals("Open", accts.get(0).getStatus().getStatus());
+		assertEquals("Checking", accts.get(0).getType().getType());
+		assertEquals(second, accts.get(1).getAccountId());
+		// the SHARED lookup instances, not a copy per row
+		assertSame(accts.get(0).getStatus(), accts.get(1).getStatus());
+	}
+
+	@Test
+	public void findsColumnsInAnyOrder() throws Exception {
+		String sql = "SELECT type_id, status_id, balance, id FROM ACCOUNTS WHERE id = " + first;
+		Account acct = query(sql, rs -> mapper.mapFirst(sql, rs));
+
+		assertEquals(first, acct.getAccountId());
+		assertEquals(1050, acct.getBalance());
+		assertArrayEquals(new int[] { 4, 3, 2, 1 }, query(sql, rs -> mapper.positions(sql, rs)));
+	}
+
+	@Test
+	public void mapFirstOfNoRowsIsNull() throws Exception {
+		String sql = "SELECT id, balance, status_id, type_id FROM ACCOUNTS WHERE id < 0";
+		assertNull(query(sql, rs -> mapper.mapFirst(sql, rs)));
+	}
+
+	@Test
+	public void forEachHandsOverEveryRow() throws Exception {
+		String sql = "SELECT id, balance, status_id, type_id FROM ACCOUNTS ORDER BY id";
+		List<Integer> ids = new ArrayList<>();
+		int count = query(sql, rs -> mapper.forEach(sql, rs, a -> ids.add(a.getAccountId())));
+
+		assertEquals(2, count);
+		assertEquals(first, (int) ids.get(0));
+		assertEquals(second, (int) ids.get(1));
+	}
+
+	@Test
+	public void aMissingColumnIsAnError() throws Exception {
+		String sql = "SELECT id, balance FROM ACCOUNTS";
+		try {
+			query(sql, rs -> mapper.mapAll(sql, rs));
+			fail("expected an SQLException");
+		} catch (SQLException e) {
+			assertEquals("Column 'status_id' is not in the query result", e.getMessage());
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	@FunctionalInterface
+	private interface ResultReader<R> {
+		R read(ResultSet rs) throws Exception;
+	}
+
+	private static <R> R query(String sql, ResultReader<R> reader) throws Exception {
+		try (Connection conn = ConnectionUtil.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(sql);
+				ResultSet rs = stmt.executeQuery()) {
+			return reader.read(rs);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.revature.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+import com.revature.models.Account;
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.util.ConnectionUtil;
+
+/*
+ * The tests' database: the in-memory H2 database that src/test/resources/
+ * app.properties points ConnectionUtil at, with the tables the DAOs use.
+ */
+public class TestDatabase {
+
+	public static final AccountStatus OPEN = new AccountStatus(2, "Open");
+	public static final AccountType CHECKING = new AccountType(1, "Checking");
+
+	private static boolean created = false;
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private TestDatabase() {
+		super();
+	}
+
+	// Create the tables (once) and empty them
+	public static synchronized void reset() throws SQLException {
+		try (Connection conn = ConnectionUtil.getConnection(); Statement stmt = conn.createStatement()) {
+			conn.setAutoCommit(true);
+			if(!created) {
+				stmt.execute("CREATE TABLE ROLES (id INT PRIMARY KEY, role VARCHAR(20) NOT NULL)");
+				stmt.execute("CREATE TABLE ACCOUNT_STATUS (id INT PRIMARY KEY, status VARCHAR(20) NOT NULL)");
+				stmt.execute("CREATE TABLE ACCOUNT_TYPE (id INT PRIMARY KEY, type VARCHAR(20) NOT NULL)");
+				stmt.execute("CREATE TABLE ACCOUNTS (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+						+ " balance NUMBER(15,2) NOT NULL, status_id INT NOT NULL, type_id INT NOT NULL)");
+				stmt.execute("CREATE TABLE USERS_ACCOUNTS (user_id INT NOT NULL, account_id INT NOT NULL)");
+				stmt.execute("INSERT INTO ROLES VALUES (1, 'Admin'), (2, 'Employee'), (3, 'Standard'), (4, 'Premium')");
+				stmt.execute("INSERT INTO ACCOUNT_STATUS VALUES (1, 'Pending'), (2, 'Open'), (3, 'Closed'), (4, 'Denied')");
+				stmt.execute("INSERT INTO ACCOUNT_TYPE VALUES (1, 'Checking'), (2, 'Savings')");
+				created = true;
+			}
+			stmt.execute("DELETE FROM USERS_ACCOUNTS");
+			stmt.execute("DELETE FROM ACCOUNTS");
+		}
+	}
+
+	// A new Open Checking Account with this balance (cents); returns its id
+	public static int newAccount(long balance) {
+		int[] ids = new AccountDAO().insertAll(
+				Collections.singletonList(new Account(0, balance, OPEN, CHECKING)), BeforeCommit.NOTHING);
+		if(ids.length != 1) {
+			throw new IllegalStateException("Could not create a test Account");
+		}
+		return ids[0];
+	}
+}
@@ -0,0 +1,71 @@
+package com.revature.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.TestDatabase;
+import com.revature.models.Account;
+import com.revature.util.JournalRecord;
+
+/*
+ * A change reaches the AccountBook only once it has committed and settled -
+ * and in the order the changes were journaled, whatever order they settle in.
+ */
+public class JournalEntriesTest {
+
+	private final AccountDAO dao = new AccountDAO();
+
+	@Before
+	public void setUp() throws Exception {
+		TestDatabase.reset();
+		AccountBookService.warmStart();
+	}
+
+	@Test
+	public void changesReachTheBookInJournalOrderOnceSettled() {
+		int accountId = new AccountService().insertAll(Collections.singletonList(
+				new Account(0, 100000, TestDatabase.OPEN, TestDatabase.CHECKING)))[0];
+		BigDecimal before = AccountBookService.getStats().getTotalBalance();
+
+		JournalEntries first = new JournalEntries().add(JournalRecord.DEPOSIT, accountId, 0, 0, 0, 100);
+		assertEquals(Long.valueOf(100100), dao.applyDelta(accountId, 100, first));
+		JournalEntries second = new JournalEntries().add(JournalRecord.DEPOSIT, accountId, 0, 0, 0, 50);
+		assertEquals(Long.valueOf(100150), dao.applyDelta(accountId, 50, second));
+
+		// both have committed, but the book waits for the first before applying the second
+		assertEquals(before, AccountBookService.getStats().getTotalBalance());
+		second.settle(true);
+		assertEquals(before, AccountBookService.getStats().getTotalBalance());
+		first.settle(true);
+		assertEquals(before.add(new BigDecimal("1.50")), AccountBookService.getStats().getTotalBalance());
+	}
+
+	@Test
+	public void aChangeThatDoesNotCommitNeverReachesTheBook() {
+		int accountId = new AccountService().insertAll(Collections.singletonList(
+				new Account(0, 100, TestDatabase.OPEN, TestDatabase.CHECKING)))[0];
+		BigDecimal before = AccountBookService.getStats().getTotalBalance();
+
+		// (overdrawn - the DAO changes nothing, so nothing is appended)
+		JournalEntries overdrawn = new JournalEntries().add(JournalRecord.WITHDRAW, accountId, 0, 0, 0, 500);
+		assertNull(dao.applyDelta(accountId, -500, overdrawn));
+		overdrawn.settle(false);
+
+		// (appended, but the transaction doesn't commit - the book is put right from the database)
+		JournalEntries failed = new JournalEntries().add(JournalRecord.WITHDRAW, accountId, 0, 0, 0, 40);
+		dao.lockRange(accountId, accountId, a -> { }, () -> {
+			failed.run();
+			throw new IOException("rolled back");
+		});
+		failed.settle(false);
+		assertEquals(before, AccountBookService.getStats().getTotalBalance());
+	}
+}
@@ -0,0 +1,137 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * The AccountBook: journal records applied to it, a walk over every Account,
+ * and snapshots written and loaded back (or refused, when damaged).
+ */
+public class AccountBookTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void appliesJournalRecords() {
+		AccountBook book = new AccountBook(16, 0);
+		book.put(1, 10000, 2, 1);
+		book.put(2, 5000, 2, 2);
+		book.put(3, 5000, 2, 2);
+
+		assertTrue(book.apply(record(1, JournalRecord.DEPOSIT, 1, 0, 0, 250)));
+		assertTrue(book.apply(record(2, JournalRecord.WITHDRAW, 1, 0, 0, 50)));
+		assertTrue(book.apply(record(3, JournalRecord.TRANSFER, 1, 2, 0, 200)));
+		assertEquals(Long.valueOf(10000), book.balanceOf(1));
+		assertEquals(Long.valueOf(5200), book.balanceOf(2));
+
+		// 1% on the Savings (type 2) Accounts 2-3 only
+		assertTrue(book.apply(record(4, JournalRecord.INTEREST, 2, 3, 2, 1_010_000_000L)));
+		assertEquals(Long.valueOf(10000), book.balanceOf(1));
+		assertEquals(Long.valueOf(5252), book.balanceOf(2));
+		assertEquals(Long.valueOf(5050), book.balanceOf(3));
+
+		assertTrue(book.apply(record(5, JournalRecord.DELETED, 3, 0, 0, 0)));
+		assertNull(book.balanceOf(3));
+		assertTrue(book.apply(record(6, JournalRecord.BALANCE_SET, 9, 0, 2, 1, 700)));
+		assertEquals(Long.valueOf(700), book.balanceOf(9));
+		assertArrayEquals(new int[] { 2, 9 }, book.idsBetween(2, 100));
+
+		assertFalse(book.apply(record(7, JournalRecord.DEPOSIT, 42, 0, 0, 1)));	// (an Account it doesn't have)
+		assertEquals(7, book.getLastSequence());
+		assertEquals(3, book.size());
+		assertEquals(3, book.getStats().getAccounts());
+	}
+
+	@Test
+	public void forEachVisitsEveryAccountInIdOrder() {
+		AccountBook book = new AccountBook(16, 0);
+		book.put(30, 300, 2, 1);
+		book.put(10, 100, 2, 2);
+		book.put(20, 200, 3, 1);
+
+		StringBuilder seen = new StringBuilder();
+		book.forEach(a -> seen.append(a.getAccountId()).append('=').append(a.getBalance()).append(' '));
+		assertEquals("10=100 20=200 30=300 ", seen.toString());
+	}
+
+	@Test
+	public void snapshotsRoundTrip() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("accounts.snapshot");
+		assertNull(AccountBook.loadSnapshot(path));
+
+		AccountBook book = new AccountBook(16, 41);
+		for(int id = 1; id <= 1000; id++) {
+			book.put(id * 3, id * 100L, 1 + id % 4, 1 + id % 2);
+		}
+		assertEquals(41, book.writeSnapshot(path));
+
+		AccountBook loaded = AccountBook.loadSnapshot(path);
+		assertEquals(41, loaded.getLastSequence());
+		assertEquals(1000, loaded.size());
+		for(int id = 1; id <= 1000; id++) {
+			assertEquals(Long.valueOf(id * 100L), loaded.balanceOf(id * 3));
+		}
+		assertEquals(book.getStats().getTotalBalance(), loaded.getStats().getTotalBalance());
+		assertEquals(book.summarize((id, balance, statusId, typeId) -> typeId == 2).getAccounts(),
+				loaded.summarize((id, balance, statusId, typeId) -> typeId == 2).getAccounts());
+	}
+
+	@Test
+	public void refusesADamagedSnapshot() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("accounts.snapshot");
+		AccountBook book = new AccountBook(16, 0);
+		for(int id = 1; id <= 100; id++) {
+			book.put(id, id, 2, 1);
+		}
+		book.writeSnapshot(path);
+		long size = Files.size(path);
+
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.seek(size - 3);
+			file.write(file.read() ^ 0x01);	// (flip a bit of the last type id)
+		}
+		assertRefused(path, "corrupt");
+
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.setLength(size - 1);
+		}
+		assertRefused(path, "truncated");
+
+		Files.write(path, new byte[] { 1, 2, 3 });
+		assertRefused(path, "not an account book snapshot");
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private static void assertRefused(Path path, String why) {
+		try {
+			AccountBook.loadSnapshot(path);
+			fail("a damaged snapshot was loaded");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(why));
+		}
+	}
+
+	private static JournalRecord record(long sequence, int type, int accountId, int target, int typeId, long amount) {
+		return record(sequence, type, accountId, target, 0, typeId, amount);
+	}
+
+	private static JournalRecord record(long sequence, int type, int accountId, int target, int statusId, int typeId,
+			long amount) {
+		return new JournalRecord(sequence, 0, type, accountId, target, statusId, typeId, amount);
+	}
+}
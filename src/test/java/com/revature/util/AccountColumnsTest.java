@@ -0,0 +1,131 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+/*
+ * AccountColumns: rows kept sorted by id through inserts and removes, a
+ * cursor that walks them in order, scans (sequential and parallel) that count
+ * and total what they should, and the snapshot block format read back exactly
+ * as written.
+ */
+public class AccountColumnsTest {
+
+	@Test
+	public void keepsRowsSortedById() {
+		AccountColumns columns = new AccountColumns(1);	// (grows past its first capacity)
+		for(int id : new int[] { 50, 10, 40, 20, 30, 60, 5 }) {
+			columns.set(columns.insert(id), id * 100L, 2, 1);
+		}
+		assertEquals(7, columns.size());
+		assertArrayEquals(new int[] { 5, 10, 20, 30, 40, 50, 60 }, ids(columns));
+		assertEquals(3, columns.indexOf(30));
+		assertEquals(3000, columns.balanceAt(3));
+		assertEquals(-4, columns.indexOf(25));		// (would be inserted at row 3)
+		assertEquals(-1, columns.indexOf(1));
+		assertEquals(-8, columns.indexOf(99));
+
+		assertEquals(3, columns.insert(30));		// (already there: same row, unchanged)
+		assertEquals(3000, columns.balanceAt(3));
+
+		columns.removeAt(columns.indexOf(30));
+		columns.removeAt(0);
+		assertArrayEquals(new int[] { 10, 20, 40, 50, 60 }, ids(columns));
+		assertEquals(4000, columns.balanceAt(columns.indexOf(40)));
+
+		columns.setBalance(columns.indexOf(60), -1);
+		assertEquals(-1, columns.balanceAt(4));
+	}
+
+	@Test
+	public void theCursorWalksEveryRowInIdOrder() {
+		AccountColumns columns = filled(1000);
+		AccountColumns.Cursor cursor = columns.cursor();
+		for(int row = 0; row < 1000; row++) {
+			assertTrue(cursor.next());
+			assertEquals(columns.idAt(row), cursor.getAccountId());
+			assertEquals(columns.balanceAt(row), cursor.getBalance());
+			assertEquals(columns.statusIdAt(row), cursor.getStatusId());
+			assertEquals(columns.typeIdAt(row), cursor.getTypeId());
+		}
+		assertFalse(cursor.next());
+		assertFalse(new AccountColumns(16).cursor().next());
+	}
+
+	@Test
+	public void scansCountAndTotalTheMatchingRows() {
+		// (big enough to be split and scanned in parallel)
+		int count = 200000;
+		AccountColumns columns = filled(count);
+		long expectedCount = 0;
+		long expectedTotal = 0;
+		long allTotal = 0;
+		for(int row = 0; row < count; row++) {
+			allTotal += columns.balanceAt(row);
+			if(columns.statusIdAt(row) == 2 && columns.typeIdAt(row) == 2) {
+				expectedCount++;
+				expectedTotal += columns.balanceAt(row);
+			}
+		}
+
+		assertArrayEquals(new long[] { count, allTotal }, columns.scan(AccountColumns.ALL));
+		assertArrayEquals(new long[] { expectedCount, expectedTotal },
+				columns.scan((id, balance, statusId, typeId) -> statusId == 2 && typeId == 2));
+		assertArrayEquals(new long[] { 0, 0 }, columns.scan((id, balance, statusId, typeId) -> false));
+		assertArrayEquals(new long[] { 0, 0 }, new AccountColumns(16).scan(AccountColumns.ALL));
+	}
+
+	@Test
+	public void readsBackWhatItWrote() {
+		for(ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+			AccountColumns written = filled(1000);
+			ByteBuffer buf = ByteBuffer.allocateDirect(7 + AccountColumns.bytesFor(1000)).order(order);
+			buf.position(7);	// (not at the start of the buffer)
+			written.writeTo(buf);
+			assertEquals(buf.capacity(), buf.position());
+
+			AccountColumns read = new AccountColumns(16);
+			buf.position(7);
+			read.readFrom(buf, 1000);
+			assertEquals(buf.capacity(), buf.position());
+			assertEquals(1000, read.size());
+			for(int row = 0; row < 1000; row++) {
+				assertEquals(written.idAt(row), read.idAt(row));
+				assertEquals(written.balanceAt(row), read.balanceAt(row));
+				assertEquals(written.statusIdAt(row), read.statusIdAt(row));
+				assertEquals(written.typeIdAt(row), read.typeIdAt(row));
+			}
+			read.set(read.insert(5000), 1, 1, 1);	// (and it can still grow)
+			assertEquals(1001, read.size());
+		}
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	// count rows with ids 2, 4, 6, ... and random balances/status/type
+	private static AccountColumns filled(int count) {
+		Random random = new Random(count);
+		AccountColumns columns = new AccountColumns(count);
+		for(int i = 1; i <= count; i++) {
+			columns.set(columns.insert(2 * i), random.nextInt(10_000_000) - 1000, 1 + random.nextInt(4),
+					1 + random.nextInt(2));
+		}
+		return columns;
+	}
+
+	private static int[] ids(AccountColumns columns) {
+		int[] ids = new int[columns.size()];
+		for(int row = 0; row < ids.length; row++) {
+			ids[row] = columns.idAt(row);
+		}
+		return ids;
+	}
+}
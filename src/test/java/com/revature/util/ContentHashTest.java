@@ -0,0 +1,94 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.revature.models.Account;
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.models.Role;
+import com.revature.models.User;
+
+/*
+ * The hash changes whenever what the JSON shows changes - and only then
+ * (never with a User's password, which the JSON must not leak through an ETag).
+ */
+public class ContentHashTest {
+
+	private static User user() {
+		return new User(3, "jdoe", "secret", "Jane", "Doe", "jdoe@example.com", new Role(3, "Standard"));
+	}
+
+	private static Account account() {
+		return new Account(7, 2510, new AccountStatus(2, "Open"), new AccountType(1, "Checking"));
+	}
+
+	@Test
+	public void theSameContentHasTheSameHash() {
+		assertEquals(ContentHash.of(user()), ContentHash.of(user()));
+		assertEquals(ContentHash.of(account()), ContentHash.of(account()));
+	}
+
+	@Test
+	public void theColumnsHashLikeTheModel() {
+		assertEquals(ContentHash.of(user()), ContentHash.ofUser(3, "jdoe", "Jane", "Doe", "jdoe@example.com", 3, "Standard"));
+		assertEquals(ContentHash.of(account()), ContentHash.ofAccount(7, 2510, 2, 1));
+		User noRole = user();
+		noRole.setRole(null);
+		assertEquals(ContentHash.of(noRole), ContentHash.ofUser(3, "jdoe", "Jane", "Doe", "jdoe@example.com", -1, null));
+	}
+
+	@Test
+	public void everyShownUserFieldChangesIt() {
+		assertChanges(u -> u.setUserId(4));
+		assertChanges(u -> u.setUsername("jdoe2"));
+		assertChanges(u -> u.setFirstName("Janet"));
+		assertChanges(u -> u.setLastName(null));
+		assertChanges(u -> u.setEmail("j@example.com"));
+		assertChanges(u -> u.setRole(new Role(4, "Premium")));
+		assertChanges(u -> u.setRole(null));
+	}
+
+	@Test
+	public void thePasswordDoesNot() {
+		User u = user();
+		u.setPassword("something else");
+		assertEquals(ContentHash.of(user()), ContentHash.of(u));
+	}
+
+	@Test
+	public void everyAccountFieldChangesIt() {
+		long h = ContentHash.of(account());
+		for(Consumer<Account> change : Arrays.<Consumer<Account>>asList(
+				a -> a.setAccountId(8),
+				a -> a.setBalance(2511),
+				a -> a.setStatus(new AccountStatus(3, "Closed")),
+				a -> a.setType(new AccountType(2, "Savings")))) {
+			Account a = account();
+			change.accept(a);
+			assertNotEquals(h, ContentHash.of(a));
+		}
+	}
+
+	@Test
+	public void stringBoundariesMatter() {
+		User a = user();
+		a.setFirstName("ab");
+		a.setLastName("c");
+		User b = user();
+		b.setFirstName("a");
+		b.setLastName("bc");
+		assertNotEquals(ContentHash.of(a), ContentHash.of(b));
+	}
+
+	private static void assertChanges(Consumer<User> change) {
+		User u = user();
+		change.accept(u);
+		assertNotEquals(ContentHash.of(user()), ContentHash.of(u));
+	}
+}
@@ -0,0 +1,64 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/*
+ * IntArrayMap against a HashMap<Integer, int[]> doing the same thing.
+ */
+public class IntArrayMapTest {
+
+	@Test
+	public void basics() {
+		IntArrayMap map = new IntArrayMap(4);
+		int[] ids = { 1, 2, 3 };
+		assertNull(map.get(5));
+		map.put(5, ids);
+		assertSame(ids, map.get(5));
+		assertEquals(1, map.size());
+
+		map.put(5, null);		// (the same as remove)
+		assertNull(map.get(5));
+		assertEquals(0, map.size());
+
+		map.put(6, ids);
+		assertSame(ids, map.remove(6));
+		assertNull(map.remove(6));
+	}
+
+	@Test
+	public void matchesAHashMap() {
+		Random random = new Random(2);
+		IntArrayMap map = new IntArrayMap(1);
+		Map<Integer, int[]> expected = new HashMap<>();
+		for(int op = 0; op < 200000; op++) {
+			int key = random.nextInt(64) * (random.nextBoolean() ? 1 : -1024);
+			switch(random.nextInt(4)) {
+			case 0:
+			case 1:
+				int[] value = { op };
+				map.put(key, value);
+				expected.put(key, value);
+				break;
+			case 2:
+				assertSame(expected.remove(key), map.remove(key));
+				break;
+			default:
+				assertSame(expected.get(key), map.get(key));
+				break;
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(Map.Entry<Integer, int[]> e : expected.entrySet()) {
+			assertArrayEquals(e.getValue(), map.get(e.getKey()));
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/*
+ * IntHashSet (and IntArrayList) against the java.util collections doing the same thing.
+ */
+public class IntHashSetTest {
+
+	@Test
+	public void matchesAHashSet() {
+		Random random = new Random(3);
+		IntHashSet set = new IntHashSet(1);
+		Set<Integer> expected = new HashSet<>();
+		for(int op = 0; op < 50000; op++) {
+			int key = random.nextInt(20000) - 10000;
+			assertEquals(expected.add(key), set.add(key));
+			assertTrue(set.contains(key));
+		}
+		assertEquals(expected.size(), set.size());
+		for(int key = -10000; key < 10000; key++) {
+			assertEquals(expected.contains(key), set.contains(key));
+		}
+
+		int[] elements = set.toArray();
+		Arrays.sort(elements);
+		assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), elements);
+
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(elements[0]));
+	}
+
+	@Test
+	public void arrayListGrowsAndKeepsOrder() {
+		IntArrayList list = new IntArrayList(1);
+		assertTrue(list.isEmpty());
+		for(int i = 0; i < 1000; i++) {
+			list.add(i * 3);
+		}
+		assertEquals(1000, list.size());
+		assertEquals(2997, list.get(999));
+		int[] array = list.toArray();
+		assertEquals(1000, array.length);
+		assertEquals(30, array[10]);
+
+		list.clear();
+		assertEquals(0, list.size());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void arrayListChecksTheIndex() {
+		IntArrayList list = new IntArrayList();
+		list.add(1);
+		list.get(1);
+	}
+}
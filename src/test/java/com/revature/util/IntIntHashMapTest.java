@@ -0,0 +1,90 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/*
+ * IntIntHashMap against a HashMap<Integer, Integer> doing the same thing -
+ * above all remove(), which has to shift back the entries that probed past
+ * the removed one.
+ */
+public class IntIntHashMapTest {
+
+	@Test
+	public void basics() {
+		IntIntHashMap map = new IntIntHashMap(4);
+		assertEquals(-1, map.get(7, -1));
+		map.put(7, 70);
+		map.put(-3, 0);
+		assertEquals(70, map.get(7, -1));
+		assertEquals(0, map.get(-3, -1));
+		assertTrue(map.containsKey(-3));
+		assertEquals(2, map.size());
+
+		map.put(7, 71);
+		assertEquals(71, map.get(7, -1));
+		assertEquals(2, map.size());
+
+		assertEquals(5, map.increment(8, 5));
+		assertEquals(76, map.increment(7, 5));
+
+		assertTrue(map.remove(7));
+		assertFalse(map.remove(7));
+		assertFalse(map.containsKey(7));
+		assertEquals(2, map.size());
+
+		map.clear();
+		assertEquals(0, map.size());
+		assertFalse(map.containsKey(8));
+	}
+
+	@Test
+	public void removeKeepsEveryOtherKeyFindable() {
+		// few distinct keys, in a table that grows from the minimum: long probe runs, wrapping around the end
+		Random random = new Random(1);
+		IntIntHashMap map = new IntIntHashMap(1);
+		Map<Integer, Integer> expected = new HashMap<>();
+		for(int op = 0; op < 200000; op++) {
+			int key = random.nextInt(64) * (random.nextBoolean() ? 1 : -1024);
+			switch(random.nextInt(4)) {
+			case 0:
+			case 1:
+				map.put(key, op);
+				expected.put(key, op);
+				break;
+			case 2:
+				assertEquals(expected.remove(key) != null, map.remove(key));
+				break;
+			default:
+				assertEquals(expected.getOrDefault(key, -1).intValue(), map.get(key, -1));
+				break;
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(Map.Entry<Integer, Integer> e : expected.entrySet()) {
+			assertEquals(e.getValue().intValue(), map.get(e.getKey(), -1));
+		}
+	}
+
+	@Test
+	public void removeAfterGrowing() {
+		IntIntHashMap map = new IntIntHashMap(2);
+		for(int key = 0; key < 10000; key++) {
+			map.put(key, key * 2);
+		}
+		for(int key = 0; key < 10000; key += 2) {
+			assertTrue(map.remove(key));
+		}
+		assertEquals(5000, map.size());
+		for(int key = 0; key < 10000; key++) {
+			assertEquals((key % 2 == 0 ? -1 : key * 2), map.get(key, -1));
+		}
+	}
+}
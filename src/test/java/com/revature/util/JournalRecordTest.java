@@ -0,0 +1,56 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/*
+ * A JournalRecord reads back exactly as it was written - and a damaged (or
+ * missing) one reads back as null, the end of the journal.
+ */
+public class JournalRecordTest {
+
+	private static final JournalRecord RECORD = new JournalRecord(42, 1590000000000L, JournalRecord.TRANSFER,
+			7, 9, 2, 1, 123456789012L);
+
+	@Test
+	public void readsBackWhatWasWritten() {
+		ByteBuffer buf = ByteBuffer.allocate(2 * JournalRecord.RECORD_SIZE);
+		buf.position(JournalRecord.RECORD_SIZE);	// (not at the start of the buffer)
+		RECORD.writeTo(buf);
+		assertEquals(2 * JournalRecord.RECORD_SIZE, buf.position());
+
+		buf.position(JournalRecord.RECORD_SIZE);
+		JournalRecord r = JournalRecord.readFrom(buf);
+		assertEquals(2 * JournalRecord.RECORD_SIZE, buf.position());
+		assertEquals(RECORD.toString(), r.toString());
+	}
+
+	@Test
+	public void aDamagedRecordIsNotRead() {
+		for(int i = 0; i < JournalRecord.RECORD_SIZE; i++) {
+			ByteBuffer buf = ByteBuffer.allocate(JournalRecord.RECORD_SIZE);
+			RECORD.writeTo(buf);
+			buf.put(i, (byte) (buf.get(i) ^ 0x10));	// flip one bit of byte i
+
+			buf.position(0);
+			assertNull("byte " + i + " damaged", JournalRecord.readFrom(buf));
+			assertEquals(0, buf.position());
+		}
+	}
+
+	@Test
+	public void emptyOrShortSpaceIsTheEnd() {
+		ByteBuffer zeros = ByteBuffer.allocate(JournalRecord.RECORD_SIZE);
+		assertNull(JournalRecord.readFrom(zeros));
+
+		ByteBuffer buf = ByteBuffer.allocate(JournalRecord.RECORD_SIZE);
+		RECORD.writeTo(buf);
+		buf.position(0);
+		buf.limit(JournalRecord.RECORD_SIZE - 1);	// (torn - the last byte never made it)
+		assertNull(JournalRecord.readFrom(buf));
+	}
+}
@@ -0,0 +1,88 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Test;
+
+/*
+ * Money: exact conversions to and from cents, and interest in long arithmetic
+ * that rounds exactly like the database's ROUND(balance * factor, 2).
+ */
+public class MoneyTest {
+
+	@Test
+	public void formatsCents() {
+		assertEquals("25.10", Money.format(2510));
+		assertEquals("0.00", Money.format(0));
+		assertEquals("0.07", Money.format(7));
+		assertEquals("-0.05", Money.format(-5));
+		assertEquals("-12.34", Money.format(-1234));
+		assertEquals("92233720368547758.07", Money.format(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void parsesExactAmounts() {
+		assertEquals(2510, Money.parse("25.10"));
+		assertEquals(2510, Money.parse(" 25.1 "));
+		assertEquals(2500, Money.parse("25"));
+		assertEquals(-5, Money.parse("-0.05"));
+		assertEquals(2510, Money.ofExact(new BigDecimal("25.100")));
+	}
+
+	@Test
+	public void rejectsWhatIsNotAnAmount() {
+		for(String amount : new String[] { "0.001", "25.105", "abc", "", "1e30" }) {
+			try {
+				Money.parse(amount);
+				fail(amount + " was accepted");
+			} catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void convertsDatabaseDecimals() {
+		assertEquals(new BigDecimal("25.10"), Money.toDecimal(2510));
+		assertEquals(2510, Money.ofDecimal(new BigDecimal("25.1")));
+		assertEquals(2511, Money.ofDecimal(new BigDecimal("25.105")));		// (rounded half-up, like ROUND(x, 2))
+		assertEquals(-2511, Money.ofDecimal(new BigDecimal("-25.105")));
+		for(long cents : new long[] { 0, 1, -1, 2510, Long.MAX_VALUE, Long.MIN_VALUE }) {
+			assertEquals(cents, Money.ofDecimal(Money.toDecimal(cents)));
+		}
+	}
+
+	@Test
+	public void compoundsFactors() {
+		assertEquals(1_000_000_000L, Money.compound(new BigDecimal("0.0016666667"), 0));
+		assertEquals(1_001_666_667L, Money.compound(new BigDecimal("0.0016666667"), 1));
+		assertEquals(1_020_184_356L, Money.compound(new BigDecimal("0.0016666667"), 12));
+		assertEquals(new BigDecimal("1.020184355"), Money.factorToDecimal(1_020_184_355L));
+	}
+
+	@Test
+	public void applyFactorRoundsLikeTheDatabase() {
+		assertEquals(1002, Money.applyFactor(1000, 1_001_666_667L));	// 10.0166... -> 10.02
+		assertEquals(1000, Money.applyFactor(999, 1_000_500_501L));	// 9.99500... -> 10.00
+		assertEquals(3, Money.applyFactor(5, 500_000_000L));			// 0.025 -> 0.03 (half away from zero)
+		assertEquals(-3, Money.applyFactor(-5, 500_000_000L));
+
+		Random random = new Random(4);
+		for(int i = 0; i < 100000; i++) {
+			long cents = (i % 10 == 0 ? random.nextLong() / 1000 : random.nextInt(100_000_000) - 10_000_000);
+			long factor = 1 + random.nextInt(2_000_000_000);
+			assertEquals(cents + " * " + factor, database(cents, factor), Money.applyFactor(cents, factor));
+		}
+	}
+
+	// what ROUND(balance * factor, 2) gives
+	private static long database(long cents, long factor) {
+		return Money.toDecimal(cents).multiply(Money.factorToDecimal(factor)).setScale(2, RoundingMode.HALF_UP)
+				.unscaledValue().longValueExact();
+	}
+}
@@ -0,0 +1,39 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+/*
+ * StatementCache hands the same statement back for the same SQL - without
+ * whatever the last borrower set on it.
+ */
+public class StatementCacheTest {
+
+	@Test
+	public void aReturnedStatementGetsItsFetchSizeBack() throws SQLException {
+		try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:statementcache", "sa", "")) {
+			StatementCache cache = new StatementCache(conn, 4);
+
+			PreparedStatement first = cache.prepare("SELECT 1 FROM DUAL");
+			int defaultFetchSize = first.getFetchSize();
+			first.setFetchSize(defaultFetchSize + 1000);
+			first.setMaxRows(5);
+			first.close();
+
+			PreparedStatement second = cache.prepare("SELECT 1 FROM DUAL");
+			assertSame(first, second);
+			assertEquals(defaultFetchSize, second.getFetchSize());
+			assertEquals(0, second.getMaxRows());
+			second.close();
+			assertEquals(1, cache.getHits());
+			cache.closeAll();
+		}
+	}
+}
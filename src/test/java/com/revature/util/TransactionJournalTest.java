@@ -0,0 +1,167 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * The TransactionJournal: appends get consecutive sequence numbers, become
+ * durable (group commit), survive a reopen, and read back in order - also
+ * across segments, and after rotate() has deleted the old ones.
+ */
+public class TransactionJournalTest {
+
+	// small regions (10 records each), so appends cross region boundaries
+	private static final int REGION_BYTES = 10 * JournalRecord.RECORD_SIZE;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path path;
+	private TransactionJournal journal;
+
+	@Before
+	public void setUp() throws IOException {
+		path = folder.getRoot().toPath().resolve("journal");
+		journal = open();
+	}
+
+	@After
+	public void tearDown() {
+		journal.close();
+	}
+
+	@Test
+	public void appendsAreNumberedAndBecomeDurable() throws IOException {
+		assertEquals(0, journal.getLastSequence());
+		for(int i = 1; i <= 25; i++) {
+			JournalRecord r = journal.append(JournalRecord.DEPOSIT, i, 0, 0, 0, 100 * i);
+			assertEquals(i, r.getSequence());
+		}
+		assertEquals(25, journal.getLastSequence());
+
+		assertTrue(journal.awaitDurable(25, 5000));
+		assertTrue(journal.getLastDurable() >= 25);
+	}
+
+	@Test
+	public void awaitDurableTimesOutOnARecordNotYetWritten() throws IOException {
+		journal.append(JournalRecord.DEPOSIT, 1, 0, 0, 0, 100);
+		assertTrue(journal.awaitDurable(1, 5000));
+		assertEquals(false, journal.awaitDurable(2, 50));
+	}
+
+	@Test
+	public void reopeningResumesAfterTheLastRecord() throws IOException {
+		for(int i = 1; i <= 15; i++) {
+			journal.append(JournalRecord.WITHDRAW, i, 0, 0, 0, i);
+		}
+		journal.close();
+
+		journal = open();
+		assertEquals(15, journal.getLastSequence());
+		assertEquals(16, journal.append(JournalRecord.DELETED, 16, 0, 0, 0, 0).getSequence());
+		assertRecords(journal.readAfter(0), 1, 16);
+	}
+
+	@Test
+	public void readAfterStartsAtTheNextRecord() throws IOException {
+		for(int i = 1; i <= 25; i++) {
+			journal.append(JournalRecord.DEPOSIT, i, 0, 0, 0, i);
+		}
+		assertRecords(journal.readAfter(0), 1, 25);
+		assertRecords(journal.readAfter(17), 18, 25);
+		assertRecords(journal.readAfter(25), 26, 25);	// (nothing)
+	}
+
+	@Test
+	public void rotateDeletesOnlyWhatASnapshotCovers() throws IOException {
+		appendUpTo(10);
+		journal.rotate(4);			// segment 1-10 still holds 5-10: kept
+		appendUpTo(20);
+		assertEquals(1, journal.getFirstSequence());
+		assertEquals(2, segmentFiles());
+
+		journal.rotate(10);			// 1-10 is all covered: deleted; 11-20 is not
+		assertEquals(11, journal.getFirstSequence());
+		assertEquals(2, segmentFiles());	// (11-20, and the new, empty one)
+
+		journal.rotate(20);			// 11-20 deleted; the segment being appended to never is
+		journal.rotate(20);			// (nothing appended since - no new segment)
+		assertEquals(21, journal.getFirstSequence());
+		assertEquals(1, segmentFiles());
+		assertRecords(journal.readAfter(20), 21, 20);
+	}
+
+	@Test
+	public void readAfterSeeksAcrossSegments() throws IOException {
+		appendUpTo(10);
+		journal.rotate(0);
+		appendUpTo(25);
+		journal.rotate(0);
+		appendUpTo(30);
+
+		assertRecords(journal.readAfter(0), 1, 30);
+		assertRecords(journal.readAfter(7), 8, 30);		// (in the first segment)
+		assertRecords(journal.readAfter(10), 11, 30);	// (right at the start of the second)
+		assertRecords(journal.readAfter(26), 27, 30);
+	}
+
+	@Test
+	public void reopeningKeepsTheSegments() throws IOException {
+		appendUpTo(12);
+		journal.rotate(5);
+		appendUpTo(18);
+		journal.close();
+
+		journal = open();
+		assertEquals(1, journal.getFirstSequence());
+		assertEquals(18, journal.getLastSequence());
+		assertEquals(19, journal.append(JournalRecord.DEPOSIT, 19, 0, 0, 0, 1).getSequence());
+		assertRecords(journal.readAfter(3), 4, 19);
+
+		journal.rotate(12);
+		assertEquals(13, journal.getFirstSequence());
+		assertRecords(journal.readAfter(0), 13, 19);	// (what is gone is skipped, not an error)
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	// append DEPOSITs (accountId == sequence) until the last sequence is last
+	private void appendUpTo(long last) throws IOException {
+		for(long s = journal.getLastSequence() + 1; s <= last; s++) {
+			journal.append(JournalRecord.DEPOSIT, (int) s, 0, 0, 0, 1);
+		}
+	}
+
+	private int segmentFiles() {
+		return folder.getRoot().list((dir, name) -> name.startsWith("journal.")).length;
+	}
+
+	private TransactionJournal open() throws IOException {
+		return new TransactionJournal(path, REGION_BYTES, 10);
+	}
+
+	// the reader returns exactly the records first..last (accountId == sequence), then null
+	static void assertRecords(JournalReader reader, long first, long last) throws IOException {
+		try {
+			for(long s = first; s <= last; s++) {
+				JournalRecord r = reader.next();
+				assertEquals(s, r.getSequence());
+				assertEquals(s, r.getAccountId());
+			}
+			assertNull(reader.next());
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.revature.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/*
+ * Choosing the response's Content-Encoding from the request's Accept-Encoding.
+ */
+public class CompressionFilterTest {
+
+	@Test
+	public void prefersGzip() {
+		assertEquals("gzip", CompressionFilter.negotiate("gzip"));
+		assertEquals("gzip", CompressionFilter.negotiate("gzip, deflate, br"));
+		assertEquals("gzip", CompressionFilter.negotiate("deflate, gzip"));
+		assertEquals("gzip", CompressionFilter.negotiate("x-gzip"));
+		assertEquals("gzip", CompressionFilter.negotiate(" GZIP ;q=0.8 "));
+	}
+
+	@Test
+	public void fallsBackToDeflate() {
+		assertEquals("deflate", CompressionFilter.negotiate("deflate"));
+		assertEquals("deflate", CompressionFilter.negotiate("br, deflate"));
+		assertEquals("deflate", CompressionFilter.negotiate("deflate;q=0.5, gzip;q=0"));
+	}
+
+	@Test
+	public void aWildcardAcceptsWhatIsNotRefused() {
+		assertEquals("gzip", CompressionFilter.negotiate("*"));
+		assertEquals("deflate", CompressionFilter.negotiate("gzip;q=0, *"));
+		assertNull(CompressionFilter.negotiate("gzip;q=0, deflate;q=0, *"));
+		assertNull(CompressionFilter.negotiate("*;q=0"));
+	}
+
+	@Test
+	public void nothingUsable() {
+		assertNull(CompressionFilter.negotiate(null));
+		assertNull(CompressionFilter.negotiate(""));
+		assertNull(CompressionFilter.negotiate("br, identity"));
+		assertNull(CompressionFilter.negotiate("gzip;q=0"));
+		assertNull(CompressionFilter.negotiate("gzip;q=0.0, deflate;q=zero"));	// (an unreadable q is a refusal)
+	}
+}
@@ -0,0 +1,80 @@
+package com.revature.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+/*
+ * Conditional GET: which If-None-Match headers match an ETag, and what the
+ * response gets when one does.
+ */
+public class ETagsTest {
+
+	private static final String TAG = ETags.of(0x1fL);	// "W/\"1f\""
+
+	@Test
+	public void tagsAreWeakQuotedHex() {
+		assertEquals("W/\"1f\"", TAG);
+		assertEquals("W/\"ffffffffffffffff\"", ETags.of(-1L));
+	}
+
+	@Test
+	public void matchesAListedTag() {
+		assertTrue(ETags.matches("\"1f\"", TAG));
+		assertTrue(ETags.matches("\"2e\", \"1f\"", TAG));
+		assertTrue(ETags.matches("\"2e\",\"1f\" ", TAG));
+		assertTrue(ETags.matches("W/\"1f\"", TAG));		// (weak comparison - W/ or not)
+		assertTrue(ETags.matches("\"1f\"", "\"1f\""));
+		assertTrue(ETags.matches("*", TAG));
+		assertTrue(ETags.matches("\"2e\", *", TAG));
+	}
+
+	@Test
+	public void doesNotMatchAnythingElse() {
+		assertFalse(ETags.matches(null, TAG));
+		assertFalse(ETags.matches("", TAG));
+		assertFalse(ETags.matches("\"2e\"", TAG));
+		assertFalse(ETags.matches("1f", TAG));			// (unquoted)
+		assertFalse(ETags.matches("\"1f0\"", TAG));
+		assertFalse(ETags.matches("\"01f\", \"1\"", TAG));
+	}
+
+	@Test
+	public void notModifiedSetsTheHeadersAnd304() {
+		Map<String, Object> sent = new HashMap<>();
+		HttpServletResponse res = recording(sent);
+
+		assertFalse(ETags.notModified(FakeRequest.of("GET", "/accounts/1"), res, TAG));
+		assertEquals(TAG, sent.get("ETag"));
+		assertEquals("private, no-cache", sent.get("Cache-Control"));
+		assertFalse(sent.containsKey("status"));
+
+		assertTrue(ETags.notModified(FakeRequest.of("GET", "/accounts/1", "If-None-Match", TAG), res, TAG));
+		assertEquals(304, sent.get("status"));
+	}
+
+	// a response that only records its headers (and "status")
+	private static HttpServletResponse recording(Map<String, Object> sent) {
+		return (HttpServletResponse) Proxy.newProxyInstance(ETagsTest.class.getClassLoader(),
+				new Class<?>[] { HttpServletResponse.class }, (proxy, m, args) -> {
+					switch(m.getName()) {
+					case "setHeader":
+						sent.put((String) args[0], args[1]);
+						return null;
+					case "setStatus":
+						sent.put("status", args[0]);
+						return null;
+					default:
+						throw new UnsupportedOperationException(m.getName());
+					}
+				});
+	}
+}
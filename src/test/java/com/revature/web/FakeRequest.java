@@ -0,0 +1,47 @@
+package com.revature.web;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+/*
+ * A stand-in HttpServletRequest for the tests: just a method, a URI (under
+ * the context path "/rocp-project") and headers. Anything else it is asked
+ * for is an UnsupportedOperationException.
+ */
+public class FakeRequest {
+
+	public static final String CONTEXT_PATH = "/rocp-project";
+
+	// Make constructor *private* to PREVENT ever instantiating this class
+	private FakeRequest() {
+		super();
+	}
+
+	// headers: name, value, name, value, ...
+	public static HttpServletRequest of(String method, String path, String... headers) {
+		Map<String, String> headerMap = new HashMap<>();
+		for(int i = 0; i + 1 < headers.length; i += 2) {
+			headerMap.put(headers[i].toLowerCase(), headers[i + 1]);
+		}
+		return (HttpServletRequest) Proxy.newProxyInstance(FakeRequest.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class }, (proxy, m, args) -> {
+					switch(m.getName()) {
+					case "getMethod":
+						return method;
+					case "getContextPath":
+						return CONTEXT_PATH;
+					case "getRequestURI":
+						return CONTEXT_PATH + path;
+					case "getHeader":
+						return headerMap.get(((String) args[0]).toLowerCase());
+					case "toString":
+						return method + " " + path;
+					default:
+						throw new UnsupportedOperationException(m.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,99 @@
+package com.revature.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+/*
+ * A timeout's fail() doesn't wait for a worker's write that is blocked on a
+ * slow client - and the request is completed exactly once, after that write.
+ */
+public class GuardedResponseTest {
+
+	@Test
+	public void failDoesNotWaitForABlockedWrite() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch slowClient = new CountDownLatch(1);
+		AtomicInteger completed = new AtomicInteger();
+		GuardedResponse guarded = new GuardedResponse(committedResponse(new ServletOutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				writing.countDown();
+				try {
+					slowClient.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				// not used
+			}
+		}), completed::incrementAndGet);
+
+		ExecutorService worker = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> write = worker.submit(() -> {
+				guarded.getOutputStream().write('x');
+				return null;
+			});
+			assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+			// (the write is still blocked - fail() returns anyway, and leaves completing to it)
+			assertTrue(guarded.fail(503, "{}".getBytes()));
+			assertEquals(0, completed.get());
+
+			slowClient.countDown();
+			write.get(5, TimeUnit.SECONDS);
+			assertEquals(1, completed.get());
+
+			try {
+				guarded.getOutputStream().write('y');
+				fail("a write after fail() should be refused");
+			} catch (IOException expected) {
+				// the response is closed
+			}
+			assertFalse(guarded.finish());
+			assertEquals(1, completed.get());
+		} finally {
+			worker.shutdownNow();
+		}
+	}
+
+	// A response that has already sent its headers, writing to this stream
+	private static HttpServletResponse committedResponse(ServletOutputStream out) {
+		return (HttpServletResponse) Proxy.newProxyInstance(GuardedResponseTest.class.getClassLoader(),
+				new Class<?>[] { HttpServletResponse.class }, (proxy, m, args) -> {
+					switch(m.getName()) {
+					case "getOutputStream":
+						return out;
+					case "isCommitted":
+						return true;
+					default:
+						throw new UnsupportedOperationException(m.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,71 @@
+package com.revature.web;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.revature.models.Account;
+import com.revature.models.AccountStatus;
+import com.revature.models.AccountType;
+import com.revature.models.Role;
+import com.revature.models.User;
+import com.revature.templates.MessageTemplate;
+import com.revature.templates.TransferTemplate;
+
+/*
+ * The hand-written (de)serializers write and read the same JSON as Jackson's
+ * own bean (de)serializers did - except that money is dollars and cents.
+ */
+public class ModelJsonModuleTest {
+
+	private final ObjectMapper om = new ObjectMapper().registerModule(new ModelJsonModule());
+	private final ObjectMapper stock = new ObjectMapper();
+
+	private final User user = new User(3, "jdoe", "secret", "Jane", "Doe", "jdoe@example.com", new Role(3, "Standard"));
+	private final Account account = new Account(7, 2510, new AccountStatus(2, "Open"), new AccountType(1, "Checking"));
+
+	@Test
+	public void writesUsersLikeDatabind() throws Exception {
+		assertEquals(stock.readTree(stock.writeValueAsString(user)), om.readTree(om.writeValueAsString(user)));
+
+		User noRole = new User(4, "x", "y", null, null, null, null);
+		assertEquals(stock.readTree(stock.writeValueAsString(noRole)), om.readTree(om.writeValueAsString(noRole)));
+	}
+
+	@Test
+	public void writesAccountsWithDollarsAndCents() throws Exception {
+		assertEquals("{\"accountId\":7,\"balance\":25.10,\"status\":{\"statusId\":2,\"status\":\"Open\"},"
+				+ "\"type\":{\"typeId\":1,\"type\":\"Checking\"}}", om.writeValueAsString(account));
+		assertEquals("{\"message\":\"hi\"}", om.writeValueAsString(new MessageTemplate("hi")));
+	}
+
+	@Test
+	public void readsBackWhatItWrites() throws Exception {
+		assertEquals(user, om.readValue(om.writeValueAsString(user), User.class));
+		assertEquals(account, om.readValue(om.writeValueAsString(account), Account.class));
+	}
+
+	@Test
+	public void readsMoneyExactly() throws Exception {
+		for(String amount : new String[] { "25.1", "25.10", "\"25.10\"" }) {
+			TransferTemplate tt = om.readValue("{\"sourceAccountId\":1,\"targetAccountId\":2,\"amount\":" + amount + "}",
+					TransferTemplate.class);
+			assertEquals(2510, tt.getAmount());
+			assertEquals(1, tt.getSourceAccountId());
+			assertEquals(2, tt.getTargetAccountId());
+		}
+	}
+
+	@Test(expected = JsonMappingException.class)
+	public void aFractionOfACentIsAnError() throws Exception {
+		om.readValue("{\"sourceAccountId\":1,\"targetAccountId\":2,\"amount\":0.001}", TransferTemplate.class);
+	}
+
+	@Test(expected = UnrecognizedPropertyException.class)
+	public void anUnknownPropertyIsAnError() throws Exception {
+		om.readValue("{\"accountId\":7,\"owner\":3}", Account.class);
+	}
+}
@@ -0,0 +1,119 @@
+package com.revature.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.web.RouteTable.Endpoint;
+import com.revature.web.RouteTable.Match;
+
+/*
+ * Finding each request's route: literals, :params, methods, and what is NOT a match.
+ */
+public class RouteTableTest {
+
+	private final RouteTable routes = new RouteTable();
+
+	private final Endpoint users = endpoint();
+	private final Endpoint user = endpoint();
+	private final Endpoint updateUser = endpoint();
+	private final Endpoint bulk = endpoint();
+	private final Endpoint byStatus = endpoint();
+	private final Endpoint account = endpoint();
+	private final Endpoint twoParams = endpoint();
+
+	@Before
+	public void setUp() {
+		routes.add("GET", "/users", users);
+		routes.add("GET", "/users/:id", user);
+		routes.add("PUT", "/users/:id", updateUser);
+		routes.add("POST", "/users/bulk", bulk);
+		routes.add("GET", "/accounts/status/:statusId", byStatus);
+		routes.add("GET", "/accounts/:id", account);
+		routes.add("GET", "/owners/:userId/accounts/:accountId", twoParams);
+	}
+
+	@Test
+	public void findsLiteralRoutes() {
+		assertSame(users, find("GET", "/users").getEndpoint());
+		assertSame(bulk, find("POST", "/users/bulk").getEndpoint());
+	}
+
+	@Test
+	public void parsesParams() {
+		Match m = find("GET", "/users/42");
+		assertSame(user, m.getEndpoint());
+		assertEquals(42, m.getInt("id"));
+
+		m = find("GET", "/accounts/status/3");
+		assertSame(byStatus, m.getEndpoint());
+		assertEquals(3, m.getInt("statusId"));
+
+		m = find("GET", "/owners/7/accounts/2147483647");
+		assertSame(twoParams, m.getEndpoint());
+		assertEquals(7, m.getInt("userId"));
+		assertEquals(Integer.MAX_VALUE, m.getInt("accountId"));
+	}
+
+	@Test
+	public void picksTheRouteByMethod() {
+		assertSame(updateUser, find("PUT", "/users/42").getEndpoint());
+		assertNull(find("DELETE", "/users/42"));
+		assertEquals("GET, PUT", routes.allowedMethods(FakeRequest.of("DELETE", "/users/42")));
+		assertNull(routes.allowedMethods(FakeRequest.of("GET", "/nowhere")));
+	}
+
+	@Test
+	public void aLiteralWinsOverAParam() {
+		assertSame(bulk, find("POST", "/users/bulk").getEndpoint());
+		// ... but backs out to the :param if nothing below the literal matches
+		assertSame(account, find("GET", "/accounts/5").getEndpoint());
+		assertNull(find("GET", "/accounts/status"));
+	}
+
+	@Test
+	public void ignoresExtraSlashes() {
+		assertSame(users, find("GET", "/users/").getEndpoint());
+		assertEquals(42, find("GET", "//users//42/").getInt("id"));
+	}
+
+	@Test
+	public void aParamIsOnlyANonNegativeInt() {
+		assertNull(find("GET", "/users/abc"));
+		assertNull(find("GET", "/users/-1"));
+		assertNull(find("GET", "/users/2147483648"));	// (too big for an int)
+		assertNull(find("GET", "/users/12345678901"));
+		assertNull(find("GET", "/users/42/extra"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void aRouteCanOnlyBeAddedOnce() {
+		routes.add("GET", "/users/:userId", endpoint());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void askingForAnUnknownParamIsAnError() {
+		find("GET", "/users/42").getInt("userId");
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private Match find(String method, String path) {
+		return routes.find(FakeRequest.of(method, path));
+	}
+
+	// (a distinct endpoint - lambdas that capture nothing may be shared)
+	private static Endpoint endpoint() {
+		return new Endpoint() {
+			@Override
+			public void handle(HttpServletRequest req, HttpServletResponse res, Match params) {
+			}
+		};
+	}
+}